@@ -0,0 +1,182 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java benchmarks/*.java
+// java -cp ".;src;benchmarks" benchmarks.CoreBenchmarks
+package benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BenchmarkRunner class is a small timing harness in the spirit of JMH
+ * for machines that only have the JDK. Every benchmark is warmed up, then
+ * measured over several timed iterations; operations run in batches that
+ * grow until one batch takes long enough for System.nanoTime to be precise,
+ * and every result is folded into a sink so the JIT cannot drop the work.
+ * Results are printed as a table and can be written as CSV to compare runs.
+ */
+public class BenchmarkRunner {
+    private static final long MIN_BATCH_NANOS = 100_000;
+
+    /**
+     * One benchmarked operation
+     */
+    @FunctionalInterface
+    public interface Operation {
+        /**
+         * Run the operation once
+         *
+         * @param i Number of the call, to spread calls over the catalog
+         * @return Any result of the call, consumed by the runner
+         */
+        long run(int i);
+    }
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final long iterationNanos;
+    private final String filter;
+    private final List<Result> results = new ArrayList<>();
+    private long sink;
+
+    /**
+     * Constructor for a runner
+     *
+     * @param warmupIterations  Timed iterations to run before measuring
+     * @param measureIterations Timed iterations that are measured
+     * @param iterationMillis   Length of one iteration
+     * @param filter            Only benchmarks whose name contains this run, empty for all
+     */
+    public BenchmarkRunner(int warmupIterations, int measureIterations, long iterationMillis, String filter) {
+        if (measureIterations < 1 || iterationMillis < 1) {
+            throw new IllegalArgumentException("At least one measured iteration of at least 1 ms is needed.");
+        }
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+        this.iterationNanos = iterationMillis * 1_000_000;
+        this.filter = filter;
+    }
+
+    // Methods
+    /**
+     * Warm up and measure one benchmark at one catalog size
+     *
+     * @param name      Benchmark name
+     * @param size      Catalog size the fixture was built with
+     * @param operation Operation to time
+     * @return Measured result, or null if the filter skips the benchmark
+     */
+    public Result run(String name, int size, Operation operation) {
+        if (!name.contains(filter)) {
+            return null;
+        }
+        int[] calls = { 0 };
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(operation, calls);
+        }
+        double[] nanosPerOp = new double[measureIterations];
+        for (int i = 0; i < measureIterations; i++) {
+            nanosPerOp[i] = iteration(operation, calls);
+        }
+        Result result = new Result(name, size, nanosPerOp);
+        results.add(result);
+        return result;
+    }
+
+    // Run batches of calls for one iteration and return the average time of one call
+    private double iteration(Operation operation, int[] calls) {
+        long batch = 1;
+        long operations = 0;
+        long elapsed = 0;
+        long consumed = 0;
+        while (elapsed < iterationNanos) {
+            int call = calls[0];
+            long start = System.nanoTime();
+            for (long n = 0; n < batch; n++) {
+                consumed += operation.run(call++);
+            }
+            long batchNanos = System.nanoTime() - start;
+            calls[0] = call & Integer.MAX_VALUE;
+            elapsed += batchNanos;
+            operations += batch;
+            if (batchNanos < MIN_BATCH_NANOS) {
+                batch *= 2;
+            }
+        }
+        sink += consumed;
+        return (double) elapsed / operations;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    // Folded results of every call, printed so the work cannot be optimized away
+    public long getSink() {
+        return sink;
+    }
+
+    public void printTable(PrintStream out) {
+        out.printf("%-28s %8s %14s %12s %14s%n", "Benchmark", "Size", "ns/op", "+/-", "ops/s");
+        for (Result result : results) {
+            out.printf("%-28s %8d %14.1f %12.1f %14.0f%n", result.getName(), result.getSize(),
+                    result.getMeanNanos(), result.getErrorNanos(), result.getOpsPerSecond());
+        }
+    }
+
+    public void writeCsv(Writer out) throws IOException {
+        out.write("benchmark,size,ns_per_op,error_ns,ops_per_s\n");
+        for (Result result : results) {
+            out.write(result.getName() + "," + result.getSize() + "," + result.getMeanNanos() + ","
+                    + result.getErrorNanos() + "," + result.getOpsPerSecond() + "\n");
+        }
+    }
+
+    /**
+     * Timing of one benchmark at one size
+     */
+    public static final class Result {
+        private final String name;
+        private final int size;
+        private final double meanNanos;
+        private final double errorNanos;
+
+        private Result(String name, int size, double[] nanosPerOp) {
+            this.name = name;
+            this.size = size;
+            double sum = 0;
+            for (double nanos : nanosPerOp) {
+                sum += nanos;
+            }
+            this.meanNanos = sum / nanosPerOp.length;
+            double squares = 0;
+            for (double nanos : nanosPerOp) {
+                squares += (nanos - meanNanos) * (nanos - meanNanos);
+            }
+            // Standard deviation of the iterations, 0 with a single iteration
+            this.errorNanos = nanosPerOp.length > 1 ? Math.sqrt(squares / (nanosPerOp.length - 1)) : 0;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public double getMeanNanos() {
+            return meanNanos;
+        }
+
+        public double getErrorNanos() {
+            return errorNanos;
+        }
+
+        public double getOpsPerSecond() {
+            return meanNanos == 0 ? 0 : 1_000_000_000.0 / meanNanos;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java benchmarks/*.java
+// java -cp ".;src;benchmarks" benchmarks.CoreBenchmarks
+// Options: -Dbench.sizes=10,1000 -Dbench.filter=ticket -Dbench.warmup=3 -Dbench.iterations=5
+//          -Dbench.iterationMillis=500 -Dbench.csv=results.csv
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import src.Cinema;
+import src.Customer;
+import src.CustomerStore;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.Movie;
+import src.Renderer;
+import src.SeatLayout;
+import src.SeatType;
+import src.Showtime;
+import src.Theater;
+import src.Ticket;
+import src.Transaction;
+
+/**
+ * The CoreBenchmarks class times the hot paths of a booking against catalogs
+ * of growing size: seat selection and availability on a Showtime, ticket
+ * lookup and the reserved check, the genre search of the Cinema, the total of
+ * a Transaction and looking up a customer's history. A catalog of size n has
+ * n movies (ten per theater, one showtime each), n reserved tickets and n
+ * customers with one transaction each.
+ * Run it before and after a change and compare the CSV files; numbers from
+ * different machines or JVM options are not comparable.
+ */
+public class CoreBenchmarks {
+    private static final String[] GENRES = { "Action", "Comedy", "Drama", "Horror", "Sci-Fi", "Romance",
+            "Animation", "Documentary" };
+    private static final int MOVIES_PER_THEATER = 10;
+
+    // Catalog of one size
+    private static final class Catalog {
+        final Cinema cinema;
+        final Showtime[] showtimes;
+        final Ticket[] tickets;
+        final int[] ticketIds;
+        final Transaction[] transactions;
+        final String[] phones;
+        final CustomerStore customers;
+
+        Catalog(int size) {
+            List<FoodAndDrink> menu = new ArrayList<>();
+            menu.add(new FoodAndDrink(1, "Popcorn", 5.00));
+            menu.add(new FoodAndDrink(2, "Soda", 3.00));
+            menu.add(new FoodAndDrink(3, "Nachos", 6.50));
+
+            List<Theater> theaters = new ArrayList<>();
+            showtimes = new Showtime[size];
+            List<Movie> movies = null;
+            for (int i = 0; i < size; i++) {
+                if (i % MOVIES_PER_THEATER == 0) {
+                    movies = new ArrayList<>();
+                    theaters.add(new Theater(theaters.size() + 1, (i + 1) + " Main St", movies, menu));
+                }
+                Movie movie = new Movie(i + 1, "Movie " + (i + 1), GENRES[i % GENRES.length]);
+                showtimes[i] = new Showtime(1, "08:00 PM", SeatLayout.standard());
+                movie.addShowtime(showtimes[i]);
+                movies.add(movie);
+            }
+            cinema = new Cinema(theaters);
+
+            tickets = new Ticket[size];
+            ticketIds = new int[size];
+            transactions = new Transaction[size];
+            phones = new String[size];
+            customers = new CustomerStore(size);
+            for (int i = 0; i < size; i++) {
+                int seat = i % 30 + 1;
+                tickets[i] = new Ticket(SeatLayout.standard().getSeatType(seat).name(), "ADULT", seat);
+                tickets[i].reserve();
+                ticketIds[i] = tickets[i].getTicketId();
+
+                phones[i] = String.valueOf(5_550_000_000L + i);
+                Customer customer = new Customer("Customer " + i, "customer" + i + "@example.com", phones[i]);
+                transactions[i] = new Transaction(null, showtimes[i], tickets[i], customer, menu);
+                customer.addTransaction(transactions[i]);
+                customers.add(customer);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = parseSizes(System.getProperty("bench.sizes", "10,100,1000,10000,100000"));
+        BenchmarkRunner runner = new BenchmarkRunner(Integer.getInteger("bench.warmup", 3),
+                Integer.getInteger("bench.iterations", 5), Long.getLong("bench.iterationMillis", 500),
+                System.getProperty("bench.filter", ""));
+        Renderer discard = new Renderer(text -> {
+        });
+        // selectSeat and friends still print; time the printing but not the terminal
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        for (int size : sizes) {
+            resetCatalog();
+            Catalog catalog = new Catalog(size);
+            console.println("Catalog size " + size + "...");
+            int seats = SeatLayout.standard().getCapacity();
+
+            runner.run("showtime.selectSeat", size, i -> {
+                Showtime showtime = catalog.showtimes[i % size];
+                int seat = i % seats + 1;
+                boolean selected = showtime.selectSeat(seat, SeatLayout.standard().getSeatType(seat));
+                showtime.releaseSeat(seat); // Keep the seat free for the next call
+                return selected ? 1 : 0;
+            });
+            runner.run("showtime.getAvailableSeats", size,
+                    i -> catalog.showtimes[i % size].getAvailableSeats(SeatType.REGULAR));
+            runner.run("ticket.findTicketById", size,
+                    i -> Ticket.findTicketById(catalog.ticketIds[i % size]).getSeatNumber());
+            runner.run("ticket.isReserved", size, i -> catalog.tickets[i % size].isReserved() ? 1 : 0);
+            runner.run("cinema.findTheatersByGenre", size, i -> {
+                catalog.cinema.renderTheatersByMovieGenre(GENRES[i % GENRES.length], discard);
+                int length = discard.length();
+                discard.flush();
+                return length;
+            });
+            runner.run("transaction.calculateTotal", size,
+                    i -> Double.doubleToRawLongBits(catalog.transactions[i % size].calculateTotalCost()));
+            runner.run("customer.historyLookup", size, i -> {
+                catalog.customers.findByPhone(catalog.phones[i % size]).renderReservedTickets(discard);
+                int length = discard.length();
+                discard.flush();
+                return length;
+            });
+        }
+        resetCatalog();
+        System.setOut(console);
+
+        runner.printTable(System.out);
+        System.out.println("(sink " + runner.getSink() + ")");
+        String csv = System.getProperty("bench.csv");
+        if (csv != null) {
+            try (Writer out = Files.newBufferedWriter(Paths.get(csv), StandardCharsets.UTF_8)) {
+                runner.writeCsv(out);
+            }
+            System.out.println("Results written to " + csv);
+        }
+    }
+
+    // Let the previous catalog be collected and not count against the entity limits
+    private static void resetCatalog() {
+        Ticket.getRegistry().clear();
+        EntityRegistry.reset(Theater.class);
+        EntityRegistry.reset(Movie.class);
+        EntityRegistry.reset(Showtime.class);
+        EntityRegistry.reset(Ticket.class);
+        EntityRegistry.reset(Transaction.class);
+        EntityRegistry.reset(Customer.class);
+        EntityRegistry.reset(FoodAndDrink.class);
+        System.gc();
+    }
+
+    private static int[] parseSizes(String sizes) {
+        String[] values = sizes.split(",");
+        int[] parsed = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            parsed[i] = Integer.parseInt(values[i].trim());
+            if (parsed[i] < 1) {
+                throw new IllegalArgumentException("Catalog size must be at least 1: " + values[i]);
+            }
+        }
+        return parsed;
+    }
+}
@@ -1,20 +1,52 @@
 package src;
 
 public enum AgePricing {
-    ADULT(1), CHILD(2), SENIOR(3);
+    ADULT(1, "Adult", 0), CHILD(2, "Child", 20), SENIOR(3, "Senior", 20);
+
+    private static final AgePricing[] BY_ID = new AgePricing[4]; // Index is the menu ID
+
+    static {
+        for (AgePricing pricing : values()) {
+            BY_ID[pricing.id] = pricing;
+        }
+    }
 
     private final int id;
+    private final String displayName;
+    private final int discountPercentage;
 
-    AgePricing(int id) {
+    AgePricing(int id, String displayName, int discountPercentage) {
         this.id = id;
+        this.displayName = displayName;
+        this.discountPercentage = discountPercentage;
     }
 
     public static AgePricing getById(int id) {
+        if (id < 0 || id >= BY_ID.length || BY_ID[id] == null) {
+            throw new IllegalArgumentException("Invalid AgePricing ID: " + id);
+        }
+        return BY_ID[id];
+    }
+
+    // Age pricing by name or menu ID, ignoring case, or null if there is none
+    public static AgePricing fromName(String name) {
         for (AgePricing pricing : values()) {
-            if (pricing.id == id) {
+            if (pricing.name().equalsIgnoreCase(name) || String.valueOf(pricing.id).equals(name)) {
                 return pricing;
             }
         }
-        throw new IllegalArgumentException("Invalid AgePricing ID: " + id);
+        return null;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public int getDiscountPercentage() {
+        return discountPercentage;
     }
 }
@@ -0,0 +1,185 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.regex.Pattern;
+
+/**
+ * The BatchBooking class books from a file of booking commands instead of the
+ * console, for group sales, block bookings and replaying a recorded load.
+ * Every line is one booking:
+ *
+ * <pre>
+ * theater movie showtime seatType seat age items payment phone email name
+ * 1 1 1 VIP 5 CHILD 1,2 CARD:1234567890 5551234567 jane@example.com Jane Doe
+ * 1 1 1 REGULAR 30 ADULT - CASH 5551234567 jane@example.com Jane Doe
+ * </pre>
+ *
+ * Items are menu IDs separated by commas, or - for none; empty entries are
+ * skipped. The name is the rest of the line. Blank lines and lines starting with # are skipped.
+ * For each booking one result line is written, "line OK ticketId totalCents"
+ * or "line ERR message", into the given Writer, which should be buffered; the
+ * booking steps themselves print nothing, so a batch costs no console output
+ * per booking.
+ */
+public class BatchBooking {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int FIELDS = 11;
+
+    private final BookingService service;
+    private final BookingSession session = new BookingSession();
+
+    /**
+     * Constructor for a batch that books through a service
+     *
+     * @param service Service to book through
+     */
+    public BatchBooking(BookingService service) {
+        this.service = service;
+    }
+
+    // Methods
+    /**
+     * Book every command read from the input
+     *
+     * @param in  Booking commands, one per line
+     * @param out Receives one result line per booking, flushed at the end
+     * @return Counts and duration of the batch
+     * @throws IOException If reading the commands or writing the results fails
+     */
+    public Result run(BufferedReader in, Writer out) throws IOException {
+        long start = System.nanoTime();
+        int booked = 0;
+        int failed = 0;
+        long revenueCents = 0;
+        StringBuilder line = new StringBuilder(64);
+
+        String command;
+        int lineNumber = 0;
+        while ((command = in.readLine()) != null) {
+            lineNumber++;
+            command = command.trim();
+            if (command.isEmpty() || command.charAt(0) == '#') {
+                continue;
+            }
+            line.setLength(0);
+            line.append(lineNumber);
+            try {
+                Transaction transaction = book(command);
+                line.append(" OK ").append(transaction.getTicket().getTicketId()).append(' ')
+                        .append(transaction.calculateTotalCents());
+                revenueCents += transaction.calculateTotalCents();
+                booked++;
+            } catch (BookingException | RuntimeException e) {
+                // A full entity budget or a failing ledger only fails this line, not the rest of the batch
+                service.abandon(session); // Give back the seat of a booking that failed halfway
+                line.append(" ERR ").append(e.getMessage() != null ? e.getMessage() : e.toString());
+                failed++;
+            }
+            out.append(line).append('\n');
+        }
+        out.flush();
+        return new Result(booked, failed, revenueCents, System.nanoTime() - start);
+    }
+
+    /**
+     * Book one command
+     *
+     * @param command Booking command, see the class description
+     * @return Completed transaction
+     * @throws BookingException If the booking cannot be made
+     */
+    public Transaction book(String command) throws BookingException {
+        String[] fields = WHITESPACE.split(command, FIELDS);
+        if (fields.length < FIELDS) {
+            throw new BookingException("Expected " + FIELDS + " fields but got " + fields.length + ".");
+        }
+        SeatType seatType = SeatType.fromName(fields[3]);
+        if (seatType == null) {
+            throw new BookingException("Unknown seat type: " + fields[3]);
+        }
+        AgePricing agePricing = AgePricing.fromName(fields[5]);
+        if (agePricing == null) {
+            throw new BookingException("Unknown age pricing: " + fields[5]);
+        }
+
+        service.holdSeat(session, number(fields[0]), number(fields[1]), number(fields[2]), seatType,
+                number(fields[4]));
+        service.selectAgePricing(session, agePricing);
+        if (!fields[6].equals("-")) {
+            int from = 0;
+            String items = fields[6];
+            while (from <= items.length()) {
+                int comma = items.indexOf(',', from);
+                int end = comma < 0 ? items.length() : comma;
+                if (end > from) { // Skip empty entries such as the one after a trailing comma
+                    service.addItem(session, number(items.substring(from, end)));
+                }
+                from = end + 1;
+            }
+        }
+        service.setCustomer(session, fields[10], fields[9], fields[8]);
+
+        String payment = fields[7];
+        if (payment.equalsIgnoreCase("CASH")) {
+            return service.confirm(session, BookingService.CASH, null);
+        }
+        if (payment.regionMatches(true, 0, "CARD:", 0, 5)) {
+            return service.confirm(session, BookingService.CREDIT_CARD, payment.substring(5));
+        }
+        throw new BookingException("Payment must be CASH or CARD:number.");
+    }
+
+    private static int number(String value) throws BookingException {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BookingException("Expected a number but got: " + value);
+        }
+    }
+
+    /**
+     * Outcome of a batch
+     */
+    public static final class Result {
+        private final int booked;
+        private final int failed;
+        private final long revenueCents;
+        private final long nanos;
+
+        private Result(int booked, int failed, long revenueCents, long nanos) {
+            this.booked = booked;
+            this.failed = failed;
+            this.revenueCents = revenueCents;
+            this.nanos = nanos;
+        }
+
+        public int getBooked() {
+            return booked;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        // Bookings per minute over the whole batch
+        public long getBookingsPerMinute() {
+            return nanos == 0 ? 0 : booked * 60_000_000_000L / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return booked + " booked, " + failed + " failed, revenue " + Money.format(revenueCents) + ", "
+                    + getBookingsPerMinute() + " bookings per minute";
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package src;
+
+public class BookingException extends Exception {
+    public BookingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,293 @@
+package src;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The BookingServer class lets many box-office terminals book through one
+ * BookingService over a local socket. Every connection is one session served
+ * by its own thread, a virtual thread when the JVM has them and a pooled
+ * daemon thread otherwise, and keeps its own BookingSession.
+ * Terminals send one command per line and get back zero or more tab separated
+ * data lines followed by a line starting with OK or ERR:
+ *
+ * <pre>
+ * THEATERS                                   id, address
+ * MOVIES theater                             id, title, genre
+ * SHOWTIMES theater movie                    id, free seats, time
+ * HOLD theater movie showtime seatType seat  OK ticketId priceCents
+ * AGE ADULT|CHILD|SENIOR                     OK priceCents
+ * ITEM item                                  OK name
+ * CUSTOMER phone email name                  OK
+ * PAY CASH [id] | PAY CARD number [id]       OK ticketId totalCents
+ * ABANDON                                    OK
+ * CANCEL ticketId                            OK ticketId
+ * QUIT                                       OK BYE
+ * </pre>
+ *
+ * A terminal that sends PAY with a request ID of its own and does not get
+ * the answer can send the same PAY again, from any connection; it gets the
+ * ticket of the first payment instead of paying twice. The ID should be
+ * unique across terminals: an ID already used for another seat or card is
+ * answered with ERR.
+ */
+public class BookingServer implements AutoCloseable {
+    private static final int BACKLOG = 1024;
+
+    private final BookingService service;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = newSessionExecutor();
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private final Thread acceptor;
+    private volatile boolean closed;
+
+    /**
+     * Constructor that listens on the loopback address
+     *
+     * @param service Service shared by every session
+     * @param port    Port to listen on, 0 for any free port
+     * @throws IOException If the port cannot be opened
+     */
+    public BookingServer(BookingService service, int port) throws IOException {
+        this.service = service;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.acceptor = new Thread(this::acceptSessions, "booking-server");
+    }
+
+    // One thread per session: virtual threads on Java 21 and later, pooled threads before
+    static ExecutorService newSessionExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "booking-session");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Methods
+    // Start accepting terminals
+    public void start() {
+        acceptor.start();
+    }
+
+    // Wait until the server is closed
+    public void join() throws InterruptedException {
+        acceptor.join();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket connection : connections) {
+            connection.close(); // Ends the session, its held seat is released
+        }
+        sessions.shutdown();
+    }
+
+    private void acceptSessions() {
+        while (!closed) {
+            try {
+                Socket connection = serverSocket.accept();
+                connections.add(connection);
+                sessions.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.println("Could not accept a terminal: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        BookingSession session = new BookingSession();
+        activeSessions.incrementAndGet();
+        try (Socket socket = connection;
+                BufferedReader in = new BufferedReader(
+                        new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                PrintWriter out = new PrintWriter(
+                        new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.print("OK ASAN CINEMA\n");
+            out.flush();
+            StringBuilder reply = new StringBuilder(256);
+            String line;
+            while ((line = in.readLine()) != null) {
+                reply.setLength(0);
+                boolean quit = handle(session, line.trim(), reply);
+                out.print(reply);
+                out.flush();
+                if (quit) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // The terminal went away, drop its booking below
+        } finally {
+            service.abandon(session); // A held seat must not outlive its terminal
+            connections.remove(connection);
+            activeSessions.decrementAndGet();
+        }
+    }
+
+    // Run one command and write its reply, returns true when the terminal quits
+    private boolean handle(BookingSession session, String line, StringBuilder reply) {
+        String[] args = line.split("\\s+");
+        String command = args[0].toUpperCase(Locale.ROOT);
+        try {
+            switch (command) {
+                case "THEATERS":
+                    listTheaters(reply);
+                    break;
+                case "MOVIES":
+                    listMovies(service.findTheater(intArg(args, 1)), reply);
+                    break;
+                case "SHOWTIMES":
+                    listShowtimes(service.findMovie(intArg(args, 1), intArg(args, 2)), reply);
+                    break;
+                case "HOLD":
+                    SeatType seatType = SeatType.fromName(arg(args, 4));
+                    if (seatType == null) {
+                        throw new BookingException("Unknown seat type: " + args[4]);
+                    }
+                    Ticket ticket = service.holdSeat(session, intArg(args, 1), intArg(args, 2), intArg(args, 3),
+                            seatType, intArg(args, 5));
+                    ok(reply).append(ticket.getTicketId()).append(' ').append(ticket.getPriceCents()).append('\n');
+                    break;
+                case "AGE":
+                    AgePricing agePricing = AgePricing.fromName(arg(args, 1));
+                    if (agePricing == null) {
+                        throw new BookingException("Unknown age pricing: " + args[1]);
+                    }
+                    long priceCents = service.selectAgePricing(session, agePricing);
+                    ok(reply).append(priceCents).append('\n');
+                    break;
+                case "ITEM":
+                    ok(reply).append(service.addItem(session, intArg(args, 1)).getName()).append('\n');
+                    break;
+                case "CUSTOMER":
+                    String[] fields = line.split("\\s+", 4);
+                    service.setCustomer(session, arg(fields, 3), arg(fields, 2), arg(fields, 1));
+                    reply.append("OK\n");
+                    break;
+                case "PAY":
+                    pay(session, args, reply);
+                    break;
+                case "ABANDON":
+                    service.abandon(session);
+                    reply.append("OK\n");
+                    break;
+                case "CANCEL":
+                    service.cancelTicket(intArg(args, 1));
+                    ok(reply).append(args[1]).append('\n');
+                    break;
+                case "QUIT":
+                    reply.append("OK BYE\n");
+                    return true;
+                default:
+                    throw new BookingException("Unknown command: " + args[0]);
+            }
+        } catch (BookingException | RuntimeException e) {
+            reply.setLength(0); // Drop any data lines of a command that failed halfway
+            reply.append("ERR ").append(e.getMessage()).append('\n');
+        }
+        return false;
+    }
+
+    private void pay(BookingSession session, String[] args, StringBuilder reply) throws BookingException {
+        String type = arg(args, 1).toUpperCase(Locale.ROOT);
+        Transaction transaction;
+        if (type.equals("CASH")) {
+            transaction = service.confirm(session, BookingService.CASH, null, optionalArg(args, 2));
+        } else if (type.equals("CARD")) {
+            transaction = service.confirm(session, BookingService.CREDIT_CARD, arg(args, 2), optionalArg(args, 3));
+        } else {
+            throw new BookingException("Payment must be CASH or CARD.");
+        }
+        ok(reply).append(transaction.getTicket().getTicketId()).append(' ')
+                .append(transaction.calculateTotalCents()).append('\n');
+    }
+
+    private void listTheaters(StringBuilder reply) {
+        int count = 0;
+        for (Theater theater : service.getCinema().getTheaters()) {
+            reply.append(theater.getTheaterId()).append('\t').append(theater.getAddress()).append('\n');
+            count++;
+        }
+        ok(reply).append(count).append('\n');
+    }
+
+    private void listMovies(Theater theater, StringBuilder reply) {
+        int count = 0;
+        for (Movie movie : theater.getMovies()) {
+            reply.append(movie.getMovieId()).append('\t').append(movie.getTitle()).append('\t')
+                    .append(movie.getGenre()).append('\n');
+            count++;
+        }
+        ok(reply).append(count).append('\n');
+    }
+
+    private void listShowtimes(Movie movie, StringBuilder reply) {
+        int count = 0;
+        for (Showtime showtime : movie.getShowtimes()) {
+            reply.append(showtime.getShowtimeId()).append('\t').append(showtime.getAvailableSeats()).append('\t')
+                    .append(showtime.getTime()).append('\n');
+            count++;
+        }
+        ok(reply).append(count).append('\n');
+    }
+
+    private static StringBuilder ok(StringBuilder reply) {
+        return reply.append("OK ");
+    }
+
+    private static String arg(String[] args, int index) throws BookingException {
+        if (index >= args.length || args[index].isEmpty()) {
+            throw new BookingException("Missing argument " + index + " for " + args[0].toUpperCase(Locale.ROOT)
+                    + ".");
+        }
+        return args[index];
+    }
+
+    private static String optionalArg(String[] args, int index) {
+        return index < args.length && !args[index].isEmpty() ? args[index] : null;
+    }
+
+    private static int intArg(String[] args, int index) throws BookingException {
+        String value = arg(args, index);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BookingException("Expected a number but got: " + value);
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * The BookingService class runs the booking steps of the kiosk (hold a seat,
+ * pick the age pricing and food, pay) without any console input, so many
+ * sessions can book against one shared Cinema at the same time.
+ * Each caller keeps its own BookingSession; the service itself only holds
+ * shared, thread-safe parts: catalog lookups go through the locked catalog
+ * indexes, seats are taken with compare-and-set on the seat map, and sales are
+ * written to the ledger with group commit. Nothing is printed; problems are
+ * reported as a BookingException so every caller can show them its own way.
+ */
+public class BookingService {
+    public static final String CASH = "Cash";
+    public static final String CREDIT_CARD = "Credit Card";
+    public static final int REQUEST_CACHE_SIZE = 100_000;
+    public static final long REQUEST_TTL_MILLIS = 24 * 60 * 60 * 1000; // Retries come within a day
+    private static final Pattern TEN_DIGITS = Pattern.compile("\\d{10}");
+
+    private final Cinema cinema;
+    private final SeatHoldManager holdManager;
+    private final PricingEngine pricingEngine;
+    private final CustomerStore customers; // Customers with a completed sale
+    private final PaymentProcessor payments;
+    private final IdempotencyCache<Transaction> commits; // Completed payments by client request ID
+
+    /**
+     * Constructor that uses the default seat holds and prices
+     *
+     * @param cinema Cinema shared by every session
+     */
+    public BookingService(Cinema cinema) {
+        this(cinema, SeatHoldManager.getDefault(), PricingEngine.getDefault());
+    }
+
+    /**
+     * Constructor with its own seat holds and prices
+     *
+     * @param cinema        Cinema shared by every session
+     * @param holdManager   Manager that expires unpaid seat holds
+     * @param pricingEngine Engine that quotes ticket prices
+     */
+    public BookingService(Cinema cinema, SeatHoldManager holdManager, PricingEngine pricingEngine) {
+        this(cinema, holdManager, pricingEngine, new CustomerStore());
+    }
+
+    /**
+     * Constructor that shares a customer store and authorizes cards through
+     * the default payment processor
+     *
+     * @param cinema        Cinema shared by every session
+     * @param holdManager   Manager that expires unpaid seat holds
+     * @param pricingEngine Engine that quotes ticket prices
+     * @param customers     Store that keeps one record per customer
+     */
+    public BookingService(Cinema cinema, SeatHoldManager holdManager, PricingEngine pricingEngine,
+            CustomerStore customers) {
+        this(cinema, holdManager, pricingEngine, customers, PaymentProcessor.getDefault());
+    }
+
+    /**
+     * Constructor with every shared part given, for example the customer store
+     * of the console kiosk
+     *
+     * @param cinema        Cinema shared by every session
+     * @param holdManager   Manager that expires unpaid seat holds
+     * @param pricingEngine Engine that quotes ticket prices
+     * @param customers     Store that keeps one record per customer
+     * @param payments      Processor that authorizes card payments
+     */
+    public BookingService(Cinema cinema, SeatHoldManager holdManager, PricingEngine pricingEngine,
+            CustomerStore customers, PaymentProcessor payments) {
+        this.cinema = cinema;
+        this.holdManager = holdManager;
+        this.pricingEngine = pricingEngine;
+        this.customers = customers;
+        this.payments = payments;
+        this.commits = new IdempotencyCache<>(REQUEST_CACHE_SIZE, REQUEST_TTL_MILLIS);
+    }
+
+    // Methods
+    /**
+     * Find a showtime in the catalog
+     *
+     * @param theaterId  ID of the theater
+     * @param movieId    ID of the movie in the theater
+     * @param showtimeId ID of the showtime of the movie
+     * @return The showtime
+     * @throws BookingException If any of the IDs is unknown
+     */
+    public Showtime findShowtime(int theaterId, int movieId, int showtimeId) throws BookingException {
+        try {
+            return findMovie(theaterId, movieId).selectShowtime(showtimeId);
+        } catch (ShowtimeNotFoundException e) {
+            throw new BookingException(e.getMessage());
+        }
+    }
+
+    public Movie findMovie(int theaterId, int movieId) throws BookingException {
+        try {
+            return findTheater(theaterId).selectMovie(movieId);
+        } catch (MovieNotFoundException e) {
+            throw new BookingException(e.getMessage());
+        }
+    }
+
+    public Theater findTheater(int theaterId) throws BookingException {
+        try {
+            return cinema.selectTheater(theaterId);
+        } catch (TheaterNotFoundException e) {
+            throw new BookingException(e.getMessage());
+        }
+    }
+
+    /**
+     * Hold a seat for the session and create its ticket at the adult price.
+     * A seat the session held before is released first.
+     *
+     * @param session    Session of the booking
+     * @param theaterId  ID of the theater
+     * @param movieId    ID of the movie
+     * @param showtimeId ID of the showtime
+     * @param seatType   Seat type of the seat
+     * @param seatNumber Seat to hold
+     * @return Ticket of the held seat
+     * @throws BookingException If the showtime is unknown or the seat cannot be held
+     */
+    public Ticket holdSeat(BookingSession session, int theaterId, int movieId, int showtimeId, SeatType seatType,
+            int seatNumber) throws BookingException {
+        Theater theater = findTheater(theaterId);
+        Movie movie = findMovie(theaterId, movieId);
+        Showtime showtime = findShowtime(theaterId, movieId, showtimeId);
+        session.abandonTicket();
+        if (showtime.isCancelled()) {
+            throw new BookingException("Showtime " + showtimeId + " has been cancelled.");
+        }
+
+        SeatLayout layout = showtime.getLayout();
+        if (!layout.isValidSeat(seatNumber) || layout.getSeatType(seatNumber) != seatType) {
+            throw new BookingException("Seat " + seatNumber + " is not a " + seatType + " seat.");
+        }
+        SeatHold seatHold = holdManager.hold(showtime, seatNumber);
+        if (seatHold == null) {
+            throw new BookingException("Seat " + seatNumber + " is already taken.");
+        }
+        Ticket ticket;
+        try {
+            ticket = Ticket.obtain(seatType.name(), AgePricing.ADULT.getDisplayName(), seatNumber);
+        } catch (IllegalStateException e) {
+            seatHold.release(); // No ticket can be made, the session does not own the hold yet
+            throw e;
+        }
+        ticket.setPriceCents(pricingEngine.quote(seatType, AgePricing.ADULT, showtime));
+
+        session.setTheater(theater);
+        session.setMovie(movie);
+        session.setShowtime(showtime);
+        session.setSeatType(seatType);
+        session.setSeatHold(seatHold);
+        session.setTicket(ticket);
+        return ticket;
+    }
+
+    /**
+     * Price the held ticket for an age group
+     *
+     * @param session    Session of the booking
+     * @param agePricing Age group of the ticket
+     * @return Price of the ticket in cents
+     * @throws BookingException If no seat is held
+     */
+    public long selectAgePricing(BookingSession session, AgePricing agePricing) throws BookingException {
+        Ticket ticket = heldTicket(session);
+        long priceCents = pricingEngine.quote(session.getSeatType(), agePricing, session.getShowtime());
+        ticket.setPriceCents(priceCents);
+        ticket.setAgePricing(agePricing.getDisplayName());
+        return priceCents;
+    }
+
+    /**
+     * Add a menu item of the session's theater to the booking
+     *
+     * @param session Session of the booking
+     * @param itemId  ID of the item on the theater's menu
+     * @return The item added
+     * @throws BookingException If no seat is held or the item is not on the menu
+     */
+    public FoodAndDrink addItem(BookingSession session, int itemId) throws BookingException {
+        heldTicket(session);
+        for (FoodAndDrink item : session.getTheater().getMenu()) {
+            if (item.getId() == itemId) {
+                session.getItems().add(item);
+                return item;
+            }
+        }
+        throw new BookingException("Item not found with ID: " + itemId);
+    }
+
+    /**
+     * Set the customer of the booking
+     *
+     * @param session Session of the booking
+     * @param name    Customer name
+     * @param email   Customer email
+     * @param phone   Customer phone number with 10 digits
+     * @return The new customer
+     * @throws BookingException If the phone number is not valid
+     */
+    public Customer setCustomer(BookingSession session, String name, String email, String phone)
+            throws BookingException {
+        if (phone == null || !TEN_DIGITS.matcher(phone).matches()) {
+            throw new BookingException("Phone number must have 10 digits.");
+        }
+        Customer customer = new Customer(name, email, phone);
+        session.setCustomer(customer);
+        return customer;
+    }
+
+    /**
+     * Pay for the booking, reserve the ticket and record the sale. The session
+     * is reset afterwards, ready for the next booking. Waits for the card
+     * authorization, see confirmAsync.
+     *
+     * @param session         Session of the booking
+     * @param transactionType CASH or CREDIT_CARD
+     * @param cardNumber      Card number with 10 digits, ignored for cash
+     * @return The completed transaction
+     * @throws BookingException If the booking is incomplete, the card is not
+     *                          valid or not authorized, or the seat hold ran
+     *                          out and the seat was taken by someone else
+     */
+    public Transaction confirm(BookingSession session, String transactionType, String cardNumber)
+            throws BookingException {
+        return confirm(session, transactionType, cardNumber, null);
+    }
+
+    /**
+     * Pay for the booking at most once per client request ID, see the
+     * confirmAsync with a request ID
+     *
+     * @param session         Session of the booking
+     * @param transactionType CASH or CREDIT_CARD
+     * @param cardNumber      Card number with 10 digits, ignored for cash
+     * @param requestId       ID the client sends again when it retries, or null
+     * @return The completed transaction, the first one for a retried request ID
+     * @throws BookingException If the booking cannot be paid
+     */
+    public Transaction confirm(BookingSession session, String transactionType, String cardNumber,
+            String requestId) throws BookingException {
+        try {
+            return confirmAsync(session, transactionType, cardNumber, requestId).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof BookingException) {
+                throw (BookingException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Pay for the booking without waiting for the card authorization. A cash
+     * booking completes right away; a card is authorized through the payment
+     * processor and the sale is recorded when the answer arrives. The session
+     * must not be used until the returned future completes.
+     * If the card is declined or the authorization times out, the held seat is
+     * given back and the session reset. A card number that is not valid is
+     * rejected before anything is sent and the seat stays held, so the
+     * customer can enter it again.
+     *
+     * @param session         Session of the booking
+     * @param transactionType CASH or CREDIT_CARD
+     * @param cardNumber      Card number with 10 digits, ignored for cash
+     * @return The completed transaction, or completes with a BookingException
+     */
+    public CompletableFuture<Transaction> confirmAsync(BookingSession session, String transactionType,
+            String cardNumber) {
+        boolean cash;
+        try {
+            heldTicket(session);
+            if (session.getCustomer() == null) {
+                throw new BookingException("Customer information is missing.");
+            }
+            cash = CASH.equals(transactionType);
+            if (!cash && !CREDIT_CARD.equals(transactionType)) {
+                throw new BookingException("Unknown transaction type: " + transactionType);
+            }
+            if (!cash && (cardNumber == null || !TEN_DIGITS.matcher(cardNumber).matches())) {
+                throw new BookingException("Card number must have 10 digits.");
+            }
+            if (cash) {
+                return CompletableFuture.completedFuture(completeSale(session, null, null));
+            }
+        } catch (BookingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return payments.authorize(cardNumber, session.getAmountDueCents()).handle((authorizationCode, error) -> {
+            if (error != null) {
+                abandon(session); // Not paid, the seat goes back
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                throw new CompletionException(new BookingException(cause.getMessage()));
+            }
+            try {
+                return completeSale(session, cardNumber, authorizationCode);
+            } catch (BookingException e) {
+                payments.voidAuthorization(authorizationCode); // Paid for a seat that is gone
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Pay for the booking at most once per client request ID. A client that
+     * did not get the answer, because the connection dropped or it timed out,
+     * sends the payment again with the same ID and gets the transaction of the
+     * first attempt, even while that attempt is still waiting for the card;
+     * the session of the retry is not touched. A failed attempt does not keep
+     * its ID, so the client can try again. A retry must pay the same way with
+     * the same card, and if its session holds a seat, it must be the same seat
+     * at the same price; otherwise the ID belongs to another booking and the
+     * payment fails.
+     *
+     * @param session         Session of the booking
+     * @param transactionType CASH or CREDIT_CARD
+     * @param cardNumber      Card number with 10 digits, ignored for cash
+     * @param requestId       ID the client sends again when it retries, or null
+     *                        to pay without it
+     * @return The completed transaction, or completes with a BookingException,
+     *         or an IllegalArgumentException if the request ID was used for a
+     *         different booking
+     */
+    public CompletableFuture<Transaction> confirmAsync(BookingSession session, String transactionType,
+            String cardNumber, String requestId) {
+        if (requestId == null) {
+            return confirmAsync(session, transactionType, cardNumber);
+        }
+        return commits.execute(requestId, new PaymentRequest(session, transactionType, cardNumber),
+                () -> confirmAsync(session, transactionType, cardNumber));
+    }
+
+    // Take the held seat for good and record the sale, a null card means cash
+    private Transaction completeSale(BookingSession session, String cardNumber, String authorizationCode)
+            throws BookingException {
+        Ticket ticket = heldTicket(session);
+        boolean cash = cardNumber == null;
+        Showtime showtime = session.getShowtime();
+        if (showtime.isCancelled()) {
+            abandon(session);
+            throw new BookingException("Showtime " + showtime.getShowtimeId() + " has been cancelled.");
+        }
+
+        // Keep the held seat, or take it again if the hold ran out and nobody else took it
+        SeatHold seatHold = session.getSeatHold();
+        if (!seatHold.confirm() && !showtime.getSeatMap().reserve(seatHold.getSeatNumber())) {
+            session.setSeatHold(null); // Nothing left to release
+            session.abandonTicket();
+            session.reset();
+            throw new BookingException("The hold on seat " + seatHold.getSeatNumber()
+                    + " expired and the seat was taken.");
+        }
+
+        Transaction transaction = Transaction.obtain();
+        transaction.setTransactionType(cash ? CASH : CREDIT_CARD);
+        transaction.setCard(cardNumber);
+        transaction.setAuthorizationCode(authorizationCode);
+        transaction.setTheater(session.getTheater());
+
+        // A returning customer books on their existing record
+        // Link the sale before the ticket is registered, so cancelShowtime finds it by its showtime
+        Customer customer = customers.add(session.getCustomer());
+        ticket.setTransaction(transaction);
+        transaction.recordSale(customer, session.getMovie(), showtime, ticket, session.getItems());
+        ticket.reserve();
+        if (transaction.undoIfCancelled()) {
+            session.reset();
+            throw new BookingException("Showtime " + showtime.getShowtimeId() + " has been cancelled.");
+        }
+        customer.addTransaction(transaction);
+        session.reset();
+        return transaction;
+    }
+
+    /**
+     * Drop the booking in progress and give its seat back
+     *
+     * @param session Session of the booking
+     */
+    public void abandon(BookingSession session) {
+        session.abandonTicket();
+        session.reset();
+    }
+
+    /**
+     * Cancel a reserved ticket, free its seat and refund its transaction
+     *
+     * @param ticketId ID of the ticket
+     * @return The refunded transaction
+     * @throws BookingException If the ticket is unknown or not reserved
+     */
+    public Transaction cancelTicket(int ticketId) throws BookingException {
+        Ticket ticket = Ticket.findTicketById(ticketId);
+        if (ticket == null) {
+            throw new BookingException("Ticket with ID " + ticketId + " not found.");
+        }
+        Transaction transaction = ticket.getTransaction();
+        if (!Ticket.getRegistry().unregister(ticket)) {
+            throw new BookingException("Ticket with ID " + ticketId + " is already canceled.");
+        }
+        ticket.cancelReservation();
+        if (transaction != null) {
+            transaction.getShowtime().releaseSeat(ticket.getSeatNumber());
+            transaction.processRefund(true);
+        }
+        return transaction;
+    }
+
+    /**
+     * Cancel every reserved ticket of a showtime, for example when the
+     * screening is called off. The tickets leave the registry under one lock,
+     * their seats are freed with one bitmap update per row and the refunds are
+     * written to the ledger together. The showtime takes no new holds or
+     * sales afterwards; bookings still unpaid fail when they try to pay. The
+     * cancellation goes into the ledger ahead of the refunds, and snapshots
+     * save it, so the showtime stays closed after a restart.
+     *
+     * @param showtime Showtime to cancel
+     * @return Canceled sales and the amount refunded
+     */
+    public Cancellation cancelShowtime(Showtime showtime) {
+        return cancelAll(Collections.singleton(showtime));
+    }
+
+    /**
+     * Cancel every reserved ticket of every showtime of a movie
+     *
+     * @param movie Movie to cancel
+     * @return Canceled sales and the amount refunded
+     */
+    public Cancellation cancelMovie(Movie movie) {
+        Set<Showtime> showtimes = Collections.newSetFromMap(new IdentityHashMap<>());
+        showtimes.addAll(movie.getShowtimes());
+        return cancelAll(showtimes);
+    }
+
+    private Cancellation cancelAll(Set<Showtime> showtimes) {
+        // Close the showtimes first, a sale that registers its ticket after the sweep sees this and backs out
+        for (Showtime showtime : showtimes) {
+            showtime.cancel();
+        }
+        List<Ticket> tickets = Ticket.getRegistry().unregisterAll(ticket -> ticket.getTransaction() != null
+                && showtimes.contains(ticket.getTransaction().getShowtime()));
+
+        // Group the tickets by showtime so each seat map is updated once
+        IdentityHashMap<Showtime, List<Ticket>> byShowtime = new IdentityHashMap<>();
+        List<Transaction> transactions = new ArrayList<>(tickets.size());
+        for (Ticket ticket : tickets) {
+            ticket.releaseUnregistered();
+            transactions.add(ticket.getTransaction());
+            byShowtime.computeIfAbsent(ticket.getTransaction().getShowtime(), showtime -> new ArrayList<>())
+                    .add(ticket);
+        }
+        for (Map.Entry<Showtime, List<Ticket>> entry : byShowtime.entrySet()) {
+            List<Ticket> canceled = entry.getValue();
+            int[] seatNumbers = new int[canceled.size()];
+            for (int i = 0; i < seatNumbers.length; i++) {
+                seatNumbers[i] = canceled.get(i).getSeatNumber();
+            }
+            entry.getKey().releaseSeats(seatNumbers);
+        }
+        return new Cancellation(transactions, Transaction.processRefunds(transactions, cancelEvents(showtimes)));
+    }
+
+    // Ledger entries that close the showtimes, so a restart finds them canceled too
+    private List<TransactionLedger.Entry> cancelEvents(Set<Showtime> showtimes) {
+        List<TransactionLedger.Entry> events = new ArrayList<>();
+        for (Theater theater : cinema.getTheaters()) {
+            for (Movie movie : theater.getMovies()) {
+                for (Showtime showtime : movie.getShowtimes()) {
+                    if (showtimes.contains(showtime)) {
+                        events.add(TransactionLedger.Entry.showtimeCanceled(theater.getTheaterId(),
+                                movie.getMovieId(), showtime.getShowtimeId()));
+                    }
+                }
+            }
+        }
+        return events;
+    }
+
+    // Customers with at least one sale through this service
+    public List<Customer> getCustomers() {
+        return customers.getCustomers();
+    }
+
+    public CustomerStore getCustomerStore() {
+        return customers;
+    }
+
+    public Cinema getCinema() {
+        return cinema;
+    }
+
+    private Ticket heldTicket(BookingSession session) throws BookingException {
+        if (session.getTicket() == null || session.getSeatHold() == null) {
+            throw new BookingException("No seat is held for this booking.");
+        }
+        return session.getTicket();
+    }
+
+    // What a payment is for, so a retried request ID can be checked against the first payment
+    private static final class PaymentRequest implements IdempotencyCache.Fingerprint {
+        private final String transactionType;
+        private final String cardNumber;
+        private final Showtime showtime; // Null when the session holds no seat, as when retrying from a new one
+        private final int seatNumber;
+        private final long amountCents;
+
+        PaymentRequest(BookingSession session, String transactionType, String cardNumber) {
+            boolean held = session.getTicket() != null && session.getSeatHold() != null;
+            this.transactionType = transactionType;
+            this.cardNumber = CASH.equals(transactionType) ? null : cardNumber;
+            this.showtime = held ? session.getShowtime() : null;
+            this.seatNumber = held ? session.getSeatHold().getSeatNumber() : 0;
+            this.amountCents = held ? session.getAmountDueCents() : 0;
+        }
+
+        @Override
+        public boolean matches(IdempotencyCache.Fingerprint first) {
+            PaymentRequest original = (PaymentRequest) first;
+            if (!Objects.equals(transactionType, original.transactionType)
+                    || !Objects.equals(cardNumber, original.cardNumber)) {
+                return false;
+            }
+            return showtime == null || (showtime == original.showtime && seatNumber == original.seatNumber
+                    && amountCents == original.amountCents);
+        }
+    }
+
+    /**
+     * Outcome of a bulk cancellation
+     */
+    public static final class Cancellation {
+        private final List<Transaction> transactions;
+        private final long refundedCents;
+
+        private Cancellation(List<Transaction> transactions, long refundedCents) {
+            this.transactions = transactions;
+            this.refundedCents = refundedCents;
+        }
+
+        // Canceled sales, one per ticket
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        public int getCanceled() {
+            return transactions.size();
+        }
+
+        // Amount refunded to cards, cash sales are not refunded
+        public long getRefundedCents() {
+            return refundedCents;
+        }
+
+        @Override
+        public String toString() {
+            return transactions.size() + " tickets canceled, " + Money.format(refundedCents) + " refunded";
+        }
+    }
+}
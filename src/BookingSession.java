@@ -0,0 +1,160 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BookingSession class holds the choices of the booking a kiosk is
+ * working on: theater, movie, showtime, seat, food and customer. The kiosk
+ * keeps one session and resets it after every booking, so taking booking
+ * after booking needs no new objects and keeps nothing from earlier customers.
+ */
+public class BookingSession {
+    private Theater theater;
+    private Movie movie;
+    private Showtime showtime;
+    private SeatType seatType;
+    private Ticket ticket;
+    private SeatHold seatHold; // Seat kept for the customer until the transaction completes
+    private final List<FoodAndDrink> items = new ArrayList<>();
+    private Customer customer;
+    private Transaction transaction;
+    private boolean byGenre; // Theater was picked from the genre list
+
+    // Methods
+    /**
+     * Give back the held seat of a booking that is not going ahead
+     *
+     * @return True if a held seat was released
+     */
+    public boolean releaseHold() {
+        boolean released = seatHold != null && seatHold.release();
+        seatHold = null;
+        return released;
+    }
+
+    /**
+     * Drop the ticket of a booking that is not going ahead, releasing its seat.
+     * The kiosk registers the ticket before payment, so a registered ticket is
+     * canceled first.
+     */
+    public void abandonTicket() {
+        releaseHold();
+        if (ticket != null) {
+            if (ticket.isReserved()) {
+                ticket.cancelReservation();
+            }
+            Ticket.recycle(ticket);
+            ticket = null;
+        }
+    }
+
+    /**
+     * Return the amount to pay: the ticket at its current price and the food
+     *
+     * @return Amount due in cents, 0 without a ticket
+     */
+    public long getAmountDueCents() {
+        if (ticket == null) {
+            return 0;
+        }
+        long amountCents = ticket.getPriceCents();
+        for (FoodAndDrink item : items) {
+            amountCents += item.getPriceCents();
+        }
+        return amountCents;
+    }
+
+    /**
+     * Clear every choice so the session can take the next booking
+     */
+    public void reset() {
+        theater = null;
+        movie = null;
+        showtime = null;
+        seatType = null;
+        ticket = null;
+        seatHold = null;
+        items.clear();
+        customer = null;
+        transaction = null;
+        byGenre = false;
+    }
+
+    // Getters and Setters
+    public Theater getTheater() {
+        return theater;
+    }
+
+    public void setTheater(Theater theater) {
+        this.theater = theater;
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+
+    public void setMovie(Movie movie) {
+        this.movie = movie;
+    }
+
+    public Showtime getShowtime() {
+        return showtime;
+    }
+
+    public void setShowtime(Showtime showtime) {
+        this.showtime = showtime;
+    }
+
+    public SeatType getSeatType() {
+        return seatType;
+    }
+
+    public void setSeatType(SeatType seatType) {
+        this.seatType = seatType;
+    }
+
+    public Ticket getTicket() {
+        return ticket;
+    }
+
+    public void setTicket(Ticket ticket) {
+        this.ticket = ticket;
+    }
+
+    public SeatHold getSeatHold() {
+        return seatHold;
+    }
+
+    public void setSeatHold(SeatHold seatHold) {
+        this.seatHold = seatHold;
+    }
+
+    public List<FoodAndDrink> getItems() {
+        return items;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    public void setTransaction(Transaction transaction) {
+        this.transaction = transaction;
+    }
+
+    public boolean isByGenre() {
+        return byGenre;
+    }
+
+    public void setByGenre(boolean byGenre) {
+        this.byGenre = byGenre;
+    }
+}
@@ -0,0 +1,127 @@
+package src;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * The CatalogIndex class keeps an int ID index next to a list of theaters,
+ * movies or showtimes so a lookup by ID is a single hash probe instead of a
+ * scan of the list. The list stays the owner of the order and the contents;
+ * the index only remembers where to find each ID.
+ * The lists are handed out through getters (and Main shares one movie list
+ * between theaters), so the index also notices changes made around it: a hit
+ * whose ID no longer matches, or a miss while the list has changed size, makes
+ * it rebuild from the list before answering.
+ * Every method locks the index, so booking sessions on many threads can look
+ * items up while the catalog is being edited through add and remove.
+ *
+ * @param <T> Type of the indexed items
+ */
+public final class CatalogIndex<T> {
+    private final ToIntFunction<T> idOf;
+    private final LongHashMap<T> byId = new LongHashMap<>();
+    private List<T> items;
+    private int indexedSize;
+
+    /**
+     * Constructor that indexes an existing list
+     *
+     * @param items List to index, kept by reference
+     * @param idOf  Function returning the ID of an item
+     */
+    public CatalogIndex(List<T> items, ToIntFunction<T> idOf) {
+        this.idOf = idOf;
+        setItems(items);
+    }
+
+    // Methods
+    /**
+     * Return the item with the given ID. When the list holds the same ID more
+     * than once the first one wins, like the scans this replaces.
+     *
+     * @param id ID to look for
+     * @return Matching item, or null if the list has none
+     */
+    public synchronized T find(int id) {
+        T item = byId.get(id);
+        if (item != null && idOf.applyAsInt(item) == id) {
+            return item;
+        }
+        if (item != null || items.size() != indexedSize) {
+            rebuild(); // The list or an item's ID changed behind the index
+            item = byId.get(id);
+        }
+        return item;
+    }
+
+    public boolean contains(int id) {
+        return find(id) != null;
+    }
+
+    // Add an item to the list and the index
+    public synchronized void add(T item) {
+        syncIfChanged();
+        items.add(item);
+        putIfAbsent(item);
+        indexedSize = items.size();
+    }
+
+    /**
+     * Remove an item from the list and the index
+     *
+     * @param item Item to remove
+     * @return true if the item was in the list
+     */
+    public synchronized boolean remove(T item) {
+        syncIfChanged();
+        if (!items.remove(item)) {
+            return false;
+        }
+        int id = idOf.applyAsInt(item);
+        if (byId.get(id) == item) {
+            byId.remove(id);
+            // Another item with the same ID may have been hidden behind the removed one
+            for (T other : items) {
+                if (idOf.applyAsInt(other) == id) {
+                    byId.put(id, other);
+                    break;
+                }
+            }
+        }
+        indexedSize = items.size();
+        return true;
+    }
+
+    // Point the index at a new list
+    public synchronized void setItems(List<T> items) {
+        this.items = items;
+        rebuild();
+    }
+
+    public synchronized List<T> getItems() {
+        return items;
+    }
+
+    private void syncIfChanged() {
+        if (items.size() != indexedSize) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        byId.clear();
+        if (items != null) {
+            for (T item : items) {
+                putIfAbsent(item);
+            }
+        }
+        indexedSize = items == null ? 0 : items.size();
+    }
+
+    private void putIfAbsent(T item) {
+        int id = idOf.applyAsInt(item);
+        if (!byId.containsKey(id)) {
+            byId.put(id, item);
+        }
+    }
+}
@@ -1,46 +1,95 @@
 package src;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class Cinema {
     private List<Theater> theaters;
-    private static int instanceCount = 0; // Class-level variable to track instances
-    private static final int MAX_INSTANCES = 100; // Maximum allowed instances
+    private CatalogIndex<Theater> theaterIndex;
+    private GenreIndex genreIndex;
+    private boolean released; // No longer counted by the EntityRegistry
 
     // constructor
     public Cinema() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Cinema instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Cinema.class)) {
+            throw new IllegalStateException("Maximum number of Cinema instances ("
+                    + EntityRegistry.getCapacity(Cinema.class) + ") reached.");
         }
-        instanceCount++; // Increment the instance count on successful creation
         this.theaters = new ArrayList<>();
+        this.theaterIndex = new CatalogIndex<>(theaters, Theater::getTheaterId);
+        this.genreIndex = new GenreIndex(theaters);
     }
 
     public Cinema(List<Theater> theaters) {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Cinema instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Cinema.class)) {
+            throw new IllegalStateException("Maximum number of Cinema instances ("
+                    + EntityRegistry.getCapacity(Cinema.class) + ") reached.");
         }
-        instanceCount++; // Increment the instance count on successful creation
         this.theaters = theaters;
+        this.theaterIndex = new CatalogIndex<>(theaters, Theater::getTheaterId);
+        this.genreIndex = new GenreIndex(theaters);
     }
 
     // Method to reset the cinema count (for testing purposes)
     public static void resetCinemaCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Cinema.class);
     }
 
     // Methods
+    /**
+     * Stop counting this cinema and its catalog, for when it is replaced (for
+     * example by a restored snapshot). Theaters, movies, showtimes and menu
+     * items listed more than once are released once.
+     */
+    public synchronized void release() {
+        if (released) {
+            return;
+        }
+        released = true;
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Theater theater : theaters) {
+            if (!seen.add(theater)) {
+                continue;
+            }
+            EntityRegistry.release(Theater.class);
+            if (theater.getMovies() != null) {
+                theater.getMovies().forEach(Movie::release);
+            }
+            if (theater.getMenu() != null) {
+                for (FoodAndDrink food : theater.getMenu()) {
+                    if (seen.add(food)) {
+                        EntityRegistry.release(FoodAndDrink.class);
+                    }
+                }
+            }
+        }
+        EntityRegistry.release(Cinema.class);
+    }
+
     /**
      * Display theaters in cinema
      */
     public void listTheaters() {
+        Renderer renderer = Renderer.console();
+        renderTheaters(renderer);
+        renderer.flush();
+    }
+
+    /**
+     * Render theaters in cinema without flushing
+     *
+     * @param renderer Renderer to add the theater list to
+     */
+    public void renderTheaters(Renderer renderer) {
         for (Theater theater : theaters) {
-            System.out.println("Theater ID: " + theater.getTheaterId() + ", Address: " + theater.getAddress());
-            theater.showAllMovieInTheater();
-            System.out.println("");
+            renderer.text("Theater ID: ").number(theater.getTheaterId()).text(", Address: ")
+                    .line(theater.getAddress());
+            theater.renderAllMovies(renderer);
+            renderer.line();
         }
     }
 
@@ -50,16 +99,19 @@ public class Cinema {
      * @param theater Theater to add to cinema
      */
     public void addTheater(Theater theater) {
-        theaters.add(theater);
+        theaterIndex.add(theater);
+        genreIndex.theaterAdded(theater);
     }
 
     /**
      * Display all movies in all theater
      */
     public void listMoviesInAllTheater() {
+        Renderer renderer = Renderer.console();
         for (Theater theater : theaters) {
-            theater.listMovies(); // Call listMovies for each theater
+            theater.renderMovies(renderer); // Every theater's movies in one write
         }
+        renderer.flush();
     }
 
     /**
@@ -70,28 +122,30 @@ public class Cinema {
      * @throws TheaterNotFoundException
      */
     public Theater selectTheater(int theaterId) throws TheaterNotFoundException {
-
-        for (Theater theater : theaters) {
-            if (theater.getTheaterId() == theaterId) {
-                return theater;
-            }
+        Theater theater = theaterIndex.find(theaterId);
+        if (theater != null) {
+            return theater;
         }
-
         throw new TheaterNotFoundException("Theater not found with ID: " + theaterId);
     }
 
     /**
      * Return all available genres in Cinema
      * 
-     * @return Set of genres available
+     * @return Read-only set of genres available
      */
     public Set<String> availableGenresInCinema() {
-        Set<String> genres = new HashSet<>();
+        return genreIndex.getGenres();
+    }
 
-        for (Theater theater : theaters) {
-            genres.addAll(theater.availableGenresInTheater());
-        }
-        return genres;
+    /**
+     * Check if any theater shows a movie of the genre, ignoring case
+     * 
+     * @param genre Genre to look for
+     * @return true if the genre is showing
+     */
+    public boolean isGenreShowing(String genre) {
+        return genreIndex.hasGenre(genre);
     }
 
     /**
@@ -100,18 +154,27 @@ public class Cinema {
      * @param genre Genre that the customer want
      */
     public void findTheatersByMovieGenre(String genre) {
-        List<Theater> theatersWithMovie = new ArrayList<>();
+        Renderer renderer = Renderer.console();
+        renderTheatersByMovieGenre(genre, renderer);
+        renderer.flush();
+    }
 
-        for (Theater theater : theaters) {
-            if (theater.isMovieShowing(genre)) {
-                theatersWithMovie.add(theater);
+    /**
+     * Render all theaters with specified genre without flushing
+     * 
+     * @param genre    Genre that the customer want
+     * @param renderer Renderer to add the theaters to
+     */
+    public void renderTheatersByMovieGenre(String genre, Renderer renderer) {
+        for (Map.Entry<Theater, List<Movie>> entry : genreIndex.find(genre).entrySet()) {
+            Theater theater = entry.getKey();
+            renderer.text("Theater ID: ").number(theater.getTheaterId()).text(", Address: ")
+                    .line(theater.getAddress());
+            for (Movie movie : entry.getValue()) {
+                renderer.text("    Movie ID: ").number(movie.getMovieId()).text(", Title: ").text(movie.getTitle())
+                        .text(", Genre: ").line(movie.getGenre());
             }
-        }
-
-        for (Theater theater : theatersWithMovie) {
-            System.out.println("Theater ID: " + theater.getTheaterId() + ", Address: " + theater.getAddress());
-            theater.showAllMovieInTheater(genre);
-            System.out.println("");
+            renderer.line();
         }
     }
 
@@ -124,13 +187,12 @@ public class Cinema {
         return theaters.size();
     }
 
+    public List<Theater> getTheaters() {
+        return theaters;
+    }
+
     public boolean isValidTheater(int theaterId) {
-        for (Theater theater : theaters) {
-            if (theater.getTheaterId() == theaterId) {
-                return true;
-            }
-        }
-        return false;
+        return theaterIndex.contains(theaterId);
     }
 
     @Override
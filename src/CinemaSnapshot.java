@@ -0,0 +1,771 @@
+package src;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The CinemaSnapshot class saves and restores the whole state of a node:
+ * the Cinema with its theaters, movies and showtimes (including the seat
+ * bitmaps and demand curves), the reserved tickets and the customers with their transactions.
+ * Objects are written once each in flat tables and referenced by index, so
+ * objects that were shared before saving (a movie list used by two theaters,
+ * a layout used by many showtimes) are shared again after restoring. Seat maps
+ * are stored as their row words, and the file is read through a memory map,
+ * so restoring is mostly sequential reads with no parsing of text.
+ * A snapshot remembers the ledger position it was taken at; replay() applies
+ * the sales, refunds and showtime cancellations that the ledger recorded
+ * after that point.
+ */
+public final class CinemaSnapshot {
+    private static final int MAGIC = 0x43494E53; // "CINS"
+    // Version 2 saves the theater of every transaction, 3 saves prices in cents, 4 saves canceled showtimes,
+    // 5 saves demand curves
+    private static final int VERSION = 5;
+    private static final int NONE = -1;
+
+    private final Cinema cinema;
+    private final List<Customer> customers;
+    private final long ledgerPosition;
+    private LongHashMap<Customer> customersByPhone; // Built on the first replay
+
+    private CinemaSnapshot(Cinema cinema, List<Customer> customers, long ledgerPosition) {
+        this.cinema = cinema;
+        this.customers = customers;
+        this.ledgerPosition = ledgerPosition;
+    }
+
+    // Methods
+    /**
+     * Save a cinema, every reserved ticket and the given customers. The file is
+     * written next to its final name and then moved over it, so a crash never
+     * leaves a half written snapshot behind.
+     *
+     * @param file           Snapshot file
+     * @param cinema         Cinema to save
+     * @param customers      Customers to save with their transaction history
+     * @param ledgerPosition Ledger position the state includes, or TransactionLedger.HEADER_SIZE without a ledger
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, Cinema cinema, Collection<Customer> customers, long ledgerPosition)
+            throws IOException {
+        write(file, cinema, customers, ledgerPosition, List.of());
+    }
+
+    /**
+     * Save a cinema as above, with seats that are only held by unfinished
+     * bookings saved as free. Nobody owns those holds after a restart, so they
+     * would otherwise never be given back.
+     *
+     * @param file           Snapshot file
+     * @param cinema         Cinema to save
+     * @param customers      Customers to save with their transaction history
+     * @param ledgerPosition Ledger position the state includes, or TransactionLedger.HEADER_SIZE without a ledger
+     * @param heldSeats      Holds that are still active, see SeatHoldManager.getHeldSeats
+     * @throws IOException If the file cannot be written
+     */
+    public static void write(Path file, Cinema cinema, Collection<Customer> customers, long ledgerPosition,
+            Collection<SeatHold> heldSeats) throws IOException {
+        Writer writer = new Writer();
+        writer.writeAll(cinema, customers, ledgerPosition, heldSeats);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer bytes = writer.out.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restore a snapshot. Tickets that were reserved are registered again.
+     * The restored catalog is counted by the EntityRegistry, so a running
+     * cinema that it replaces should be released with Cinema.release.
+     *
+     * @param file Snapshot file
+     * @return Restored state
+     * @throws IOException If the file cannot be read or is not a snapshot
+     */
+    public static CinemaSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 16 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                throw new IOException(file + " is not a cinema snapshot.");
+            }
+            return new Reader(in).readAll();
+        }
+    }
+
+    /**
+     * Apply the sales, refunds and showtime cancellations the ledger recorded
+     * after this snapshot was taken. Entries that the snapshot already contains are skipped, so
+     * replaying twice changes nothing. A replayed sale gets a Transaction
+     * linked to its theater, movie, showtime and customer, so it can be
+     * canceled like any other; its ticket carries the amount paid as its
+     * price, since the ledger only records the total. A replayed refund frees
+     * the seat only if the refund did.
+     *
+     * @param ledger Ledger of this node
+     * @return Number of entries that changed the state
+     */
+    public int replay(TransactionLedger ledger) {
+        int applied = 0;
+        for (TransactionLedger.Entry entry : ledger.readFrom(ledgerPosition)) {
+            if (apply(entry)) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private boolean apply(TransactionLedger.Entry entry) {
+        if (entry.isShowtimeCanceled()) {
+            Showtime showtime = findShowtime(findMovie(findTheater(entry), entry.getMovieId()), entry.getShowtimeId());
+            if (showtime == null || showtime.isCancelled()) {
+                return false;
+            }
+            showtime.cancel();
+            return true;
+        }
+        Ticket existing = Ticket.findTicketById(entry.getTicketId());
+        if (entry.isRefund()) {
+            if (existing == null) {
+                return false;
+            }
+            existing.cancelReservation();
+            if (entry.isSeatReleased()) {
+                Transaction transaction = existing.getTransaction();
+                Showtime showtime = transaction != null && transaction.getShowtime() != null
+                        ? transaction.getShowtime()
+                        : findShowtime(findMovie(findTheater(entry), entry.getMovieId()), entry.getShowtimeId());
+                if (showtime != null) {
+                    showtime.releaseSeat(existing.getSeatNumber());
+                }
+            }
+            return true;
+        }
+        if (existing != null) {
+            return false;
+        }
+
+        Theater theater = findTheater(entry);
+        Movie movie = findMovie(theater, entry.getMovieId());
+        Showtime showtime = findShowtime(movie, entry.getShowtimeId());
+        if (showtime != null && showtime.getSeatMap().isValidSeat(entry.getSeatNumber())) {
+            showtime.getSeatMap().reserve(entry.getSeatNumber()); // Already taken if it was held at snapshot time
+        }
+        Ticket ticket = new Ticket();
+        ticket.setTicketId(entry.getTicketId());
+        ticket.setSeatType(entry.getSeatType() == null ? null : entry.getSeatType().name());
+        ticket.setAgePricing(entry.getAgePricing() == null ? null : entry.getAgePricing().getDisplayName());
+        ticket.setSeatNumber(entry.getSeatNumber());
+        ticket.setPriceCents(entry.getAmountCents());
+
+        Transaction transaction = new Transaction(movie, showtime, ticket);
+        transaction.setTheater(theater);
+        transaction.setItems(new ArrayList<>()); // Food is part of the amount paid
+        transaction.setTransactionType(entry.isCardPayment() ? "Credit Card" : "Cash");
+        transaction.setTransactionTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.getTimestampMillis()),
+                ZoneId.systemDefault()));
+        Customer customer = findCustomer(entry.getPhoneKey());
+        transaction.setCustomer(customer);
+        if (customer != null) {
+            customer.addTransaction(transaction);
+        }
+        ticket.setTransaction(transaction);
+        ticket.reserve();
+        return true;
+    }
+
+    // Theater of an entry; entries written without one take the first theater showing the movie
+    private Theater findTheater(TransactionLedger.Entry entry) {
+        if (entry.getTheaterId() != 0) {
+            try {
+                return cinema.selectTheater(entry.getTheaterId());
+            } catch (TheaterNotFoundException e) {
+                return null;
+            }
+        }
+        for (Theater theater : cinema.getTheaters()) {
+            if (findMovie(theater, entry.getMovieId()) != null) {
+                return theater;
+            }
+        }
+        return null;
+    }
+
+    private static Movie findMovie(Theater theater, int movieId) {
+        if (theater == null) {
+            return null;
+        }
+        try {
+            return theater.selectMovie(movieId);
+        } catch (MovieNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Showtime findShowtime(Movie movie, int showtimeId) {
+        if (movie == null) {
+            return null;
+        }
+        try {
+            return movie.selectShowtime(showtimeId);
+        } catch (ShowtimeNotFoundException e) {
+            return null;
+        }
+    }
+
+    // Customer with the phone of the sale, added to the customers if the snapshot does not have them yet
+    private Customer findCustomer(long phoneKey) {
+        if (phoneKey == 0) {
+            return null;
+        }
+        if (customersByPhone == null) {
+            customersByPhone = new LongHashMap<>(customers.size());
+            for (Customer customer : customers) {
+                long key = Customer.toPhoneKey(customer.getPhone());
+                if (key != 0) {
+                    customersByPhone.put(key, customer);
+                }
+            }
+        }
+        Customer customer = customersByPhone.get(phoneKey);
+        if (customer == null) {
+            // The key is a leading 1 followed by the digits of the phone number
+            customer = new Customer("", "", Long.toString(phoneKey).substring(1));
+            customers.add(customer);
+            customersByPhone.put(phoneKey, customer);
+        }
+        return customer;
+    }
+
+    // Getters
+    public Cinema getCinema() {
+        return cinema;
+    }
+
+    public List<Customer> getCustomers() {
+        return customers;
+    }
+
+    public long getLedgerPosition() {
+        return ledgerPosition;
+    }
+
+    // Gives every object an index the first time it is seen
+    private static final class Table<T> {
+        private final Map<T, Integer> indexes = new IdentityHashMap<>();
+        private final List<T> items = new ArrayList<>();
+
+        int add(T item) {
+            if (item == null) {
+                return NONE;
+            }
+            Integer index = indexes.get(item);
+            if (index == null) {
+                index = items.size();
+                indexes.put(item, index);
+                items.add(item);
+            }
+            return index;
+        }
+
+        int indexOf(T item) {
+            return item == null ? NONE : indexes.get(item);
+        }
+    }
+
+    private static final class Writer {
+        private static final SeatType[] SEAT_TYPES = SeatType.values();
+
+        private ByteBuffer out = ByteBuffer.allocate(1 << 16);
+
+        private final Table<SeatLayout> layouts = new Table<>();
+        private final Table<DemandCurve> curves = new Table<>();
+        private final Table<FoodAndDrink> foods = new Table<>();
+        private final Table<List<FoodAndDrink>> menus = new Table<>();
+        private final Table<Showtime> showtimes = new Table<>();
+        private final Table<Movie> movies = new Table<>();
+        private final Table<List<Movie>> movieLists = new Table<>();
+        private final Table<Theater> theaters = new Table<>();
+        private final Table<Customer> customers = new Table<>();
+        private final Table<Ticket> tickets = new Table<>();
+        private final Table<Transaction> transactions = new Table<>();
+
+        void writeAll(Cinema cinema, Collection<Customer> savedCustomers, long ledgerPosition,
+                Collection<SeatHold> heldSeats) {
+            collect(cinema, savedCustomers);
+
+            // Held seats per showtime, cleared from the saved row words
+            Map<Showtime, long[]> heldRows = new IdentityHashMap<>();
+            for (SeatHold seatHold : heldSeats) {
+                SeatLayout layout = seatHold.getShowtime().getLayout();
+                int seatNumber = seatHold.getSeatNumber();
+                if (seatHold.isActive() && layout.isValidSeat(seatNumber)) {
+                    long[] rows = heldRows.computeIfAbsent(seatHold.getShowtime(),
+                            showtime -> new long[layout.getRows()]);
+                    rows[layout.getRow(seatNumber)] |= 1L << layout.getColumn(seatNumber);
+                }
+            }
+
+            putInt(MAGIC);
+            putInt(VERSION);
+            putLong(ledgerPosition);
+
+            putInt(layouts.items.size());
+            for (SeatLayout layout : layouts.items) {
+                putInt(layout.getRows());
+                putInt(layout.getColumns());
+                for (int seatNumber = 1; seatNumber <= layout.getCapacity(); seatNumber++) {
+                    putByte((byte) layout.getSeatType(seatNumber).ordinal());
+                }
+                putLong(layout.getAdjacentMask());
+            }
+
+            putInt(foods.items.size());
+            for (FoodAndDrink food : foods.items) {
+                putInt(food.getId());
+                putString(food.getName());
+                putLong(food.getPriceCents());
+            }
+
+            putInt(menus.items.size());
+            for (List<FoodAndDrink> menu : menus.items) {
+                putInt(menu.size());
+                for (FoodAndDrink food : menu) {
+                    putInt(foods.indexOf(food));
+                }
+            }
+
+            putInt(curves.items.size());
+            for (DemandCurve curve : curves.items) {
+                putInt(curve.getTierCount());
+                for (int tier = 1; tier < curve.getTierCount(); tier++) {
+                    putInt(curve.getSoldPercentage(tier));
+                    putInt(curve.getSurchargePercentage(tier));
+                }
+            }
+
+            putInt(showtimes.items.size());
+            for (Showtime showtime : showtimes.items) {
+                SeatMap seatMap = showtime.getSeatMap();
+                putInt(showtime.getShowtimeId());
+                putString(showtime.getTime());
+                putByte((byte) (showtime.isCancelled() ? 1 : 0));
+                DemandPricing demandPricing = showtime.getDemandPricing();
+                putByte((byte) (demandPricing == null ? 0 : 1));
+                if (demandPricing != null) {
+                    for (SeatType seatType : SEAT_TYPES) {
+                        putInt(curves.indexOf(demandPricing.getCurve(seatType)));
+                    }
+                }
+                putInt(layouts.indexOf(seatMap.getLayout()));
+                long[] held = heldRows.get(showtime);
+                for (int row = 0; row < seatMap.getLayout().getRows(); row++) {
+                    putLong(held == null ? seatMap.getTakenRow(row) : seatMap.getTakenRow(row) & ~held[row]);
+                }
+            }
+
+            putInt(movies.items.size());
+            for (Movie movie : movies.items) {
+                putInt(movie.getMovieId());
+                putString(movie.getTitle());
+                putString(movie.getGenre());
+                putByte((byte) (movie.isSoldOut() ? 1 : 0));
+                putInt(movie.getShowtimes().size());
+                for (Showtime showtime : movie.getShowtimes()) {
+                    putInt(showtimes.indexOf(showtime));
+                }
+            }
+
+            putInt(movieLists.items.size());
+            for (List<Movie> list : movieLists.items) {
+                putInt(list.size());
+                for (Movie movie : list) {
+                    putInt(movies.indexOf(movie));
+                }
+            }
+
+            putInt(theaters.items.size());
+            for (Theater theater : theaters.items) {
+                putInt(theater.getTheaterId());
+                putString(theater.getAddress());
+                putInt(layouts.indexOf(theater.getLayout()));
+                putInt(movieLists.indexOf(theater.getMovies()));
+                putInt(menus.indexOf(theater.getMenu()));
+            }
+
+            putInt(cinema.getTheaters().size());
+            for (Theater theater : cinema.getTheaters()) {
+                putInt(theaters.indexOf(theater));
+            }
+
+            putInt(customers.items.size());
+            for (Customer customer : customers.items) {
+                putString(customer.getName());
+                putString(customer.getEmail());
+                putString(customer.getPhone());
+            }
+
+            putInt(tickets.items.size());
+            for (Ticket ticket : tickets.items) {
+                putInt(ticket.getTicketId());
+                putString(ticket.getSeatType());
+                putString(ticket.getAgePricing());
+                putInt(ticket.getSeatNumber());
+                putLong(ticket.getPriceCents());
+                putByte((byte) (ticket.isReserved() ? 1 : 0));
+            }
+
+            putInt(transactions.items.size());
+            for (Transaction transaction : transactions.items) {
+                putString(transaction.getTransactionType());
+                putString(transaction.getCard());
+                LocalDateTime time = transaction.getTransactionTime();
+                putLong(time == null ? Long.MIN_VALUE : time.toEpochSecond(ZoneOffset.UTC));
+                putInt(time == null ? 0 : time.getNano());
+                putInt(tickets.indexOf(transaction.getTicket()));
+                putInt(customers.indexOf(transaction.getCustomer()));
+                putInt(theaters.indexOf(transaction.getTheater()));
+                putInt(movies.indexOf(transaction.getMovie()));
+                putInt(showtimes.indexOf(transaction.getShowtime()));
+                List<FoodAndDrink> items = transaction.getItems() == null ? List.of() : transaction.getItems();
+                putInt(items.size());
+                for (FoodAndDrink food : items) {
+                    putInt(foods.indexOf(food));
+                }
+            }
+
+            // Links that point backwards are written once every table exists
+            for (Ticket ticket : tickets.items) {
+                putInt(transactions.indexOf(ticket.getTransaction()));
+            }
+            for (Customer customer : customers.items) {
+                List<Transaction> history = customer.geTransactionsHistory();
+                putInt(history.size());
+                for (Transaction transaction : history) {
+                    putInt(transactions.indexOf(transaction));
+                }
+            }
+        }
+
+        // Fill the tables, children before the objects that point to them
+        private void collect(Cinema cinema, Collection<Customer> savedCustomers) {
+            for (Theater theater : cinema.getTheaters()) {
+                layouts.add(theater.getLayout());
+                if (theater.getMenu() != null) {
+                    theater.getMenu().forEach(foods::add);
+                    menus.add(theater.getMenu());
+                }
+                if (theater.getMovies() != null) {
+                    theater.getMovies().forEach(this::collectMovie);
+                    movieLists.add(theater.getMovies());
+                }
+                theaters.add(theater);
+            }
+
+            savedCustomers.forEach(customers::add);
+            for (Ticket ticket : Ticket.getTickets()) {
+                collectTicket(ticket);
+            }
+            for (Customer customer : savedCustomers) {
+                customer.geTransactionsHistory().forEach(this::collectTransaction);
+            }
+        }
+
+        private void collectMovie(Movie movie) {
+            for (Showtime showtime : movie.getShowtimes()) {
+                collectShowtime(showtime);
+            }
+            movies.add(movie);
+        }
+
+        private void collectShowtime(Showtime showtime) {
+            layouts.add(showtime.getSeatMap().getLayout());
+            showtimes.add(showtime);
+            DemandPricing demandPricing = showtime.getDemandPricing();
+            if (demandPricing != null) {
+                for (SeatType seatType : SEAT_TYPES) {
+                    curves.add(demandPricing.getCurve(seatType));
+                }
+            }
+        }
+
+        private void collectTicket(Ticket ticket) {
+            if (tickets.indexes.containsKey(ticket)) {
+                return;
+            }
+            tickets.add(ticket);
+            if (ticket.getTransaction() != null) {
+                collectTransaction(ticket.getTransaction());
+            }
+        }
+
+        private void collectTransaction(Transaction transaction) {
+            if (transactions.indexes.containsKey(transaction)) {
+                return;
+            }
+            transactions.add(transaction);
+            if (transaction.getMovie() != null && movies.indexes.get(transaction.getMovie()) == null) {
+                collectMovie(transaction.getMovie());
+            }
+            if (transaction.getShowtime() != null) {
+                collectShowtime(transaction.getShowtime());
+            }
+            if (transaction.getItems() != null) {
+                transaction.getItems().forEach(foods::add);
+            }
+            customers.add(transaction.getCustomer());
+            if (transaction.getTicket() != null) {
+                collectTicket(transaction.getTicket());
+            }
+        }
+
+        private void ensure(int bytes) {
+            if (out.remaining() < bytes) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+                out.flip();
+                bigger.put(out);
+                out = bigger;
+            }
+        }
+
+        private void putByte(byte value) {
+            ensure(1);
+            out.put(value);
+        }
+
+        private void putInt(int value) {
+            ensure(4);
+            out.putInt(value);
+        }
+
+        private void putLong(long value) {
+            ensure(8);
+            out.putLong(value);
+        }
+
+        private void putString(String value) {
+            if (value == null) {
+                putInt(NONE);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putInt(bytes.length);
+            ensure(bytes.length);
+            out.put(bytes);
+        }
+    }
+
+    private static final class Reader {
+        private static final SeatType[] SEAT_TYPES = SeatType.values();
+
+        private final ByteBuffer in;
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        CinemaSnapshot readAll() {
+            long ledgerPosition = in.getLong();
+
+            SeatLayout[] layouts = new SeatLayout[in.getInt()];
+            for (int i = 0; i < layouts.length; i++) {
+                int rows = in.getInt();
+                int columns = in.getInt();
+                SeatType[] seatTypes = new SeatType[rows * columns];
+                for (int seat = 0; seat < seatTypes.length; seat++) {
+                    seatTypes[seat] = SEAT_TYPES[in.get()];
+                }
+                long adjacent = in.getLong();
+                List<Integer> aisles = new ArrayList<>();
+                for (int column = 0; column < columns - 1; column++) {
+                    if ((adjacent & (1L << column)) == 0) {
+                        aisles.add(column);
+                    }
+                }
+                layouts[i] = new SeatLayout(rows, columns, seatTypes,
+                        aisles.stream().mapToInt(Integer::intValue).toArray());
+            }
+
+            FoodAndDrink[] foods = new FoodAndDrink[in.getInt()];
+            for (int i = 0; i < foods.length; i++) {
+                foods[i] = new FoodAndDrink(in.getInt(), getString(), 0);
+                foods[i].setPriceCents(in.getLong());
+            }
+
+            List<List<FoodAndDrink>> menus = new ArrayList<>();
+            for (int count = in.getInt(); count > 0; count--) {
+                List<FoodAndDrink> menu = new ArrayList<>();
+                for (int size = in.getInt(); size > 0; size--) {
+                    menu.add(foods[in.getInt()]);
+                }
+                menus.add(menu);
+            }
+
+            DemandCurve[] curves = new DemandCurve[in.getInt()];
+            for (int i = 0; i < curves.length; i++) {
+                int[] soldPercentages = new int[in.getInt() - 1];
+                int[] surchargePercentages = new int[soldPercentages.length];
+                for (int tier = 0; tier < soldPercentages.length; tier++) {
+                    soldPercentages[tier] = in.getInt();
+                    surchargePercentages[tier] = in.getInt();
+                }
+                curves[i] = new DemandCurve(soldPercentages, surchargePercentages);
+            }
+
+            Showtime[] showtimes = new Showtime[in.getInt()];
+            for (int i = 0; i < showtimes.length; i++) {
+                int showtimeId = in.getInt();
+                String time = getString();
+                boolean cancelled = in.get() == 1;
+                DemandCurve[] showtimeCurves = null; // Null when prices do not follow demand
+                if (in.get() == 1) {
+                    showtimeCurves = new DemandCurve[SEAT_TYPES.length];
+                    for (int type = 0; type < showtimeCurves.length; type++) {
+                        showtimeCurves[type] = curves[in.getInt()];
+                    }
+                }
+                SeatLayout layout = layouts[in.getInt()];
+                long[] rows = new long[layout.getRows()];
+                for (int row = 0; row < rows.length; row++) {
+                    rows[row] = in.getLong();
+                }
+                showtimes[i] = new Showtime(showtimeId, time, layout);
+                showtimes[i].getSeatMap().restoreTakenRows(rows);
+                if (cancelled) {
+                    showtimes[i].cancel();
+                }
+                if (showtimeCurves != null) {
+                    showtimes[i].enableDemandPricing(showtimeCurves);
+                }
+            }
+
+            Movie[] movies = new Movie[in.getInt()];
+            for (int i = 0; i < movies.length; i++) {
+                movies[i] = new Movie(in.getInt(), getString(), getString());
+                movies[i].setSoldOut(in.get() == 1);
+                for (int count = in.getInt(); count > 0; count--) {
+                    movies[i].addShowtime(showtimes[in.getInt()]);
+                }
+            }
+
+            List<List<Movie>> movieLists = new ArrayList<>();
+            for (int count = in.getInt(); count > 0; count--) {
+                List<Movie> list = new ArrayList<>();
+                for (int size = in.getInt(); size > 0; size--) {
+                    list.add(movies[in.getInt()]);
+                }
+                movieLists.add(list);
+            }
+
+            Theater[] theaters = new Theater[in.getInt()];
+            for (int i = 0; i < theaters.length; i++) {
+                int theaterId = in.getInt();
+                String address = getString();
+                SeatLayout layout = layouts[in.getInt()];
+                int movieList = in.getInt();
+                int menu = in.getInt();
+                theaters[i] = new Theater(theaterId, address, movieList == NONE ? null : movieLists.get(movieList),
+                        menu == NONE ? null : menus.get(menu), layout);
+            }
+
+            List<Theater> cinemaTheaters = new ArrayList<>();
+            for (int count = in.getInt(); count > 0; count--) {
+                cinemaTheaters.add(theaters[in.getInt()]);
+            }
+            Cinema cinema = new Cinema(cinemaTheaters);
+
+            Customer[] customers = new Customer[in.getInt()];
+            for (int i = 0; i < customers.length; i++) {
+                customers[i] = new Customer(getString(), getString(), getString());
+            }
+
+            Ticket[] tickets = new Ticket[in.getInt()];
+            boolean[] reserved = new boolean[tickets.length];
+            for (int i = 0; i < tickets.length; i++) {
+                Ticket ticket = new Ticket();
+                ticket.setTicketId(in.getInt());
+                ticket.setSeatType(getString());
+                ticket.setAgePricing(getString());
+                ticket.setSeatNumber(in.getInt());
+                ticket.setPriceCents(in.getLong());
+                reserved[i] = in.get() == 1;
+                tickets[i] = ticket;
+            }
+
+            Transaction[] transactions = new Transaction[in.getInt()];
+            for (int i = 0; i < transactions.length; i++) {
+                Transaction transaction = new Transaction();
+                transaction.setTransactionType(getString());
+                transaction.setCard(getString());
+                long seconds = in.getLong();
+                int nanos = in.getInt();
+                transaction.setTransactionTime(
+                        seconds == Long.MIN_VALUE ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+                transaction.setTicket(get(tickets, in.getInt()));
+                transaction.setCustomer(get(customers, in.getInt()));
+                transaction.setTheater(get(theaters, in.getInt()));
+                transaction.setMovie(get(movies, in.getInt()));
+                transaction.setShowtime(get(showtimes, in.getInt()));
+                List<FoodAndDrink> items = new ArrayList<>();
+                for (int count = in.getInt(); count > 0; count--) {
+                    items.add(foods[in.getInt()]);
+                }
+                transaction.setItems(items);
+                transactions[i] = transaction;
+            }
+
+            for (int i = 0; i < tickets.length; i++) {
+                tickets[i].setTransaction(get(transactions, in.getInt()));
+                if (reserved[i]) {
+                    tickets[i].reserve();
+                }
+            }
+            for (Customer customer : customers) {
+                for (int count = in.getInt(); count > 0; count--) {
+                    customer.addTransaction(transactions[in.getInt()]);
+                }
+            }
+
+            return new CinemaSnapshot(cinema, new ArrayList<>(List.of(customers)), ledgerPosition);
+        }
+
+        private static <T> T get(T[] items, int index) {
+            return index == NONE ? null : items[index];
+        }
+
+        private String getString() {
+            int length = in.getInt();
+            if (length == NONE) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
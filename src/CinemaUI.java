@@ -1,27 +1,35 @@
 package src;
 
 import java.util.*;
+import java.util.concurrent.CompletionException;
 
 /**
  * The CinemaUI class represents the user interface for cinema application
  * functionality for display menu, select movies, showtimes, seat types
  * customer information, managing transaction
+ * Every screen is one step of a state machine: it reads the user's choice and
+ * returns the screen to show next, and start() runs the steps in a loop. The
+ * choices of the booking in progress are kept in a BookingSession that is
+ * reset after each booking, so a kiosk can take any number of bookings
+ * without the stack or the memory growing.
  */
 public class CinemaUI {
+    /**
+     * The screens of the kiosk
+     */
+    enum Screen {
+        MAIN_MENU, THEATER_OPTIONS, GENRES, THEATERS, MOVIES, SHOWTIMES, SEAT_TYPE, SEATS, AGE_PRICING,
+        FOOD_AND_DRINKS, CUSTOMER_INFO, PAYMENT, CANCEL_RESERVATION, CUSTOMER_HISTORY, EXIT
+    }
+
     private Scanner scanner = new Scanner(System.in);
     private Cinema cinema;
-    private Theater selectedTheater;
-    private Movie selectedMovie;
-    private Showtime selectedShowtime;
-    private Ticket selectedTicket;
-    private List<FoodAndDrink> selectedItems = new ArrayList<>();
-    private Transaction transaction = new Transaction();
-    private Customer customer;
-    private boolean genreOption = false;
-    // Map to store customer, this keep multiple customer with same phone number
-    private Map<String, List<Customer>> customerMap = new HashMap<>();
-    private boolean exitRequest = false;
-    private int seatNum;
+    private final BookingSession session = new BookingSession();
+    // One record per customer, found by phone number or email
+    private CustomerStore customerStore = new CustomerStore();
+    private SeatHoldManager holdManager = SeatHoldManager.getDefault();
+    private PricingEngine pricingEngine = PricingEngine.getDefault();
+    private PaymentProcessor paymentProcessor = PaymentProcessor.getDefault();
 
     /**
      * Constructor that initializes the CinemaUI without a Cinema
@@ -31,7 +39,7 @@ public class CinemaUI {
 
     /**
      * Constructor that initializes the CinemaUI with specific cinema
-     * 
+     *
      * @param cinema The cinema to be used in UI
      */
     public CinemaUI(Cinema cinema) {
@@ -39,16 +47,92 @@ public class CinemaUI {
     }
 
     /**
-     * Starts the application by displaying main menu
+     * Constructor that initializes the CinemaUI with a cinema and known customers
+     *
+     * @param cinema    The cinema to be used in UI
+     * @param customers Customers restored from a snapshot
+     */
+    public CinemaUI(Cinema cinema, List<Customer> customers) {
+        this(cinema, new CustomerStore(customers));
+    }
+
+    /**
+     * Constructor that initializes the CinemaUI with a cinema and a customer
+     * store, which may be shared with a BookingService
+     *
+     * @param cinema        The cinema to be used in UI
+     * @param customerStore Store of known customers
+     */
+    public CinemaUI(Cinema cinema, CustomerStore customerStore) {
+        this.cinema = cinema;
+        this.customerStore = customerStore;
+    }
+
+    // Every customer seen so far, used when saving a snapshot
+    public List<Customer> getCustomers() {
+        return customerStore.getCustomers();
+    }
+
+    public CustomerStore getCustomerStore() {
+        return customerStore;
+    }
+
+    // Processor that authorizes card payments at this kiosk
+    public void setPaymentProcessor(PaymentProcessor paymentProcessor) {
+        this.paymentProcessor = paymentProcessor;
+    }
+
+    /**
+     * Starts the application at the main menu and returns when the user exits
      */
     public void start() {
-        displayMenu(); // Display the main menu
+        Screen screen = Screen.MAIN_MENU;
+        while (screen != Screen.EXIT) {
+            screen = show(screen);
+        }
+        exitProgram();
+    }
+
+    // Show one screen and return the next one
+    private Screen show(Screen screen) {
+        switch (screen) {
+            case MAIN_MENU:
+                return displayMenu();
+            case THEATER_OPTIONS:
+                return showTheaterOptions();
+            case GENRES:
+                return showTheaterByGenre();
+            case THEATERS:
+                return showTheaters();
+            case MOVIES:
+                return showMovies();
+            case SHOWTIMES:
+                return showShowtimes();
+            case SEAT_TYPE:
+                return selectSeatType();
+            case SEATS:
+                return showSeatAvailability();
+            case AGE_PRICING:
+                return selectAgePricing();
+            case FOOD_AND_DRINKS:
+                return selectFoodAndDrinks();
+            case CUSTOMER_INFO:
+                return collectCustomerInfo();
+            case PAYMENT:
+                return completeTransaction();
+            case CANCEL_RESERVATION:
+                return cancelTicketReservation();
+            case CUSTOMER_HISTORY:
+                return viewCustomerInfo();
+            default:
+                return Screen.EXIT;
+        }
     }
 
     /**
      * Displays the main menu options and processes user selection
      */
-    public void displayMenu() {
+    private Screen displayMenu() {
         System.out.println("----------------------------------------------");
         System.out.println("----------------------------------------------");
         System.out.println("\nWELCOME TO ASAN CINEMA!!");
@@ -66,35 +150,28 @@ public class CinemaUI {
 
                 switch (chooseOption) {
                     case 1:
-                        showTheaterOptions();
-                        return; // Exit the method after handling
+                        return Screen.THEATER_OPTIONS;
                     case 2:
-                        cancelTicketReservation();
-                        return; // Exit the method after handling
+                        return Screen.CANCEL_RESERVATION;
                     case 3:
-                        viewCustomerInfo();
-                        return; // Exit the method after handling
+                        return Screen.CUSTOMER_HISTORY;
                     default:
                         System.out.println("Invalid option, please select again or enter 'Exit' to exit: ");
                 }
             } else {
                 String input = scanner.next();
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out.println("Invalid input. Please enter a valid numeric option or enter 'Exit' to exit: ");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     /**
      * Options to display all theaters or display by Genre
      */
-    private void showTheaterOptions() {
+    private Screen showTheaterOptions() {
 
         while (true) {
             System.out.println("\nSelect an option by ID or type '0' to go back or 'Exit' to exit: ");
@@ -111,15 +188,13 @@ public class CinemaUI {
 
                 switch (choice) {
                     case 0:
-                        displayMenu();
-                        return; // Exit the method
+                        return Screen.MAIN_MENU;
                     case 1:
-                        showTheaters();
-                        return; // Exit the method
+                        session.setByGenre(false);
+                        return Screen.THEATERS;
                     case 2:
-                        genreOption = true;
-                        showTheaterByGenre();
-                        return; // Exit the method
+                        session.setByGenre(true);
+                        return Screen.GENRES;
                     default:
                         System.out.println(
                                 "Invalid option. Please select a valid option '0' to go back or 'Exit' to exit: ");
@@ -127,23 +202,19 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
 
                 // If input is not an integer, show an error message
                 System.out.println("Invalid input. Please enter a valid numeric ID '0' to go back or 'Exit' to exit: ");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     /**
      * Display theater with genre
      */
-    private void showTheaterByGenre() {
+    private Screen showTheaterByGenre() {
         Set<String> availableGenres = cinema.availableGenresInCinema();
         scanner.nextLine(); // Clear input buffer
 
@@ -159,73 +230,20 @@ public class CinemaUI {
             String genre = scanner.nextLine().trim(); // Avoid leading/trailing spaces
 
             if (genre.equalsIgnoreCase("Exit")) {
-                exitRequest = true;
-                exitProgram(); // Exit the program
-                return;
+                return Screen.EXIT;
             } else if (genre.equals("0")) {
-                showTheaterOptions(); // Go back to theater options
-                return;
+                return Screen.THEATER_OPTIONS; // Go back to theater options
             }
 
             // Check if the input genre is valid
-            boolean isValidGenre = false;
-            for (String availableGenre : availableGenres) {
-                if (availableGenre.equalsIgnoreCase(genre)) {
-                    isValidGenre = true;
-                    break;
-                }
-            }
-
-            if (isValidGenre) {
+            if (cinema.isGenreShowing(genre)) {
                 cinema.findTheatersByMovieGenre(genre);
 
                 // Select Theater
                 System.out.println("\nSelect a theater by ID or type '0' to go back or 'Exit' to exit:");
                 System.out.println("----------------------------------------------");
                 System.out.println("----------------------------------------------");
-
-                while (true) {
-                    if (scanner.hasNextInt()) {
-                        int theaterId = scanner.nextInt();
-
-                        if (theaterId == 0) {
-                            showTheaterByGenre(); // Return to genre selection
-                            return;
-                        }
-
-                        try {
-                            // Select a valid theater
-                            if (cinema.isValidTheater(theaterId)) {
-                                selectedTheater = cinema.selectTheater(theaterId);
-                                showMovies(); // Display movies for selected theater
-                                return; // Exit method after displaying movies
-                            } else {
-                                System.out.println(
-                                        "Invalid theater ID. Please select again or type '0' to go back or 'Exit' to exit:");
-                            }
-
-                        } catch (TheaterNotFoundException e) {
-                            System.out.println(e.getMessage());
-                        }
-
-                    } else {
-                        String input = scanner.next(); // Get the next input (non-integer)
-                        if (input.equalsIgnoreCase("Exit")) {
-                            exitRequest = true;
-                            exitProgram(); // Exit the program
-                            return;
-
-                        } else if (input.equals("0")) {
-                            showTheaterByGenre(); // Return to genre selection
-                            return;
-
-                        } else {
-                            System.out.println(
-                                    "Invalid input. Please enter a valid numeric ID, '0' to go back, or 'Exit' to exit.");
-                        }
-                    }
-                }
-
+                return selectTheater(Screen.GENRES);
             } else {
                 System.out.println("Invalid genre. Please try again.");
                 System.out.println("----------------------------------------------");
@@ -237,7 +255,7 @@ public class CinemaUI {
     /**
      * Display the list of theaters and allows user to select one
      */
-    private void showTheaters() {
+    private Screen showTheaters() {
 
         // Show total of theater within cinema
         System.out.println("THERE ARE " + cinema.getTotalTheaters() + " THEATERS IN OUR SYSTEM:");
@@ -248,25 +266,28 @@ public class CinemaUI {
         System.out.println("----------------------------------------------");
 
         System.out.println("\nSelect a theater by ID or type '0' to go back or 'Exit' to exit:");
+        return selectTheater(Screen.THEATER_OPTIONS);
+    }
 
-        int theaterId;
-
+    /**
+     * Read a theater ID and move on to its movies
+     *
+     * @param back Screen to return to when the user types '0'
+     */
+    private Screen selectTheater(Screen back) {
         while (true) {
             if (scanner.hasNextInt()) {
-                theaterId = scanner.nextInt();
+                int theaterId = scanner.nextInt();
 
                 if (theaterId == 0) {
-                    showTheaterOptions(); // Return to show theater options
-                    return;
+                    return back;
                 }
 
                 try {
-                    // Select a theater
+                    // Select a valid theater
                     if (cinema.isValidTheater(theaterId)) {
-                        selectedTheater = cinema.selectTheater(theaterId);
-                        // Display movies for selected theater
-                        showMovies();
-                        return; // Exit the method after showing movies
+                        session.setTheater(cinema.selectTheater(theaterId));
+                        return Screen.MOVIES; // Display movies for selected theater
                     } else {
                         System.out.println("Invalid option, Please select again or '0' to go back or 'Exit' to exit: ");
                     }
@@ -277,22 +298,19 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out
                         .println("Invalid input. Please enter a valid numeric ID, '0' to go back, or 'Exit' to exit.");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     /**
      * Displays list of movies for selected theater and allows user to select one
      */
-    private void showMovies() {
+    private Screen showMovies() {
+        Theater selectedTheater = session.getTheater();
 
         // Get movies from the selected theater
         selectedTheater.listMovies();
@@ -306,24 +324,14 @@ public class CinemaUI {
                 movieId = scanner.nextInt();
 
                 if (movieId == 0) {
-                    if (genreOption == false) {
-                        selectedTheater = null; // Clear selected Theater
-                        showTheaters(); // Return to show theaters
-                        return;
-
-                    } else {
-                        selectedTheater = null;
-                        showTheaterByGenre();
-                        return;
-                    }
+                    session.setTheater(null); // Clear selected Theater
+                    return session.isByGenre() ? Screen.GENRES : Screen.THEATERS;
                 }
 
                 try {
                     if (selectedTheater.isValidMovie(movieId)) {
-                        selectedMovie = selectedTheater.selectMovie(movieId); // Select a movie
-                        // Display showtimes for the selected movie
-                        showShowtimes();
-                        return; // Exit the method after showing showtimes
+                        session.setMovie(selectedTheater.selectMovie(movieId)); // Select a movie
+                        return Screen.SHOWTIMES; // Display showtimes for the selected movie
                     } else {
                         System.out.println(
                                 "Invalid option. Please select a valid movie ID, '0' to go back, or 'Exit' to exit.");
@@ -335,22 +343,19 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out
                         .println("Invalid input. Please enter a valid numeric ID, '0' to go back, or 'Exit' to exit.");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     /**
      * Displays the showtimes for selected movie and allow user to select one
      */
-    private void showShowtimes() {
+    private Screen showShowtimes() {
+        Movie selectedMovie = session.getMovie();
 
         // List showtimes for the selected movie
         System.out.println("----------------------------------------------");
@@ -368,16 +373,14 @@ public class CinemaUI {
                 showtimeId = scanner.nextInt();
 
                 if (showtimeId == 0) {
-                    selectedMovie = null; // Clear selected movie
-                    showMovies(); // Return to show movie
-                    return;
+                    session.setMovie(null); // Clear selected movie
+                    return Screen.MOVIES;
                 }
 
                 try {
                     if (selectedMovie.isValidShowtime(showtimeId)) {
-                        selectedShowtime = selectedMovie.selectShowtime(showtimeId); // Select a showtime
-                        selectSeatType(); // Ask for seat type first
-                        return; // Exit method after select seat type
+                        session.setShowtime(selectedMovie.selectShowtime(showtimeId)); // Select a showtime
+                        return Screen.SEAT_TYPE; // Ask for seat type first
 
                     } else {
                         System.out.println("Invalid option, Please select again or '0' to go back or 'Exit' to exit: ");
@@ -388,27 +391,23 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out
                         .println(
                                 "Invalid input. Please enter a valid numeric ID or '0' to go back or 'Exit' to exit: ");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     /**
      * Allows user to select a seat type for ticket
      */
-    private void selectSeatType() {
+    private Screen selectSeatType() {
         System.out.println("\nSelect Seat Type:");
-        System.out.println("1. Regular ($" + SeatType.REGULAR.getPrice() + ")");
-        System.out.println("2. Premium ($" + SeatType.PREMIUM.getPrice() + ")");
-        System.out.println("3. VIP ($" + SeatType.VIP.getPrice() + ")");
+        System.out.println("1. Regular (" + Money.format(SeatType.REGULAR.getPriceCents()) + ")");
+        System.out.println("2. Premium (" + Money.format(SeatType.PREMIUM.getPriceCents()) + ")");
+        System.out.println("3. VIP (" + Money.format(SeatType.VIP.getPriceCents()) + ")");
 
         System.out.println("\nSelect a seat type by ID or type '0'  or 'Exit' to exit:");
         int choice;
@@ -416,57 +415,46 @@ public class CinemaUI {
         System.out.println("----------------------------------------------");
         System.out.println("----------------------------------------------");
 
-        SeatType seatType = null;
-
-        while (seatType == null) {
+        while (true) {
             if (scanner.hasNextInt()) {
                 choice = scanner.nextInt();
 
                 switch (choice) {
                     case 1:
-                        seatType = SeatType.REGULAR;
-                        break;
+                        session.setSeatType(SeatType.REGULAR);
+                        return Screen.SEATS;
                     case 2:
-                        seatType = SeatType.PREMIUM;
-                        break;
+                        session.setSeatType(SeatType.PREMIUM);
+                        return Screen.SEATS;
                     case 3:
-                        seatType = SeatType.VIP;
-                        break;
+                        session.setSeatType(SeatType.VIP);
+                        return Screen.SEATS;
                     case 0:
-                        seatType = null;
-                        showShowtimes();
-                        break;
+                        session.setShowtime(null);
+                        return Screen.SHOWTIMES;
                     default:
                         System.out.println("Invalid option, Please select again or '0' to go back or 'Exit' to exit: ");
-                        seatType = null;
                         break;
 
                 }
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out
                         .println("Invalid input. Please enter a valid numeric ID or '0' to go back or 'Exit to exit: ");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
-
-        showSeatAvailability(seatType); // Show seat availability based on the selected seat type
     }
 
     /**
-     * Displays the available seats based on selected seat type
-     * 
-     * @param seatType The type of seat selected by user
+     * Displays the available seats of the selected seat type and holds the chosen seat
      */
-    private void showSeatAvailability(SeatType seatType) {
-        System.out.println("\nAvailable Seats (" + seatType + "): Price: $" + seatType.getPrice());
-        displaySeatingChart(seatType.name()); // Show seating chart for the selected seat type
+    private Screen showSeatAvailability() {
+        SeatType seatType = session.getSeatType();
+        System.out.println("\nAvailable Seats (" + seatType + "): Price: " + Money.format(seatType.getPriceCents()));
+        displaySeatingChart(seatType); // Show seating chart for the selected seat type
 
         System.out.println("\nSelect a seat by entering seat number or type '0' to go back or 'Exit' to exit:");
         int seatNumber;
@@ -476,91 +464,79 @@ public class CinemaUI {
         while (true) {
             if (scanner.hasNextInt()) {
                 seatNumber = scanner.nextInt();
-                seatNum = seatNumber;
 
                 if (seatNumber == 0) {
-                    selectSeatType(); // Go back to select seat
+                    return Screen.SEAT_TYPE; // Go back to select seat
                 }
 
-                // Check if the seat number is valid
-                if (selectedShowtime.selectSeat(seatNumber, seatType.name())) {
-                    // Create the ticket
-                    selectedTicket = new Ticket(seatType.name(), "Adult", seatNumber);
-
-                    // Now apply the age pricing (this will update the price of the ticket)
-                    String agePricing = selectAgePricing(seatType);
-
-                    // After selecting age pricing, set the correct age category
-                    selectedTicket.setAgePricing(agePricing); // Update ticket's age pricing
-
-                    selectFoodAndDrinks(); // Proceed to food selection
-
+                // Check if the seat number is valid and hold it while booking
+                SeatHold seatHold = session.getShowtime().holdSeat(seatNumber, seatType, holdManager);
+                if (seatHold != null) {
+                    session.setSeatHold(seatHold);
+                    // Create the ticket, the age pricing sets its final price
+                    session.setTicket(Ticket.obtain(seatType.name(), "Adult", seatNumber));
+                    return Screen.AGE_PRICING;
                 } else {
                     System.out.println(
                             "Invalid or unavailable seat. Please try again or '0' to go back or 'Exit' to exit: ");
-                    showSeatAvailability(seatType); // Retry seat selection
+                    return Screen.SEATS; // Retry seat selection
                 }
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out.println(
                         "Invalid input. Please enter a valid numeric ID or '0' to go back or 'Exit' to exit: ");
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
     }
 
     // DISPLAY SEATING CHART
-    private void displaySeatingChart(String seatType) {
-        // Display seating chart based on seat type
-        selectedShowtime.displayReservedSeats();
-        System.out.println("Seating Chart for " + seatType + " seats:");
-
-        int startSeatNumber;
-        int endSeatNumber;
-
-        // Determine the seat number range based on seat type
-        if (seatType.equalsIgnoreCase("VIP")) { // Use equalsIgnoreCase for case-insensitive comparison
-            startSeatNumber = 1;
-            endSeatNumber = 10;
-        } else if (seatType.equalsIgnoreCase("PREMIUM")) { // Use equalsIgnoreCase
-            startSeatNumber = 11;
-            endSeatNumber = 20;
-        } else { // Default to Regular seat type
-            startSeatNumber = 21;
-            endSeatNumber = 30;
-        }
+    private void displaySeatingChart(SeatType seatType) {
+        Showtime selectedShowtime = session.getShowtime();
+        Renderer renderer = Renderer.console();
 
-        // Loop through the seat numbers and print them
-        for (int seatNumber = startSeatNumber; seatNumber <= endSeatNumber; seatNumber++) {
-            // Create the seat label without checking if it is reserved
-            String seatLabel = String.format("%2d", seatNumber);
-            if (selectedShowtime.isSeatTaken(seatNumber, seatType)) {
-                seatLabel = String.format("%2s", "X"); // Mark as taken
-            } else {
-                seatLabel = String.format("%2d", seatNumber);
+        // Render the whole chart, then write it to the console at once
+        selectedShowtime.renderReservedSeats(renderer);
+        renderer.text("Seating Chart for ").text(seatType.toString()).line(" seats:");
+
+        SeatLayout layout = selectedShowtime.getLayout();
+
+        // Every row that has seats of the selected type, one line per row
+        for (int row = 0; row < layout.getRows(); row++) {
+            if (layout.getTypeMask(row, seatType) == 0) {
+                continue;
             }
-            // Print the seat label
-            System.out.print(seatLabel + " ");
+            for (int column = 0; column < layout.getColumns(); column++) {
+                int seatNumber = layout.getSeatNumber(row, column);
+                if (layout.getSeatType(seatNumber) != seatType) {
+                    renderer.spaces(2); // Seat belongs to another seat type
+                } else if (selectedShowtime.isSeatTaken(seatNumber, seatType.name())) {
+                    renderer.text(" X"); // Mark as taken
+                } else {
+                    renderer.padLeft(seatNumber, 2);
+                }
+                renderer.text(' ');
 
-            // New line after every 5 seats for better readability
-            if ((seatNumber - startSeatNumber + 1) % 5 == 0) {
-                System.out.println(); // New line after every 5 seats
+                if (layout.hasAisleAfter(column)) {
+                    renderer.spaces(2); // Leave a gap for the aisle
+                }
             }
+            renderer.line(); // New line after every row
         }
+        renderer.flush();
     }
 
     // SELECT AGE PRICING
-    private String selectAgePricing(SeatType seatType) {
+    private Screen selectAgePricing() {
         System.out.println("\nSelect Age Pricing:");
-        System.out.println("1. Adult");
-        System.out.println("2. Child (20% discount)");
-        System.out.println("3. Senior (20% discount)");
+        for (AgePricing agePricing : AgePricing.values()) {
+            System.out.println(agePricing.getId() + ". " + agePricing.getDisplayName()
+                    + (agePricing.getDiscountPercentage() > 0
+                            ? " (" + agePricing.getDiscountPercentage() + "% discount)"
+                            : ""));
+        }
         System.out.println(
                 "Please choose a valid option or '0' to go back or 'Exit' to exit: ");
 
@@ -570,8 +546,8 @@ public class CinemaUI {
             if (scanner.hasNextInt()) {
                 choice = scanner.nextInt();
                 if (choice == 0) {
-                    selectedShowtime.releaseSeat(seatNum);
-                    selectSeatType();
+                    session.abandonTicket(); // Give the seat back before choosing again
+                    return Screen.SEAT_TYPE;
                 }
                 if (choice < 1 || choice > 3) {
                     System.out.println(
@@ -580,55 +556,38 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitRequest = true;
-                    break;
+                    return Screen.EXIT;
                 }
                 System.out.println(
                         "Invalid input. Please choose a valid option or '0' to go back or 'Exit' to exit:");
             }
 
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
-        double finalPrice = seatType.getPrice(); // Default price from SeatType
-        String ageCategory;
-
-        switch (choice) {
-            case 1:
-                ageCategory = "Adult";
-                break;
-            case 2:
-                ageCategory = "Child";
-                finalPrice = selectedTicket.applyDiscount(seatType.getPrice(), 20); // 20% discount for children
-                break;
-            case 3:
-                ageCategory = "Senior";
-                finalPrice = selectedTicket.applyDiscount(seatType.getPrice(), 20); // 20% discount for seniors
-                break;
-            default:
-                ageCategory = "Adult";
-                break;
-        }
+        AgePricing agePricing = AgePricing.getById(choice);
+        String ageCategory = agePricing.getDisplayName();
+        long finalPrice = pricingEngine.quote(session.getSeatType(), agePricing, session.getShowtime());
 
-        // Now that the ticket has been created, you can set the final price
-        selectedTicket.setPrice(finalPrice); // Update the ticket price based on age pricing
+        // Update the ticket price and age category based on age pricing
+        Ticket selectedTicket = session.getTicket();
+        selectedTicket.setPriceCents(finalPrice);
+        selectedTicket.setAgePricing(ageCategory);
 
-        System.out.printf("Selected %s ticket. Final price: $%.2f%n", ageCategory, finalPrice);
+        System.out.println("Selected " + ageCategory + " ticket. Final price: " + Money.format(finalPrice));
         System.out.println("----------------------------------------------");
         System.out.println("----------------------------------------------");
-        return ageCategory;
+        return Screen.FOOD_AND_DRINKS;
     }
 
     // SELECT FOOD AND DRINKS
-    private void selectFoodAndDrinks() {
-        List<FoodAndDrink> foodAndDrinks = selectedTheater.getMenu(); // Get available food and drinks from the selected
-                                                                      // theater
+    private Screen selectFoodAndDrinks() {
+        List<FoodAndDrink> foodAndDrinks = session.getTheater().getMenu(); // Get available food and drinks from the
+                                                                           // selected theater
         System.out.println("\nAvailable Food and Drinks:");
 
         // Display available items with ID
         for (FoodAndDrink item : foodAndDrinks) {
-            System.out.printf("ID: %d, Item: %-10s, Price: $%.2f%n", item.getId(), item.getName(), item.getPrice());
+            System.out.printf("ID: %d, Item: %-10s, Price: %s%n", item.getId(), item.getName(),
+                    Money.format(item.getPriceCents()));
         }
 
         System.out.println("\nSelect food and drink by ID or type '0' to skip or 'Exit' to exit:");
@@ -636,11 +595,14 @@ public class CinemaUI {
         int itemId = 0;
 
         while ((itemId = getValidItemId()) != 0) {
+            if (itemId < 0) {
+                return Screen.EXIT;
+            }
             FoodAndDrink selectedItem = findItemById(foodAndDrinks, itemId);
 
             if (selectedItem != null) {
                 // Valid selection
-                selectedItems.add(selectedItem);
+                session.getItems().add(selectedItem);
                 System.out.println("Added: " + selectedItem.getName());
                 System.out.println("----------------------------------------------");
                 System.out.println("----------------------------------------------");
@@ -657,21 +619,18 @@ public class CinemaUI {
         System.out.println("----------------------------------------------");
 
         // Try to reserve the ticket
+        Ticket selectedTicket = session.getTicket();
         try {
             selectedTicket.reserveTicket(selectedTicket);
         } catch (ReservationException e) {
             System.out.println("Reservation failed: " + e.getMessage());
         }
 
-        // Collect customer information
-        collectCustomerInfo();
-
-        // Complete transaction after food and drink selection
-        completeTransaction();
+        return Screen.CUSTOMER_INFO;
     }
 
     /**
-     * Get valid item ID input from the user.
+     * Get valid item ID input from the user, or -1 if the user typed 'Exit'.
      */
     private int getValidItemId() {
         String input;
@@ -679,8 +638,6 @@ public class CinemaUI {
         while (true) {
             input = scanner.next().trim(); // Read input and trim whitespace
             if (input.equalsIgnoreCase("Exit")) {
-                exitRequest = true; // Set exit flag
-                exitProgram(); // Handle exit
                 return -1;
             }
             if (input.isEmpty()) { // Handle empty input
@@ -689,10 +646,13 @@ public class CinemaUI {
             }
             try {
                 int itemId = Integer.parseInt(input);
-                return itemId; // Return the valid item ID
+                if (itemId >= 0) {
+                    return itemId; // Return the valid item ID
+                }
             } catch (NumberFormatException e) {
-                System.out.println("Invalid input. Please enter a valid number or '0' to go back or 'Exit' to exit: ");
+                // Fall through to the message below
             }
+            System.out.println("Invalid input. Please enter a valid number or '0' to go back or 'Exit' to exit: ");
         }
     }
 
@@ -709,7 +669,7 @@ public class CinemaUI {
     }
 
     // COLLECT CUSTOMER INFO
-    private void collectCustomerInfo() {
+    private Screen collectCustomerInfo() {
         System.out.println("Please enter customer information.");
 
         // Create a new customer instance
@@ -718,17 +678,25 @@ public class CinemaUI {
         // Add customer using the scanner input from Customer class
         customer.addCustomer(scanner);
 
-        this.customer = customer;
+        session.setCustomer(customer);
         System.out.println("Customer information recorded succesfully.");
+        return Screen.PAYMENT;
     }
 
     // COMPLETE TRANSACTION
-    private void completeTransaction() {
+    private Screen completeTransaction() {
         String cardNumber;
         boolean isValid = false;
 
-        // Finalize transaction
-        transaction.setTransactionType(selectTransactionType());
+        String transactionType = selectTransactionType();
+        if (transactionType == null) {
+            return Screen.EXIT;
+        }
+
+        // Finalize transaction, every booking gets its own transaction
+        Transaction transaction = Transaction.obtain();
+        session.setTransaction(transaction);
+        transaction.setTransactionType(transactionType);
 
         if (transaction.getTransactionType() == "Cash") {
             transaction.remindCashTransaction();
@@ -745,31 +713,76 @@ public class CinemaUI {
                 isValid = transaction.inputTransactionInfo(cardNumber);
             }
 
+            // The gateway answers on its own thread, the seat stays held while we wait
+            System.out.println("Authorizing card...");
+            try {
+                transaction.setAuthorizationCode(paymentProcessor
+                        .authorize(transaction.getCard(), session.getAmountDueCents()).join());
+            } catch (CompletionException e) {
+                System.out.println("Card authorization failed: " + e.getCause().getMessage()
+                        + " Your seat has been released.");
+                session.abandonTicket();
+                Transaction.recycle(transaction);
+                session.reset();
+                return Screen.MAIN_MENU;
+            }
+        }
+
+        // Keep the held seat, or take it again if the hold ran out and nobody else took it
+        SeatHold seatHold = session.getSeatHold();
+        Showtime selectedShowtime = session.getShowtime();
+        Ticket selectedTicket = session.getTicket();
+        if (selectedShowtime.isCancelled()) {
+            System.out.println("Sorry, this showtime has been cancelled. Please start again.");
+            if (transaction.getAuthorizationCode() != null) {
+                paymentProcessor.voidAuthorization(transaction.getAuthorizationCode()); // Nothing to pay for
+            }
+            session.abandonTicket();
+            Transaction.recycle(transaction);
+            session.reset();
+            return Screen.MAIN_MENU;
+        }
+        if (!seatHold.confirm() && !selectedShowtime.getSeatMap().reserve(seatHold.getSeatNumber())) {
+            System.out.println("Sorry, your hold on seat " + seatHold.getSeatNumber()
+                    + " expired and the seat was taken. Please start again.");
+            if (transaction.getAuthorizationCode() != null) {
+                paymentProcessor.voidAuthorization(transaction.getAuthorizationCode()); // Nothing to pay for
+            }
+            selectedTicket.cancelReservation(selectedTicket);
+            Ticket.recycle(selectedTicket);
+            Transaction.recycle(transaction);
+            session.reset();
+            return Screen.MAIN_MENU;
         }
 
         selectedTicket.setTransaction(transaction);
+        transaction.setTheater(session.getTheater());
         System.out.println("\nSelection complete. Show receipt:");
 
         System.out.println("----------------------------------------------");
         System.out.println("----------------------------------------------");
 
-        transaction.processTransaction(customer, selectedMovie, selectedShowtime, selectedTicket, selectedItems);
+        // A returning customer books on their existing record instead of a new one
+        Customer customer = customerStore.add(session.getCustomer());
+        transaction.processTransaction(customer, session.getMovie(), selectedShowtime, selectedTicket,
+                session.getItems());
+        if (transaction.undoIfCancelled()) {
+            System.out.println("Sorry, this showtime was cancelled while you were paying. Please start again.");
+            session.reset();
+            return Screen.MAIN_MENU;
+        }
         customer.addTransaction(transaction);
 
-        // Check if the customer phone exists; if so add to the list
-        customerMap.putIfAbsent(customer.getPhone(), new ArrayList<>());
-        customerMap.get(customer.getPhone()).add(customer);
-
         transaction.printReceipt();
 
-        // Optionally clear selected items
-        selectedItems.clear();
+        // The booking is done, the session is ready for the next customer
+        session.reset();
 
         // Wait for user input to return to the main menu
         System.out.println("\nPress Enter to return to the main menu...");
         scanner.nextLine(); // Consume newline left-over
         scanner.nextLine(); // Wait for Enter key
-        displayMenu();
+        return Screen.MAIN_MENU;
     }
 
     private String selectTransactionType() {
@@ -794,7 +807,6 @@ public class CinemaUI {
             } else {
                 String input = scanner.next(); // Get the next input
                 if (input.equalsIgnoreCase("Exit")) {
-                    exitProgram();
                     return null;
                 }
                 System.out.println("Invalid input. Please enter a valid numeric ID: ");
@@ -802,7 +814,7 @@ public class CinemaUI {
         }
     }
 
-    private void cancelTicketReservation() {
+    private Screen cancelTicketReservation() {
         System.out.println("Enter the ticket ID to cancel the reservation or '0' or 'Exit' to exit: ");
 
         while (true) {
@@ -819,12 +831,10 @@ public class CinemaUI {
                             ticketToCancel.cancelReservation(ticketToCancel);
                             ticketToCancel.getTransaction().processRefund();
                         }
-                        displayMenu();
-                        break;
+                        return Screen.MAIN_MENU;
 
                     } else if (ticketId == 0) {
-                        displayMenu(); // Exit loop when user chooses to go back
-                        break;
+                        return Screen.MAIN_MENU; // Go back when the user types '0'
 
                     } else {
                         System.out.println("Ticket with ID " + ticketId + " not found.");
@@ -833,8 +843,7 @@ public class CinemaUI {
                 } else {
                     String input = scanner.next(); // Get the next input
                     if (input.equalsIgnoreCase("Exit")) {
-                        exitRequest = true;
-                        break;
+                        return Screen.EXIT;
                     }
                     // If input is not an integer, show an error message
                     System.out.println(
@@ -845,13 +854,9 @@ public class CinemaUI {
                 scanner.next(); // Consume the invalid input
             }
         }
-        if (exitRequest == true) {
-            exitProgram();
-        }
-
     }
 
-    private void viewCustomerInfo() {
+    private Screen viewCustomerInfo() {
         scanner.nextLine();
 
         while (true) { // Loop until valid input or user decides to go back
@@ -859,24 +864,22 @@ public class CinemaUI {
             String phone = scanner.nextLine();
 
             if (phone.equalsIgnoreCase("Exit")) {
-                exitRequest = true;
-                exitProgram();
+                return Screen.EXIT;
             }
 
             // Check if the input is "0" to go back
             if (phone.equals("0")) {
-                displayMenu();
-                return; // Exit the method after calling displayMenu
+                return Screen.MAIN_MENU;
             }
 
             // Check if the input is numeric using regex
             if (phone.matches("\\d+")) { // Ensure the phone number is numeric
                 // If input is numeric, check for customer information
-                if (customerMap.get(phone) != null) {
+                Customer customer = customerStore.findByPhone(phone);
+                if (customer != null) {
                     System.out.println("\nDisplaying customer info: ");
-                    for (Customer customer : customerMap.get(phone)) {
-                        customer.searchTransactionHistory();
-                    }
+                    customer.searchTransactionHistory();
+                    showOlderTransactions(customer);
                 } else {
                     System.out.println("No customer information available.");
                     System.out.println("----------------------------------------------");
@@ -889,13 +892,27 @@ public class CinemaUI {
         }
     }
 
+    // Page through the rest of the history, one page per request
+    private void showOlderTransactions(Customer customer) {
+        int pages = customer.getHistoryPageCount(Customer.HISTORY_PAGE_SIZE);
+        for (int page = 1; page < pages; page++) {
+            System.out.println("Enter 'n' for older transactions or press Enter to continue: ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("n")) {
+                return;
+            }
+            customer.displayTransactionHistoryPage(page, Customer.HISTORY_PAGE_SIZE);
+        }
+    }
+
     private void exitProgram() {
+        // An unfinished booking must not keep its seat or its registered ticket after a restart
+        session.abandonTicket();
+        session.reset();
         if (scanner != null) {
             scanner.close();
         }
         System.out.println("Exiting... Thanks for visiting ASAN Cinema!");
         System.out.println();
-        System.exit(0);
     }
 
-}
\ No newline at end of file
+}
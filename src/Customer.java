@@ -5,26 +5,27 @@ import java.util.List;
 import java.util.Scanner;
 
 public class Customer extends Person {
+    public static final int HISTORY_PAGE_SIZE = 5; // Receipts shown at once on the history screen
+
     private String phone;
     private List<Transaction> transactionHistory = new ArrayList<>();
-
-    private static int instanceCount = 0; // Class-level variable to track instances
-    private static final int MAX_INSTANCES = 100; // Maximum allowed instances
+    // Transactions whose ticket may still be reserved, canceled ones are dropped when next listed
+    private List<Transaction> reservedTransactions = new ArrayList<>();
 
     // Constructor
     public Customer() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Customer instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Customer.class)) {
+            throw new IllegalStateException("Maximum number of Customer instances ("
+                    + EntityRegistry.getCapacity(Customer.class) + ") reached.");
         }
-        instanceCount++; // Increment the instance count on successful creation
     }
 
     public Customer(String name, String email, String phone) {
         super(name, email);
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Customer instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Customer.class)) {
+            throw new IllegalStateException("Maximum number of Customer instances ("
+                    + EntityRegistry.getCapacity(Customer.class) + ") reached.");
         }
-        instanceCount++; // Increment the instance count on successful creation
         this.phone = phone;
         this.transactionHistory = new ArrayList<>();
     }
@@ -35,7 +36,7 @@ public class Customer extends Person {
 
     // Method to reset the Customer count (for testing purposes)
     public static void resetCustomerCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Customer.class);
     }
 
     // Methods
@@ -51,6 +52,31 @@ public class Customer extends Person {
         return phone != null && phone.matches("\\d{10}");
     }
 
+    /**
+     * Pack the digits of a phone number into a long. A leading 1 is added in
+     * front of the digits so numbers starting with 0 keep their length.
+     *
+     * @param phone Phone number, other characters than digits are ignored
+     * @return Packed key, or 0 if there are no digits or more than 17
+     */
+    public static long toPhoneKey(String phone) {
+        if (phone == null) {
+            return 0;
+        }
+        long key = 1;
+        int digits = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits > 17) {
+                    return 0;
+                }
+                key = key * 10 + (c - '0');
+            }
+        }
+        return digits == 0 ? 0 : key;
+    }
+
     public void updateProfile(String newName, String newEmail, String newPhone) {
         this.name = newName;
         this.email = newEmail;
@@ -58,13 +84,73 @@ public class Customer extends Person {
         System.out.println("Profile updated successfully.");
     }
 
+    // Show the profile, the reserved tickets and the newest page of the history
     public void searchTransactionHistory() {
         displayInfo();
 
         System.out.println();
         displayReservedTickets();
 
-        displayTransactionHistory();
+        if (getTransactionCount() == 0) {
+            System.out.println("No transaction history available.");
+            return;
+        }
+        displayTransactionHistoryPage(0, HISTORY_PAGE_SIZE);
+    }
+
+    /**
+     * Show one page of the history, newest transactions first
+     *
+     * @param page     Page number, 0 for the newest transactions
+     * @param pageSize Number of transactions on a page
+     */
+    public void displayTransactionHistoryPage(int page, int pageSize) {
+        Renderer renderer = Renderer.console();
+        renderTransactionHistoryPage(renderer, page, pageSize);
+        renderer.flush();
+    }
+
+    // Render one page of the history without flushing, only the receipts on the page are built
+    public synchronized void renderTransactionHistoryPage(Renderer renderer, int page, int pageSize) {
+        List<Transaction> transactions = getTransactionHistoryPage(page, pageSize);
+        renderer.number(transactionHistory.size()).line(" Transaction History: ");
+        renderer.line().line("Customer receipt: ");
+        for (Transaction transaction : transactions) {
+            transaction.renderReceipt(renderer);
+        }
+        renderer.text("Page ").number(page + 1).text(" of ").number(getHistoryPageCount(pageSize))
+                .line(", newest first");
+    }
+
+    /**
+     * Return one page of the history, newest transactions first, without
+     * looking at the other transactions
+     *
+     * @param page     Page number, 0 for the newest transactions
+     * @param pageSize Number of transactions on a page
+     * @return Transactions on the page, empty after the last page
+     */
+    public synchronized List<Transaction> getTransactionHistoryPage(int page, int pageSize) {
+        if (page < 0 || pageSize < 1) {
+            throw new IllegalArgumentException("Page must be 0 or more and page size at least 1.");
+        }
+        int newest = transactionHistory.size() - 1 - (int) Math.min((long) page * pageSize, Integer.MAX_VALUE);
+        List<Transaction> transactions = new ArrayList<>(Math.min(pageSize, Math.max(0, newest + 1)));
+        for (int i = newest; i >= 0 && i > newest - pageSize; i--) {
+            transactions.add(transactionHistory.get(i));
+        }
+        return transactions;
+    }
+
+    public synchronized int getHistoryPageCount(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1.");
+        }
+        return Math.max(1, (transactionHistory.size() + pageSize - 1) / pageSize);
+    }
+
+    public synchronized int getTransactionCount() {
+        return transactionHistory.size();
     }
 
     public void displayTransactionHistory() {
@@ -73,27 +159,61 @@ public class Customer extends Person {
             return;
         }
 
-        System.out.println(transactionHistory.size() + " Transaction History: ");
-        System.out.println("\nCustomer receipt: ");
+        Renderer renderer = Renderer.console();
+        renderTransactionHistory(renderer);
+        renderer.flush();
+    }
+
+    // Render every receipt of a non-empty history without flushing
+    public synchronized void renderTransactionHistory(Renderer renderer) {
+        renderer.number(transactionHistory.size()).line(" Transaction History: ");
+        renderer.line().line("Customer receipt: ");
         for (Transaction transaction : transactionHistory) {
-            transaction.printReceipt();
+            transaction.renderReceipt(renderer);
         }
     }
 
     // Method to check reserved tickets
     public void displayReservedTickets() {
-        for (Transaction transaction : transactionHistory) {
-            Ticket ticket = transaction.getTicket();
+        Renderer renderer = Renderer.console();
+        renderReservedTickets(renderer);
+        renderer.flush();
+    }
 
-            if (ticket.isReserved()) {
-                System.out.println("Reserved Ticket: ");
-                ticket.getSummary();
+    // Render the summary of every reserved ticket without flushing
+    public synchronized void renderReservedTickets(Renderer renderer) {
+        for (Transaction transaction : getReservedTransactions()) {
+            renderer.line("Reserved Ticket: ");
+            transaction.getTicket().renderSummary(renderer);
+        }
+    }
+
+    /**
+     * Return the transactions whose ticket is still reserved, oldest first.
+     * Only transactions that were reserved the last time are checked, and a
+     * canceled one is dropped for good, so a regular with a long history costs
+     * no more than one with a short one.
+     *
+     * @return Transactions with a reserved ticket
+     */
+    public synchronized List<Transaction> getReservedTransactions() {
+        int kept = 0;
+        for (Transaction transaction : reservedTransactions) {
+            Ticket ticket = transaction.getTicket();
+            // Keep it while the ticket is reserved and was not recycled into another booking
+            if (ticket != null && ticket.isReserved()
+                    && (ticket.getTransaction() == null || ticket.getTransaction() == transaction)) {
+                reservedTransactions.set(kept++, transaction);
             }
         }
+        reservedTransactions.subList(kept, reservedTransactions.size()).clear();
+        return new ArrayList<>(reservedTransactions);
     }
 
-    public void addTransaction(Transaction transaction) {
+    // Synchronized because the customer store hands one record to every session of the customer
+    public synchronized void addTransaction(Transaction transaction) {
         transactionHistory.add(transaction);
+        reservedTransactions.add(transaction);
     }
 
     public void addCustomer(Scanner scanner) {
@@ -0,0 +1,199 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * The CustomerStore class keeps one record per customer, found in O(1) by
+ * phone number or email. Phone numbers are indexed by their digits packed
+ * into a long (Customer.toPhoneKey) in a LongHashMap, so the index costs two
+ * array slots per customer instead of a String key and a list; emails are
+ * indexed trimmed and in lower case.
+ * Adding a customer whose phone number, or else email, is already known
+ * returns the known record instead of a duplicate: the known record takes the
+ * latest name, email and phone and the history of the duplicate, and keeps
+ * answering to its earlier phone numbers and emails.
+ * Phone lookups take an optimistic read stamp like TicketRegistry; adding and
+ * email lookups lock, so the store can be shared by many booking sessions.
+ */
+public class CustomerStore {
+    private final List<Customer> customers = new ArrayList<>();
+    private final LongHashMap<Customer> byPhone;
+    private final Map<String, Customer> byEmail;
+    private final StampedLock lock = new StampedLock();
+
+    public CustomerStore() {
+        this(16);
+    }
+
+    /**
+     * Constructor that sizes the indexes for an expected number of customers
+     *
+     * @param expectedSize Number of customers the store should hold without resizing
+     */
+    public CustomerStore(int expectedSize) {
+        this.byPhone = new LongHashMap<>(expectedSize);
+        this.byEmail = new HashMap<>(Math.max(16, expectedSize * 4 / 3 + 1));
+    }
+
+    /**
+     * Constructor that adds known customers, merging any duplicates among them
+     *
+     * @param customers Customers to add, for example from a snapshot
+     */
+    public CustomerStore(List<Customer> customers) {
+        this(customers.size());
+        for (Customer customer : customers) {
+            add(customer);
+        }
+    }
+
+    // Methods
+    /**
+     * Add a customer unless the same person is already known
+     *
+     * @param customer Customer to add
+     * @return The stored record: the known one if the phone number or email
+     *         matched, otherwise the given customer
+     */
+    public Customer add(Customer customer) {
+        long phoneKey = Customer.toPhoneKey(customer.getPhone());
+        String emailKey = normalizeEmail(customer.getEmail());
+        long stamp = lock.writeLock();
+        try {
+            Customer known = phoneKey == 0 ? null : byPhone.get(phoneKey);
+            if (known == null && emailKey != null) {
+                known = byEmail.get(emailKey);
+            }
+            if (known == customer) {
+                return known;
+            }
+            if (known == null) {
+                customers.add(customer);
+                index(customer, phoneKey, emailKey);
+                return customer;
+            }
+            merge(known, customer);
+            index(known, phoneKey, emailKey);
+            EntityRegistry.release(Customer.class); // The duplicate is dropped
+            return known;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    // Point the keys at the record, a phone number or email keeps its first owner
+    private void index(Customer customer, long phoneKey, String emailKey) {
+        if (phoneKey != 0 && byPhone.get(phoneKey) == null) {
+            byPhone.put(phoneKey, customer);
+        }
+        if (emailKey != null) {
+            byEmail.putIfAbsent(emailKey, customer);
+        }
+    }
+
+    // Give the known record the latest details and the duplicate's history
+    private static void merge(Customer known, Customer duplicate) {
+        synchronized (known) {
+            mergeDetails(known, duplicate);
+        }
+    }
+
+    private static void mergeDetails(Customer known, Customer duplicate) {
+        if (!isBlank(duplicate.getName())) {
+            known.setName(duplicate.getName());
+        }
+        if (!isBlank(duplicate.getEmail())) {
+            known.setEmail(duplicate.getEmail());
+        }
+        if (Customer.toPhoneKey(duplicate.getPhone()) != 0) {
+            known.setPhone(duplicate.getPhone());
+        }
+        for (Transaction transaction : duplicate.geTransactionsHistory()) {
+            transaction.setCustomer(known);
+            known.addTransaction(transaction);
+        }
+        duplicate.geTransactionsHistory().clear();
+    }
+
+    /**
+     * Find a customer by phone number, ignoring anything but the digits
+     *
+     * @param phone Phone number
+     * @return The customer, or null if the number is not known
+     */
+    public Customer findByPhone(String phone) {
+        return findByPhoneKey(Customer.toPhoneKey(phone));
+    }
+
+    public Customer findByPhoneKey(long phoneKey) {
+        if (phoneKey == 0) {
+            return null;
+        }
+        long stamp = lock.tryOptimisticRead();
+        Customer customer = byPhone.get(phoneKey);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                customer = byPhone.get(phoneKey);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return customer;
+    }
+
+    /**
+     * Find a customer by email, ignoring case and surrounding spaces
+     *
+     * @param email Email address
+     * @return The customer, or null if the email is not known
+     */
+    public Customer findByEmail(String email) {
+        String emailKey = normalizeEmail(email);
+        if (emailKey == null) {
+            return null;
+        }
+        long stamp = lock.readLock();
+        try {
+            return byEmail.get(emailKey);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Every stored customer, in the order they were first added
+    public List<Customer> getCustomers() {
+        long stamp = lock.readLock();
+        try {
+            return new ArrayList<>(customers);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return customers.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Email in the form it is indexed under, or null if there is none
+    static String normalizeEmail(String email) {
+        if (isBlank(email)) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
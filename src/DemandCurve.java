@@ -0,0 +1,78 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * The DemandCurve class turns the occupancy of a seat type into a price tier.
+ * Tier 0 is the normal price; every threshold the share of sold seats reaches
+ * moves the price up one tier, each with its own surcharge percentage.
+ */
+public final class DemandCurve {
+    private static final DemandCurve STANDARD = new DemandCurve(new int[] { 50, 75, 90 }, new int[] { 10, 25, 50 });
+    private static final DemandCurve FLAT = new DemandCurve(new int[0], new int[0]);
+
+    private final int[] soldPercentages; // Ascending thresholds
+    private final int[] surchargePercentages; // surchargePercentages[i] applies from tier i + 1
+
+    /**
+     * Constructor for a curve with one surcharge per threshold
+     *
+     * @param soldPercentages      Share of sold seats, in percent, where each tier starts, ascending
+     * @param surchargePercentages Surcharge of each tier in percent
+     */
+    public DemandCurve(int[] soldPercentages, int[] surchargePercentages) {
+        if (soldPercentages.length != surchargePercentages.length) {
+            throw new IllegalArgumentException("Every threshold needs a surcharge.");
+        }
+        for (int i = 1; i < soldPercentages.length; i++) {
+            if (soldPercentages[i] <= soldPercentages[i - 1]) {
+                throw new IllegalArgumentException("Thresholds must be ascending: " + Arrays.toString(soldPercentages));
+            }
+        }
+        this.soldPercentages = soldPercentages.clone();
+        this.surchargePercentages = surchargePercentages.clone();
+    }
+
+    // +10% from half sold, +25% from 75% and +50% from 90%
+    public static DemandCurve standard() {
+        return STANDARD;
+    }
+
+    // Curve that never changes the price
+    public static DemandCurve flat() {
+        return FLAT;
+    }
+
+    // Methods
+    /**
+     * Return the tier for an occupancy
+     *
+     * @param sold     Number of seats sold
+     * @param capacity Number of seats of the seat type
+     * @return Tier from 0 (normal price) to getTierCount() - 1
+     */
+    public int tierFor(int sold, int capacity) {
+        if (capacity <= 0) {
+            return 0;
+        }
+        int tier = 0;
+        // Compare sold / capacity >= threshold / 100 without dividing
+        while (tier < soldPercentages.length && sold * 100L >= (long) soldPercentages[tier] * capacity) {
+            tier++;
+        }
+        return tier;
+    }
+
+    // Share of sold seats, in percent, where a tier starts; 0 for tier 0
+    public int getSoldPercentage(int tier) {
+        return tier == 0 ? 0 : soldPercentages[tier - 1];
+    }
+
+    public int getSurchargePercentage(int tier) {
+        return tier == 0 ? 0 : surchargePercentages[tier - 1];
+    }
+
+    public int getTierCount() {
+        return soldPercentages.length + 1;
+    }
+}
@@ -0,0 +1,126 @@
+package src;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The DemandPricing class raises the prices of a Showtime as its seats sell.
+ * Every SeatType has its own DemandCurve; the current tier of each seat type
+ * is read from the free-seat counters of the SeatMap, so checking occupancy
+ * is O(1) and never scans seats.
+ * The surcharges in force are published as one immutable Tiers object through
+ * an AtomicReference. A quote reads that object once, so a quote running while
+ * a tier changes sees either the old or the new tiers, never a mix of both.
+ */
+public class DemandPricing {
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+
+    private final SeatMap seatMap;
+    private final DemandCurve[] curves; // Index is the SeatType ordinal
+    private final AtomicReference<Tiers> current;
+
+    /**
+     * Constructor that uses the same curve for every seat type
+     *
+     * @param seatMap Seat map of the showtime
+     * @param curve   Curve for all seat types
+     */
+    public DemandPricing(SeatMap seatMap, DemandCurve curve) {
+        this(seatMap, sameCurve(curve));
+    }
+
+    /**
+     * Constructor with one curve per seat type
+     *
+     * @param seatMap Seat map of the showtime
+     * @param curves  Curve of each seat type, indexed by SeatType ordinal
+     */
+    public DemandPricing(SeatMap seatMap, DemandCurve[] curves) {
+        if (curves.length != SEAT_TYPES.length) {
+            throw new IllegalArgumentException("Expected a curve for each of the " + SEAT_TYPES.length
+                    + " seat types.");
+        }
+        this.seatMap = seatMap;
+        this.curves = curves.clone();
+        int[] tiers = new int[SEAT_TYPES.length];
+        for (SeatType seatType : SEAT_TYPES) {
+            tiers[seatType.ordinal()] = currentTier(seatType);
+        }
+        this.current = new AtomicReference<>(new Tiers(tiers, this.curves));
+    }
+
+    // Methods
+    /**
+     * Add the demand surcharge to a base price
+     *
+     * @param seatType   Seat type of the ticket
+     * @param priceCents Base price in cents
+     * @return Price with the surcharge of the current tier
+     */
+    public long apply(SeatType seatType, long priceCents) {
+        return Money.percentOn(priceCents, getSurchargePercentage(seatType));
+    }
+
+    /**
+     * Return the surcharge in force for a seat type, publishing a new tier
+     * first if the occupancy has crossed a threshold
+     *
+     * @param seatType Seat type of the ticket
+     * @return Surcharge in percent
+     */
+    public int getSurchargePercentage(SeatType seatType) {
+        int type = seatType.ordinal();
+        int tier = currentTier(seatType);
+        Tiers tiers = current.get();
+        while (tiers.tiers[type] != tier) {
+            Tiers updated = tiers.withTier(type, tier, curves);
+            if (current.compareAndSet(tiers, updated)) {
+                tiers = updated;
+            } else {
+                tiers = current.get(); // Another quote published first, check its tiers
+                tier = currentTier(seatType);
+            }
+        }
+        return tiers.surcharges[type];
+    }
+
+    public DemandCurve getCurve(SeatType seatType) {
+        return curves[seatType.ordinal()];
+    }
+
+    public int getTier(SeatType seatType) {
+        getSurchargePercentage(seatType);
+        return current.get().tiers[seatType.ordinal()];
+    }
+
+    private static DemandCurve[] sameCurve(DemandCurve curve) {
+        DemandCurve[] curves = new DemandCurve[SEAT_TYPES.length];
+        Arrays.fill(curves, curve);
+        return curves;
+    }
+
+    private int currentTier(SeatType seatType) {
+        int capacity = seatMap.getLayout().getSeatCount(seatType);
+        return curves[seatType.ordinal()].tierFor(capacity - seatMap.getFreeSeats(seatType), capacity);
+    }
+
+    // Tier and surcharge of every seat type, never changed once published
+    private static final class Tiers {
+        private final int[] tiers;
+        private final int[] surcharges;
+
+        private Tiers(int[] tiers, DemandCurve[] curves) {
+            this.tiers = tiers;
+            this.surcharges = new int[tiers.length];
+            for (int type = 0; type < tiers.length; type++) {
+                surcharges[type] = curves[type].getSurchargePercentage(tiers[type]);
+            }
+        }
+
+        private Tiers withTier(int type, int tier, DemandCurve[] curves) {
+            int[] updated = tiers.clone();
+            updated[type] = tier;
+            return new Tiers(updated, curves);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package src;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The DemandPricingSimulation class replays the same stream of booking
+ * requests against a showtime with flat prices and with demand pricing, and
+ * prints the revenue of both runs and the latency of the price quotes.
+ * Run with: java src.DemandPricingSimulation [requests] [threads] [seed]
+ */
+public class DemandPricingSimulation {
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+    private static final AgePricing[] AGES = AgePricing.values();
+
+    private final SeatLayout layout;
+    private final SeatType[] requestedTypes;
+    private final AgePricing[] requestedAges;
+    private final int[] groupSizes;
+    private final int threads;
+
+    /**
+     * Constructor that generates the booking stream
+     *
+     * @param layout   Layout of the simulated screen
+     * @param requests Number of booking requests
+     * @param threads  Number of booking threads
+     * @param seed     Seed of the random stream, the same seed gives the same stream
+     */
+    public DemandPricingSimulation(SeatLayout layout, int requests, int threads, long seed) {
+        this.layout = layout;
+        this.threads = threads;
+        this.requestedTypes = new SeatType[requests];
+        this.requestedAges = new AgePricing[requests];
+        this.groupSizes = new int[requests];
+
+        Random random = new Random(seed);
+        for (int i = 0; i < requests; i++) {
+            requestedTypes[i] = SEAT_TYPES[random.nextInt(SEAT_TYPES.length)];
+            requestedAges[i] = AGES[random.nextInt(AGES.length)];
+            groupSizes[i] = 1 + random.nextInt(4);
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        // 20 rows of 30 seats: 3 VIP rows, 5 Premium rows, the rest Regular
+        SeatType[] rowTypes = new SeatType[20];
+        Arrays.fill(rowTypes, SeatType.REGULAR);
+        Arrays.fill(rowTypes, 0, 3, SeatType.VIP);
+        Arrays.fill(rowTypes, 3, 8, SeatType.PREMIUM);
+        SeatLayout layout = SeatLayout.byRow(20, 30, rowTypes, 9, 19);
+
+        DemandPricingSimulation simulation = new DemandPricingSimulation(layout, requests, threads, seed);
+        Result flat = simulation.run(DemandCurve.flat());
+        Result demand = simulation.run(DemandCurve.standard());
+
+        System.out.println("Requests: " + requests + ", threads: " + threads + ", seats: " + layout.getCapacity());
+        System.out.println("Flat prices:   " + flat);
+        System.out.println("Demand prices: " + demand);
+        System.out.printf("Revenue change: %+.1f%%%n",
+                100.0 * (demand.revenueCents - flat.revenueCents) / Math.max(1, flat.revenueCents));
+    }
+
+    /**
+     * Replay the stream against a fresh showtime
+     *
+     * @param curve Demand curve for every seat type
+     * @return Revenue, tickets sold and quote latencies of the run
+     * @throws InterruptedException If interrupted while waiting for the booking threads
+     */
+    public Result run(DemandCurve curve) throws InterruptedException {
+        Showtime showtime = new Showtime(1, "08:00 PM", layout);
+        showtime.enableDemandPricing(curve);
+        PricingEngine engine = PricingEngine.getDefault();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong revenue = new AtomicLong();
+        AtomicInteger sold = new AtomicInteger();
+        long[] quoteNanos = new long[requestedTypes.length];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = next.getAndIncrement(); i < requestedTypes.length; i = next.getAndIncrement()) {
+                    long begin = System.nanoTime();
+                    long price = engine.quote(requestedTypes[i], requestedAges[i], showtime);
+                    quoteNanos[i] = System.nanoTime() - begin;
+
+                    int[] seats = showtime.reserveBestAvailable(groupSizes[i], requestedTypes[i]);
+                    if (seats.length > 0) {
+                        revenue.addAndGet(price * seats.length);
+                        sold.addAndGet(seats.length);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return new Result(revenue.get(), sold.get(), quoteNanos);
+    }
+
+    /**
+     * Outcome of one run
+     */
+    public static final class Result {
+        private final long revenueCents;
+        private final int ticketsSold;
+        private final long[] sortedQuoteNanos;
+
+        private Result(long revenueCents, int ticketsSold, long[] quoteNanos) {
+            this.revenueCents = revenueCents;
+            this.ticketsSold = ticketsSold;
+            this.sortedQuoteNanos = quoteNanos.clone();
+            Arrays.sort(sortedQuoteNanos);
+        }
+
+        public long getRevenueCents() {
+            return revenueCents;
+        }
+
+        public int getTicketsSold() {
+            return ticketsSold;
+        }
+
+        // Quote latency at a percentile from 0 to 100
+        public long getQuoteNanos(double percentile) {
+            if (sortedQuoteNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100 * sortedQuoteNanos.length) - 1;
+            return sortedQuoteNanos[Math.max(0, Math.min(index, sortedQuoteNanos.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return "revenue " + Money.format(revenueCents) + ", tickets " + ticketsSold
+                    + ", quote p50 " + getQuoteNanos(50) + " ns, p99 " + getQuoteNanos(99) + " ns, max "
+                    + getQuoteNanos(100) + " ns";
+        }
+    }
+}
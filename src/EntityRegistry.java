@@ -0,0 +1,197 @@
+package src;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The EntityRegistry class keeps count of the live domain objects of each type
+ * and the estimated heap they use. New objects are allowed while the total
+ * stays within the heap budget (half of the maximum heap by default) and the
+ * count of their type stays within its limit, if one was set.
+ * This replaces the fixed limit of 100 instances per class.
+ */
+public final class EntityRegistry {
+    public static final double DEFAULT_HEAP_SHARE = 0.5;
+    public static final int CLASSIC_LIMIT = 100; // The fixed limit every type had before this registry
+    private static final int DEFAULT_BYTES = 64;
+
+    private static final Map<Class<?>, Entry> entries = new ConcurrentHashMap<>();
+    private static final AtomicLong usedBytes = new AtomicLong();
+    private static volatile long heapBudget = defaultHeapBudget();
+
+    static {
+        // Rough heap cost of each object including the collections it owns
+        define(Cinema.class, 128);
+        define(Theater.class, 256);
+        define(Movie.class, 160);
+        define(Showtime.class, 128); // Plus its seat map, see Showtime.footprint
+        define(Ticket.class, 96);
+        define(Transaction.class, 160);
+        define(Customer.class, 160);
+        define(FoodAndDrink.class, 64);
+    }
+
+    private EntityRegistry() {
+    }
+
+    private static long defaultHeapBudget() {
+        return (long) (Runtime.getRuntime().maxMemory() * DEFAULT_HEAP_SHARE);
+    }
+
+    private static void define(Class<?> type, int bytesPerInstance) {
+        entries.put(type, new Entry(bytesPerInstance));
+    }
+
+    private static Entry entry(Class<?> type) {
+        return entries.computeIfAbsent(type, key -> new Entry(DEFAULT_BYTES));
+    }
+
+    // Methods
+    /**
+     * Count a new object of the given type if the limit and heap budget allow it
+     *
+     * @param type Class of the new object
+     * @return true if the object may be created
+     */
+    public static boolean acquire(Class<?> type) {
+        Entry entry = entry(type);
+        return acquire(entry, entry.bytesPerInstance);
+    }
+
+    /**
+     * Count a new object whose size depends on its contents
+     *
+     * @param type  Class of the new object
+     * @param bytes Heap used by this object, given again when it is released
+     * @return true if the object may be created
+     */
+    public static boolean acquire(Class<?> type, long bytes) {
+        return acquire(entry(type), bytes);
+    }
+
+    private static boolean acquire(Entry entry, long bytes) {
+        int live;
+        do {
+            live = entry.live.get();
+            if (live >= entry.limit) {
+                return false;
+            }
+        } while (!entry.live.compareAndSet(live, live + 1));
+
+        entry.usedBytes.addAndGet(bytes);
+        if (usedBytes.addAndGet(bytes) > heapBudget) {
+            usedBytes.addAndGet(-bytes);
+            entry.usedBytes.addAndGet(-bytes);
+            entry.live.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stop counting an object that is no longer in use
+     *
+     * @param type Class of the object
+     */
+    public static void release(Class<?> type) {
+        Entry entry = entry(type);
+        release(entry, entry.bytesPerInstance);
+    }
+
+    /**
+     * Stop counting an object that was counted with its own size
+     *
+     * @param type  Class of the object
+     * @param bytes Heap given when the object was acquired
+     */
+    public static void release(Class<?> type, long bytes) {
+        release(entry(type), bytes);
+    }
+
+    private static void release(Entry entry, long bytes) {
+        int live;
+        do {
+            live = entry.live.get();
+            if (live == 0) {
+                return;
+            }
+        } while (!entry.live.compareAndSet(live, live - 1));
+        entry.usedBytes.addAndGet(-bytes);
+        usedBytes.addAndGet(-bytes);
+    }
+
+    // Forget all counted objects of a type (for testing purposes)
+    public static void reset(Class<?> type) {
+        Entry entry = entry(type);
+        entry.live.set(0);
+        usedBytes.addAndGet(-entry.usedBytes.getAndSet(0));
+    }
+
+    /**
+     * Return how many objects of the type may exist right now: the type limit,
+     * or fewer if the heap budget runs out first
+     *
+     * @param type Class of the objects
+     * @return Number of objects allowed
+     */
+    public static long getCapacity(Class<?> type) {
+        Entry entry = entry(type);
+        long live = entry.live.get();
+        long byBudget = live + Math.max(0, heapBudget - usedBytes.get()) / entry.bytesPerInstance;
+        return Math.min(entry.limit, byBudget);
+    }
+
+    public static int getLiveCount(Class<?> type) {
+        return entry(type).live.get();
+    }
+
+    public static void setLimit(Class<?> type, int limit) {
+        entry(type).limit = limit;
+    }
+
+    // Cap a type at the classic limit again, for tests written against it
+    public static void useClassicLimit(Class<?> type) {
+        setLimit(type, CLASSIC_LIMIT);
+    }
+
+    public static int getLimit(Class<?> type) {
+        return entry(type).limit;
+    }
+
+    // Remove every type limit and restore the default heap budget
+    public static void resetLimits() {
+        for (Entry entry : entries.values()) {
+            entry.limit = Integer.MAX_VALUE;
+        }
+        heapBudget = defaultHeapBudget();
+    }
+
+    public static void setHeapBudget(long bytes) {
+        heapBudget = bytes;
+    }
+
+    public static long getHeapBudget() {
+        return heapBudget;
+    }
+
+    public static long getUsedBytes() {
+        return usedBytes.get();
+    }
+
+    public static long getUsedBytes(Class<?> type) {
+        return entry(type).usedBytes.get();
+    }
+
+    private static class Entry {
+        private final int bytesPerInstance;
+        private final AtomicInteger live = new AtomicInteger();
+        private final AtomicLong usedBytes = new AtomicLong(); // Heap of the live objects of this type
+        private volatile int limit = Integer.MAX_VALUE;
+
+        private Entry(int bytesPerInstance) {
+            this.bytesPerInstance = bytesPerInstance;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package src;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The FileSink class appends everything rendered into it to a text file, for
+ * example to keep a copy of every receipt printed at a kiosk.
+ */
+public class FileSink implements RenderSink, AutoCloseable {
+    private final BufferedWriter writer;
+
+    /**
+     * Constructor that opens the file for appending, creating it if needed
+     *
+     * @param file File to append to
+     * @throws IOException If the file cannot be opened
+     */
+    public FileSink(Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND);
+    }
+
+    // Methods
+    @Override
+    public synchronized void write(CharSequence text) {
+        try {
+            writer.append(text);
+            writer.flush(); // One rendered screen or receipt per write
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write rendered text: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
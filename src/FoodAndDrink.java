@@ -3,43 +3,38 @@ package src;
 public class FoodAndDrink {
     private int id; // Unique ID for the item
     private String name;
-    private double price;
-    private static final int MAX_INSTANCES = 100; // Maximum number of allowed instances
-    private static int instanceCount = 0; // Track the current instance count
+    private long priceCents;
 
     // Constructor
     public FoodAndDrink() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException(
-                    "Maximum number of FoodAndDrink instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(FoodAndDrink.class)) {
+            throw new IllegalStateException("Maximum number of FoodAndDrink instances ("
+                    + EntityRegistry.getCapacity(FoodAndDrink.class) + ") reached.");
         }
-        instanceCount++;
     }
 
     public FoodAndDrink(String name, double price) {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException(
-                    "Maximum number of FoodAndDrink instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(FoodAndDrink.class)) {
+            throw new IllegalStateException("Maximum number of FoodAndDrink instances ("
+                    + EntityRegistry.getCapacity(FoodAndDrink.class) + ") reached.");
         }
         this.name = name;
-        this.price = price;
-        instanceCount++;
+        this.priceCents = Money.ofDollars(price);
     }
 
     public FoodAndDrink(int id, String name, double price) {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException(
-                    "Maximum number of FoodAndDrink instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(FoodAndDrink.class)) {
+            throw new IllegalStateException("Maximum number of FoodAndDrink instances ("
+                    + EntityRegistry.getCapacity(FoodAndDrink.class) + ") reached.");
         }
         this.id = id;
         this.name = name;
-        this.price = price;
-        instanceCount++;
+        this.priceCents = Money.ofDollars(price);
     }
 
     // Method to reset the FoodAndDrink count (for testing purposes)
     public static void resetFoodAndDrinkCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(FoodAndDrink.class);
     }
 
     // Getters and Setters
@@ -52,11 +47,19 @@ public class FoodAndDrink {
     }
 
     public double getPrice() {
-        return price;
+        return Money.toDollars(priceCents);
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.ofDollars(price);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public int getId() {
@@ -69,6 +72,6 @@ public class FoodAndDrink {
 
     @Override
     public String toString() {
-        return "FoodAndDrink [name=" + name + ", price=" + price + "]";
+        return "FoodAndDrink [name=" + name + ", price=" + getPrice() + "]";
     }
 }
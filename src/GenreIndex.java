@@ -0,0 +1,257 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The GenreIndex class maps every genre shown in a Cinema to the theaters
+ * showing it and, per theater, the movies of that genre in list order.
+ * Genre keys are canonical (trimmed, lower case and interned), so "Action",
+ * "action " and "ACTION" all land on the same entry and a lookup is one hash
+ * probe no matter how many theaters the cinema has.
+ * The index is kept up to date in place: Theater.addMovie, removeMovie and
+ * setMovies and Movie.setGenre tell the indexes of their cinemas, which then
+ * redo only the theaters involved. Theaters that share one movie list (as in
+ * Main) are all updated together. Movies must be changed through those
+ * methods, not by editing a list returned by getMovies.
+ */
+public final class GenreIndex {
+    private final List<Theater> theaters;
+    private final Map<Theater, Integer> positions = new IdentityHashMap<>(); // Place in the cinema's list
+    private final Comparator<Theater> cinemaOrder = Comparator.comparingInt(positions::get);
+    // Canonical genre to its theaters in cinema order; the null key holds movies without a genre
+    private final Map<String, TreeMap<Theater, List<Movie>>> byGenre = new HashMap<>();
+    private final Map<Theater, Set<String>> genresOfTheater = new IdentityHashMap<>();
+    private final Map<List<Movie>, List<Theater>> theatersByList = new IdentityHashMap<>();
+    // Immutable copies handed out by find, dropped when their genre changes
+    private final Map<String, Map<Theater, List<Movie>>> copies = new HashMap<>();
+    private final Map<String, Integer> spellings = new HashMap<>(); // Trimmed genre as written to its movie count
+    private Set<String> genres; // Immutable copy of the spellings, null until asked for after a change
+    private int indexedTheaters;
+
+    /**
+     * Constructor for the index of a cinema
+     *
+     * @param theaters Theater list of the cinema, kept by reference
+     */
+    public GenreIndex(List<Theater> theaters) {
+        this.theaters = theaters;
+        indexNewTheaters();
+    }
+
+    // Methods
+    /**
+     * Return the canonical key of a genre
+     *
+     * @param genre Genre as typed or stored
+     * @return Trimmed, lower case and interned genre
+     */
+    public static String canonical(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT).intern();
+    }
+
+    /**
+     * Index a theater that was just added to the end of the theater list
+     *
+     * @param theater Theater that was added
+     */
+    public synchronized void theaterAdded(Theater theater) {
+        indexNewTheaters();
+    }
+
+    /**
+     * Return the theaters showing a genre together with their movies of that genre
+     *
+     * @param genre Genre in any case, surrounding spaces are ignored
+     * @return Theaters in cinema order mapped to their matching movies, empty if
+     *         none; a copy that later changes do not touch
+     */
+    public synchronized Map<Theater, List<Movie>> find(String genre) {
+        indexNewTheaters();
+        String key = canonical(genre);
+        Map<Theater, List<Movie>> copy = copies.get(key);
+        if (copy == null) {
+            TreeMap<Theater, List<Movie>> theatersWithGenre = byGenre.get(key);
+            if (theatersWithGenre == null) {
+                return Collections.emptyMap();
+            }
+            copy = new LinkedHashMap<>();
+            for (Map.Entry<Theater, List<Movie>> entry : theatersWithGenre.entrySet()) {
+                copy.put(entry.getKey(), List.copyOf(entry.getValue()));
+            }
+            copy = Collections.unmodifiableMap(copy);
+            copies.put(key, copy);
+        }
+        return copy;
+    }
+
+    public synchronized boolean hasGenre(String genre) {
+        indexNewTheaters();
+        return byGenre.containsKey(canonical(genre));
+    }
+
+    // Distinct genres, spelled as on the movies; a copy that later changes do not touch
+    public synchronized Set<String> getGenres() {
+        indexNewTheaters();
+        if (genres == null) {
+            genres = Set.copyOf(spellings.keySet());
+        }
+        return genres;
+    }
+
+    // Called by Theater.addMovie
+    synchronized void movieAdded(Theater theater, Movie movie) {
+        for (Theater sharing : theatersSharing(theater)) {
+            addListing(sharing, movie);
+        }
+    }
+
+    // Called by Theater.removeMovie
+    synchronized void movieRemoved(Theater theater, Movie movie) {
+        for (Theater sharing : theatersSharing(theater)) {
+            reindex(sharing, null, null);
+        }
+    }
+
+    // Called by Theater.setMovies with the list it replaced
+    synchronized void moviesReplaced(Theater theater, List<Movie> oldMovies) {
+        if (!positions.containsKey(theater)) {
+            return;
+        }
+        unshare(theater, oldMovies);
+        share(theater);
+        reindex(theater, null, null);
+    }
+
+    // Called by Movie.setGenre with the genre it replaced
+    synchronized void genreChanged(Movie movie, String oldGenre) {
+        TreeMap<Theater, List<Movie>> oldBucket = byGenre.get(oldGenre == null ? null : canonical(oldGenre));
+        if (oldBucket == null) {
+            return;
+        }
+        List<Theater> showing = new ArrayList<>();
+        for (Map.Entry<Theater, List<Movie>> entry : oldBucket.entrySet()) {
+            if (entry.getValue().contains(movie)) {
+                showing.add(entry.getKey());
+            }
+        }
+        for (Theater theater : showing) {
+            reindex(theater, movie, oldGenre);
+        }
+    }
+
+    // The theater list is shared with the cinema, so pick up theaters added to it directly
+    private void indexNewTheaters() {
+        if (theaters.size() < indexedTheaters) {
+            clear(); // Theaters were taken out of the list, start over
+        }
+        for (int i = indexedTheaters; i < theaters.size(); i++) {
+            Theater theater = theaters.get(i);
+            if (positions.putIfAbsent(theater, i) != null) {
+                continue; // Listed twice, the first place counts
+            }
+            theater.watchGenres(this);
+            share(theater);
+            addListings(theater);
+        }
+        indexedTheaters = theaters.size();
+    }
+
+    private void clear() {
+        positions.clear();
+        byGenre.clear();
+        genresOfTheater.clear();
+        theatersByList.clear();
+        copies.clear();
+        spellings.clear();
+        genres = null;
+        indexedTheaters = 0;
+    }
+
+    // Theaters whose movie list is the same list as this theater's
+    private List<Theater> theatersSharing(Theater theater) {
+        List<Theater> sharing = theater.getMovies() == null ? null : theatersByList.get(theater.getMovies());
+        if (sharing == null || !positions.containsKey(theater)) {
+            return Collections.emptyList(); // Not in this cinema
+        }
+        return sharing;
+    }
+
+    private void share(Theater theater) {
+        if (theater.getMovies() != null) {
+            theatersByList.computeIfAbsent(theater.getMovies(), key -> new ArrayList<>()).add(theater);
+        }
+    }
+
+    private void unshare(Theater theater, List<Movie> movies) {
+        List<Theater> sharing = movies == null ? null : theatersByList.get(movies);
+        if (sharing != null) {
+            sharing.remove(theater);
+            if (sharing.isEmpty()) {
+                theatersByList.remove(movies);
+            }
+        }
+    }
+
+    // Drop a theater's listings, where changed was listed under oldGenre, and list its movies again
+    private void reindex(Theater theater, Movie changed, String oldGenre) {
+        Set<String> keys = genresOfTheater.remove(theater);
+        if (keys != null) {
+            for (String key : keys) {
+                TreeMap<Theater, List<Movie>> bucket = byGenre.get(key);
+                List<Movie> listed = bucket.remove(theater);
+                copies.remove(key);
+                if (bucket.isEmpty()) {
+                    byGenre.remove(key);
+                }
+                for (Movie movie : listed) {
+                    removeSpelling(movie == changed ? oldGenre : movie.getGenre());
+                }
+            }
+        }
+        addListings(theater);
+    }
+
+    private void addListings(Theater theater) {
+        if (theater.getMovies() == null) {
+            return;
+        }
+        for (Movie movie : theater.getMovies()) {
+            addListing(theater, movie);
+        }
+    }
+
+    private void addListing(Theater theater, Movie movie) {
+        movie.watchGenre(this);
+        String key = movie.getGenre() == null ? null : canonical(movie.getGenre());
+        byGenre.computeIfAbsent(key, genre -> new TreeMap<>(cinemaOrder))
+                .computeIfAbsent(theater, genre -> new ArrayList<>())
+                .add(movie);
+        copies.remove(key);
+        genresOfTheater.computeIfAbsent(theater, genre -> new HashSet<>()).add(key);
+        if (movie.getGenre() != null && spellings.merge(movie.getGenre().trim(), 1, Integer::sum) == 1) {
+            genres = null; // A new spelling
+        }
+    }
+
+    private void removeSpelling(String genre) {
+        if (genre == null) {
+            return;
+        }
+        String spelling = genre.trim();
+        if (spellings.merge(spelling, -1, Integer::sum) == 0) {
+            spellings.remove(spelling);
+            genres = null; // The last movie with this spelling is gone
+        }
+    }
+}
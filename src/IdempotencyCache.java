@@ -0,0 +1,186 @@
+package src;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The IdempotencyCache class remembers the outcome of requests by the key
+ * the client sent with them, so a retried request gets the first answer
+ * instead of doing the work again. A retry that arrives while the first
+ * attempt is still running gets the same pending result.
+ * A request can carry a Fingerprint, and a later request with the same key
+ * is only treated as a retry if its fingerprint matches; two clients that
+ * happen to pick the same key do not get each other's outcome.
+ * Only successful outcomes are kept; a failed attempt forgets its key so it
+ * can be retried. Keys expire a fixed time after they were first seen and the
+ * oldest keys are dropped once the cache is full, so memory stays bounded
+ * however many clients retry. A key whose request is still running is never
+ * dropped, since a retry would then run it a second time; when every key is
+ * still running, new keys are turned away. Lookups are one hash probe;
+ * because keys are kept in arrival order and all live equally long, expired
+ * keys are at the front and are dropped without a scan.
+ *
+ * @param <V> Type of the outcome
+ */
+public class IdempotencyCache<V> {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>();
+
+    /**
+     * Constructor for a cache driven by the system clock
+     *
+     * @param maxEntries Keys kept at most
+     * @param ttlMillis  How long a key is remembered
+     */
+    public IdempotencyCache(int maxEntries, long ttlMillis) {
+        this(maxEntries, ttlMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with a custom clock (for testing purposes)
+     *
+     * @param maxEntries Keys kept at most
+     * @param ttlMillis  How long a key is remembered
+     * @param clock      Source of the current time in milliseconds
+     */
+    public IdempotencyCache(int maxEntries, long ttlMillis, LongSupplier clock) {
+        if (maxEntries < 1 || ttlMillis < 1) {
+            throw new IllegalArgumentException("Cache needs room for one key and a time to live of 1 ms.");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    // Methods
+    /**
+     * Run a request once per key
+     *
+     * @param key     Key the client sent with the request
+     * @param request Starts the request, only called for a key not seen yet
+     * @return Outcome of the first request with this key
+     */
+    public CompletableFuture<V> execute(String key, Supplier<CompletableFuture<V>> request) {
+        return execute(key, null, request);
+    }
+
+    /**
+     * Run a request once per key, checking that a retry is the same request
+     *
+     * @param key         Key the client sent with the request
+     * @param fingerprint What the request is about, or null to skip the check
+     * @param request     Starts the request, only called for a key not seen yet
+     * @return Outcome of the first request with this key, or completes with an
+     *         IllegalArgumentException if the key was used for a different
+     *         request, or an IllegalStateException if every key is still running
+     */
+    public CompletableFuture<V> execute(String key, Fingerprint fingerprint, Supplier<CompletableFuture<V>> request) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        synchronized (this) {
+            long now = clock.getAsLong();
+            expire(now);
+            Entry<V> known = entries.get(key);
+            if (known != null) {
+                if (fingerprint != null && known.fingerprint != null && !fingerprint.matches(known.fingerprint)) {
+                    return CompletableFuture.failedFuture(new IllegalArgumentException(
+                            "Request ID " + key + " was already used for a different request."));
+                }
+                return known.outcome;
+            }
+            if (entries.size() >= maxEntries && !evictCompleted()) {
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException("Too many requests in progress, please try again."));
+            }
+            entries.put(key, new Entry<>(pending, fingerprint, now));
+        }
+
+        // Start the request outside the lock, retries meanwhile wait on the pending outcome
+        CompletableFuture<V> outcome;
+        try {
+            outcome = request.get();
+        } catch (RuntimeException e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        outcome.whenComplete((value, error) -> {
+            if (error != null) {
+                forget(key, pending); // A failed attempt may be tried again
+                pending.completeExceptionally(error);
+            } else {
+                pending.complete(value);
+            }
+        });
+        return pending;
+    }
+
+    // Drop the key unless it was reused for a later request already
+    private synchronized void forget(String key, CompletableFuture<V> outcome) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.outcome == outcome) {
+            entries.remove(key);
+        }
+    }
+
+    // Drop expired keys from the front, stopping at a request that is still running
+    private void expire(long now) {
+        Iterator<Entry<V>> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            Entry<V> entry = oldest.next();
+            if (now - entry.createdMillis < ttlMillis || !entry.outcome.isDone()) {
+                return;
+            }
+            oldest.remove();
+        }
+    }
+
+    // Drop the oldest key whose request has finished, skipping only the ones still running
+    private boolean evictCompleted() {
+        Iterator<Entry<V>> oldest = entries.values().iterator();
+        while (oldest.hasNext()) {
+            if (oldest.next().outcome.isDone()) {
+                oldest.remove();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        expire(clock.getAsLong());
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Describes a request, so a retry can be told apart from a different
+     * request that reuses its key
+     */
+    public interface Fingerprint {
+        /**
+         * Check whether this request may stand for the first one with its key
+         *
+         * @param first Fingerprint of the first request
+         * @return true if this is a retry of that request
+         */
+        boolean matches(Fingerprint first);
+    }
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> outcome;
+        final Fingerprint fingerprint;
+        final long createdMillis;
+
+        Entry(CompletableFuture<V> outcome, Fingerprint fingerprint, long createdMillis) {
+            this.outcome = outcome;
+            this.fingerprint = fingerprint;
+            this.createdMillis = createdMillis;
+        }
+    }
+}
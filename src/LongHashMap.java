@@ -0,0 +1,252 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LongHashMap class maps primitive long keys (ticket IDs, catalog IDs,
+ * phone numbers) to values without boxing the keys. It uses open addressing
+ * with linear probing in two parallel arrays and removes entries by shifting
+ * later entries back, so there are no tombstones and lookups stay short.
+ * The map is not thread safe for writers. A reader may race with a writer
+ * without failing (it works on the arrays it first saw), but the result must
+ * then be validated by the caller's lock, as TicketRegistry does.
+ *
+ * @param <V> Type of the values
+ */
+public class LongHashMap<V> {
+    private static final long EMPTY = 0; // Key 0 is kept outside the arrays
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+    private boolean hasZeroKey;
+    private Object zeroValue;
+
+    public LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Constructor that sizes the table for an expected number of entries
+     *
+     * @param expectedSize Number of entries the map should hold without resizing
+     */
+    public LongHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+    }
+
+    // Methods
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey ? (V) zeroValue : null;
+        }
+        // Read the arrays once so a concurrent resize cannot mix two tables
+        long[] currentKeys = keys;
+        Object[] currentValues = values;
+        if (currentValues.length != currentKeys.length) {
+            return null; // Caught in the middle of a resize, the caller will validate and retry
+        }
+        int mask = currentKeys.length - 1;
+        int index = mix(key) & mask;
+
+        for (int probes = 0; probes <= mask; probes++) {
+            long candidate = currentKeys[index];
+            if (candidate == key) {
+                return (V) currentValues[index];
+            }
+            if (candidate == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasZeroKey;
+        }
+        return get(key) != null;
+    }
+
+    /**
+     * Add or replace an entry
+     *
+     * @param key   Key of the entry
+     * @param value Value of the entry, must not be null
+     * @return The previous value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("LongHashMap does not store null values.");
+        }
+        if (key == EMPTY) {
+            V previous = (V) zeroValue;
+            if (!hasZeroKey) {
+                size++;
+            }
+            hasZeroKey = true;
+            zeroValue = value;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != EMPTY) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+
+        // Write the value before the key so a racing reader never sees a key without its value
+        values[index] = value;
+        keys[index] = key;
+        size++;
+        if (size > keys.length * 3 / 4) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Remove an entry
+     *
+     * @param key Key of the entry
+     * @return The removed value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == EMPTY) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V previous = (V) zeroValue;
+            hasZeroKey = false;
+            zeroValue = null;
+            size--;
+            return previous;
+        }
+
+        int mask = keys.length - 1;
+        int index = mix(key) & mask;
+        while (keys[index] != key) {
+            if (keys[index] == EMPTY) {
+                return null;
+            }
+            index = (index + 1) & mask;
+        }
+        V previous = (V) values[index];
+
+        // Shift back every following entry that would no longer be reachable across the gap
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != EMPTY) {
+            int home = mix(keys[next]) & mask;
+            // Move the entry if its home slot is not between the gap and its current slot
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+    }
+
+    /**
+     * Return all values, in no particular order
+     *
+     * @return New list with every value
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        if (hasZeroKey) {
+            result.add((V) zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                result.add((V) values[i]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Return all keys, in no particular order
+     *
+     * @return New array with every key
+     */
+    public long[] keys() {
+        long[] result = new long[size];
+        int next = 0;
+        if (hasZeroKey) {
+            result[next++] = EMPTY;
+        }
+        for (long key : keys) {
+            if (key != EMPTY) {
+                result[next++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[newCapacity];
+        Object[] newValues = new Object[newCapacity];
+        int mask = newCapacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int index = mix(oldKeys[i]) & mask;
+                while (newKeys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                newKeys[index] = oldKeys[i];
+                newValues[index] = oldValues[i];
+            }
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+
+    // Spread sequential IDs across the table
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,10 +1,151 @@
 package src;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Main {
     public static void main(String[] args) {
+        // Node settings, each box-office node needs its own node ID
+        Path dataDir = Paths.get(System.getProperty("cinema.dataDir", "data"));
+        int nodeId = Integer.getInteger("cinema.nodeId", 0);
+        int nodeCount = Integer.getInteger("cinema.nodeCount", 1);
+
+        // Ticket IDs continue after the last block handed out before a restart
+        Ticket.setIdAllocator(new TicketIdAllocator(nodeId, nodeCount, TicketIdAllocator.DEFAULT_BLOCK_SIZE,
+                dataDir.resolve("ticket-id-node-" + nodeId)));
+
+        // Every sale and refund is written to this node's ledger before the receipt is printed
+        TransactionLedger ledger;
+        try {
+            ledger = new TransactionLedger(dataDir.resolve("ledger-node-" + nodeId));
+        } catch (IOException e) {
+            System.out.println("Could not open the transaction ledger: " + e.getMessage());
+            return;
+        }
+        Transaction.setLedger(ledger);
+
+        // Restore the last snapshot plus the sales recorded after it, or start with the sample data
+        Path snapshotFile = dataDir.resolve("snapshot-node-" + nodeId);
+        Cinema cinema;
+        List<Customer> customers = new ArrayList<>();
+        try {
+            if (Files.exists(snapshotFile)) {
+                CinemaSnapshot snapshot = CinemaSnapshot.read(snapshotFile);
+                int replayed = snapshot.replay(ledger);
+                cinema = snapshot.getCinema();
+                customers = snapshot.getCustomers();
+                System.out.println("Restored cinema state, " + replayed + " ledger entries replayed.");
+            } else {
+                cinema = createSampleCinema();
+                // Save right away so the ledger always has a snapshot to be replayed on top of
+                CinemaSnapshot.write(snapshotFile, cinema, customers, ledger.getPosition());
+            }
+        } catch (IOException e) {
+            System.out.println("Could not restore the cinema state: " + e.getMessage());
+            return;
+        }
+
+        // The console and the terminals share one record per customer
+        CustomerStore customerStore = new CustomerStore(customers);
+
+        // Cards are authorized by a simulated gateway, its latency and declines can be set for load tests
+        PaymentProcessor payments = new PaymentProcessor(
+                new SimulatedPaymentGateway(Long.getLong("cinema.paymentLatencyMillis", 0),
+                        Double.parseDouble(System.getProperty("cinema.paymentDeclineRate", "0"))),
+                Integer.getInteger("cinema.paymentsInFlight", PaymentProcessor.DEFAULT_MAX_IN_FLIGHT),
+                Long.getLong("cinema.paymentTimeoutMillis", PaymentProcessor.DEFAULT_TIMEOUT_MILLIS));
+
+        // Create CinemaUI instance
+        CinemaUI cinemaUI = new CinemaUI(cinema, customerStore);
+        cinemaUI.setPaymentProcessor(payments);
+
+        // Terminals can also book over a local socket, sharing this cinema with the console
+        BookingService bookingService = new BookingService(cinema, SeatHoldManager.getDefault(),
+                PricingEngine.getDefault(), customerStore, payments);
+        int serverPort = Integer.getInteger("cinema.serverPort", -1);
+        BookingServer server = null;
+        if (serverPort >= 0) {
+            try {
+                server = new BookingServer(bookingService, serverPort);
+            } catch (IOException e) {
+                System.out.println("Could not start the booking server: " + e.getMessage());
+                return;
+            }
+            server.start();
+            System.out.println("Booking server listening on port " + server.getPort() + ".");
+        }
+
+        // Save the state on exit, the ledger covers anything sold after this point
+        Cinema savedCinema = cinema;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                ledger.flush();
+                // Seats of bookings still in progress are saved as free, nobody holds them after a restart
+                CinemaSnapshot.write(snapshotFile, savedCinema, customerStore.getCustomers(), ledger.getPosition(),
+                        SeatHoldManager.getDefault().getHeldSeats());
+                ledger.close();
+            } catch (IOException e) {
+                System.out.println("Could not save the cinema state: " + e.getMessage());
+            }
+        }));
+
+        // Book a file of commands instead of running the console
+        String batchFile = System.getProperty("cinema.batch");
+        if (batchFile != null) {
+            runBatch(bookingService, Paths.get(batchFile), System.getProperty("cinema.batchOutput"));
+            return;
+        }
+
+        if (server != null && !Boolean.parseBoolean(System.getProperty("cinema.console", "true"))) {
+            // Server only, run until the process is stopped
+            try {
+                server.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        // Display the menu to the user
+        cinemaUI.start();
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                System.out.println("Could not stop the booking server: " + e.getMessage());
+            }
+        }
+    }
+
+    // Book every command of the file, results go to the output file or the console
+    private static void runBatch(BookingService bookingService, Path commands, String outputFile) {
+        try (BufferedReader in = Files.newBufferedReader(commands)) {
+            BatchBooking batch = new BatchBooking(bookingService);
+            BatchBooking.Result result;
+            if (outputFile == null) {
+                // Flushed but not closed, System.out stays open for the shutdown hook
+                result = batch.run(in, new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+            } else {
+                try (Writer out = Files.newBufferedWriter(Paths.get(outputFile))) {
+                    result = batch.run(in, out);
+                }
+            }
+            System.out.println("Batch " + commands + ": " + result);
+        } catch (IOException e) {
+            System.out.println("Could not run batch " + commands + ": " + e.getMessage());
+        }
+    }
+
+    // Catalog used the first time a node starts
+    private static Cinema createSampleCinema() {
         // Create some sample data
         List<Theater> theaters = new ArrayList<>();
         List<Movie> movies = new ArrayList<>();
@@ -42,12 +183,6 @@ public class Main {
         theaters.add(theater2);
 
         // Create Cinema instance with theaters
-        Cinema cinema = new Cinema(theaters);
-
-        // Create CinemaUI instance
-        CinemaUI cinemaUI = new CinemaUI(cinema);
-
-        // Display the menu to the user
-        cinemaUI.displayMenu();
+        return new Cinema(theaters);
     }
 }
@@ -0,0 +1,23 @@
+package src;
+
+/**
+ * The MemorySink class keeps everything rendered into it in memory, for tests
+ * and for screens that are sent somewhere other than the console.
+ */
+public class MemorySink implements RenderSink {
+    private final StringBuilder text = new StringBuilder();
+
+    // Methods
+    @Override
+    public synchronized void write(CharSequence rendered) {
+        text.append(rendered);
+    }
+
+    public synchronized String getText() {
+        return text.toString();
+    }
+
+    public synchronized void clear() {
+        text.setLength(0);
+    }
+}
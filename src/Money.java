@@ -0,0 +1,83 @@
+package src;
+
+/**
+ * The Money class holds the helpers for amounts kept as a long number of
+ * cents. Prices and totals are stored and added up in cents, so sums are
+ * exact and adding up a transaction creates no objects; dollars as a double
+ * only appear at the edges (old getters, user input) and are rounded to the
+ * nearest cent on the way in.
+ */
+public final class Money {
+    public static final long CENTS_PER_DOLLAR = 100;
+
+    private Money() {
+    }
+
+    // Methods
+    /**
+     * Convert dollars to cents, rounding to the nearest cent
+     *
+     * @param dollars Amount in dollars
+     * @return Amount in cents
+     */
+    public static long ofDollars(double dollars) {
+        return Math.round(dollars * CENTS_PER_DOLLAR);
+    }
+
+    public static double toDollars(long cents) {
+        return (double) cents / CENTS_PER_DOLLAR;
+    }
+
+    /**
+     * Take a percentage off an amount, rounding half a cent up in the customer's favor
+     *
+     * @param cents              Amount in cents
+     * @param discountPercentage Percentage to take off, 0 to 100
+     * @return Discounted amount in cents
+     */
+    public static long percentOff(long cents, int discountPercentage) {
+        long discount = (cents * discountPercentage + 50) / 100;
+        return cents - discount;
+    }
+
+    /**
+     * Add a percentage to an amount, rounding half a cent up
+     *
+     * @param cents               Amount in cents
+     * @param surchargePercentage Percentage to add
+     * @return Amount with the surcharge in cents
+     */
+    public static long percentOn(long cents, int surchargePercentage) {
+        return cents + (cents * surchargePercentage + 50) / 100;
+    }
+
+    /**
+     * Format an amount as dollars with two decimals, for example $12.50
+     *
+     * @param cents Amount in cents
+     * @return Formatted amount
+     */
+    public static String format(long cents) {
+        return appendTo(new StringBuilder(12), cents).toString();
+    }
+
+    /**
+     * Append an amount as formatted by format(long), without a temporary string
+     *
+     * @param sb    Builder to append to
+     * @param cents Amount in cents
+     * @return The builder
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+            cents = -cents;
+        }
+        long remainder = cents % CENTS_PER_DOLLAR;
+        sb.append('$').append(cents / CENTS_PER_DOLLAR).append('.');
+        if (remainder < 10) {
+            sb.append('0');
+        }
+        return sb.append(remainder);
+    }
+}
@@ -8,37 +8,48 @@ public class Movie {
     private String title;
     private String genre;
     private List<Showtime> showtimes = new ArrayList<>();
+    private final CatalogIndex<Showtime> showtimeIndex = new CatalogIndex<>(showtimes, Showtime::getShowtimeId);
     private boolean isSoldOut;
-
-    private static final int MAX_INSTANCES = 100; // Maximum number of allowed instances
-    private static int instanceCount = 0; // Track the current instance count
+    private volatile List<GenreIndex> genreIndexes = List.of(); // Genre indexes listing this movie
+    private boolean released; // No longer counted by the EntityRegistry
 
     // Constructors
     public Movie() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Movie instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Movie.class)) {
+            throw new IllegalStateException("Maximum number of Movie instances ("
+                    + EntityRegistry.getCapacity(Movie.class) + ") reached.");
         }
-        instanceCount++;
     }
 
     public Movie(int movieId, String title, String genre) {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Movie instances (" + MAX_INSTANCES + ") reached.");
+        if (!EntityRegistry.acquire(Movie.class)) {
+            throw new IllegalStateException("Maximum number of Movie instances ("
+                    + EntityRegistry.getCapacity(Movie.class) + ") reached.");
         }
         this.movieId = movieId;
         this.title = title;
         this.genre = genre;
-        instanceCount++;
     }
 
     // Method to reset the Movie count (for testing purposes)
     public static void resetMovieCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Movie.class);
     }
 
     // Methods
     public void addShowtime(Showtime showtime) {
-        showtimes.add(showtime);
+        showtimeIndex.add(showtime);
+    }
+
+    // Stop counting a movie, and its showtimes, that was taken out of the catalog
+    synchronized void release() {
+        if (!released) {
+            released = true;
+            for (Showtime showtime : showtimes) {
+                showtime.release();
+            }
+            EntityRegistry.release(Movie.class);
+        }
     }
 
     // Implement into CinemaUI or Figure out better methods
@@ -61,10 +72,9 @@ public class Movie {
     }
 
     public Showtime selectShowtime(int showtimeId) throws ShowtimeNotFoundException {
-        for (Showtime showtime : showtimes) {
-            if (showtime.getShowtimeId() == showtimeId) {
-                return showtime;
-            }
+        Showtime showtime = showtimeIndex.find(showtimeId);
+        if (showtime != null) {
+            return showtime;
         }
         throw new ShowtimeNotFoundException("Showtime not found with ID: " + showtimeId);
     }
@@ -74,12 +84,7 @@ public class Movie {
     }
 
     public boolean isValidShowtime(int showtimeId) {
-        for (Showtime showtime : showtimes) {
-            if (showtime.getShowtimeId() == showtimeId) {
-                return true;
-            }
-        }
-        return false;
+        return showtimeIndex.contains(showtimeId);
     }
 
     // Check if Showtime is sold out
@@ -87,7 +92,7 @@ public class Movie {
         List<Showtime> soldOutShowtimes = new ArrayList<>();
 
         for (Showtime showtime : showtimes) {
-            if (showtime.getAvailableSeats() == 0) {
+            if (showtime.isSoldOut()) {
                 soldOutShowtimes.add(showtime); // Collect sold-out showtimes to remove
             }
         }
@@ -105,7 +110,8 @@ public class Movie {
     // Remove showtime with ID
     public void removeShowtime(int showtimeId) throws ShowtimeNotFoundException {
         Showtime showtimeToRemove = selectShowtime(showtimeId);
-        showtimes.remove(showtimeToRemove);
+        showtimeIndex.remove(showtimeToRemove);
+        showtimeToRemove.release();
         System.out.println("Showtime removed successfully.");
     }
 
@@ -131,7 +137,20 @@ public class Movie {
     }
 
     public void setGenre(String genre) {
+        String oldGenre = this.genre;
         this.genre = genre;
+        for (GenreIndex genreIndex : genreIndexes) {
+            genreIndex.genreChanged(this, oldGenre);
+        }
+    }
+
+    // Keep a genre index informed of genre changes
+    synchronized void watchGenre(GenreIndex genreIndex) {
+        if (!genreIndexes.contains(genreIndex)) {
+            List<GenreIndex> watching = new ArrayList<>(genreIndexes);
+            watching.add(genreIndex);
+            genreIndexes = watching;
+        }
     }
 
     public List<Showtime> getShowtimes() {
@@ -140,6 +159,7 @@ public class Movie {
 
     public void setShowtimes(List<Showtime> showtimes) {
         this.showtimes = showtimes;
+        showtimeIndex.setItems(showtimes);
     }
 
     public boolean isSoldOut() {
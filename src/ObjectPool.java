@@ -0,0 +1,49 @@
+package src;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ObjectPool class keeps a bounded number of unused objects so they can
+ * be handed out again instead of being garbage collected and reallocated.
+ *
+ * @param <T> Type of pooled objects
+ */
+public class ObjectPool<T> {
+    private final ConcurrentLinkedQueue<T> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+    private final int maxIdle;
+
+    public ObjectPool(int maxIdle) {
+        this.maxIdle = maxIdle;
+    }
+
+    // Methods
+    // Take an idle object, or null if the pool is empty
+    public T poll() {
+        T object = idle.poll();
+        if (object != null) {
+            idleCount.decrementAndGet();
+        }
+        return object;
+    }
+
+    /**
+     * Return an object to the pool
+     *
+     * @param object Object that is no longer used anywhere
+     * @return true if the pool kept it, false if the pool was full
+     */
+    public boolean offer(T object) {
+        if (idleCount.incrementAndGet() > maxIdle) {
+            idleCount.decrementAndGet();
+            return false;
+        }
+        idle.offer(object);
+        return true;
+    }
+
+    public int getIdleCount() {
+        return idleCount.get();
+    }
+}
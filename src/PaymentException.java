@@ -0,0 +1,7 @@
+package src;
+
+public class PaymentException extends Exception {
+    public PaymentException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,28 @@
+package src;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The PaymentGateway interface is the card processor the cinema charges
+ * through. Calls return at once; the result arrives later on the returned
+ * future, so a slow authorization does not hold up the booking thread.
+ */
+public interface PaymentGateway {
+    /**
+     * Ask the card issuer to authorize an amount
+     *
+     * @param cardNumber  Card to charge
+     * @param amountCents Amount in cents
+     * @return Authorization code, or completes with a PaymentException if the
+     *         card is declined
+     */
+    CompletableFuture<String> authorize(String cardNumber, long amountCents);
+
+    /**
+     * Cancel an authorization whose booking did not go ahead
+     *
+     * @param authorizationCode Code returned by authorize
+     * @return Completes when the authorization is canceled
+     */
+    CompletableFuture<Void> voidAuthorization(String authorizationCode);
+}
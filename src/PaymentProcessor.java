@@ -0,0 +1,124 @@
+package src;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The PaymentProcessor class sends card authorizations to a PaymentGateway
+ * without waiting for them. At most a fixed number of authorizations are in
+ * flight at once; beyond that a payment is turned away right away instead of
+ * piling up behind a slow gateway. An authorization that takes longer than
+ * the timeout fails, and if the gateway approves it after all, it is voided so
+ * the customer is not charged for a booking that did not happen. A timed-out
+ * authorization keeps its place until the gateway answers, so the bound holds
+ * for the requests the gateway is really working on.
+ * Every failure completes the returned future with a PaymentException.
+ */
+public class PaymentProcessor {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+    // Without a real card processor, authorize every card at once
+    private static final PaymentProcessor DEFAULT = new PaymentProcessor(new SimulatedPaymentGateway(0, 0),
+            DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT_MILLIS);
+
+    private final PaymentGateway gateway;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final long timeoutMillis;
+
+    /**
+     * Constructor for a processor in front of a gateway
+     *
+     * @param gateway       Gateway to authorize with
+     * @param maxInFlight   Authorizations allowed at once
+     * @param timeoutMillis Time an authorization may take
+     */
+    public PaymentProcessor(PaymentGateway gateway, int maxInFlight, long timeoutMillis) {
+        if (maxInFlight < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("Need at least one payment in flight and a timeout of 1 ms.");
+        }
+        this.gateway = gateway;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // Processor used when none is given
+    public static PaymentProcessor getDefault() {
+        return DEFAULT;
+    }
+
+    // Methods
+    /**
+     * Start authorizing a card payment
+     *
+     * @param cardNumber  Card to charge
+     * @param amountCents Amount in cents
+     * @return Authorization code, or completes with a PaymentException if the
+     *         card is declined, the gateway is busy or too slow
+     */
+    public CompletableFuture<String> authorize(String cardNumber, long amountCents) {
+        if (!inFlight.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentException("Too many payments in progress, please try again."));
+        }
+        CompletableFuture<String> authorization;
+        try {
+            authorization = gateway.authorize(cardNumber, amountCents);
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(new PaymentException("Payment gateway failed: " + e.getMessage()));
+        }
+
+        // The caller's future times out on its own, so the gateway's answer still arrives and can be voided
+        CompletableFuture<String> result = new CompletableFuture<String>().orTimeout(timeoutMillis,
+                TimeUnit.MILLISECONDS);
+        authorization.whenComplete((code, error) -> {
+            inFlight.release(); // The place is freed when the gateway is done, not when the caller stops waiting
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else if (!result.complete(code)) {
+                gateway.voidAuthorization(code); // Approved after the booking gave up
+            }
+        });
+        return result.handle((code, error) -> {
+            if (error != null) {
+                throw new CompletionException(toPaymentException(error));
+            }
+            return code;
+        });
+    }
+
+    /**
+     * Cancel an authorization whose booking did not go ahead
+     *
+     * @param authorizationCode Code of the authorization
+     * @return Completes when the gateway canceled it
+     */
+    public CompletableFuture<Void> voidAuthorization(String authorizationCode) {
+        return gateway.voidAuthorization(authorizationCode);
+    }
+
+    // Authorizations waiting for the gateway right now
+    public int getInFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    private static PaymentException toPaymentException(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof PaymentException) {
+            return (PaymentException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            return new PaymentException("Card authorization timed out.");
+        }
+        return new PaymentException("Card authorization failed: " + cause.getMessage());
+    }
+}
@@ -0,0 +1,102 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The PricingEngine class quotes ticket prices from a table holding the final
+ * price of every SeatType, AgePricing and ShowtimeBand combination. The table
+ * is built once from the PricingRule list when the engine is created (at
+ * catalog load), so a quote is a single array read and the rules never run
+ * while a customer is booking. To change prices, build a new engine and
+ * install it with setDefault.
+ */
+public final class PricingEngine {
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+    private static final AgePricing[] AGES = AgePricing.values();
+    private static final ShowtimeBand[] BANDS = ShowtimeBand.values();
+
+    private static volatile PricingEngine defaultEngine = new PricingEngine(List.of(PricingRule.ageDiscount()));
+
+    private final List<PricingRule> rules;
+    private final long[] prices; // Index (band * seat types + seat type) * ages + age
+
+    /**
+     * Constructor that builds the price table
+     *
+     * @param rules Rules applied in order to the base price of each seat type
+     */
+    public PricingEngine(List<PricingRule> rules) {
+        this.rules = List.copyOf(rules);
+        this.prices = new long[BANDS.length * SEAT_TYPES.length * AGES.length];
+
+        for (ShowtimeBand band : BANDS) {
+            for (SeatType seatType : SEAT_TYPES) {
+                for (AgePricing agePricing : AGES) {
+                    long price = seatType.getPriceCents();
+                    for (PricingRule rule : this.rules) {
+                        price = rule.apply(price, seatType, agePricing, band);
+                    }
+                    if (price < 0) {
+                        throw new IllegalArgumentException("Pricing rules give a negative price for "
+                                + seatType + ", " + agePricing + ", " + band + ".");
+                    }
+                    prices[index(seatType, agePricing, band)] = price;
+                }
+            }
+        }
+    }
+
+    // Engine used by the booking screens, children and seniors get 20% off
+    public static PricingEngine getDefault() {
+        return defaultEngine;
+    }
+
+    public static void setDefault(PricingEngine engine) {
+        defaultEngine = engine;
+    }
+
+    // Methods
+    /**
+     * Return the price of a ticket
+     *
+     * @param seatType   Seat type of the ticket
+     * @param agePricing Age category of the customer
+     * @param band       Showtime band of the show
+     * @return Price in cents
+     */
+    public long quote(SeatType seatType, AgePricing agePricing, ShowtimeBand band) {
+        return prices[index(seatType, agePricing, band)];
+    }
+
+    /**
+     * Return the price of a ticket for a showtime, including the showtime's
+     * demand surcharge if it has DemandPricing
+     *
+     * @param seatType   Seat type of the ticket
+     * @param agePricing Age category of the customer
+     * @param showtime   Showtime of the ticket
+     * @return Price in cents
+     */
+    public long quote(SeatType seatType, AgePricing agePricing, Showtime showtime) {
+        long price = prices[index(seatType, agePricing, showtime.getBand())];
+        DemandPricing demandPricing = showtime.getDemandPricing();
+        return demandPricing == null ? price : demandPricing.apply(seatType, price);
+    }
+
+    /**
+     * Return a copy of this engine with one more rule at the end
+     *
+     * @param rule Rule to add
+     * @return New engine
+     */
+    public PricingEngine withRule(PricingRule rule) {
+        List<PricingRule> extended = new ArrayList<>(rules);
+        extended.add(rule);
+        return new PricingEngine(extended);
+    }
+
+    private static int index(SeatType seatType, AgePricing agePricing, ShowtimeBand band) {
+        return (band.ordinal() * SEAT_TYPES.length + seatType.ordinal()) * AGES.length + agePricing.ordinal();
+    }
+}
@@ -0,0 +1,38 @@
+package src;
+
+/**
+ * A PricingRule adjusts a ticket price for one combination of seat type, age
+ * and showtime band. Rules only run when a PricingEngine builds its price
+ * table, never while a ticket is being quoted.
+ */
+public interface PricingRule {
+    /**
+     * Adjust a price
+     *
+     * @param priceCents Price so far, in cents
+     * @param seatType   Seat type of the ticket
+     * @param agePricing Age category of the customer
+     * @param band       Showtime band of the show
+     * @return New price in cents
+     */
+    long apply(long priceCents, SeatType seatType, AgePricing agePricing, ShowtimeBand band);
+
+    // Take the discount of the age category off, 20% for children and seniors
+    static PricingRule ageDiscount() {
+        return (priceCents, seatType, agePricing, band) -> Money.percentOff(priceCents,
+                agePricing.getDiscountPercentage());
+    }
+
+    // Add a fixed amount to every ticket for shows in a band
+    static PricingRule bandSurcharge(ShowtimeBand surchargeBand, long surchargeCents) {
+        return (priceCents, seatType, agePricing, band) -> band == surchargeBand ? priceCents + surchargeCents
+                : priceCents;
+    }
+
+    // Take a percentage off every ticket for shows in a band
+    static PricingRule bandDiscount(ShowtimeBand discountBand, int discountPercentage) {
+        return (priceCents, seatType, agePricing, band) -> band == discountBand
+                ? Money.percentOff(priceCents, discountPercentage)
+                : priceCents;
+    }
+}
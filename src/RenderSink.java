@@ -0,0 +1,31 @@
+package src;
+
+import java.io.PrintStream;
+
+/**
+ * The RenderSink interface is where a Renderer sends a finished screen or
+ * receipt. A sink gets the whole text in one write, so the console, a file or
+ * a test buffer is reached once per screen instead of once per line.
+ */
+public interface RenderSink {
+    /**
+     * Write finished text
+     *
+     * @param text Text to write, only valid during the call
+     */
+    void write(CharSequence text);
+
+    /**
+     * Sink that writes to System.out, looked up at every write so a redirected
+     * System.out is followed
+     *
+     * @return Console sink
+     */
+    static RenderSink console() {
+        return text -> {
+            PrintStream out = System.out;
+            out.append(text);
+            out.flush();
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package src;
+
+/**
+ * The Renderer class composes a screen or receipt into one reusable buffer and
+ * hands it to a RenderSink in a single write on flush. Screens append text,
+ * numbers and amounts without String.format or temporary strings, and the
+ * buffer keeps its capacity between screens, so drawing a seating chart or a
+ * receipt allocates next to nothing once the buffer has grown.
+ * A Renderer is not thread safe; console() gives each thread its own.
+ */
+public class Renderer {
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+    private static final ThreadLocal<Renderer> CONSOLE = ThreadLocal
+            .withInitial(() -> new Renderer(RenderSink.console()));
+
+    private final RenderSink sink;
+    private StringBuilder buffer = new StringBuilder(1024);
+
+    /**
+     * Constructor for a renderer that flushes into a sink
+     *
+     * @param sink Where flushed text goes
+     */
+    public Renderer(RenderSink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * The calling thread's renderer for System.out
+     *
+     * @return Console renderer
+     */
+    public static Renderer console() {
+        return CONSOLE.get();
+    }
+
+    // Methods
+    public Renderer text(CharSequence text) {
+        buffer.append(text);
+        return this;
+    }
+
+    public Renderer text(char c) {
+        buffer.append(c);
+        return this;
+    }
+
+    public Renderer number(long number) {
+        buffer.append(number);
+        return this;
+    }
+
+    // Amount in cents as dollars, the same text as Money.format
+    public Renderer money(long cents) {
+        Money.appendTo(buffer, cents);
+        return this;
+    }
+
+    public Renderer line(CharSequence text) {
+        buffer.append(text).append(LINE_SEPARATOR);
+        return this;
+    }
+
+    public Renderer line() {
+        buffer.append(LINE_SEPARATOR);
+        return this;
+    }
+
+    /**
+     * Text padded with spaces on the right to a width, like %-10s
+     *
+     * @param text  Text to append
+     * @param width Minimum width
+     * @return This renderer
+     */
+    public Renderer padRight(CharSequence text, int width) {
+        buffer.append(text);
+        spaces(width - text.length());
+        return this;
+    }
+
+    /**
+     * Number padded with spaces on the left to a width, like %2d
+     *
+     * @param number Number to append
+     * @param width  Minimum width
+     * @return This renderer
+     */
+    public Renderer padLeft(long number, int width) {
+        int start = buffer.length();
+        buffer.append(number);
+        int padding = width - (buffer.length() - start);
+        for (int i = 0; i < padding; i++) {
+            buffer.insert(start, ' ');
+        }
+        return this;
+    }
+
+    public Renderer spaces(int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.append(' ');
+        }
+        return this;
+    }
+
+    /**
+     * Write everything rendered so far to the sink in one write and empty the
+     * buffer for the next screen
+     */
+    public void flush() {
+        try {
+            if (buffer.length() > 0) {
+                sink.write(buffer);
+            }
+        } finally {
+            buffer.setLength(0);
+        }
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(1024); // Do not keep one huge screen's buffer forever
+        }
+    }
+
+    // Rendered text not flushed yet
+    public int length() {
+        return buffer.length();
+    }
+}
@@ -0,0 +1,113 @@
+package src;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SeatHold class represents a seat that is set aside for a customer while
+ * they finish booking. The seat counts as taken in the Showtime until the hold
+ * is confirmed, released, or expires.
+ */
+public class SeatHold {
+    private static final int HELD = 0;
+    private static final int CONFIRMED = 1;
+    private static final int RELEASED = 2;
+    private static final int EXPIRED = 3;
+
+    private final Showtime showtime;
+    private final int seatNumber;
+    private final AtomicInteger state = new AtomicInteger(HELD);
+    private volatile TimingWheel.Timeout timeout;
+    private volatile Runnable onEnd; // Tells the manager the hold is no longer active
+
+    public SeatHold(Showtime showtime, int seatNumber) {
+        this.showtime = showtime;
+        this.seatNumber = seatNumber;
+    }
+
+    // Methods
+    /**
+     * Keep the seat for good once the booking is paid
+     *
+     * @return true if the hold was still active, false if it already expired or was released
+     */
+    public boolean confirm() {
+        if (!state.compareAndSet(HELD, CONFIRMED)) {
+            return false;
+        }
+        cancelTimeout();
+        ended();
+        return true;
+    }
+
+    /**
+     * Give the seat back because the customer went back or cancelled
+     *
+     * @return true if the seat was returned to the showtime
+     */
+    public boolean release() {
+        if (!state.compareAndSet(HELD, RELEASED)) {
+            return false;
+        }
+        cancelTimeout();
+        showtime.releaseSeat(seatNumber);
+        ended();
+        return true;
+    }
+
+    // Called by SeatHoldManager when the hold runs out
+    boolean expire() {
+        if (!state.compareAndSet(HELD, EXPIRED)) {
+            return false;
+        }
+        showtime.releaseSeat(seatNumber);
+        ended();
+        return true;
+    }
+
+    private void ended() {
+        Runnable current = onEnd;
+        if (current != null) {
+            current.run();
+        }
+    }
+
+    private void cancelTimeout() {
+        TimingWheel.Timeout current = timeout;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    public boolean isActive() {
+        return state.get() == HELD;
+    }
+
+    public boolean isConfirmed() {
+        return state.get() == CONFIRMED;
+    }
+
+    public boolean isExpired() {
+        return state.get() == EXPIRED;
+    }
+
+    // Getters and Setters
+    public Showtime getShowtime() {
+        return showtime;
+    }
+
+    public int getSeatNumber() {
+        return seatNumber;
+    }
+
+    public long getExpiresAtMillis() {
+        return timeout == null ? Long.MAX_VALUE : timeout.getDeadlineMillis();
+    }
+
+    void setTimeout(TimingWheel.Timeout timeout) {
+        this.timeout = timeout;
+    }
+
+    void setOnEnd(Runnable onEnd) {
+        this.onEnd = onEnd;
+    }
+}
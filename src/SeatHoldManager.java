@@ -0,0 +1,138 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * The SeatHoldManager class places timed holds on seats and returns them to
+ * inventory when they run out. All holds share one TimingWheel, so expiring
+ * thousands of holds costs a few slot visits per tick instead of one timer per
+ * seat or a scan of every Showtime.
+ * The manager also knows which holds are still active, so a snapshot can leave
+ * out seats that are only held and would otherwise stay taken after a restart.
+ */
+public class SeatHoldManager {
+    public static final long DEFAULT_HOLD_MILLIS = 10 * 60 * 1000; // 10 minutes
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    private static SeatHoldManager defaultManager;
+
+    private final long holdMillis;
+    private final LongSupplier clock;
+    private final TimingWheel wheel;
+    private final Set<SeatHold> activeHolds = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService ticker;
+
+    /**
+     * Constructor for a manager driven by the system clock
+     *
+     * @param holdMillis How long a seat is held
+     * @param tickMillis How often holds are checked for expiry
+     */
+    public SeatHoldManager(long holdMillis, long tickMillis) {
+        this(holdMillis, tickMillis, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with a custom clock (for testing purposes)
+     *
+     * @param holdMillis How long a seat is held
+     * @param tickMillis How often holds are checked for expiry
+     * @param clock      Source of the current time in milliseconds
+     */
+    public SeatHoldManager(long holdMillis, long tickMillis, LongSupplier clock) {
+        this.holdMillis = holdMillis;
+        this.clock = clock;
+        this.wheel = new TimingWheel(tickMillis, clock.getAsLong());
+    }
+
+    /**
+     * Return the shared manager used by the booking flow, started on first use
+     *
+     * @return Default manager
+     */
+    public static synchronized SeatHoldManager getDefault() {
+        if (defaultManager == null) {
+            defaultManager = new SeatHoldManager(DEFAULT_HOLD_MILLIS, DEFAULT_TICK_MILLIS);
+            defaultManager.start();
+        }
+        return defaultManager;
+    }
+
+    // Methods
+    /**
+     * Take a seat and hold it for the hold time
+     *
+     * @param showtime   Showtime of the seat
+     * @param seatNumber Seat to hold
+     * @return The hold, or null if the seat is already taken or the showtime
+     *         is cancelled
+     */
+    public SeatHold hold(Showtime showtime, int seatNumber) {
+        if (showtime.isCancelled() || !showtime.getSeatMap().reserve(seatNumber)) {
+            return null;
+        }
+        SeatHold seatHold = new SeatHold(showtime, seatNumber);
+        activeHolds.add(seatHold);
+        seatHold.setOnEnd(() -> activeHolds.remove(seatHold));
+        seatHold.setTimeout(wheel.schedule(seatHold::expire, holdMillis));
+        return seatHold;
+    }
+
+    /**
+     * Expire every hold that ran out up to now
+     *
+     * @return Number of timeouts handled
+     */
+    public int expireHolds() {
+        return wheel.advanceTo(clock.getAsLong());
+    }
+
+    /**
+     * Start a background thread that expires holds once per tick
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "seat-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = wheel.getTickMillis();
+        ticker.scheduleAtFixedRate(this::expireHolds, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    // Snapshot of the holds that are neither confirmed, released nor expired
+    public List<SeatHold> getHeldSeats() {
+        List<SeatHold> held = new ArrayList<>(activeHolds.size());
+        for (SeatHold seatHold : activeHolds) {
+            if (seatHold.isActive()) {
+                held.add(seatHold);
+            }
+        }
+        return held;
+    }
+
+    public int getActiveHolds() {
+        return wheel.getPendingCount();
+    }
+
+    public long getHoldMillis() {
+        return holdMillis;
+    }
+}
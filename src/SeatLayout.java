@@ -0,0 +1,169 @@
+package src;
+
+import java.util.Arrays;
+
+/**
+ * The SeatLayout class describes the seats of a theater screen: the number of
+ * rows and columns, where the aisles are and the SeatType of every seat.
+ * A layout never changes after it is created, so one instance is shared by
+ * every Showtime on that screen.
+ * Seats are numbered row by row starting from 1, so seat number
+ * row * columns + column + 1 is in the given (zero based) row and column.
+ */
+public final class SeatLayout {
+    public static final int MAX_COLUMNS = 64; // One row has to fit in a long word
+    private static final int TYPE_COUNT = SeatType.values().length;
+
+    private static final SeatLayout STANDARD = byRow(3, 10,
+            new SeatType[] { SeatType.VIP, SeatType.PREMIUM, SeatType.REGULAR }, 4);
+
+    private final int rows;
+    private final int columns;
+    private final SeatType[] seatTypes; // seatTypes[i] is the type of seat number i + 1
+    private final long adjacentMask; // Bit c is set when columns c and c + 1 are side by side
+    private final long[] typeMasks; // Columns of each SeatType per row, index row * types + ordinal
+    private final int[] seatCountByType = new int[TYPE_COUNT];
+    private final int[] firstSeatByType = new int[TYPE_COUNT];
+    private final int[] lastSeatByType = new int[TYPE_COUNT];
+
+    /**
+     * Constructor for a layout with a seat type for every seat
+     *
+     * @param rows              Number of rows
+     * @param columns           Number of seats in each row
+     * @param seatTypes         Seat type of every seat, index 0 is seat number 1
+     * @param aisleAfterColumns Zero based columns followed by an aisle
+     */
+    public SeatLayout(int rows, int columns, SeatType[] seatTypes, int[] aisleAfterColumns) {
+        if (rows < 1 || columns < 1 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException(
+                    "Layout needs at least one row and between 1 and " + MAX_COLUMNS + " columns.");
+        }
+        if (seatTypes.length != rows * columns) {
+            throw new IllegalArgumentException("Expected " + rows * columns + " seat types but got "
+                    + seatTypes.length + ".");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.seatTypes = seatTypes.clone();
+
+        long adjacent = columns == MAX_COLUMNS ? -1L >>> 1 : (1L << (columns - 1)) - 1;
+        for (int column : aisleAfterColumns) {
+            if (column < 0 || column >= columns) {
+                throw new IllegalArgumentException("Invalid aisle column: " + column);
+            }
+            adjacent &= ~(1L << column);
+        }
+        this.adjacentMask = adjacent;
+
+        this.typeMasks = new long[rows * TYPE_COUNT];
+        for (int index = 0; index < this.seatTypes.length; index++) {
+            int type = this.seatTypes[index].ordinal();
+            typeMasks[(index / columns) * TYPE_COUNT + type] |= 1L << (index % columns);
+            seatCountByType[type]++;
+            if (firstSeatByType[type] == 0) {
+                firstSeatByType[type] = index + 1;
+            }
+            lastSeatByType[type] = index + 1;
+        }
+    }
+
+    /**
+     * Return the default 30 seat layout: VIP 1-10, Premium 11-20, Regular 21-30
+     *
+     * @return Shared standard layout
+     */
+    public static SeatLayout standard() {
+        return STANDARD;
+    }
+
+    /**
+     * Create a layout where every seat in a row has the same type
+     *
+     * @param rows              Number of rows
+     * @param columns           Number of seats in each row
+     * @param rowTypes          Seat type of each row
+     * @param aisleAfterColumns Zero based columns followed by an aisle
+     * @return New layout
+     */
+    public static SeatLayout byRow(int rows, int columns, SeatType[] rowTypes, int... aisleAfterColumns) {
+        if (rowTypes.length != rows) {
+            throw new IllegalArgumentException("Expected " + rows + " row types but got " + rowTypes.length + ".");
+        }
+        if (columns < 1 || columns > MAX_COLUMNS) {
+            throw new IllegalArgumentException("Layout needs between 1 and " + MAX_COLUMNS + " columns.");
+        }
+        SeatType[] seatTypes = new SeatType[rows * columns];
+        for (int row = 0; row < rows; row++) {
+            Arrays.fill(seatTypes, row * columns, (row + 1) * columns, rowTypes[row]);
+        }
+        return new SeatLayout(rows, columns, seatTypes, aisleAfterColumns);
+    }
+
+    // Methods
+    public boolean isValidSeat(int seatNumber) {
+        return seatNumber >= 1 && seatNumber <= seatTypes.length;
+    }
+
+    public int getSeatNumber(int row, int column) {
+        return row * columns + column + 1;
+    }
+
+    public int getRow(int seatNumber) {
+        return (seatNumber - 1) / columns;
+    }
+
+    public int getColumn(int seatNumber) {
+        return (seatNumber - 1) % columns;
+    }
+
+    public SeatType getSeatType(int seatNumber) {
+        return seatTypes[seatNumber - 1];
+    }
+
+    public boolean hasAisleAfter(int column) {
+        return column < columns - 1 && (adjacentMask & (1L << column)) == 0;
+    }
+
+    /**
+     * Return the columns in a row that have the given seat type
+     *
+     * @param row      Zero based row
+     * @param seatType Seat type to look for
+     * @return Bit mask with bit c set for every matching column c
+     */
+    public long getTypeMask(int row, SeatType seatType) {
+        return typeMasks[row * TYPE_COUNT + seatType.ordinal()];
+    }
+
+    public long getAdjacentMask() {
+        return adjacentMask;
+    }
+
+    public int getSeatCount(SeatType seatType) {
+        return seatCountByType[seatType.ordinal()];
+    }
+
+    // Lowest seat number of the given type, or 0 if the layout has none
+    public int getFirstSeat(SeatType seatType) {
+        return firstSeatByType[seatType.ordinal()];
+    }
+
+    // Highest seat number of the given type, or 0 if the layout has none
+    public int getLastSeat(SeatType seatType) {
+        return lastSeatByType[seatType.ordinal()];
+    }
+
+    // Getters
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCapacity() {
+        return seatTypes.length;
+    }
+}
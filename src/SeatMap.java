@@ -0,0 +1,365 @@
+package src;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The SeatMap class tracks seat availability for a single showtime.
+ * Every row of the SeatLayout is packed into one long word (a set bit means the
+ * seat is taken) and a free-seat counter is kept for every SeatType band, so
+ * availability and sold-out checks never have to scan the seats.
+ * Seats are claimed with compare-and-set on the word holding them, so many
+ * booking threads can reserve seats at once without a lock and without two of
+ * them winning the same seat.
+ * For group bookings every row also keeps the length of its longest run of
+ * free side-by-side seats per SeatType, so rows that cannot fit a group are
+ * skipped without looking at their seats.
+ */
+public class SeatMap {
+    private static final SeatType[] SEAT_TYPES = SeatType.values();
+
+    private final SeatLayout layout;
+    private final AtomicLongArray takenRows;
+    private final AtomicIntegerArray freeByType = new AtomicIntegerArray(SEAT_TYPES.length);
+    private final AtomicInteger freeSeats;
+    private final AtomicIntegerArray longestFreeRun; // Index row * types + ordinal
+
+    /**
+     * Constructor that creates an empty seat map
+     *
+     * @param layout Layout of the screen, shared with other showtimes
+     */
+    public SeatMap(SeatLayout layout) {
+        this.layout = layout;
+        this.takenRows = new AtomicLongArray(layout.getRows());
+        this.freeSeats = new AtomicInteger(layout.getCapacity());
+
+        for (SeatType seatType : SEAT_TYPES) {
+            freeByType.set(seatType.ordinal(), layout.getSeatCount(seatType));
+        }
+
+        this.longestFreeRun = new AtomicIntegerArray(layout.getRows() * SEAT_TYPES.length);
+        for (int row = 0; row < layout.getRows(); row++) {
+            updateFreeRuns(row);
+        }
+    }
+
+    // Methods
+    /**
+     * Mark a seat as taken
+     *
+     * @param seatNumber Seat number starting from 1
+     * @return true if the seat was free and is now taken
+     */
+    public boolean reserve(int seatNumber) {
+        int row = layout.getRow(seatNumber);
+        long mask = 1L << layout.getColumn(seatNumber);
+
+        long current;
+        do {
+            current = takenRows.get(row);
+            if ((current & mask) != 0) {
+                return false; // Another booking already holds the seat
+            }
+        } while (!takenRows.compareAndSet(row, current, current | mask));
+
+        freeByType.decrementAndGet(layout.getSeatType(seatNumber).ordinal());
+        freeSeats.decrementAndGet();
+        updateFreeRuns(row);
+        return true;
+    }
+
+    /**
+     * Mark a group of seats in one row as taken, either all of them or none
+     *
+     * @param row         Zero based row
+     * @param columnsMask Bit c is set for every column c to take
+     * @return true if every seat was free and is now taken
+     */
+    public boolean reserveBlock(int row, long columnsMask) {
+        long current;
+        do {
+            current = takenRows.get(row);
+            if ((current & columnsMask) != 0) {
+                return false; // At least one seat was taken in the meantime
+            }
+        } while (!takenRows.compareAndSet(row, current, current | columnsMask));
+
+        long bits = columnsMask;
+        while (bits != 0) {
+            int seatNumber = layout.getSeatNumber(row, Long.numberOfTrailingZeros(bits));
+            freeByType.decrementAndGet(layout.getSeatType(seatNumber).ordinal());
+            bits &= bits - 1;
+        }
+        freeSeats.addAndGet(-Long.bitCount(columnsMask));
+        updateFreeRuns(row);
+        return true;
+    }
+
+    /**
+     * Find the best block of side-by-side free seats of one type.
+     * Rows nearest the middle of that seat type's section are preferred, and
+     * within a row the block closest to the center of the row.
+     *
+     * @param groupSize Number of seats wanted
+     * @param seatType  Seat type of every seat in the block
+     * @return Seat numbers of the block, or an empty array if no row fits the group
+     */
+    public int[] findBestBlock(int groupSize, SeatType seatType) {
+        if (groupSize < 1 || groupSize > layout.getColumns()) {
+            return new int[0];
+        }
+
+        if (layout.getSeatCount(seatType) == 0) {
+            return new int[0];
+        }
+        int type = seatType.ordinal();
+        int firstRow = layout.getRow(layout.getFirstSeat(seatType));
+        int lastRow = layout.getRow(layout.getLastSeat(seatType));
+        double middleRow = (firstRow + lastRow) / 2.0;
+        double middleColumn = (layout.getColumns() - 1) / 2.0;
+
+        int bestRow = -1;
+        int bestColumn = -1;
+        double bestRowDistance = Double.MAX_VALUE;
+        double bestColumnDistance = Double.MAX_VALUE;
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            double rowDistance = Math.abs(row - middleRow);
+            if (longestFreeRun.get(row * SEAT_TYPES.length + type) < groupSize || rowDistance > bestRowDistance) {
+                continue; // Row cannot fit the group or is worse than the best row found
+            }
+
+            long starts = blockStarts(freeColumns(row, seatType, takenRows.get(row)), groupSize);
+            while (starts != 0) {
+                int column = Long.numberOfTrailingZeros(starts);
+                double columnDistance = Math.abs(column + (groupSize - 1) / 2.0 - middleColumn);
+                if (rowDistance < bestRowDistance || columnDistance < bestColumnDistance) {
+                    bestRow = row;
+                    bestColumn = column;
+                    bestRowDistance = rowDistance;
+                    bestColumnDistance = columnDistance;
+                }
+                starts &= starts - 1;
+            }
+        }
+
+        if (bestRow < 0) {
+            return new int[0];
+        }
+        int[] seats = new int[groupSize];
+        for (int i = 0; i < groupSize; i++) {
+            seats[i] = layout.getSeatNumber(bestRow, bestColumn + i);
+        }
+        return seats;
+    }
+
+    public int getLongestFreeRun(int row, SeatType seatType) {
+        return longestFreeRun.get(row * SEAT_TYPES.length + seatType.ordinal());
+    }
+
+    // Free columns of a row that have the given seat type
+    private long freeColumns(int row, SeatType seatType, long taken) {
+        return ~taken & layout.getTypeMask(row, seatType);
+    }
+
+    // Columns where a run of groupSize free, side-by-side seats starts
+    private long blockStarts(long free, int groupSize) {
+        long adjacent = layout.getAdjacentMask();
+        long starts = free;
+        for (int k = 1; k < groupSize && starts != 0; k++) {
+            // Keep column c only if seat c + k is free and not across an aisle from c + k - 1
+            starts &= (free >>> k) & (adjacent >>> (k - 1));
+        }
+        return starts;
+    }
+
+    // Recompute the longest free runs of a row until no other thread changed it in between
+    private void updateFreeRuns(int row) {
+        long taken;
+        do {
+            taken = takenRows.get(row);
+            for (SeatType seatType : SEAT_TYPES) {
+                // After k steps bit c is set only if seats c to c + k are free and side by side
+                long runs = freeColumns(row, seatType, taken);
+                int run = 0;
+                while (runs != 0) {
+                    run++;
+                    runs &= (runs >>> 1) & layout.getAdjacentMask();
+                }
+                longestFreeRun.set(row * SEAT_TYPES.length + seatType.ordinal(), run);
+            }
+        } while (takenRows.get(row) != taken);
+    }
+
+    /**
+     * Mark a seat as free again
+     *
+     * @param seatNumber Seat number starting from 1
+     * @return true if the seat was taken and is now free
+     */
+    public boolean release(int seatNumber) {
+        int row = layout.getRow(seatNumber);
+        long mask = 1L << layout.getColumn(seatNumber);
+
+        long current;
+        do {
+            current = takenRows.get(row);
+            if ((current & mask) == 0) {
+                return false;
+            }
+        } while (!takenRows.compareAndSet(row, current, current & ~mask));
+
+        freeByType.incrementAndGet(layout.getSeatType(seatNumber).ordinal());
+        freeSeats.incrementAndGet();
+        updateFreeRuns(row);
+        return true;
+    }
+
+    /**
+     * Mark the taken seats of a group in one row as free again with one
+     * compare-and-set; seats of the group that are already free are skipped
+     *
+     * @param row         Zero based row
+     * @param columnsMask Bit c is set for every column c to free
+     * @return Number of seats that were taken and are now free
+     */
+    public int releaseBlock(int row, long columnsMask) {
+        long current;
+        long released;
+        do {
+            current = takenRows.get(row);
+            released = current & columnsMask;
+            if (released == 0) {
+                return 0;
+            }
+        } while (!takenRows.compareAndSet(row, current, current & ~released));
+
+        long bits = released;
+        while (bits != 0) {
+            int seatNumber = layout.getSeatNumber(row, Long.numberOfTrailingZeros(bits));
+            freeByType.incrementAndGet(layout.getSeatType(seatNumber).ordinal());
+            bits &= bits - 1;
+        }
+        int count = Long.bitCount(released);
+        freeSeats.addAndGet(count);
+        updateFreeRuns(row);
+        return count;
+    }
+
+    /**
+     * Mark many seats as free again, one releaseBlock per row they are in
+     *
+     * @param seatNumbers Seat numbers starting from 1, invalid ones are skipped
+     * @return Number of seats that were taken and are now free
+     */
+    public int releaseAll(int[] seatNumbers) {
+        long[] rowMasks = new long[takenRows.length()];
+        for (int seatNumber : seatNumbers) {
+            if (layout.isValidSeat(seatNumber)) {
+                rowMasks[layout.getRow(seatNumber)] |= 1L << layout.getColumn(seatNumber);
+            }
+        }
+        int released = 0;
+        for (int row = 0; row < rowMasks.length; row++) {
+            if (rowMasks[row] != 0) {
+                released += releaseBlock(row, rowMasks[row]);
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Overwrite the seat map with saved rows, used when restoring a snapshot
+     * before the showtime is shared with booking threads
+     *
+     * @param rows Taken-seat word of every row
+     */
+    void restoreTakenRows(long[] rows) {
+        if (rows.length != takenRows.length()) {
+            throw new IllegalArgumentException("Expected " + takenRows.length() + " rows but got " + rows.length + ".");
+        }
+        int free = 0;
+        for (int row = 0; row < rows.length; row++) {
+            takenRows.set(row, rows[row]);
+            updateFreeRuns(row);
+        }
+        for (SeatType seatType : SEAT_TYPES) {
+            int freeOfType = 0;
+            for (int row = 0; row < rows.length; row++) {
+                freeOfType += Long.bitCount(freeColumns(row, seatType, rows[row]));
+            }
+            freeByType.set(seatType.ordinal(), freeOfType);
+            free += freeOfType;
+        }
+        freeSeats.set(free);
+    }
+
+    // Taken-seat word of a row, bit c is set when column c is taken
+    long getTakenRow(int row) {
+        return takenRows.get(row);
+    }
+
+    public boolean isTaken(int seatNumber) {
+        return (takenRows.get(layout.getRow(seatNumber)) & (1L << layout.getColumn(seatNumber))) != 0;
+    }
+
+    public boolean isValidSeat(int seatNumber) {
+        return layout.isValidSeat(seatNumber);
+    }
+
+    public SeatType getSeatType(int seatNumber) {
+        return layout.getSeatType(seatNumber);
+    }
+
+    public int getFreeSeats() {
+        return freeSeats.get();
+    }
+
+    public int getFreeSeats(SeatType seatType) {
+        return freeByType.get(seatType.ordinal());
+    }
+
+    public int getTakenSeats() {
+        return layout.getCapacity() - freeSeats.get();
+    }
+
+    public int getCapacity() {
+        return layout.getCapacity();
+    }
+
+    public boolean isSoldOut() {
+        return freeSeats.get() == 0;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Return all taken seat numbers in ascending order
+     *
+     * @return Array of taken seat numbers
+     */
+    public int[] getTakenSeatNumbers() {
+        // Read each row once so the result is consistent per row even while seats change
+        long[] rows = new long[takenRows.length()];
+        int count = 0;
+        for (int row = 0; row < rows.length; row++) {
+            rows[row] = takenRows.get(row);
+            count += Long.bitCount(rows[row]);
+        }
+
+        int[] seats = new int[count];
+        int next = 0;
+        for (int row = 0; row < rows.length; row++) {
+            long bits = rows[row];
+            while (bits != 0) {
+                seats[next++] = layout.getSeatNumber(row, Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1; // Clear lowest set bit
+            }
+        }
+        return seats;
+    }
+}
@@ -1,15 +1,35 @@
 package src;
 
 public enum SeatType {
-    REGULAR(10.0), PREMIUM(20.0), VIP(30.0);
+    REGULAR("Regular", 1000), PREMIUM("Premium", 2000), VIP("VIP", 3000);
 
-    private final double price;
+    private final String displayName;
+    private final long priceCents;
 
-    SeatType(double price) {
-        this.price = price;
+    SeatType(String displayName, long priceCents) {
+        this.displayName = displayName;
+        this.priceCents = priceCents;
+    }
+
+    // Find seat type by name ignoring case, returns null if there is no match
+    public static SeatType fromName(String name) {
+        for (SeatType seatType : values()) {
+            if (seatType.name().equalsIgnoreCase(name)) {
+                return seatType;
+            }
+        }
+        return null;
+    }
+
+    public String getDisplayName() {
+        return displayName;
     }
 
     public double getPrice() {
-        return price;
+        return Money.toDollars(priceCents);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
     }
 }
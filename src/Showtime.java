@@ -1,112 +1,220 @@
 package src;
 
 public class Showtime {
-    private static int instanceCount = 0;
-    private static final int MAX_INSTANCES = 100;
+    private static final int SHOWTIME_BYTES = 128; // The showtime, its seat map and their counters
+    private static final int SEAT_TYPE_COUNT = SeatType.values().length;
 
     private int showtimeId;
     private String time;
-    private boolean[] seatArray;
+    private ShowtimeBand band = ShowtimeBand.EVENING; // Worked out from the time, used for pricing
+    private SeatMap seatMap;
+    private volatile DemandPricing demandPricing; // Null when prices do not follow demand
+    private volatile boolean cancelled; // No new holds or sales once the screening is called off
+    private boolean released; // No longer counted by the EntityRegistry
 
     // Constructor
     public Showtime() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Cannot create more than " + MAX_INSTANCES + " showtimes.");
+        if (!EntityRegistry.acquire(Showtime.class, footprint(SeatLayout.standard()))) {
+            throw new IllegalStateException(
+                    "Cannot create more than " + EntityRegistry.getCapacity(Showtime.class) + " showtimes.");
         }
-        instanceCount++;
+        this.seatMap = new SeatMap(SeatLayout.standard());
     }
 
     public Showtime(int showtimeId, String time) {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Cannot create more than " + MAX_INSTANCES + " showtimes.");
+        this(showtimeId, time, SeatLayout.standard());
+    }
+
+    public Showtime(int showtimeId, String time, SeatLayout layout) {
+        if (!EntityRegistry.acquire(Showtime.class, footprint(layout))) {
+            throw new IllegalStateException(
+                    "Cannot create more than " + EntityRegistry.getCapacity(Showtime.class) + " showtimes.");
         }
         this.showtimeId = showtimeId;
         this.time = time;
-        this.seatArray = new boolean[31];
-
-        initializeSeatAvailability();
-        instanceCount++;
+        this.band = ShowtimeBand.of(time);
+        this.seatMap = new SeatMap(layout); // All seats start as available
     }
 
     // Method to reset the showtime count (for testing purposes)
     public static void resetShowtimeCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Showtime.class);
+    }
+
+    // Heap of a showtime with its seat map: a word per row plus a free-run counter per row and seat type
+    private static long footprint(SeatLayout layout) {
+        return SHOWTIME_BYTES + (long) layout.getRows() * (Long.BYTES + SEAT_TYPE_COUNT * Integer.BYTES);
+    }
+
+    // Stop counting a showtime that was taken out of the catalog
+    synchronized void release() {
+        if (!released) {
+            released = true;
+            EntityRegistry.release(Showtime.class, footprint(seatMap.getLayout()));
+        }
     }
 
     // Method
     public int getAvailableSeats() {
-        int count = 30;
+        return seatMap.getFreeSeats();
+    }
 
-        for (int i = 1; i < 31; i++) {
-            if (seatArray[i] == false) {
-                count--;
-            }
-        }
-        return count;
+    public int getAvailableSeats(SeatType seatType) {
+        return seatMap.getFreeSeats(seatType);
     }
 
-    public boolean isSeatTaken(int seatNumber, String seatType) {
-        return !seatArray[seatNumber];
+    public boolean isSoldOut() {
+        return seatMap.isSoldOut();
     }
 
-    // Initialize seat availability for this showtime
-    private void initializeSeatAvailability() {
-        for (int i = 1; i < seatArray.length; i++) { // This is now actual number, fix according to CinemaUI
-            seatArray[i] = true; // All seats start as available
+    public boolean isSeatTaken(int seatNumber, String seatType) {
+        if (!seatMap.isValidSeat(seatNumber)) {
+            return true; // Seats outside the map can never be selected
         }
+        return seatMap.isTaken(seatNumber);
     }
 
     // Method to release the seat
     public void releaseSeat(int seatNumber) {
-        seatArray[seatNumber] = true;
+        if (seatMap.isValidSeat(seatNumber)) {
+            seatMap.release(seatNumber);
+        }
+    }
+
+    // Method to release many seats at once, returns how many were taken
+    public int releaseSeats(int[] seatNumbers) {
+        return seatMap.releaseAll(seatNumbers);
     }
 
     // Method to check if a seat number is valid for the selected seat type
     public boolean selectSeat(int seatNumber, String category) {
-        if (seatNumber < 1 || seatNumber > 30) {
-            System.out.println("Invalid seat number. Please select a seat between 1 and 30");
+        return selectSeat(seatNumber, SeatType.fromName(category));
+    }
+
+    public boolean selectSeat(int seatNumber, SeatType seatType) {
+        if (!isOpen() || !isSelectable(seatNumber, seatType)) {
             return false;
         }
 
-        // Check for category-based seat selection
-        if (category.equalsIgnoreCase("VIP") && (seatNumber < 1 || seatNumber > 10)) {
-            System.out.println("VIP seats can only be selected from 1 to 10.");
-            return false;
-        } else if (category.equalsIgnoreCase("Premium") && (seatNumber < 11 || seatNumber > 20)) {
-            System.out.println("Premium seats can only be selected from 11 to 20.");
-            return false;
-        } else if (category.equalsIgnoreCase("Regular") && (seatNumber < 21 || seatNumber > 30)) {
-            System.out.println("Regular seats can only be selected from 21 to 30.");
+        // Mark the seat as taken unless it is already taken
+        if (!seatMap.reserve(seatNumber)) {
+            System.out.println("Seat " + seatNumber + " is already taken.");
             return false;
         }
-        // Check if the seat is already taken
-        if (seatArray[seatNumber] == false) {
+        System.out.println("Seat " + seatNumber + " has been successfully reserved.");
+        return true;
+    }
+
+    /**
+     * Hold a seat while the customer finishes booking, the seat is given back
+     * automatically if the hold is not confirmed in time
+     *
+     * @param seatNumber  Seat to hold
+     * @param seatType    Seat type the customer picked
+     * @param holdManager Manager that expires the hold
+     * @return The hold, or null if the seat cannot be selected
+     */
+    public SeatHold holdSeat(int seatNumber, SeatType seatType, SeatHoldManager holdManager) {
+        if (!isOpen() || !isSelectable(seatNumber, seatType)) {
+            return null;
+        }
+
+        SeatHold seatHold = holdManager.hold(this, seatNumber);
+        if (seatHold == null) {
             System.out.println("Seat " + seatNumber + " is already taken.");
+            return null;
+        }
+        long holdSeconds = holdManager.getHoldMillis() / 1000;
+        System.out.println("Seat " + seatNumber + " is held for you for "
+                + (holdSeconds >= 60 ? holdSeconds / 60 + " minutes." : holdSeconds + " seconds."));
+        return seatHold;
+    }
+
+    // Check the showtime still takes bookings
+    private boolean isOpen() {
+        if (cancelled) {
+            System.out.println("This showtime has been cancelled.");
             return false;
         }
+        return true;
+    }
 
-        // Mark the seat as taken
-        seatArray[seatNumber] = false;
-        System.out.println("Seat " + seatNumber + " has been successfully reserved.");
+    // Check the seat exists and matches the seat type
+    private boolean isSelectable(int seatNumber, SeatType seatType) {
+        SeatLayout layout = seatMap.getLayout();
+
+        if (!layout.isValidSeat(seatNumber)) {
+            System.out.println("Invalid seat number. Please select a seat between 1 and " + layout.getCapacity());
+            return false;
+        }
+
+        // Check for category-based seat selection
+        if (seatType != null && layout.getSeatType(seatNumber) != seatType) {
+            System.out.println(seatType.getDisplayName() + " seats can only be selected from "
+                    + layout.getFirstSeat(seatType) + " to " + layout.getLastSeat(seatType) + ".");
+            return false;
+        }
         return true;
     }
 
+    /**
+     * Find the best block of side-by-side free seats for a group booking
+     *
+     * @param groupSize Number of seats wanted
+     * @param seatType  Seat type for the whole group
+     * @return Seat numbers of the block, or an empty array if no row fits the group
+     */
+    public int[] findBestAvailable(int groupSize, SeatType seatType) {
+        return seatMap.findBestBlock(groupSize, seatType);
+    }
+
+    /**
+     * Find and reserve the best block of side-by-side free seats in one step
+     *
+     * @param groupSize Number of seats wanted
+     * @param seatType  Seat type for the whole group
+     * @return Reserved seat numbers, or an empty array if no row fits the group
+     */
+    public int[] reserveBestAvailable(int groupSize, SeatType seatType) {
+        SeatLayout layout = seatMap.getLayout();
+
+        while (true) {
+            int[] seats = seatMap.findBestBlock(groupSize, seatType);
+            if (seats.length == 0) {
+                return seats;
+            }
+
+            long columnsMask = 0;
+            for (int seatNumber : seats) {
+                columnsMask |= 1L << layout.getColumn(seatNumber);
+            }
+            if (seatMap.reserveBlock(layout.getRow(seats[0]), columnsMask)) {
+                return seats;
+            }
+            // Another booking took one of the seats first, look again
+        }
+    }
+
     // Method to display all reserved seats
     public void displayReservedSeats() {
-        System.out.print("Reserved Seat: ");
-        boolean hasReservedSeats = false;
+        Renderer renderer = Renderer.console();
+        renderReservedSeats(renderer);
+        renderer.flush();
+    }
 
-        for (int i = 1; i < seatArray.length; i++) {
-            if (!seatArray[i]) { // If the seat is taken
-                System.out.print(i + " ");
-                hasReservedSeats = true;
-            }
+    // Render the reserved seat numbers without flushing
+    public void renderReservedSeats(Renderer renderer) {
+        renderer.text("Reserved Seat: ");
+        int[] reservedSeats = seatMap.getTakenSeatNumbers();
+
+        for (int seatNumber : reservedSeats) {
+            renderer.number(seatNumber).text(' ');
         }
 
-        if (!hasReservedSeats) {
-            System.out.println("None");
+        if (reservedSeats.length == 0) {
+            renderer.line("None");
         } else {
-            System.out.println(); // Move to next line after printing reserved seats
+            renderer.line(); // Move to next line after the reserved seats
         }
     }
 
@@ -119,11 +227,62 @@ public class Showtime {
         this.showtimeId = showtimeId;
     }
 
+    /**
+     * Let the prices of this showtime rise as its seats sell
+     *
+     * @param curve Curve used for every seat type
+     */
+    public void enableDemandPricing(DemandCurve curve) {
+        this.demandPricing = new DemandPricing(seatMap, curve);
+    }
+
+    /**
+     * Let the prices of this showtime rise as its seats sell, with a curve per seat type
+     *
+     * @param curves Curve of each seat type, indexed by SeatType ordinal
+     */
+    public void enableDemandPricing(DemandCurve[] curves) {
+        this.demandPricing = new DemandPricing(seatMap, curves);
+    }
+
+    public DemandPricing getDemandPricing() {
+        return demandPricing;
+    }
+
+    public void setDemandPricing(DemandPricing demandPricing) {
+        this.demandPricing = demandPricing;
+    }
+
+    /**
+     * Stop taking holds and sales for this showtime, the tickets already sold
+     * are canceled separately
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public ShowtimeBand getBand() {
+        return band;
+    }
+
     public String getTime() {
         return time;
     }
 
     public void setTime(String time) {
         this.time = time;
+        this.band = ShowtimeBand.of(time);
+    }
+
+    public SeatMap getSeatMap() {
+        return seatMap;
+    }
+
+    public SeatLayout getLayout() {
+        return seatMap.getLayout();
     }
 }
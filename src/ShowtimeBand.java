@@ -0,0 +1,51 @@
+package src;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+public enum ShowtimeBand {
+    MATINEE("Matinee"), EVENING("Evening"), LATE_NIGHT("Late night");
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("hh:mm a", Locale.ENGLISH);
+    private static final LocalTime EVENING_START = LocalTime.of(17, 0);
+    private static final LocalTime LATE_NIGHT_START = LocalTime.of(22, 0);
+
+    private final String displayName;
+
+    ShowtimeBand(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Return the band of a showtime such as "10:00 AM". Matinees start between
+     * 5 AM and 5 PM, evening shows before 10 PM and anything later is late
+     * night; a time that cannot be read counts as an evening show.
+     *
+     * @param time Showtime in "hh:mm AM/PM" format
+     * @return Band of the showtime
+     */
+    public static ShowtimeBand of(String time) {
+        if (time == null) {
+            return EVENING;
+        }
+        LocalTime start;
+        try {
+            start = LocalTime.parse(time.trim().toUpperCase(Locale.ENGLISH), TIME_FORMAT);
+        } catch (DateTimeParseException e) {
+            return EVENING;
+        }
+        if (start.isBefore(EVENING_START) && !start.isBefore(LocalTime.of(5, 0))) {
+            return MATINEE;
+        }
+        if (start.isBefore(LATE_NIGHT_START) && !start.isBefore(EVENING_START)) {
+            return EVENING;
+        }
+        return LATE_NIGHT;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,89 @@
+package src;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SimulatedPaymentGateway class stands in for a card processor when
+ * there is none, for example at a demo kiosk, in tests and in load runs.
+ * It answers after a configurable latency and declines a configurable share
+ * of cards; no money moves.
+ */
+public class SimulatedPaymentGateway implements PaymentGateway {
+    private final long latencyMillis;
+    private final double declineRate;
+    private final Random random;
+    private final Executor delayed;
+    private final AtomicLong authorized = new AtomicLong();
+    private final AtomicLong declined = new AtomicLong();
+    private final AtomicLong voided = new AtomicLong();
+
+    /**
+     * Constructor for a gateway that answers after a delay
+     *
+     * @param latencyMillis Time an answer takes
+     * @param declineRate   Share of cards declined, 0 for none and 1 for all
+     */
+    public SimulatedPaymentGateway(long latencyMillis, double declineRate) {
+        this(latencyMillis, declineRate, new Random());
+    }
+
+    /**
+     * Constructor with its own random numbers, for repeatable runs
+     *
+     * @param latencyMillis Time an answer takes
+     * @param declineRate   Share of cards declined, 0 for none and 1 for all
+     * @param random        Decides which cards are declined
+     */
+    public SimulatedPaymentGateway(long latencyMillis, double declineRate, Random random) {
+        if (latencyMillis < 0 || declineRate < 0 || declineRate > 1) {
+            throw new IllegalArgumentException("Latency must be 0 or more and decline rate between 0 and 1.");
+        }
+        this.latencyMillis = latencyMillis;
+        this.declineRate = declineRate;
+        this.random = random;
+        this.delayed = CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Methods
+    @Override
+    public CompletableFuture<String> authorize(String cardNumber, long amountCents) {
+        boolean decline;
+        synchronized (random) {
+            decline = declineRate > 0 && random.nextDouble() < declineRate;
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (decline) {
+                declined.incrementAndGet();
+                throw new CompletionException(new PaymentException("Card declined."));
+            }
+            return "AUTH-" + authorized.incrementAndGet();
+        }, delayed);
+    }
+
+    @Override
+    public CompletableFuture<Void> voidAuthorization(String authorizationCode) {
+        return CompletableFuture.runAsync(voided::incrementAndGet, delayed);
+    }
+
+    // Getters
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public long getAuthorizedCount() {
+        return authorized.get();
+    }
+
+    public long getDeclinedCount() {
+        return declined.get();
+    }
+
+    public long getVoidedCount() {
+        return voided.get();
+    }
+}
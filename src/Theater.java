@@ -6,40 +6,38 @@ import java.util.HashSet;
 import java.util.Set;
 
 public class Theater {
-    private static int instanceCount = 0;
-    private static final int MAX_INSTANCES = 100;
-
     private int theaterId;
     private String address;
     private List<Movie> movies = new ArrayList<>();
+    private final CatalogIndex<Movie> movieIndex = new CatalogIndex<>(movies, Movie::getMovieId);
     private List<Ticket> tickets = new ArrayList<>();
     private List<FoodAndDrink> menu = new ArrayList<>();
+    private SeatLayout layout = SeatLayout.standard(); // Shared by every showtime on this screen
+    private volatile List<GenreIndex> genreIndexes = List.of(); // Genre indexes of the cinemas listing this theater
 
     // Constructor
     public Theater() {
-        if (instanceCount >= MAX_INSTANCES) {
-            System.out.println("Cannot create more than " + MAX_INSTANCES + " theaters.");
+        if (!EntityRegistry.acquire(Theater.class)) {
+            System.out.println("Cannot create more than " + EntityRegistry.getCapacity(Theater.class) + " theaters.");
             // Exit constructor if the limit is reached
             return;
         }
-        // Increment instance count when a new theater is created
-        instanceCount++;
     }
 
     public Theater(int theaterId, String address) {
-        if (instanceCount >= MAX_INSTANCES) {
-            System.out.println("Cannot create more than " + MAX_INSTANCES + " theaters.");
+        if (!EntityRegistry.acquire(Theater.class)) {
+            System.out.println("Cannot create more than " + EntityRegistry.getCapacity(Theater.class) + " theaters.");
             return; // Exit constructor if the limit is reached
         }
         this.theaterId = theaterId;
         this.address = address;
         this.movies = new ArrayList<>();
-        instanceCount++;
+        movieIndex.setItems(this.movies);
     }
 
     public Theater(int theaterId, String address, List<Movie> movies) {
-        if (instanceCount >= MAX_INSTANCES) {
-            System.out.println("Cannot create more than " + MAX_INSTANCES + " theaters.");
+        if (!EntityRegistry.acquire(Theater.class)) {
+            System.out.println("Cannot create more than " + EntityRegistry.getCapacity(Theater.class) + " theaters.");
             // Exit constructor if the limit is reached
             return;
         }
@@ -50,13 +48,13 @@ public class Theater {
         } else {
             this.movies = movies;
         }
+        movieIndex.setItems(this.movies);
         this.menu = new ArrayList<>(); // Initialize menu to avoid null
-        instanceCount++;
     }
 
     public Theater(int theaterId, String address, List<Movie> movies, List<FoodAndDrink> menu) {
-        if (instanceCount >= MAX_INSTANCES) {
-            System.out.println("Cannot create more than " + MAX_INSTANCES + " theaters.");
+        if (!EntityRegistry.acquire(Theater.class)) {
+            System.out.println("Cannot create more than " + EntityRegistry.getCapacity(Theater.class) + " theaters.");
             return;
         }
         this.theaterId = theaterId;
@@ -66,75 +64,127 @@ public class Theater {
         } else {
             this.movies = movies;
         }
+        movieIndex.setItems(this.movies);
         if (menu == null) {
             this.menu = new ArrayList<>();
         } else {
             this.menu = menu;
         }
-        instanceCount++;
+    }
+
+    public Theater(int theaterId, String address, List<Movie> movies, List<FoodAndDrink> menu, SeatLayout layout) {
+        this(theaterId, address, movies, menu);
+        this.layout = layout;
     }
 
     // Method to reset the theater count (for testing purposes)
     public static void resetTheaterCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Theater.class);
     }
 
     // Methods
     public void addMovie(Movie movie) {
-        movies.add(movie);
+        movieIndex.add(movie);
+        for (GenreIndex genreIndex : genreIndexes) {
+            genreIndex.movieAdded(this, movie);
+        }
+    }
+
+    /**
+     * Remove a movie from the theater. The movie and its showtimes are no
+     * longer counted by the EntityRegistry.
+     *
+     * @param movie Movie to remove
+     * @return true if the theater was showing the movie
+     */
+    public boolean removeMovie(Movie movie) {
+        if (!movieIndex.remove(movie)) {
+            return false;
+        }
+        for (GenreIndex genreIndex : genreIndexes) {
+            genreIndex.movieRemoved(this, movie);
+        }
+        movie.release();
+        return true;
+    }
+
+    // Keep a genre index informed of changes to the movie list
+    synchronized void watchGenres(GenreIndex genreIndex) {
+        if (!genreIndexes.contains(genreIndex)) {
+            List<GenreIndex> watching = new ArrayList<>(genreIndexes);
+            watching.add(genreIndex);
+            genreIndexes = watching;
+        }
+    }
+
+    // Create a showtime that uses this theater's seat layout
+    public Showtime createShowtime(int showtimeId, String time) {
+        return new Showtime(showtimeId, time, layout);
     }
 
     public void listMovies() {
-        System.out.println("\nMovies in " + this.address + ":");
-        System.out.println();
+        Renderer renderer = Renderer.console();
+        renderMovies(renderer);
+        renderer.flush();
+    }
+
+    // Render the movie list shown when picking a movie, without flushing
+    public void renderMovies(Renderer renderer) {
+        renderer.line().text("Movies in ").text(address).line(":");
+        renderer.line();
         for (Movie movie : movies) {
-            System.out.println("Movie ID: " + movie.getMovieId() + ", Title: " + movie.getTitle() + ", Genre: "
-                    + movie.getGenre());
+            renderMovie(renderer, movie);
         }
     }
 
     public Movie selectMovie(int movieId) throws MovieNotFoundException {
-        for (Movie movie : movies) {
-            if (movie.getMovieId() == movieId) {
-                return movie;
-            }
+        Movie movie = movieIndex.find(movieId);
+        if (movie != null) {
+            return movie;
         }
         throw new MovieNotFoundException("Movie not found with ID: " + movieId);
     }
 
     public void listFoodAndDrink() {
         for (FoodAndDrink item : menu) {
-            System.out.println("Food/Drink: " + item.getName() + ", Price: $" + item.getPrice());
+            System.out.println("Food/Drink: " + item.getName() + ", Price: " + Money.format(item.getPriceCents()));
         }
     }
 
     public void showAllMovieInTheater() {
+        Renderer renderer = Renderer.console();
+        renderAllMovies(renderer);
+        renderer.flush();
+    }
+
+    // Render the indented movie list shown under the theater, without flushing
+    public void renderAllMovies(Renderer renderer) {
         if (movies.isEmpty()) {
-            System.out.println("No movies currently available in this theater.");
+            renderer.line("No movies currently available in this theater.");
             return;
         }
         for (Movie movie : movies) {
-            System.out.println("    Movie ID: " + movie.getMovieId() + ", Title: " + movie.getTitle() + ", Genre: "
-                    + movie.getGenre());
+            renderMovie(renderer.spaces(4), movie);
         }
     }
 
     public void showAllMovieInTheater(String genre) {
+        Renderer renderer = Renderer.console();
         for (Movie movie : movies) {
             if (movie.getGenre().equalsIgnoreCase(genre)) {
-                System.out.println("    Movie ID: " + movie.getMovieId() + ", Title: " + movie.getTitle() + ", Genre: "
-                        + movie.getGenre());
+                renderMovie(renderer.spaces(4), movie);
             }
         }
+        renderer.flush();
+    }
+
+    private static void renderMovie(Renderer renderer, Movie movie) {
+        renderer.text("Movie ID: ").number(movie.getMovieId()).text(", Title: ").text(movie.getTitle())
+                .text(", Genre: ").line(movie.getGenre());
     }
 
     public boolean isValidMovie(int movieId) {
-        for (Movie movie : movies) {
-            if (movie.getMovieId() == movieId) {
-                return true;
-            }
-        }
-        return false;
+        return movieIndex.contains(movieId);
     }
 
     // Check if there is Movie with specified Genre
@@ -178,7 +228,12 @@ public class Theater {
     }
 
     public void setMovies(List<Movie> movies) {
+        List<Movie> oldMovies = this.movies;
         this.movies = movies;
+        movieIndex.setItems(movies);
+        for (GenreIndex genreIndex : genreIndexes) {
+            genreIndex.moviesReplaced(this, oldMovies);
+        }
     }
 
     public List<Ticket> getTickets() {
@@ -196,4 +251,12 @@ public class Theater {
     public void setMenu(List<FoodAndDrink> menu) {
         this.menu = menu;
     }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(SeatLayout layout) {
+        this.layout = layout;
+    }
 }
@@ -1,53 +1,100 @@
 package src;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class Ticket implements Reservable {
-    private static int idCounter = 0;
-    private static List<Ticket> tickets = new ArrayList<>();
-
-    // Track the number of instances
-    private static int instanceCount = 0;
-    private static final int MAX_INSTANCES = 100;
+    private static TicketIdAllocator idAllocator = new TicketIdAllocator();
+    private static final TicketRegistry registry = new TicketRegistry(); // Reserved tickets by ID
+    private static final ObjectPool<Ticket> pool = new ObjectPool<>(1000); // Tickets from abandoned bookings
 
     private int ticketId;
     private String seatType;
     private String agePricing;
     private int seatNumber;
     private boolean reserved;
-    private double price;
+    private long priceCents;
     private Transaction transaction;
+    private boolean counted; // Whether this ticket is counted by the EntityRegistry
 
     // Constructor
     public Ticket() {
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Ticket instances (" + MAX_INSTANCES + ") reached.");
-        }
-        instanceCount++;
+        countInstance();
     }
 
     public Ticket(String seatType, String agePricing, int seatNumber) {
-        // Exit constructor if the limit is reached
-        if (instanceCount >= MAX_INSTANCES) {
-            throw new IllegalStateException("Maximum number of Ticket instances (" + MAX_INSTANCES + ") reached.");
-        }
+        countInstance(); // Throws if the limit is reached
         this.seatType = seatType;
         this.agePricing = agePricing;
         this.seatNumber = seatNumber;
         this.reserved = false;
         this.ticketId = generateTicketId();
-        instanceCount++;
     }
 
     public Ticket(String seatType, String agePricing, int seatNumber, double price) {
         this(seatType, agePricing, seatNumber);
-        this.price = price;
+        this.priceCents = Money.ofDollars(price);
+    }
+
+    private void countInstance() {
+        if (!EntityRegistry.acquire(Ticket.class)) {
+            throw new IllegalStateException("Maximum number of Ticket instances ("
+                    + EntityRegistry.getCapacity(Ticket.class) + ") reached.");
+        }
+        counted = true;
+    }
+
+    private void uncountInstance() {
+        if (counted) {
+            counted = false;
+            EntityRegistry.release(Ticket.class);
+        }
+    }
+
+    /**
+     * Return a ticket for a new booking, reusing a recycled ticket if there is one
+     *
+     * @param seatType   Seat type of the ticket
+     * @param agePricing Age pricing of the ticket
+     * @param seatNumber Seat number of the ticket
+     * @return Ticket with a new ticket ID
+     */
+    public static Ticket obtain(String seatType, String agePricing, int seatNumber) {
+        Ticket ticket = pool.poll();
+        if (ticket == null) {
+            return new Ticket(seatType, agePricing, seatNumber);
+        }
+        ticket.countInstance();
+        ticket.seatType = seatType;
+        ticket.agePricing = agePricing;
+        ticket.seatNumber = seatNumber;
+        ticket.ticketId = ticket.generateTicketId();
+        return ticket;
+    }
+
+    /**
+     * Give back a ticket from a booking that was abandoned before it completed.
+     * The ticket must not be referenced anywhere else afterwards.
+     *
+     * @param ticket Ticket to reuse
+     */
+    public static void recycle(Ticket ticket) {
+        if (ticket.isReserved()) {
+            throw new IllegalStateException("Cannot recycle reserved ticket " + ticket.getTicketId() + ".");
+        }
+        ticket.uncountInstance();
+        ticket.ticketId = 0;
+        ticket.seatType = null;
+        ticket.agePricing = null;
+        ticket.seatNumber = 0;
+        ticket.reserved = false;
+        ticket.priceCents = 0;
+        ticket.transaction = null;
+        pool.offer(ticket);
     }
 
     // Method to reset the ticket count (for testing purposes)
     public static void resetTicketCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Ticket.class);
     }
 
     // Implementing Reservable interface methods
@@ -72,72 +119,88 @@ public class Ticket implements Reservable {
 
     // Other methods
     public double applyDiscount(double price, int discountPercentage) {
-        return price - (price * discountPercentage / 100.0);
+        return Money.toDollars(applyDiscountCents(Money.ofDollars(price), discountPercentage));
+    }
+
+    public long applyDiscountCents(long priceCents, int discountPercentage) {
+        return Money.percentOff(priceCents, discountPercentage);
     }
 
     public void getSummary() {
-        System.out.println("Ticket ID: " + getTicketId());
-        System.out.println("Seat: " + this.seatNumber + ", Type: " + this.seatType + ", Pricing: "
-                + this.agePricing);
-        System.out.println("\nTicket price: " + "$" + this.price);
+        Renderer renderer = Renderer.console();
+        renderSummary(renderer);
+        renderer.flush();
+    }
+
+    // Render the summary without flushing
+    public void renderSummary(Renderer renderer) {
+        renderer.text("Ticket ID: ").number(getTicketId()).line();
+        renderer.text("Seat: ").number(seatNumber).text(", Type: ").text(String.valueOf(seatType))
+                .text(", Pricing: ").line(String.valueOf(agePricing));
+        renderer.line().text("Ticket price: ").money(priceCents).line();
     }
 
     // Method to find ticket by its ID
     public static Ticket findTicketById(int ticketId) {
-        for (Ticket ticket : tickets) {
-            if (ticket.getTicketId() == ticketId) {
-                return ticket;
-            }
-        }
-        return null;
+        return registry.findById(ticketId);
     }
 
     public static boolean ticketIdExists(int ticketId) {
-        for (Ticket ticket : tickets) {
-            if (ticketId == ticket.getTicketId()) {
-                return true; // Ticket ID found
-            }
-        }
-        return false; // Ticket ID not found
+        return registry.contains(ticketId);
     }
 
     public void reserve() {
         this.reserved = true;
-        tickets.add(this);
+        registry.register(this);
     }
 
     public void cancelReservation() {
         this.reserved = false;
-        tickets.remove(this);
+        registry.unregister(this);
         // Adjust the instance count when the ticket is removed
-        if (instanceCount > 0) {
-            instanceCount--;
-        }
+        uncountInstance();
+    }
+
+    // Finish canceling a ticket that was already taken out of the registry
+    void releaseUnregistered() {
+        this.reserved = false;
+        uncountInstance();
     }
 
+    // A ticket counts as reserved while a ticket with its ID is in the registry
     public boolean isReserved() {
-        for (Ticket ticket : tickets) {
-            if (ticketId == ticket.getTicketId()) {
-                reserved = true;
-                return reserved;
-            }
-        }
-        reserved = false;
+        reserved = registry.contains(ticketId);
         return reserved;
     }
 
     public int generateTicketId() {
-        idCounter++;
-        return idCounter;
+        return idAllocator.nextId();
+    }
+
+    // Replace the ID allocator, e.g. with one that survives restarts
+    public static void setIdAllocator(TicketIdAllocator allocator) {
+        idAllocator = allocator;
+    }
+
+    public static TicketIdAllocator getIdAllocator() {
+        return idAllocator;
     }
 
     // Getters and Setters
     public double getPrice() {
-        return price;
+        return Money.toDollars(priceCents);
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.ofDollars(price);
+    }
+
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public int getTicketId() {
@@ -145,7 +208,12 @@ public class Ticket implements Reservable {
     }
 
     public void setTicketId(int ticketId) {
+        // Keep the registry keyed by the new ID if this ticket is reserved
+        boolean registered = registry.unregister(this.ticketId, this);
         this.ticketId = ticketId;
+        if (registered) {
+            registry.register(this);
+        }
     }
 
     public String getSeatType() {
@@ -172,8 +240,13 @@ public class Ticket implements Reservable {
         this.seatNumber = seatNumber;
     }
 
+    // Snapshot of all reserved tickets
     public static List<Ticket> getTickets() {
-        return tickets;
+        return registry.getTickets();
+    }
+
+    public static TicketRegistry getRegistry() {
+        return registry;
     }
 
     public Transaction getTransaction() {
@@ -0,0 +1,133 @@
+package src;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The TicketIdAllocator class hands out unique ticket IDs to many booking
+ * threads and box-office nodes.
+ * IDs are handed out in blocks: a block is taken from the shared counter and
+ * tickets are then numbered from it. Threads share a few blocks, picked by
+ * thread ID, so threads rarely wait on each other, and a block outlives the
+ * thread that took it: short-lived session threads do not each use up a
+ * block of their own. Blocks are interleaved between nodes (node n of N owns
+ * blocks n, n + N, n + 2N, ...), so nodes never hand out the same ID. When a
+ * state file is given, the next free block is saved before a block is used,
+ * so a restarted node continues after the last block it handed out instead of
+ * starting again at 1.
+ */
+public class TicketIdAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1000;
+
+    private final int nodeId;
+    private final int nodeCount;
+    private final int blockSize;
+    private final Path stateFile;
+    private long nextBlock; // Next block index for this node, guarded by this
+    private final int[][] stripes; // { next ID, end of block } per stripe, guarded by the stripe
+
+    /**
+     * Constructor for a single node that does not survive restarts
+     */
+    public TicketIdAllocator() {
+        this(0, 1, DEFAULT_BLOCK_SIZE, null);
+    }
+
+    /**
+     * Constructor for one node of a group of box-office nodes
+     *
+     * @param nodeId    This node's number, from 0 to nodeCount - 1
+     * @param nodeCount Number of nodes sharing the ID space
+     * @param blockSize Number of IDs taken from the shared counter at a time
+     * @param stateFile File to remember the next block across restarts, or null
+     */
+    public TicketIdAllocator(int nodeId, int nodeCount, int blockSize, Path stateFile) {
+        if (nodeCount < 1 || nodeId < 0 || nodeId >= nodeCount) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + (nodeCount - 1) + ".");
+        }
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size must be positive.");
+        }
+        this.nodeId = nodeId;
+        this.nodeCount = nodeCount;
+        this.blockSize = blockSize;
+        this.stripes = new int[Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 4][2];
+        this.stateFile = stateFile;
+        this.nextBlock = readState();
+    }
+
+    // Methods
+    /**
+     * Return a ticket ID that no other thread or node will return
+     *
+     * @return New ticket ID, starting from 1
+     */
+    public int nextId() {
+        long threadId = Thread.currentThread().getId();
+        int[] block = stripes[Long.hashCode(threadId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+        synchronized (block) {
+            if (block[0] >= block[1]) {
+                takeBlock(block);
+            }
+            return block[0]++;
+        }
+    }
+
+    // Take the next block of this node and save the one after it before using it
+    private synchronized void takeBlock(int[] block) {
+        long first = (nextBlock * nodeCount + nodeId) * blockSize + 1;
+        if (first + blockSize - 1 > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Ticket IDs exhausted for node " + nodeId + ".");
+        }
+        nextBlock++;
+        writeState();
+        block[0] = (int) first;
+        block[1] = (int) (first + blockSize);
+    }
+
+    private long readState() {
+        if (stateFile == null || !Files.exists(stateFile)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Files.readAllBytes(stateFile), StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read ticket ID state from " + stateFile, e);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Corrupt ticket ID state in " + stateFile, e);
+        }
+    }
+
+    private void writeState() {
+        if (stateFile == null) {
+            return;
+        }
+        try {
+            // Write a temporary file and move it over the old one so a crash never leaves half a number
+            Path parent = stateFile.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, stateFile.getFileName().toString(), ".tmp");
+            Files.write(temp, Long.toString(nextBlock).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot save ticket ID state to " + stateFile, e);
+        }
+    }
+
+    // Getters
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+}
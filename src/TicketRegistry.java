@@ -0,0 +1,126 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Predicate;
+
+/**
+ * The TicketRegistry class keeps every reserved ticket keyed by ticket ID.
+ * Reserve, cancel and lookup are O(1) hash operations on a LongHashMap.
+ * Lookups take an optimistic read stamp and only fall back to a read lock
+ * when a writer got in the way, so many booking threads can read at once.
+ */
+public class TicketRegistry {
+    private final LongHashMap<Ticket> tickets = new LongHashMap<>();
+    private final StampedLock lock = new StampedLock();
+
+    // Methods
+    public Ticket findById(int ticketId) {
+        long stamp = lock.tryOptimisticRead();
+        Ticket ticket = tickets.get(ticketId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                ticket = tickets.get(ticketId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return ticket;
+    }
+
+    public boolean contains(int ticketId) {
+        return findById(ticketId) != null;
+    }
+
+    /**
+     * Add a ticket under its ticket ID
+     *
+     * @param ticket Ticket to add
+     * @return The ticket that was registered under the same ID before, or null
+     */
+    public Ticket register(Ticket ticket) {
+        long stamp = lock.writeLock();
+        try {
+            return tickets.put(ticket.getTicketId(), ticket);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a ticket, only if it is the ticket registered under its ID
+     *
+     * @param ticket Ticket to remove
+     * @return true if the ticket was removed
+     */
+    public boolean unregister(Ticket ticket) {
+        return unregister(ticket.getTicketId(), ticket);
+    }
+
+    // Remove the ticket registered under the given ID, only if it is this ticket
+    boolean unregister(int ticketId, Ticket ticket) {
+        long stamp = lock.writeLock();
+        try {
+            if (tickets.get(ticketId) != ticket) {
+                return false;
+            }
+            tickets.remove(ticketId);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove every ticket that matches, under one write lock instead of one
+     * per ticket
+     *
+     * @param filter Selects the tickets to remove
+     * @return Removed tickets
+     */
+    public List<Ticket> unregisterAll(Predicate<Ticket> filter) {
+        long stamp = lock.writeLock();
+        try {
+            List<Ticket> removed = new ArrayList<>();
+            for (Ticket ticket : tickets.values()) {
+                if (filter.test(ticket)) {
+                    tickets.remove(ticket.getTicketId());
+                    removed.add(ticket);
+                }
+            }
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return tickets.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // Snapshot of all registered tickets
+    public List<Ticket> getTickets() {
+        long stamp = lock.readLock();
+        try {
+            return tickets.values();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            tickets.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The TimingWheel class runs tasks after a delay without keeping one timer per
+ * task. Time moves in ticks; each level of the wheel has 64 slots and every
+ * level covers 64 times the span of the level below it. A task is stored in
+ * the lowest level whose slot still lies ahead of the current tick and moves
+ * down a level each time the wheel reaches its slot, so scheduling and
+ * cancelling are O(1) and each tick only touches the slots it passes.
+ */
+public class TimingWheel {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 5; // 2^30 ticks before a delay is clamped
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout[][] slots = new Timeout[LEVELS][SLOTS]; // Head of a linked list per slot
+    private long currentTick;
+    private int pending;
+
+    /**
+     * Constructor that creates an empty wheel
+     *
+     * @param tickMillis  Length of one tick in milliseconds
+     * @param startMillis Time of tick 0
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick length must be positive.");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+    }
+
+    // Methods
+    /**
+     * Schedule a task to run once the delay has passed
+     *
+     * @param task        Task to run
+     * @param delayMillis Delay in milliseconds, rounded up to whole ticks
+     * @return Timeout that can be cancelled
+     */
+    public synchronized Timeout schedule(Runnable task, long delayMillis) {
+        long ticks = Math.max(1, (delayMillis + tickMillis - 1) / tickMillis);
+        // Stay less than one turn of the top level away so the top slot cannot wrap around
+        ticks = Math.min(ticks, (1L << (SLOT_BITS * LEVELS)) - (1L << (SLOT_BITS * (LEVELS - 1))));
+        Timeout timeout = new Timeout(task, currentTick + ticks);
+        insert(timeout);
+        pending++;
+        return timeout;
+    }
+
+    /**
+     * Move the wheel forward to the given time and run every task that is due.
+     * Tasks run on the calling thread after the wheel has been unlocked.
+     *
+     * @param nowMillis Current time in milliseconds
+     * @return Number of tasks that ran
+     */
+    public int advanceTo(long nowMillis) {
+        List<Runnable> expired = new ArrayList<>();
+
+        synchronized (this) {
+            long targetTick = (nowMillis - startMillis) / tickMillis;
+            if (pending == 0 && targetTick > currentTick) {
+                currentTick = targetTick; // Nothing scheduled, skip the idle ticks
+            }
+            while (currentTick < targetTick && pending > 0) {
+                currentTick++;
+                // Bring down tasks from higher levels whose slot the wheel just reached
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(level, (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    }
+                }
+                Timeout timeout = detachSlot(0, (int) currentTick & SLOT_MASK);
+                while (timeout != null) {
+                    Timeout next = timeout.next;
+                    timeout.next = null;
+                    timeout.prev = null;
+                    timeout.expired = true;
+                    pending--;
+                    expired.add(timeout.task);
+                    timeout = next;
+                }
+            }
+            if (currentTick < targetTick) {
+                currentTick = targetTick;
+            }
+        }
+
+        for (Runnable task : expired) {
+            task.run();
+        }
+        return expired.size();
+    }
+
+    public synchronized int getPendingCount() {
+        return pending;
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    // Lowest level whose slot for the deadline is still ahead of the current tick
+    private void insert(Timeout timeout) {
+        int level = 0;
+        while (level < LEVELS - 1
+                && (timeout.deadlineTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        int slot = (int) (timeout.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+
+        timeout.level = level;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[level][slot];
+        if (timeout.next != null) {
+            timeout.next.prev = timeout;
+        }
+        slots[level][slot] = timeout;
+    }
+
+    private void cascade(int level, int slot) {
+        Timeout timeout = detachSlot(level, slot);
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            insert(timeout);
+            timeout = next;
+        }
+    }
+
+    private Timeout detachSlot(int level, int slot) {
+        Timeout head = slots[level][slot];
+        slots[level][slot] = null;
+        return head;
+    }
+
+    private synchronized boolean remove(Timeout timeout) {
+        if (timeout.expired || timeout.cancelled) {
+            return false;
+        }
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            slots[timeout.level][timeout.slot] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.cancelled = true;
+        pending--;
+        return true;
+    }
+
+    /**
+     * Handle for a scheduled task
+     */
+    public class Timeout {
+        private final Runnable task;
+        private final long deadlineTick;
+        private int level;
+        private int slot;
+        private Timeout prev;
+        private Timeout next;
+        private boolean expired;
+        private boolean cancelled;
+
+        private Timeout(Runnable task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Stop the task from running
+         *
+         * @return true if the task was still waiting and will now never run
+         */
+        public boolean cancel() {
+            return remove(this);
+        }
+
+        public long getDeadlineMillis() {
+            return startMillis + deadlineTick * tickMillis;
+        }
+    }
+}
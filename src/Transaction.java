@@ -7,30 +7,28 @@ import java.util.List;
 
 public class Transaction implements Billable {
 
-    // the 100 instances of the class
-    private static int instanceCount = 0;
-    private static final int MAX_TRANSACTIONS = 100;
+    private static final ObjectPool<Transaction> pool = new ObjectPool<>(1000); // From abandoned bookings
+    private static volatile TransactionLedger ledger; // Durable record of sales and refunds, none if null
 
     private String transactionType;
     private boolean holdStatus;
     private Ticket ticket;
     private Customer customer;
+    private Theater theater; // Theater of the sale, null if unknown
     private Movie movie;
     private Showtime showtime;
     private String cardNumber;
+    private String authorizationCode; // From the payment gateway, null for cash
     private List<FoodAndDrink> selectedItems;
     private LocalDateTime transactionTime;
+    private boolean counted; // Whether this transaction is counted by the EntityRegistry
 
     // Constructor
     public Transaction() {
-        // Exception for passing the 100 instance
-        if (instanceCount >= MAX_TRANSACTIONS) {
-            throw new IllegalStateException(
-                    "Cannot create more than " + MAX_TRANSACTIONS + " instances of Transaction.");
-        }
+        // Exception when the limit or heap budget is reached
+        countInstance();
         this.transactionTime = LocalDateTime.now();
         this.selectedItems = new ArrayList<>();
-        instanceCount++;
     }
 
     public Transaction(Movie movie, Showtime showtime, Ticket ticket, Customer customer,
@@ -41,36 +39,84 @@ public class Transaction implements Billable {
     }
 
     public Transaction(Movie movie, Showtime showtime, Ticket ticket) {
-        if (instanceCount >= MAX_TRANSACTIONS) {
-            throw new IllegalStateException(
-                    "Cannot create more than " + MAX_TRANSACTIONS + " instances of Transaction.");
-        }
+        countInstance();
         this.ticket = ticket;
         this.movie = movie;
         this.showtime = showtime;
         this.transactionTime = LocalDateTime.now();
-        instanceCount++;
+    }
+
+    private void countInstance() {
+        if (!EntityRegistry.acquire(Transaction.class)) {
+            throw new IllegalStateException("Cannot create more than "
+                    + EntityRegistry.getCapacity(Transaction.class) + " instances of Transaction.");
+        }
+        counted = true;
+    }
+
+    /**
+     * Return an empty transaction for a new booking, reusing a recycled one if there is one
+     *
+     * @return Transaction with the current time
+     */
+    public static Transaction obtain() {
+        Transaction transaction = pool.poll();
+        if (transaction == null) {
+            return new Transaction();
+        }
+        transaction.countInstance();
+        transaction.transactionTime = LocalDateTime.now();
+        return transaction;
+    }
+
+    /**
+     * Give back a transaction from a booking that was abandoned before it completed.
+     * The transaction must not be referenced anywhere else afterwards.
+     *
+     * @param transaction Transaction to reuse
+     */
+    public static void recycle(Transaction transaction) {
+        if (transaction.counted) {
+            transaction.counted = false;
+            EntityRegistry.release(Transaction.class);
+        }
+        transaction.transactionType = null;
+        transaction.holdStatus = false;
+        transaction.ticket = null;
+        transaction.customer = null;
+        transaction.theater = null;
+        transaction.movie = null;
+        transaction.showtime = null;
+        transaction.cardNumber = null;
+        transaction.authorizationCode = null;
+        transaction.selectedItems = new ArrayList<>();
+        pool.offer(transaction);
     }
 
     // Method to display error message when max instances exceeded
     public static void displayInstanceLimitError() {
-        System.out.println("Cannot create more than " + MAX_TRANSACTIONS + " instances of Transaction.");
+        System.out.println("Cannot create more than " + EntityRegistry.getCapacity(Transaction.class)
+                + " instances of Transaction.");
+    }
+
+    public static void setLedger(TransactionLedger transactionLedger) {
+        ledger = transactionLedger;
+    }
+
+    public static TransactionLedger getLedger() {
+        return ledger;
     }
 
     // Method to reset the transaction count (for testing purposes)
     public static void resetTransactionCount() {
-        instanceCount = 0;
+        EntityRegistry.reset(Transaction.class);
     }
 
     // Implementing Billable interface methods
     @Override
     public void processTransaction(Customer customer, Movie movie, Showtime showtime, Ticket ticket,
             List<FoodAndDrink> selectedItems) {
-        this.customer = customer;
-        this.movie = movie;
-        this.showtime = showtime;
-        this.ticket = ticket;
-        this.selectedItems = new ArrayList<>(selectedItems);
+        recordSale(customer, movie, showtime, ticket, selectedItems);
 
         System.out.println("Transaction processed successfully.");
 
@@ -81,30 +127,50 @@ public class Transaction implements Billable {
         }
     }
 
+    // Fill in the sale and write it to the ledger, without printing anything
+    void recordSale(Customer customer, Movie movie, Showtime showtime, Ticket ticket,
+            List<FoodAndDrink> selectedItems) {
+        this.customer = customer;
+        this.movie = movie;
+        this.showtime = showtime;
+        this.ticket = ticket;
+        this.selectedItems = new ArrayList<>(selectedItems);
+        record(TransactionLedger.SALE, calculateTotalCents());
+    }
+
     @Override
     public void printReceipt() {
-        // Print customer details
-        System.out.println("Transaction completed on: " + getFormattedTransactionTime());
-        System.out.println("\nCustomer: " + customer.getName() + ", Email: " + customer.getEmail() + ", Phone: "
-                + customer.getPhone());
-        // Print showtime details
-        System.out.println("Showtime: ID: " + showtime.getShowtimeId() + ", Time: " + showtime.getTime());
-        // Print movie and ticket details
-        System.out.println("Movie: " + movie.getTitle());
-        ticket.getSummary();
-
-        // Print selected food and drinks
-        System.out.println("\nYou selected " + getTotalItems() + " items:");
+        Renderer renderer = Renderer.console();
+        renderReceipt(renderer);
+        renderer.flush();
+    }
+
+    /**
+     * Render the receipt without flushing, so several receipts can go out in one write
+     *
+     * @param renderer Renderer to add the receipt to
+     */
+    public void renderReceipt(Renderer renderer) {
+        // Customer details
+        renderer.text("Transaction completed on: ").line(getFormattedTransactionTime());
+        renderer.line().text("Customer: ").text(customer.getName()).text(", Email: ").text(customer.getEmail())
+                .text(", Phone: ").line(customer.getPhone());
+        // Showtime details
+        renderer.text("Showtime: ID: ").number(showtime.getShowtimeId()).text(", Time: ").line(showtime.getTime());
+        // Movie and ticket details
+        renderer.text("Movie: ").line(movie.getTitle());
+        ticket.renderSummary(renderer);
+
+        // Selected food and drinks
+        renderer.line().text("You selected ").number(getTotalItems()).line(" items:");
         for (FoodAndDrink item : selectedItems) {
-            System.out.printf("%-10s - $%.2f%n", item.getName(), item.getPrice());
+            renderer.padRight(item.getName(), 10).text(" - ").money(item.getPriceCents()).line();
         }
 
-        // Get total cost
-        double totalCost = calculateTotalCost();
-
-        System.out.printf("%nTotal Cost: $%.2f%n", totalCost);
-        System.out.println("----------------------------------------------");
-        System.out.println("----------------------------------------------");
+        // Total cost
+        renderer.line().text("Total Cost: ").money(calculateTotalCents()).line();
+        renderer.line("----------------------------------------------");
+        renderer.line("----------------------------------------------");
     }
 
     // Other methods
@@ -114,14 +180,19 @@ public class Transaction implements Billable {
     }
 
     public double calculateTotalCost() {
-        double totalCost = ticket.getPrice(); // Start with ticket price
+        return Money.toDollars(calculateTotalCents());
+    }
+
+    // Exact total in cents
+    public long calculateTotalCents() {
+        long totalCents = ticket.getPriceCents(); // Start with ticket price
 
         // Add the price of each selected food and drink item
-        for (FoodAndDrink item : selectedItems) {
-            totalCost += item.getPrice();
+        for (int i = 0; i < selectedItems.size(); i++) {
+            totalCents += selectedItems.get(i).getPriceCents();
         }
 
-        return totalCost;
+        return totalCents;
     }
 
     public int getTotalItems() {
@@ -154,15 +225,96 @@ public class Transaction implements Billable {
     }
 
     public void processRefund() {
-        if (transactionType.equalsIgnoreCase("Credit Card")) {
+        processRefund(false); // The kiosk keeps the seat of a canceled ticket taken
+    }
+
+    /**
+     * Refund the transaction and print the outcome
+     *
+     * @param seatReleased Whether the seat was given back to the showtime, so replaying the ledger does the same
+     */
+    public void processRefund(boolean seatReleased) {
+        if (isCardPayment(transactionType)) {
+            record(TransactionLedger.REFUND, calculateTotalCents(), seatReleased);
             System.out.println(
                     "Refunding transaction for ticket " + ticket.getTicketId() + " to card number: " + cardNumber);
         } else {
+            record(TransactionLedger.REFUND, 0, seatReleased); // Nothing was collected, keep the cancellation on record
             System.out.println("Cannot refund. Cash transaction was not collected.");
         }
 
     }
 
+    /**
+     * Take back a sale whose showtime was cancelled while it was being made.
+     * The cancellation only sees tickets already in the registry, so a sale
+     * checks once more after reserving its ticket.
+     *
+     * @return true if the sale was refunded and its seat freed
+     */
+    boolean undoIfCancelled() {
+        if (!showtime.isCancelled() || !Ticket.getRegistry().unregister(ticket)) {
+            return false; // Still on, or the cancellation already took the ticket
+        }
+        ticket.releaseUnregistered();
+        showtime.releaseSeat(ticket.getSeatNumber());
+        processRefund(true);
+        return true;
+    }
+
+    /**
+     * Refund many transactions at once, for example every sale of a canceled
+     * showtime. Nothing is printed and the refunds are written to the ledger
+     * together, so they share one fsync instead of waiting for one each. The
+     * seats must already be given back.
+     *
+     * @param transactions Transactions to refund
+     * @return Amount refunded to cards in cents, cash sales refund nothing
+     */
+    public static long processRefunds(List<Transaction> transactions) {
+        return processRefunds(transactions, List.of());
+    }
+
+    /**
+     * Refund many transactions at once, writing other entries to the ledger
+     * ahead of the refunds in the same fsync
+     *
+     * @param transactions Transactions to refund
+     * @param events       Entries to write before the refunds, such as showtime cancellations
+     * @return Amount refunded to cards in cents
+     */
+    static long processRefunds(List<Transaction> transactions, List<TransactionLedger.Entry> events) {
+        List<TransactionLedger.Entry> entries = new ArrayList<>(events.size() + transactions.size());
+        entries.addAll(events);
+        long refundedCents = 0;
+        for (Transaction transaction : transactions) {
+            long amountCents = isCardPayment(transaction.transactionType) ? transaction.calculateTotalCents() : 0;
+            entries.add(TransactionLedger.Entry.of(TransactionLedger.REFUND, transaction, amountCents, true));
+            refundedCents += amountCents;
+        }
+        TransactionLedger current = ledger;
+        if (current != null && !entries.isEmpty()) {
+            current.appendAll(entries);
+        }
+        return refundedCents;
+    }
+
+    static boolean isCardPayment(String transactionType) {
+        return "Credit Card".equalsIgnoreCase(transactionType);
+    }
+
+    // Write the event to the ledger, returns once it is on disk
+    private void record(byte type, long amountCents) {
+        record(type, amountCents, false);
+    }
+
+    private void record(byte type, long amountCents, boolean seatReleased) {
+        TransactionLedger current = ledger;
+        if (current != null) {
+            current.append(TransactionLedger.Entry.of(type, this, amountCents, seatReleased));
+        }
+    }
+
     public void validateCard() {
         if (cardNumber == null || !cardNumber.matches("\\d{10}")) {
             addHoldStatus();
@@ -207,6 +359,14 @@ public class Transaction implements Billable {
         this.holdStatus = holdStatus;
     }
 
+    public Theater getTheater() {
+        return theater;
+    }
+
+    public void setTheater(Theater theater) {
+        this.theater = theater;
+    }
+
     public Ticket getTicket() {
         return ticket;
     }
@@ -223,6 +383,14 @@ public class Transaction implements Billable {
         this.cardNumber = cardNumber;
     }
 
+    public String getAuthorizationCode() {
+        return authorizationCode;
+    }
+
+    public void setAuthorizationCode(String authorizationCode) {
+        this.authorizationCode = authorizationCode;
+    }
+
     public Showtime getShowtime() {
         return showtime;
     }
@@ -250,4 +418,9 @@ public class Transaction implements Billable {
     public LocalDateTime getTransactionTime() {
         return transactionTime;
     }
+
+    // Used when restoring a snapshot
+    void setTransactionTime(LocalDateTime transactionTime) {
+        this.transactionTime = transactionTime;
+    }
 }
@@ -0,0 +1,540 @@
+package src;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * The TransactionLedger class keeps a durable, append-only record of every
+ * sale and refund, and of every showtime that was canceled. Each Entry is
+ * written as a fixed-size binary record that ends with a CRC32C checksum of
+ * its bytes.
+ * Appends use group commit: a thread copies its record into a shared buffer
+ * and then waits until the record is on disk. The first waiting thread writes
+ * the whole buffer and calls force() once for every record that piled up in
+ * the meantime, so under load many sales share one fsync.
+ * When the ledger is opened after a crash, torn records at the end of the
+ * file fail their checksum and are cut off; every record before them is kept.
+ * A bad record in the middle, with valid records after it, is never cut off:
+ * opening the ledger fails instead, so no durable sale is silently lost.
+ */
+public class TransactionLedger implements AutoCloseable {
+    public static final byte SALE = 1;
+    public static final byte REFUND = 2;
+    public static final byte SHOWTIME_CANCELED = 3; // Only theater, movie and showtime are set
+    // Entry flags
+    public static final byte CARD_PAYMENT = 1;
+    public static final byte SEAT_RELEASED = 2; // The refund gave the seat back
+
+    private static final int MAGIC = 0x43494E4C; // "CINL"
+    private static final int VERSION = 2; // Version 2 added theater, age pricing and flags
+    public static final int HEADER_SIZE = 8;
+    // type, timestamp, ticket, theater, showtime, movie, seat, seat type, age pricing, amount, phone key, flags,
+    // checksum
+    public static final int RECORD_SIZE = 1 + 8 + 4 + 4 + 4 + 4 + 4 + 1 + 1 + 8 + 8 + 1 + 4;
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+    private ByteBuffer spare = ByteBuffer.allocate(RECORD_SIZE * BUFFER_RECORDS);
+    private long appendedPosition; // End of the last record handed to append
+    private long durablePosition; // End of the last record known to be on disk
+    private boolean flushing;
+    private boolean closed;
+    private IOException failure; // Set when a batch could not be written
+    private long forceCount;
+
+    /**
+     * Constructor that opens or creates a ledger file
+     *
+     * @param file Ledger file, created with its parent directories if missing
+     * @throws IOException If the file cannot be opened or is not a ledger
+     */
+    public TransactionLedger(Path file) throws IOException {
+        this.file = file;
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } else {
+            checkHeader();
+        }
+        long end;
+        try {
+            end = recoverEnd();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        channel.truncate(end); // Drop the records torn by a crash
+        channel.position(end);
+        this.appendedPosition = end;
+        this.durablePosition = end;
+    }
+
+    // Methods
+    /**
+     * Append an entry and wait until it is on disk
+     *
+     * @param entry Entry to append
+     * @return Position in the file just after the entry
+     */
+    public long append(Entry entry) {
+        long end;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Ledger " + file + " is closed.");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Could not write ledger " + file, failure);
+            }
+            if (pending.remaining() < RECORD_SIZE) {
+                pending = grow(pending);
+            }
+            entry.writeTo(pending);
+            appendedPosition += RECORD_SIZE;
+            end = appendedPosition;
+        }
+        awaitDurable(end);
+        return end;
+    }
+
+    /**
+     * Append many entries and wait once until all of them are on disk, so a
+     * batch of refunds costs a single fsync
+     *
+     * @param entries Entries to append, in order
+     * @return Position in the file just after the last entry
+     */
+    public long appendAll(List<Entry> entries) {
+        long end;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("Ledger " + file + " is closed.");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Could not write ledger " + file, failure);
+            }
+            for (Entry entry : entries) {
+                if (pending.remaining() < RECORD_SIZE) {
+                    pending = grow(pending);
+                }
+                entry.writeTo(pending);
+            }
+            appendedPosition += (long) RECORD_SIZE * entries.size();
+            end = appendedPosition;
+        }
+        awaitDurable(end);
+        return end;
+    }
+
+    // Wait until everything appended so far is on disk
+    public void flush() {
+        long end;
+        synchronized (lock) {
+            end = appendedPosition;
+        }
+        awaitDurable(end);
+    }
+
+    /**
+     * Read every entry from a position to the end of the ledger
+     *
+     * @param position Position of the first entry, HEADER_SIZE for the whole ledger
+     * @return Entries in the order they were appended
+     */
+    public List<Entry> readFrom(long position) {
+        flush();
+        if (position < HEADER_SIZE || (position - HEADER_SIZE) % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Position " + position + " is not at the start of a record.");
+        }
+        List<Entry> entries = new ArrayList<>();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        try {
+            long end = getPosition();
+            for (long offset = position; offset + RECORD_SIZE <= end; offset += RECORD_SIZE) {
+                record.clear();
+                readFully(record, offset);
+                record.flip();
+                Entry entry = Entry.readFrom(record);
+                if (entry == null) {
+                    throw new IllegalStateException("Ledger " + file + " is corrupt at position " + offset + ".");
+                }
+                entries.add(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    public List<Entry> readAll() {
+        return readFrom(HEADER_SIZE);
+    }
+
+    // Position after the last durable record
+    public long getPosition() {
+        synchronized (lock) {
+            return durablePosition;
+        }
+    }
+
+    // Number of force() calls, one per group of records written together
+    public long getForceCount() {
+        synchronized (lock) {
+            return forceCount;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            channel.close();
+        }
+    }
+
+    // Leader and follower group commit, the first waiting thread flushes for everyone
+    private void awaitDurable(long end) {
+        while (true) {
+            ByteBuffer batch;
+            long batchEnd;
+            synchronized (lock) {
+                while (flushing && durablePosition < end) {
+                    waitForFlush();
+                }
+                if (failure != null) {
+                    throw new UncheckedIOException("Could not write ledger " + file, failure);
+                }
+                if (durablePosition >= end) {
+                    return;
+                }
+                // Swap buffers so appenders keep going while this batch is written
+                flushing = true;
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                batchEnd = appendedPosition;
+            }
+
+            IOException error = null;
+            try {
+                batch.flip();
+                while (batch.hasRemaining()) {
+                    channel.write(batch);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (lock) {
+                batch.clear();
+                flushing = false;
+                if (error == null) {
+                    durablePosition = batchEnd;
+                    forceCount++;
+                } else {
+                    failure = error; // Positions no longer match the file, refuse further appends
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private void waitForFlush() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the ledger to be written.", e);
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+
+    private void checkHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+            throw new IOException(file + " is not a transaction ledger.");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException(file + " is a version " + version + " ledger, expected version " + VERSION + ".");
+        }
+    }
+
+    /**
+     * Find where appending continues: the end of the last valid record, when
+     * every record after it is bad or short, as a crash leaves the records of
+     * an unfinished write. A bad record with valid records after it is damage
+     * inside the ledger, and cutting there would lose the sales after it.
+     *
+     * @return End of the last valid record
+     * @throws IOException If a bad record is followed by valid ones
+     */
+    private long recoverEnd() throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        long size = channel.size();
+        long end = HEADER_SIZE; // End of the last valid record
+        long firstBad = -1;
+        for (long offset = HEADER_SIZE; offset + RECORD_SIZE <= size; offset += RECORD_SIZE) {
+            record.clear();
+            readFully(record, offset);
+            record.flip();
+            if (Entry.readFrom(record) == null) {
+                if (firstBad < 0) {
+                    firstBad = offset;
+                }
+            } else if (firstBad >= 0) {
+                throw new IOException("Ledger " + file + " is corrupt at position " + firstBad
+                        + " and has valid records after it, at position " + offset + ".");
+            } else {
+                end = offset + RECORD_SIZE;
+            }
+        }
+        return end;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * One sale, refund or showtime cancellation in the ledger
+     */
+    public static final class Entry {
+        private static final SeatType[] SEAT_TYPES = SeatType.values();
+        private static final AgePricing[] AGE_PRICINGS = AgePricing.values();
+
+        private final byte type;
+        private final long timestampMillis;
+        private final int ticketId;
+        private final int theaterId;
+        private final int showtimeId;
+        private final int movieId;
+        private final int seatNumber;
+        private final byte seatType; // SeatType ordinal, or -1 if unknown
+        private final byte agePricing; // AgePricing ordinal, or -1 if unknown
+        private final long amountCents;
+        private final long phoneKey;
+        private final byte flags;
+
+        public Entry(byte type, long timestampMillis, int ticketId, int theaterId, int showtimeId, int movieId,
+                int seatNumber, SeatType seatType, AgePricing agePricing, long amountCents, long phoneKey,
+                byte flags) {
+            this.type = type;
+            this.timestampMillis = timestampMillis;
+            this.ticketId = ticketId;
+            this.theaterId = theaterId;
+            this.showtimeId = showtimeId;
+            this.movieId = movieId;
+            this.seatNumber = seatNumber;
+            this.seatType = seatType == null ? -1 : (byte) seatType.ordinal();
+            this.agePricing = agePricing == null ? -1 : (byte) agePricing.ordinal();
+            this.amountCents = amountCents;
+            this.phoneKey = phoneKey;
+            this.flags = flags;
+        }
+
+        /**
+         * Create the entry for a transaction
+         *
+         * @param type        SALE or REFUND
+         * @param transaction Transaction that was processed
+         * @param amountCents Amount paid or refunded in cents
+         * @return New entry stamped with the current time
+         */
+        public static Entry of(byte type, Transaction transaction, long amountCents) {
+            return of(type, transaction, amountCents, false);
+        }
+
+        /**
+         * Create the entry for a transaction
+         *
+         * @param type         SALE or REFUND
+         * @param transaction  Transaction that was processed
+         * @param amountCents  Amount paid or refunded in cents
+         * @param seatReleased Whether a refund gave the seat back to the showtime
+         * @return New entry stamped with the current time
+         */
+        public static Entry of(byte type, Transaction transaction, long amountCents, boolean seatReleased) {
+            Ticket ticket = transaction.getTicket();
+            Theater theater = transaction.getTheater();
+            Showtime showtime = transaction.getShowtime();
+            Movie movie = transaction.getMovie();
+            Customer customer = transaction.getCustomer();
+            byte flags = 0;
+            if (Transaction.isCardPayment(transaction.getTransactionType())) {
+                flags |= CARD_PAYMENT;
+            }
+            if (seatReleased) {
+                flags |= SEAT_RELEASED;
+            }
+            return new Entry(type, System.currentTimeMillis(),
+                    ticket == null ? 0 : ticket.getTicketId(),
+                    theater == null ? 0 : theater.getTheaterId(),
+                    showtime == null ? 0 : showtime.getShowtimeId(),
+                    movie == null ? 0 : movie.getMovieId(),
+                    ticket == null ? 0 : ticket.getSeatNumber(),
+                    ticket == null ? null : SeatType.fromName(ticket.getSeatType()),
+                    ticket == null ? null : AgePricing.fromName(ticket.getAgePricing()),
+                    amountCents,
+                    customer == null ? 0 : Customer.toPhoneKey(customer.getPhone()),
+                    flags);
+        }
+
+        /**
+         * Create the entry that closes a showtime for good
+         *
+         * @param theaterId  ID of the theater
+         * @param movieId    ID of the movie
+         * @param showtimeId ID of the showtime that was canceled
+         * @return New entry stamped with the current time
+         */
+        public static Entry showtimeCanceled(int theaterId, int movieId, int showtimeId) {
+            return new Entry(SHOWTIME_CANCELED, System.currentTimeMillis(), 0, theaterId, showtimeId, movieId, 0,
+                    null, null, 0, 0, (byte) 0);
+        }
+
+        private void writeTo(ByteBuffer buffer) {
+            int start = buffer.position();
+            buffer.put(type).putLong(timestampMillis).putInt(ticketId).putInt(theaterId).putInt(showtimeId)
+                    .putInt(movieId).putInt(seatNumber).put(seatType).put(agePricing).putLong(amountCents)
+                    .putLong(phoneKey).put(flags);
+            buffer.putInt(checksum(buffer, start, RECORD_SIZE - 4));
+        }
+
+        // Decode one record, or return null if its checksum does not match
+        private static Entry readFrom(ByteBuffer record) {
+            if (record.remaining() < RECORD_SIZE
+                    || record.getInt(record.position() + RECORD_SIZE - 4) != checksum(record, record.position(),
+                            RECORD_SIZE - 4)) {
+                return null;
+            }
+            byte type = record.get();
+            long timestamp = record.getLong();
+            int ticketId = record.getInt();
+            int theaterId = record.getInt();
+            int showtimeId = record.getInt();
+            int movieId = record.getInt();
+            int seatNumber = record.getInt();
+            byte seatType = record.get();
+            byte agePricing = record.get();
+            long amountCents = record.getLong();
+            long phoneKey = record.getLong();
+            byte flags = record.get();
+            record.getInt();
+            return new Entry(type, timestamp, ticketId, theaterId, showtimeId, movieId, seatNumber,
+                    seatType < 0 ? null : SEAT_TYPES[seatType], agePricing < 0 ? null : AGE_PRICINGS[agePricing],
+                    amountCents, phoneKey, flags);
+        }
+
+        private static int checksum(ByteBuffer buffer, int start, int length) {
+            CRC32C crc = new CRC32C();
+            ByteBuffer slice = buffer.duplicate();
+            slice.position(start).limit(start + length);
+            crc.update(slice);
+            return (int) crc.getValue();
+        }
+
+        // Getters
+        public byte getType() {
+            return type;
+        }
+
+        public boolean isRefund() {
+            return type == REFUND;
+        }
+
+        public boolean isShowtimeCanceled() {
+            return type == SHOWTIME_CANCELED;
+        }
+
+        public long getTimestampMillis() {
+            return timestampMillis;
+        }
+
+        public int getTicketId() {
+            return ticketId;
+        }
+
+        // 0 when the sale was not made in a known theater
+        public int getTheaterId() {
+            return theaterId;
+        }
+
+        public int getShowtimeId() {
+            return showtimeId;
+        }
+
+        public int getMovieId() {
+            return movieId;
+        }
+
+        public int getSeatNumber() {
+            return seatNumber;
+        }
+
+        public SeatType getSeatType() {
+            return seatType < 0 ? null : SEAT_TYPES[seatType];
+        }
+
+        public AgePricing getAgePricing() {
+            return agePricing < 0 ? null : AGE_PRICINGS[agePricing];
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public long getPhoneKey() {
+            return phoneKey;
+        }
+
+        public boolean isCardPayment() {
+            return (flags & CARD_PAYMENT) != 0;
+        }
+
+        // For a refund, whether the seat was given back to the showtime
+        public boolean isSeatReleased() {
+            return (flags & SEAT_RELEASED) != 0;
+        }
+    }
+}
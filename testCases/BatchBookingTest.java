@@ -0,0 +1,114 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.BatchBookingTest
+package testCases;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.BatchBooking;
+import src.BookingService;
+import src.Cinema;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.PricingEngine;
+import src.SeatHoldManager;
+import src.SeatType;
+import src.Showtime;
+import src.Ticket;
+
+public class BatchBookingTest {
+    private Showtime showtime;
+    private BatchBooking batch;
+
+    @Before
+    public void setUp() {
+        EntityRegistry.resetLimits();
+        showtime = TestCinemas.showtime(50, 50, 1);
+        Cinema cinema = TestCinemas.cinema(showtime, new FoodAndDrink(1, "Popcorn", 5.00),
+                new FoodAndDrink(2, "Soda", 3.00));
+        BookingService service = new BookingService(cinema,
+                new SeatHoldManager(60_000, 1000, System::currentTimeMillis), PricingEngine.getDefault());
+        batch = new BatchBooking(service);
+    }
+
+    @After
+    public void tearDown() {
+        TestCinemas.clearTickets();
+    }
+
+    private BatchBooking.Result run(String commands, StringWriter out) throws IOException {
+        return batch.run(new BufferedReader(new StringReader(commands)), out);
+    }
+
+    @Test
+    public void testBookingsAndErrorsAreReportedPerLine() throws IOException {
+        StringWriter out = new StringWriter();
+        BatchBooking.Result result = run("# group sale\n"
+                + "1 1 1 VIP 5 CHILD 1,2 CARD:1234567890 5551234567 jane@example.com Jane Doe\n"
+                + "\n"
+                + "1 1 1 REGULAR 60 adult - CASH 5551234567 jane@example.com Jane Doe\n"
+                + "1 1 1 VIP 5 ADULT - CASH 5551234567 jane@example.com Jane Doe\n"
+                + "1 1 1 GOLD 6 ADULT - CASH 5551234567 jane@example.com Jane Doe\n"
+                + "1 1 1 VIP 7 ADULT - CARD:12 5551234567 jane@example.com Jane Doe\n"
+                + "1 1 1 VIP 8 ADULT\n", out);
+
+        String[] lines = out.toString().split("\n");
+        Assert.assertEquals(6, lines.length);
+        Assert.assertTrue(lines[0], lines[0].matches("2 OK \\d+ 3200")); // 2400 child VIP + 500 + 300
+        Assert.assertTrue(lines[1], lines[1].matches("4 OK \\d+ 1000"));
+        Assert.assertEquals("5 ERR Seat 5 is already taken.", lines[2]);
+        Assert.assertEquals("6 ERR Unknown seat type: GOLD", lines[3]);
+        Assert.assertEquals("7 ERR Card number must have 10 digits.", lines[4]);
+        Assert.assertEquals("8 ERR Expected 11 fields but got 6.", lines[5]);
+
+        Assert.assertEquals(2, result.getBooked());
+        Assert.assertEquals(4, result.getFailed());
+        Assert.assertEquals(4200, result.getRevenueCents());
+        Assert.assertFalse(showtime.isSeatTaken(7, "VIP")); // Held seat given back after the bad card
+    }
+
+    @Test
+    public void testRuntimeFailureOnlyFailsItsLine() throws IOException {
+        EntityRegistry.setLimit(Ticket.class, EntityRegistry.getLiveCount(Ticket.class) + 1);
+        StringWriter out = new StringWriter();
+        BatchBooking.Result result;
+        try {
+            result = run("1 1 1 VIP 5 ADULT 1, CASH 5551234567 jane@example.com Jane Doe\n"
+                    + "1 1 1 VIP 6 ADULT - CASH 5551234567 jane@example.com Jane Doe\n", out);
+        } finally {
+            EntityRegistry.resetLimits();
+        }
+
+        String[] lines = out.toString().split("\n");
+        Assert.assertEquals(2, lines.length);
+        Assert.assertTrue(lines[0], lines[0].matches("1 OK \\d+ 3500")); // Trailing comma skipped
+        Assert.assertTrue(lines[1], lines[1].startsWith("2 ERR Maximum number of Ticket instances"));
+        Assert.assertEquals(1, result.getBooked());
+        Assert.assertEquals(1, result.getFailed());
+        Assert.assertFalse(showtime.isSeatTaken(6, "VIP")); // The hold is given back
+    }
+
+    @Test
+    public void testLargeBatch() throws IOException {
+        StringBuilder commands = new StringBuilder();
+        for (int seat = 51; seat <= 2500; seat++) {
+            commands.append("1 1 1 REGULAR ").append(seat)
+                    .append(" SENIOR 2 CASH 5551234567 jane@example.com Jane Doe\n");
+        }
+        StringWriter out = new StringWriter();
+        BatchBooking.Result result = run(commands.toString(), out);
+
+        Assert.assertEquals(2450, result.getBooked());
+        Assert.assertEquals(0, result.getFailed());
+        Assert.assertEquals(2450L * (800 + 300), result.getRevenueCents());
+        Assert.assertEquals(0, showtime.getAvailableSeats(SeatType.REGULAR));
+    }
+}
@@ -0,0 +1,189 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.BookingServerTest
+package testCases;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.BookingServer;
+import src.BookingService;
+import src.Cinema;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.PricingEngine;
+import src.SeatHoldManager;
+import src.Showtime;
+
+public class BookingServerTest {
+    private Showtime showtime;
+    private BookingServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        EntityRegistry.resetLimits();
+        showtime = TestCinemas.showtime(20, 20, 0);
+        Cinema cinema = TestCinemas.cinema(showtime, new FoodAndDrink(1, "Popcorn", 5.00));
+        BookingService service = new BookingService(cinema,
+                new SeatHoldManager(60_000, 1000, System::currentTimeMillis), PricingEngine.getDefault());
+
+        server = new BookingServer(service, 0);
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        TestCinemas.clearTickets();
+    }
+
+    // A connected terminal
+    private class Terminal implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        Terminal() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            out = new PrintWriter(socket.getOutputStream(), true);
+            Assert.assertEquals("OK ASAN CINEMA", in.readLine());
+        }
+
+        // Send a command and return its reply, data lines included
+        List<String> send(String command) throws IOException {
+            out.println(command);
+            List<String> reply = new ArrayList<>();
+            String line;
+            do {
+                line = in.readLine();
+                reply.add(line);
+            } while (line != null && !line.startsWith("OK") && !line.startsWith("ERR"));
+            return reply;
+        }
+
+        String last(String command) throws IOException {
+            List<String> reply = send(command);
+            return reply.get(reply.size() - 1);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testBookOverSocket() throws IOException {
+        try (Terminal terminal = new Terminal()) {
+            Assert.assertEquals(Arrays.asList("1\t123 Main St", "OK 1"), terminal.send("THEATERS"));
+            Assert.assertEquals(Arrays.asList("1\tMovie A\tAction", "OK 1"), terminal.send("MOVIES 1"));
+            Assert.assertEquals(Arrays.asList("1\t400\t08:00 PM", "OK 1"), terminal.send("SHOWTIMES 1 1"));
+
+            String hold = terminal.last("HOLD 1 1 1 regular 7");
+            Assert.assertTrue(hold, hold.startsWith("OK "));
+            String ticketId = hold.split(" ")[1];
+            Assert.assertEquals("OK 800", terminal.last("AGE child"));
+            Assert.assertEquals("OK Popcorn", terminal.last("ITEM 1"));
+            Assert.assertEquals("OK", terminal.last("CUSTOMER 5551234567 jane@example.com Jane Doe"));
+            Assert.assertEquals("OK " + ticketId + " 1300", terminal.last("PAY CARD 1234567890"));
+            Assert.assertTrue(showtime.isSeatTaken(7, "REGULAR"));
+
+            Assert.assertEquals("OK " + ticketId, terminal.last("CANCEL " + ticketId));
+            Assert.assertFalse(showtime.isSeatTaken(7, "REGULAR"));
+            Assert.assertEquals("OK BYE", terminal.last("QUIT"));
+        }
+    }
+
+    @Test
+    public void testRetriedPayOverNewConnection() throws IOException {
+        String paid;
+        try (Terminal terminal = new Terminal()) {
+            Assert.assertTrue(terminal.last("HOLD 1 1 1 REGULAR 11").startsWith("OK "));
+            terminal.last("CUSTOMER 5551234567 jane@example.com Jane Doe");
+            paid = terminal.last("PAY CARD 1234567890 terminal-3-1");
+            Assert.assertTrue(paid, paid.startsWith("OK "));
+        }
+        try (Terminal terminal = new Terminal()) {
+            Assert.assertEquals(paid, terminal.last("PAY CARD 1234567890 terminal-3-1"));
+            Assert.assertTrue(terminal.last("PAY CASH terminal-3-2").startsWith("ERR No seat is held"));
+        }
+        Assert.assertEquals(399, showtime.getAvailableSeats());
+    }
+
+    @Test
+    public void testErrorsKeepSessionOpen() throws IOException {
+        try (Terminal terminal = new Terminal()) {
+            Assert.assertTrue(terminal.last("FLY 1").startsWith("ERR Unknown command"));
+            Assert.assertTrue(terminal.last("HOLD 1 1").startsWith("ERR Missing argument"));
+            Assert.assertTrue(terminal.last("HOLD 1 1 1 gold 7").startsWith("ERR Unknown seat type"));
+            Assert.assertTrue(terminal.last("PAY CASH").startsWith("ERR No seat is held"));
+            Assert.assertTrue(terminal.last("MOVIES 9").startsWith("ERR Theater not found"));
+            Assert.assertTrue(terminal.last("HOLD 1 1 1 REGULAR 7").startsWith("OK "));
+        }
+    }
+
+    @Test
+    public void testDisconnectReleasesHeldSeat() throws Exception {
+        try (Terminal terminal = new Terminal()) {
+            Assert.assertTrue(terminal.last("HOLD 1 1 1 REGULAR 9").startsWith("OK "));
+            Assert.assertTrue(showtime.isSeatTaken(9, "REGULAR"));
+        }
+        for (int i = 0; i < 200 && (showtime.isSeatTaken(9, "REGULAR") || server.getActiveSessions() > 0); i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(showtime.isSeatTaken(9, "REGULAR"));
+    }
+
+    @Test
+    public void testManyTerminalsAtOnce() throws Exception {
+        int terminals = 100;
+        Set<String> ticketIds = ConcurrentHashMap.newKeySet();
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new ArrayList<>();
+
+        for (int t = 0; t < terminals; t++) {
+            int firstSeat = t * 4 + 1;
+            Thread thread = new Thread(() -> {
+                try (Terminal terminal = new Terminal()) {
+                    for (int seat = firstSeat; seat < firstSeat + 4; seat++) {
+                        String hold = terminal.last("HOLD 1 1 1 REGULAR " + seat);
+                        Assert.assertTrue(hold, hold.startsWith("OK "));
+                        terminal.last("CUSTOMER 5551234567 jane@example.com Jane Doe");
+                        String paid = terminal.last("PAY CASH");
+                        Assert.assertTrue(paid, paid.startsWith("OK "));
+                        ticketIds.add(paid.split(" ")[1]);
+                    }
+                } catch (Throwable e) {
+                    synchronized (failures) {
+                        failures.add(e);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(failures.toString(), 0, failures.size());
+        Assert.assertEquals(terminals * 4, ticketIds.size());
+        Assert.assertEquals(0, showtime.getAvailableSeats());
+    }
+}
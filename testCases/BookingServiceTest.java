@@ -0,0 +1,310 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.BookingServiceTest
+package testCases;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.AgePricing;
+import src.BookingException;
+import src.BookingService;
+import src.BookingSession;
+import src.Customer;
+import src.CustomerStore;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.Movie;
+import src.PaymentProcessor;
+import src.PricingEngine;
+import src.SeatHoldManager;
+import src.SeatType;
+import src.Showtime;
+import src.SimulatedPaymentGateway;
+import src.Ticket;
+import src.Transaction;
+
+public class BookingServiceTest {
+    private AtomicLong clock;
+    private SeatHoldManager holdManager;
+    private Showtime showtime;
+    private BookingService service;
+
+    @Before
+    public void setUp() {
+        EntityRegistry.resetLimits();
+        clock = new AtomicLong(1_000_000);
+        holdManager = new SeatHoldManager(60_000, 1000, clock::get);
+
+        showtime = TestCinemas.showtime(10, 10, 1);
+        service = new BookingService(TestCinemas.cinema(showtime, new FoodAndDrink(1, "Popcorn", 5.00)),
+                holdManager, PricingEngine.getDefault());
+    }
+
+    @After
+    public void tearDown() {
+        TestCinemas.clearTickets();
+    }
+
+    @Test
+    public void testCompleteBooking() throws BookingException {
+        BookingSession session = new BookingSession();
+        Ticket ticket = service.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        Assert.assertEquals(3000, ticket.getPriceCents());
+        Assert.assertEquals(2400, service.selectAgePricing(session, AgePricing.CHILD));
+        service.addItem(session, 1);
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+
+        Transaction transaction = service.confirm(session, BookingService.CREDIT_CARD, "1234567890");
+
+        Assert.assertEquals(2900, transaction.calculateTotalCents());
+        Assert.assertTrue(ticket.isReserved());
+        Assert.assertSame(transaction, ticket.getTransaction());
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertEquals(1, service.getCustomers().size());
+        Assert.assertNull(session.getTicket()); // Ready for the next booking
+    }
+
+    @Test
+    public void testInvalidStepsAreRejected() throws BookingException {
+        BookingSession session = new BookingSession();
+        Assert.assertThrows(BookingException.class, () -> service.holdSeat(session, 9, 1, 1, SeatType.VIP, 5));
+        Assert.assertThrows(BookingException.class, () -> service.holdSeat(session, 1, 1, 1, SeatType.REGULAR, 5));
+        Assert.assertThrows(BookingException.class, () -> service.selectAgePricing(session, AgePricing.ADULT));
+
+        service.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        Assert.assertThrows(BookingException.class, () -> service.addItem(session, 7));
+        Assert.assertThrows(BookingException.class, () -> service.confirm(session, BookingService.CASH, null));
+        Assert.assertThrows(BookingException.class,
+                () -> service.setCustomer(session, "Jane Doe", "jane@example.com", "555"));
+
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+        Assert.assertThrows(BookingException.class,
+                () -> service.confirm(session, BookingService.CREDIT_CARD, "12"));
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP")); // Still held after the bad card
+    }
+
+    @Test
+    public void testAbandonReleasesSeat() throws BookingException {
+        BookingSession session = new BookingSession();
+        service.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        service.holdSeat(session, 1, 1, 1, SeatType.VIP, 6); // Holding another seat gives the first one back
+        Assert.assertFalse(showtime.isSeatTaken(5, "VIP"));
+
+        service.abandon(session);
+        Assert.assertFalse(showtime.isSeatTaken(6, "VIP"));
+        Assert.assertEquals(0, holdManager.getActiveHolds());
+    }
+
+    @Test
+    public void testCancelFreesSeatOnce() throws BookingException {
+        BookingSession session = new BookingSession();
+        Ticket ticket = service.holdSeat(session, 1, 1, 1, SeatType.REGULAR, 42);
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+        service.confirm(session, BookingService.CASH, null);
+
+        service.cancelTicket(ticket.getTicketId());
+        Assert.assertFalse(ticket.isReserved());
+        Assert.assertFalse(showtime.isSeatTaken(42, "REGULAR"));
+        Assert.assertThrows(BookingException.class, () -> service.cancelTicket(ticket.getTicketId()));
+    }
+
+    @Test
+    public void testCardIsAuthorizedWithoutBlocking() throws BookingException {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(50, 0);
+        BookingService slowCards = new BookingService(service.getCinema(), holdManager, PricingEngine.getDefault(),
+                new CustomerStore(), new PaymentProcessor(gateway, 4, 10_000));
+        BookingSession session = new BookingSession();
+        Ticket ticket = slowCards.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        slowCards.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+
+        CompletableFuture<Transaction> payment = slowCards.confirmAsync(session, BookingService.CREDIT_CARD,
+                "1234567890");
+        Assert.assertFalse(payment.isDone()); // The gateway has not answered yet
+
+        Transaction transaction = payment.join();
+        Assert.assertTrue(ticket.isReserved());
+        Assert.assertEquals("AUTH-1", transaction.getAuthorizationCode());
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP"));
+    }
+
+    @Test
+    public void testDeclinedCardReleasesSeat() throws BookingException {
+        BookingService declining = new BookingService(service.getCinema(), holdManager, PricingEngine.getDefault(),
+                new CustomerStore(), new PaymentProcessor(new SimulatedPaymentGateway(0, 1), 4, 10_000));
+        BookingSession session = new BookingSession();
+        Ticket ticket = declining.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        declining.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+
+        BookingException declined = Assert.assertThrows(BookingException.class,
+                () -> declining.confirm(session, BookingService.CREDIT_CARD, "1234567890"));
+        Assert.assertEquals("Card declined.", declined.getMessage());
+        Assert.assertFalse(ticket.isReserved());
+        Assert.assertFalse(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertEquals(0, holdManager.getActiveHolds());
+        Assert.assertNull(session.getTicket());
+        Assert.assertEquals(0, declining.getCustomers().size());
+    }
+
+    @Test
+    public void testRetriedPaymentIsCommittedOnce() throws BookingException {
+        BookingSession session = new BookingSession();
+        Ticket ticket = service.holdSeat(session, 1, 1, 1, SeatType.VIP, 5);
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+        Transaction first = service.confirm(session, BookingService.CREDIT_CARD, "1234567890", "kiosk-7-42");
+
+        // The kiosk did not get the answer and sends the payment again from a new session
+        BookingSession retrySession = new BookingSession();
+        Transaction retry = service.confirm(retrySession, BookingService.CREDIT_CARD, "1234567890", "kiosk-7-42");
+
+        Assert.assertSame(first, retry);
+        Assert.assertSame(ticket, retry.getTicket());
+        Assert.assertEquals(1, service.getCustomers().get(0).geTransactionsHistory().size());
+        Assert.assertThrows(BookingException.class,
+                () -> service.confirm(retrySession, BookingService.CASH, null, "kiosk-7-43")); // New ID, no seat
+    }
+
+    @Test
+    public void testRequestIdOfAnotherBookingIsRefused() throws BookingException {
+        BookingSession first = new BookingSession();
+        service.holdSeat(first, 1, 1, 1, SeatType.REGULAR, 21);
+        service.setCustomer(first, "Jane Doe", "jane@example.com", "5551234567");
+        Transaction paid = service.confirm(first, BookingService.CASH, null, "terminal-1");
+
+        // Another terminal picked the same ID for its own booking
+        BookingSession other = new BookingSession();
+        Ticket otherTicket = service.holdSeat(other, 1, 1, 1, SeatType.REGULAR, 22);
+        service.setCustomer(other, "John Doe", "john@example.com", "5559876543");
+        Assert.assertThrows(IllegalArgumentException.class,
+                () -> service.confirm(other, BookingService.CASH, null, "terminal-1"));
+        Assert.assertSame(otherTicket, other.getTicket()); // Still held, so it can pay with a new ID
+        Assert.assertNotSame(paid, service.confirm(other, BookingService.CASH, null, "terminal-2"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> service.confirm(new BookingSession(),
+                BookingService.CREDIT_CARD, "1234567890", "terminal-1")); // Paid in cash the first time
+    }
+
+    private Ticket sell(Showtime target, int seat, String type, String cardNumber) throws BookingException {
+        BookingSession session = new BookingSession();
+        Ticket ticket = service.holdSeat(session, 1, 1, target.getShowtimeId(), SeatType.REGULAR, seat);
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+        service.confirm(session, type, cardNumber);
+        return ticket;
+    }
+
+    @Test
+    public void testCancelShowtimeRefundsEveryTicket() throws BookingException {
+        Ticket first = sell(showtime, 11, BookingService.CREDIT_CARD, "1234567890");
+        sell(showtime, 12, BookingService.CREDIT_CARD, "1234567890");
+        sell(showtime, 55, BookingService.CASH, null);
+        BookingSession unpaid = new BookingSession();
+        service.holdSeat(unpaid, 1, 1, 1, SeatType.REGULAR, 13);
+        int liveTickets = EntityRegistry.getLiveCount(Ticket.class);
+
+        BookingService.Cancellation cancellation = service.cancelShowtime(showtime);
+
+        Assert.assertEquals(3, cancellation.getCanceled());
+        Assert.assertEquals(2 * 1000, cancellation.getRefundedCents()); // Cash is not refunded
+        Assert.assertFalse(first.isReserved());
+        Assert.assertEquals(0, Ticket.getRegistry().size());
+        Assert.assertEquals(liveTickets - 3, EntityRegistry.getLiveCount(Ticket.class));
+        Assert.assertEquals(89, showtime.getAvailableSeats(SeatType.REGULAR)); // Only the held seat is taken
+        Assert.assertTrue(showtime.isSeatTaken(13, "REGULAR"));
+        Assert.assertTrue(service.getCustomers().get(0).getReservedTransactions().isEmpty());
+        Assert.assertThrows(BookingException.class, () -> service.cancelTicket(first.getTicketId()));
+
+        // The cancelled showtime takes no more sales or holds
+        service.setCustomer(unpaid, "John Doe", "john@example.com", "5559876543");
+        Assert.assertThrows(BookingException.class, () -> service.confirm(unpaid, BookingService.CASH, null));
+        Assert.assertFalse(showtime.isSeatTaken(13, "REGULAR"));
+        Assert.assertThrows(BookingException.class,
+                () -> service.holdSeat(new BookingSession(), 1, 1, 1, SeatType.REGULAR, 14));
+        Assert.assertEquals(90, showtime.getAvailableSeats(SeatType.REGULAR));
+    }
+
+    @Test
+    public void testSaleRacingCancelShowtimeIsTakenBack() throws BookingException {
+        // Cancel the showtime in the middle of the sale, after its first check
+        CustomerStore store = new CustomerStore() {
+            @Override
+            public Customer add(Customer customer) {
+                service.cancelShowtime(showtime);
+                return super.add(customer);
+            }
+        };
+        service = new BookingService(service.getCinema(), holdManager, PricingEngine.getDefault(), store);
+        BookingSession session = new BookingSession();
+        Ticket ticket = service.holdSeat(session, 1, 1, 1, SeatType.REGULAR, 11);
+        service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+
+        Assert.assertThrows(BookingException.class, () -> service.confirm(session, BookingService.CASH, null));
+
+        Assert.assertFalse(ticket.isReserved());
+        Assert.assertEquals(0, Ticket.getRegistry().size());
+        Assert.assertFalse(showtime.isSeatTaken(11, "REGULAR"));
+        Assert.assertTrue(store.getCustomers().get(0).geTransactionsHistory().isEmpty());
+    }
+
+    @Test
+    public void testCancelMovieCoversEveryShowtime() throws BookingException {
+        Showtime late = new Showtime(2, "10:00 PM", showtime.getLayout());
+        Movie movie = service.findMovie(1, 1);
+        movie.addShowtime(late);
+        sell(showtime, 11, BookingService.CASH, null);
+        sell(late, 11, BookingService.CASH, null);
+        sell(late, 12, BookingService.CASH, null);
+
+        Assert.assertEquals(1, service.cancelShowtime(showtime).getCanceled());
+        Assert.assertEquals(2, Ticket.getRegistry().size()); // The late show is untouched
+
+        Assert.assertEquals(2, service.cancelMovie(movie).getCanceled());
+        Assert.assertEquals(0, Ticket.getRegistry().size());
+        Assert.assertEquals(90, late.getAvailableSeats(SeatType.REGULAR));
+        Assert.assertEquals(0, service.cancelMovie(movie).getCanceled());
+    }
+
+    @Test
+    public void testConcurrentSessionsSellEachSeatOnce() throws InterruptedException {
+        int sessions = 64;
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[sessions];
+
+        for (int t = 0; t < sessions; t++) {
+            threads[t] = new Thread(() -> {
+                BookingSession session = new BookingSession();
+                try {
+                    start.await();
+                    for (int seat = 11; seat <= 100; seat++) {
+                        try {
+                            service.holdSeat(session, 1, 1, 1, SeatType.REGULAR, seat);
+                            service.setCustomer(session, "Jane Doe", "jane@example.com", "5551234567");
+                            service.confirm(session, BookingService.CASH, null);
+                            sold.incrementAndGet();
+                        } catch (BookingException e) {
+                            // Another session took the seat first
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(90, sold.get());
+        Assert.assertEquals(0, showtime.getAvailableSeats(SeatType.REGULAR));
+        Assert.assertEquals(1, service.getCustomers().size()); // Every sale went to the same customer record
+        Assert.assertEquals(90, service.getCustomers().get(0).geTransactionsHistory().size());
+    }
+}
@@ -0,0 +1,84 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.CatalogIndexTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.CatalogIndex;
+import src.Movie;
+import src.MovieNotFoundException;
+import src.Theater;
+
+public class CatalogIndexTest {
+    private List<Movie> movies;
+    private CatalogIndex<Movie> index;
+
+    @Before
+    public void setUp() {
+        Movie.resetMovieCount();
+        Theater.resetTheaterCount();
+        movies = new ArrayList<>();
+        movies.add(new Movie(1, "Movie A", "Action"));
+        movies.add(new Movie(2, "Movie B", "Comedy"));
+        index = new CatalogIndex<>(movies, Movie::getMovieId);
+    }
+
+    @Test
+    public void testFindAndContains() {
+        Assert.assertSame(movies.get(1), index.find(2));
+        Assert.assertTrue(index.contains(1));
+        Assert.assertFalse(index.contains(3));
+        Assert.assertNull(index.find(3));
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        Movie movie3 = new Movie(3, "Movie C", "Drama");
+        index.add(movie3);
+        Assert.assertEquals(3, movies.size());
+        Assert.assertSame(movie3, index.find(3));
+
+        Assert.assertTrue(index.remove(movie3));
+        Assert.assertFalse(index.remove(movie3));
+        Assert.assertFalse(index.contains(3));
+        Assert.assertEquals(2, movies.size());
+    }
+
+    @Test
+    public void testFirstDuplicateWins() {
+        Movie duplicate = new Movie(1, "Movie A2", "Horror");
+        index.add(duplicate);
+        Assert.assertSame(movies.get(0), index.find(1));
+
+        index.remove(movies.get(0));
+        Assert.assertSame(duplicate, index.find(1));
+    }
+
+    @Test
+    public void testSeesChangesMadeThroughTheList() {
+        Movie movie3 = new Movie(3, "Movie C", "Drama");
+        movies.add(movie3); // Not through the index
+        Assert.assertSame(movie3, index.find(3));
+
+        movie3.setMovieId(30);
+        Assert.assertFalse(index.contains(3));
+        Assert.assertSame(movie3, index.find(30));
+    }
+
+    @Test
+    public void testTheatersSharingAMovieList() throws MovieNotFoundException {
+        Theater theater1 = new Theater(1, "123 Main St", movies, null);
+        Theater theater2 = new Theater(2, "456 Elm St", movies, null);
+        Movie movie3 = new Movie(3, "Movie C", "Drama");
+
+        theater1.addMovie(movie3);
+        Assert.assertTrue(theater2.isValidMovie(3));
+        Assert.assertSame(movie3, theater2.selectMovie(3));
+    }
+}
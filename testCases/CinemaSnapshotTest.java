@@ -0,0 +1,312 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.CinemaSnapshotTest
+package testCases;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import src.AgePricing;
+import src.BookingException;
+import src.BookingService;
+import src.BookingSession;
+import src.Cinema;
+import src.CinemaSnapshot;
+import src.Customer;
+import src.DemandCurve;
+import src.DemandPricing;
+import src.FoodAndDrink;
+import src.Movie;
+import src.SeatHold;
+import src.SeatHoldManager;
+import src.SeatLayout;
+import src.SeatType;
+import src.Showtime;
+import src.Theater;
+import src.Ticket;
+import src.Transaction;
+import src.TransactionLedger;
+
+public class CinemaSnapshotTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private Cinema cinema;
+    private Showtime showtime;
+    private Ticket ticket;
+    private Customer customer;
+    private List<Ticket> created = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        Cinema.resetCinemaCount();
+        Theater.resetTheaterCount();
+        Movie.resetMovieCount();
+        Showtime.resetShowtimeCount();
+        Ticket.resetTicketCount();
+        Customer.resetCustomerCount();
+        Transaction.resetTransactionCount();
+        FoodAndDrink.resetFoodAndDrinkCount();
+        file = folder.getRoot().toPath().resolve("snapshot");
+
+        SeatLayout layout = SeatLayout.byRow(2, 8, new SeatType[] { SeatType.VIP, SeatType.REGULAR }, 3);
+        Movie movie = new Movie(5, "Movie E", "Action");
+        showtime = new Showtime(11, "08:00 PM", layout);
+        movie.addShowtime(showtime);
+        FoodAndDrink popcorn = new FoodAndDrink(1, "Popcorn", 5.00);
+        cinema = TestCinemas.cinema(movie, layout, popcorn);
+        // A second theater sharing the movie list, like Main does
+        cinema.addTheater(new Theater(2, "456 Elm St", cinema.getTheaters().get(0).getMovies(), null, layout));
+
+        showtime.selectSeat(3, SeatType.VIP);
+        showtime.selectSeat(12, SeatType.REGULAR);
+        ticket = new Ticket("VIP", "Adult", 3, 30.0);
+        ticket.reserve();
+        created.add(ticket);
+
+        customer = new Customer("Jane", "jane@example.com", "5551234567");
+        List<FoodAndDrink> items = new ArrayList<>();
+        items.add(popcorn);
+        Transaction transaction = new Transaction(movie, showtime, ticket, customer, items);
+        transaction.setTransactionType("Credit Card");
+        transaction.setCard("1234567890");
+        ticket.setTransaction(transaction);
+        customer.addTransaction(transaction);
+    }
+
+    @After
+    public void tearDown() {
+        for (Ticket reserved : created) {
+            Ticket.getRegistry().unregister(reserved);
+        }
+        for (Ticket restored : Ticket.getTickets()) {
+            if (restored.getTicketId() == ticket.getTicketId() || restored.getTicketId() >= 900_000) {
+                Ticket.getRegistry().unregister(restored);
+            }
+        }
+    }
+
+    private CinemaSnapshot saveAndRestore(long ledgerPosition) throws IOException {
+        List<Customer> customers = new ArrayList<>();
+        customers.add(customer);
+        CinemaSnapshot.write(file, cinema, customers, ledgerPosition);
+        Ticket.getRegistry().unregister(ticket); // Restoring must bring the ticket back
+        return CinemaSnapshot.read(file);
+    }
+
+    @Test
+    public void testRestoresCatalogAndSeats() throws IOException {
+        CinemaSnapshot snapshot = saveAndRestore(TransactionLedger.HEADER_SIZE);
+        Cinema restored = snapshot.getCinema();
+
+        Assert.assertEquals(2, restored.getTotalTheaters());
+        Theater first = restored.getTheaters().get(0);
+        Theater second = restored.getTheaters().get(1);
+        Assert.assertEquals("123 Main St", first.getAddress());
+        Assert.assertSame(first.getMovies(), second.getMovies());
+        Assert.assertSame(first.getLayout(), second.getLayout());
+        Assert.assertEquals("Popcorn", first.getMenu().get(0).getName());
+
+        Movie movie = first.getMovies().get(0);
+        Assert.assertEquals("Movie E", movie.getTitle());
+        Showtime restoredShowtime = movie.getShowtimes().get(0);
+        Assert.assertSame(first.getLayout(), restoredShowtime.getLayout());
+        Assert.assertTrue(restoredShowtime.isSeatTaken(3, "VIP"));
+        Assert.assertTrue(restoredShowtime.isSeatTaken(12, "Regular"));
+        Assert.assertEquals(14, restoredShowtime.getAvailableSeats());
+        Assert.assertEquals(7, restoredShowtime.getAvailableSeats(SeatType.VIP));
+        Assert.assertTrue(restoredShowtime.getLayout().hasAisleAfter(3));
+    }
+
+    @Test
+    public void testHeldSeatsAreSavedAsFree() throws IOException {
+        SeatHoldManager holdManager = new SeatHoldManager(60_000, 1000, () -> 0L);
+        SeatHold unpaid = holdManager.hold(showtime, 5);
+        SeatHold paid = holdManager.hold(showtime, 13);
+        paid.confirm();
+        Assert.assertEquals(1, holdManager.getHeldSeats().size());
+
+        CinemaSnapshot.write(file, cinema, List.of(customer), TransactionLedger.HEADER_SIZE,
+                holdManager.getHeldSeats());
+        Ticket.getRegistry().unregister(ticket);
+        Showtime restored = CinemaSnapshot.read(file).getCinema().getTheaters().get(0).getMovies().get(0)
+                .getShowtimes().get(0);
+
+        Assert.assertFalse(restored.isSeatTaken(5, "VIP"));
+        Assert.assertTrue(restored.isSeatTaken(13, "Regular"));
+        Assert.assertTrue(restored.isSeatTaken(3, "VIP"));
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP")); // The live hold is untouched
+        unpaid.release();
+        Assert.assertTrue(holdManager.getHeldSeats().isEmpty());
+    }
+
+    @Test
+    public void testPricesKeepEveryCent() throws IOException {
+        long largePrice = (1L << 53) + 1; // Not exact as a double
+        ticket.setPriceCents(largePrice);
+        FoodAndDrink food = cinema.getTheaters().get(0).getMenu().get(0);
+        food.setPriceCents(largePrice + 2);
+
+        CinemaSnapshot snapshot = saveAndRestore(TransactionLedger.HEADER_SIZE);
+
+        Assert.assertEquals(largePrice, Ticket.findTicketById(ticket.getTicketId()).getPriceCents());
+        Assert.assertEquals(largePrice + 2,
+                snapshot.getCinema().getTheaters().get(0).getMenu().get(0).getPriceCents());
+    }
+
+    @Test
+    public void testRestoresDemandCurves() throws IOException {
+        DemandCurve[] curves = new DemandCurve[SeatType.values().length];
+        Arrays.fill(curves, DemandCurve.flat());
+        curves[SeatType.VIP.ordinal()] = new DemandCurve(new int[] { 10, 20 }, new int[] { 5, 15 });
+        showtime.enableDemandPricing(curves);
+
+        CinemaSnapshot snapshot = saveAndRestore(TransactionLedger.HEADER_SIZE);
+        Showtime restored = snapshot.getCinema().getTheaters().get(0).getMovies().get(0).getShowtimes().get(0);
+
+        DemandPricing demandPricing = restored.getDemandPricing();
+        Assert.assertNotNull(demandPricing);
+        DemandCurve vip = demandPricing.getCurve(SeatType.VIP);
+        Assert.assertEquals(3, vip.getTierCount());
+        Assert.assertEquals(20, vip.getSoldPercentage(2));
+        Assert.assertEquals(15, vip.getSurchargePercentage(2));
+        Assert.assertEquals(1, demandPricing.getCurve(SeatType.REGULAR).getTierCount());
+        Assert.assertSame(demandPricing.getCurve(SeatType.REGULAR), demandPricing.getCurve(SeatType.PREMIUM));
+        Assert.assertEquals(1, demandPricing.getTier(SeatType.VIP)); // 1 of 8 VIP seats taken
+    }
+
+    @Test
+    public void testRestoresTicketsAndCustomers() throws IOException {
+        CinemaSnapshot snapshot = saveAndRestore(TransactionLedger.HEADER_SIZE);
+
+        Ticket restoredTicket = Ticket.findTicketById(ticket.getTicketId());
+        Assert.assertNotNull(restoredTicket);
+        Assert.assertNotSame(ticket, restoredTicket);
+        Assert.assertEquals(3, restoredTicket.getSeatNumber());
+        Assert.assertEquals(30.0, restoredTicket.getPrice(), 0.0);
+
+        Customer restoredCustomer = snapshot.getCustomers().get(0);
+        Assert.assertEquals("5551234567", restoredCustomer.getPhone());
+        Transaction transaction = restoredCustomer.geTransactionsHistory().get(0);
+        Assert.assertSame(restoredTicket, transaction.getTicket());
+        Assert.assertSame(transaction, restoredTicket.getTransaction());
+        Assert.assertSame(restoredCustomer, transaction.getCustomer());
+        Assert.assertEquals("1234567890", transaction.getCard());
+        Assert.assertEquals(35.0, transaction.calculateTotalCost(), 0.001);
+        Assert.assertEquals(transaction.getTransactionTime(),
+                customer.geTransactionsHistory().get(0).getTransactionTime());
+    }
+
+    @Test
+    public void testReplaysLedgerAfterSnapshot() throws IOException {
+        try (TransactionLedger ledger = new TransactionLedger(folder.getRoot().toPath().resolve("ledger"))) {
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.SALE, 1L, 900_001, 1, 11, 5, 4,
+                    SeatType.VIP, AgePricing.ADULT, 3_000, 0, (byte) 0));
+            CinemaSnapshot snapshot = saveAndRestore(ledger.getPosition());
+
+            // Sold and refunded after the snapshot was taken
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.SALE, 2L, 900_002, 1, 11, 5, 13,
+                    SeatType.REGULAR, AgePricing.ADULT, 1_000, 0, (byte) 0));
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.REFUND, 3L, ticket.getTicketId(), 1, 11, 5,
+                    3, SeatType.VIP, AgePricing.ADULT, 3_000, 0, (byte) 0));
+
+            Assert.assertEquals(2, snapshot.replay(ledger));
+            Assert.assertEquals(0, snapshot.replay(ledger)); // Replaying again changes nothing
+
+            Showtime restoredShowtime = snapshot.getCinema().getTheaters().get(0).getMovies().get(0)
+                    .getShowtimes().get(0);
+            Assert.assertTrue(restoredShowtime.isSeatTaken(13, "Regular"));
+            Assert.assertTrue(restoredShowtime.isSeatTaken(3, "VIP")); // The refund kept the seat taken
+            Assert.assertFalse(restoredShowtime.isSeatTaken(4, "VIP")); // Before the snapshot, not replayed
+            Assert.assertNotNull(Ticket.findTicketById(900_002));
+            Assert.assertNull(Ticket.findTicketById(900_001));
+            Assert.assertNull(Ticket.findTicketById(ticket.getTicketId()));
+        }
+    }
+
+    @Test
+    public void testReplayFindsTheaterAndLinksTransaction() throws IOException, BookingException {
+        // Two theaters with their own movie 5 and showtime 11
+        SeatLayout layout = showtime.getLayout();
+        List<Theater> theaters = new ArrayList<>();
+        for (int theaterId = 1; theaterId <= 2; theaterId++) {
+            Movie movie = new Movie(5, "Movie E", "Action");
+            movie.addShowtime(new Showtime(11, "08:00 PM", layout));
+            List<Movie> movies = new ArrayList<>();
+            movies.add(movie);
+            theaters.add(new Theater(theaterId, "Theater " + theaterId, movies, null, layout));
+        }
+        cinema = new Cinema(theaters);
+
+        try (TransactionLedger ledger = new TransactionLedger(folder.getRoot().toPath().resolve("ledger"))) {
+            CinemaSnapshot snapshot = saveAndRestore(ledger.getPosition());
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.SALE, 1L, 900_011, 2, 11, 5, 6,
+                    SeatType.VIP, AgePricing.CHILD, 2_400, Customer.toPhoneKey("5559876543"),
+                    TransactionLedger.CARD_PAYMENT));
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.SALE, 2L, 900_012, 1, 11, 5, 7,
+                    SeatType.VIP, AgePricing.ADULT, 3_000, Customer.toPhoneKey("5551234567"), (byte) 0));
+            ledger.append(new TransactionLedger.Entry(TransactionLedger.REFUND, 3L, 900_012, 1, 11, 5, 7,
+                    SeatType.VIP, AgePricing.ADULT, 0, Customer.toPhoneKey("5551234567"),
+                    TransactionLedger.SEAT_RELEASED));
+            Assert.assertEquals(3, snapshot.replay(ledger));
+
+            Cinema restored = snapshot.getCinema();
+            Showtime first = restored.getTheaters().get(0).getMovies().get(0).getShowtimes().get(0);
+            Showtime second = restored.getTheaters().get(1).getMovies().get(0).getShowtimes().get(0);
+            Assert.assertTrue(second.isSeatTaken(6, "VIP"));
+            Assert.assertFalse(first.isSeatTaken(6, "VIP"));
+            Assert.assertFalse(first.isSeatTaken(7, "VIP")); // The refund gave the seat back
+
+            Transaction sale = Ticket.findTicketById(900_011).getTransaction();
+            Assert.assertSame(restored.getTheaters().get(1), sale.getTheater());
+            Assert.assertSame(second, sale.getShowtime());
+            Assert.assertEquals("Credit Card", sale.getTransactionType());
+            Assert.assertEquals("Child", sale.getTicket().getAgePricing());
+            Assert.assertEquals("5559876543", sale.getCustomer().getPhone());
+            Assert.assertTrue(snapshot.getCustomers().contains(sale.getCustomer()));
+            Assert.assertEquals(2, snapshot.getCustomers().get(0).geTransactionsHistory().size()); // Jane's sale too
+
+            // The replayed sale can be canceled like any other
+            new BookingService(restored).cancelTicket(900_011);
+            Assert.assertFalse(second.isSeatTaken(6, "VIP"));
+        }
+    }
+
+    @Test
+    public void testCanceledShowtimeStaysClosedAfterRestart() throws IOException, BookingException {
+        Path later = folder.getRoot().toPath().resolve("later");
+        try (TransactionLedger ledger = new TransactionLedger(folder.getRoot().toPath().resolve("ledger"))) {
+            Transaction.setLedger(ledger);
+            CinemaSnapshot.write(file, cinema, List.of(customer), ledger.getPosition());
+            new BookingService(cinema).cancelShowtime(showtime);
+            CinemaSnapshot.write(later, cinema, List.of(customer), ledger.getPosition());
+
+            // Saved in the snapshot taken after the cancellation
+            Cinema saved = CinemaSnapshot.read(later).getCinema();
+            Assert.assertTrue(saved.getTheaters().get(0).getMovies().get(0).getShowtimes().get(0).isCancelled());
+            Assert.assertThrows(BookingException.class, () -> new BookingService(saved)
+                    .holdSeat(new BookingSession(), 1, 5, 11, SeatType.VIP, 5));
+
+            // Replayed from the ledger onto the snapshot taken before it
+            CinemaSnapshot before = CinemaSnapshot.read(file);
+            Assert.assertFalse(before.getCinema().getTheaters().get(0).getMovies().get(0).getShowtimes().get(0)
+                    .isCancelled());
+            Assert.assertEquals(2, before.replay(ledger)); // The refund and the cancellation, both theaters share it
+            Assert.assertThrows(BookingException.class, () -> new BookingService(before.getCinema())
+                    .holdSeat(new BookingSession(), 1, 5, 11, SeatType.VIP, 5));
+        } finally {
+            Transaction.setLedger(null);
+        }
+    }
+}
@@ -4,16 +4,22 @@
 
 package testCases;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import src.EntityRegistry;
+import src.GenreIndex;
 import src.Cinema;
+import src.Movie;
 import src.Theater;
 import src.TheaterNotFoundException;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -24,11 +30,17 @@ public class CinemaTest {
     @Before
     public void setUp() {
         Cinema.resetCinemaCount();
+        EntityRegistry.useClassicLimit(Cinema.class);
 
         cinema = new Cinema(); // Initialize a new Cinema instance before each test
         System.out.println("Cinema setup completed.");
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testAddTheater() {
         Theater theater = new Theater(1, "123 Main St");
@@ -144,4 +156,117 @@ public class CinemaTest {
             assertEquals("Maximum number of Cinema instances (100) reached.", e.getMessage());
         }
     }
+
+    @Test
+    public void testFindTheatersByMovieGenre() {
+        Movie.resetMovieCount();
+        Theater theater1 = new Theater(1, "123 Main St");
+        Theater theater2 = new Theater(2, "456 Elm St");
+        theater1.addMovie(new Movie(1, "Movie A", "Action"));
+        theater1.addMovie(new Movie(2, "Movie B", "Comedy"));
+        theater2.addMovie(new Movie(3, "Movie C", "action "));
+        cinema.addTheater(theater1);
+        cinema.addTheater(theater2);
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            cinema.findTheatersByMovieGenre("ACTION");
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String expected = "Theater ID: 1, Address: 123 Main St\n"
+                + "    Movie ID: 1, Title: Movie A, Genre: Action\n\n"
+                + "Theater ID: 2, Address: 456 Elm St\n"
+                + "    Movie ID: 3, Title: Movie C, Genre: action \n\n";
+        assertEquals(expected, outContent.toString().replace("\r\n", "\n"));
+    }
+
+    @Test
+    public void testGenreIndexFollowsCatalogChanges() {
+        Movie.resetMovieCount();
+        Theater theater = new Theater(1, "123 Main St");
+        cinema.addTheater(theater);
+        assertFalse(cinema.isGenreShowing("Drama"));
+
+        Movie movie = new Movie(1, "Movie A", "Drama");
+        theater.addMovie(movie);
+        assertTrue(cinema.isGenreShowing("drama"));
+        assertTrue(cinema.availableGenresInCinema().contains("Drama"));
+
+        movie.setGenre("Horror");
+        assertFalse(cinema.isGenreShowing("Drama"));
+        assertTrue(cinema.isGenreShowing("HORROR"));
+
+        Set<String> genres = cinema.availableGenresInCinema();
+        Movie comedy = new Movie(2, "Movie B", "Comedy");
+        theater.addMovie(comedy);
+        assertTrue(cinema.isGenreShowing("Comedy"));
+        assertEquals(2, cinema.availableGenresInCinema().size());
+        assertEquals(Set.of("Horror"), genres); // Taken before the change, so not updated
+
+        assertTrue(theater.removeMovie(comedy));
+        assertFalse(cinema.isGenreShowing("Comedy"));
+        assertEquals(Set.of("Horror"), cinema.availableGenresInCinema());
+    }
+
+    @Test
+    public void testGenreIndexFindReturnsCopy() {
+        Movie.resetMovieCount();
+        Theater theater = new Theater(1, "123 Main St");
+        theater.addMovie(new Movie(1, "Movie A", "Drama"));
+        List<Theater> theaters = new ArrayList<>(List.of(theater));
+        GenreIndex index = new GenreIndex(theaters);
+
+        Map<Theater, List<Movie>> drama = index.find("Drama");
+        theater.addMovie(new Movie(2, "Movie B", "Drama"));
+
+        assertEquals(1, drama.get(theater).size()); // Taken before the change, so not updated
+        assertEquals(2, index.find("drama").get(theater).size());
+        assertThrows(UnsupportedOperationException.class, () -> index.find("drama").get(theater).clear());
+    }
+
+    @Test
+    public void testGenreIndexUpdatesTheatersSharingMovies() {
+        Movie.resetMovieCount();
+        List<Movie> shared = new ArrayList<>();
+        Theater first = new Theater(1, "123 Main St", shared);
+        Theater second = new Theater(2, "456 Elm St", shared);
+        Theater other = new Theater(3, "789 Oak St");
+        cinema.addTheater(first);
+        cinema.addTheater(other);
+        cinema.addTheater(second);
+        other.addMovie(new Movie(1, "Movie A", "Drama"));
+
+        Movie movie = new Movie(2, "Movie B", "Comedy");
+        first.addMovie(movie); // Second shows it too
+        movie.setGenre("Drama");
+
+        assertFalse(cinema.isGenreShowing("Comedy"));
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            cinema.findTheatersByMovieGenre("drama");
+        } finally {
+            System.setOut(originalOut);
+        }
+        String expected = "Theater ID: 1, Address: 123 Main St\n"
+                + "    Movie ID: 2, Title: Movie B, Genre: Drama\n\n"
+                + "Theater ID: 3, Address: 789 Oak St\n"
+                + "    Movie ID: 1, Title: Movie A, Genre: Drama\n\n"
+                + "Theater ID: 2, Address: 456 Elm St\n"
+                + "    Movie ID: 2, Title: Movie B, Genre: Drama\n\n"; // Cinema order
+        assertEquals(expected, outContent.toString().replace("\r\n", "\n"));
+
+        second.setMovies(new ArrayList<>());
+        first.removeMovie(movie);
+        assertFalse(cinema.isGenreShowing("Comedy"));
+        assertEquals(Set.of("Drama"), cinema.availableGenresInCinema());
+        other.getMovies().get(0).setGenre(null);
+        assertFalse(cinema.isGenreShowing("Drama"));
+        assertTrue(cinema.availableGenresInCinema().isEmpty());
+    }
 }
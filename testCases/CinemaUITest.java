@@ -0,0 +1,151 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.CinemaUITest
+package testCases;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.Cinema;
+import src.CinemaUI;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.PaymentProcessor;
+import src.Showtime;
+import src.SimulatedPaymentGateway;
+import src.Ticket;
+
+public class CinemaUITest {
+    private static final int ROWS = 40;
+    private static final int COLUMNS = 25;
+
+    private InputStream originalIn;
+    private PrintStream originalOut;
+    private ByteArrayOutputStream output;
+    private Showtime showtime;
+    private Cinema cinema;
+
+    @Before
+    public void setUp() {
+        EntityRegistry.resetLimits();
+        originalIn = System.in;
+        originalOut = System.out;
+        output = new ByteArrayOutputStream();
+
+        showtime = TestCinemas.showtime(ROWS, COLUMNS, 0);
+        cinema = TestCinemas.cinema(showtime, new FoodAndDrink(1, "Popcorn", 5.00));
+    }
+
+    @After
+    public void tearDown() {
+        System.setIn(originalIn);
+        System.setOut(originalOut);
+        TestCinemas.clearTickets();
+    }
+
+    // Input for one complete booking, from the main menu back to the main menu
+    private static String booking(int seatNumber) {
+        return "1 1 1 1 1 1 " + seatNumber + " 1 1 0\nJane Doe\njane@example.com\n5551234567\n1\n\n";
+    }
+
+    // Run a kiosk on a thread with a small stack until the script types 'Exit'
+    private CinemaUI runKiosk(String script) throws InterruptedException {
+        return runKiosk(script, PaymentProcessor.getDefault());
+    }
+
+    private CinemaUI runKiosk(String script, PaymentProcessor paymentProcessor) throws InterruptedException {
+        System.setIn(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)));
+        System.setOut(new PrintStream(output, true));
+        CinemaUI cinemaUI = new CinemaUI(cinema);
+        cinemaUI.setPaymentProcessor(paymentProcessor);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread kiosk = new Thread(null, () -> {
+            try {
+                cinemaUI.start();
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        }, "kiosk", 256 * 1024);
+        kiosk.start();
+        kiosk.join();
+        if (failure.get() != null) {
+            throw new AssertionError("Kiosk failed", failure.get());
+        }
+        return cinemaUI;
+    }
+
+    @Test
+    public void testManyBookingsKeepStackFlat() throws InterruptedException {
+        StringBuilder script = new StringBuilder();
+        for (int seatNumber = 1; seatNumber <= ROWS * COLUMNS; seatNumber++) {
+            script.append(booking(seatNumber));
+        }
+        script.append("Exit\n");
+
+        CinemaUI cinemaUI = runKiosk(script.toString());
+
+        Assert.assertEquals(0, showtime.getAvailableSeats());
+        Assert.assertEquals(1, cinemaUI.getCustomers().size()); // The same customer booked every seat
+        Assert.assertEquals(ROWS * COLUMNS, cinemaUI.getCustomers().get(0).geTransactionsHistory().size());
+        Assert.assertTrue(output.toString().contains("Exiting... Thanks for visiting ASAN Cinema!"));
+    }
+
+    @Test
+    public void testExitDuringBookingReleasesHeldSeat() throws InterruptedException {
+        runKiosk("1 1 1 1 1 1 7 Exit\n");
+
+        Assert.assertFalse(showtime.isSeatTaken(7, "REGULAR"));
+        Assert.assertEquals(ROWS * COLUMNS, showtime.getAvailableSeats());
+    }
+
+    @Test
+    public void testExitAtPaymentDropsUnpaidTicket() throws InterruptedException {
+        runKiosk("1 1 1 1 1 1 7 1 1 0\nJane Doe\njane@example.com\n5551234567\nExit\n");
+
+        Assert.assertFalse(showtime.isSeatTaken(7, "REGULAR"));
+        Assert.assertEquals(0, Ticket.getRegistry().size()); // Not saved as a ticket without a sale
+    }
+
+    @Test
+    public void testDeclinedCardReleasesSeat() throws InterruptedException {
+        PaymentProcessor declining = new PaymentProcessor(new SimulatedPaymentGateway(0, 1.0), 4, 1000);
+        CinemaUI cinemaUI = runKiosk("1 1 1 1 1 1 7 1 1 0\nJane Doe\njane@example.com\n5551234567\n2 1234567890\n"
+                + booking(7) + "Exit\n", declining);
+
+        Assert.assertTrue(output.toString().contains("Card authorization failed: Card declined."));
+        Assert.assertTrue(showtime.isSeatTaken(7, "REGULAR")); // Booked again with cash after the decline
+        Assert.assertEquals(ROWS * COLUMNS - 1, showtime.getAvailableSeats());
+        Assert.assertEquals(1, Ticket.getRegistry().size());
+        Assert.assertEquals(1, cinemaUI.getCustomers().get(0).geTransactionsHistory().size());
+    }
+
+    @Test
+    public void testGoingBackReleasesSeatAndAllowsRebooking() throws InterruptedException {
+        // Hold seat 3, go back from age pricing, then book seat 3 after all
+        CinemaUI cinemaUI = runKiosk("1 1 1 1 1 1 3 0 1 3 1 0\nJane Doe\njane@example.com\n5551234567\n1\n\nExit\n");
+
+        Assert.assertTrue(showtime.isSeatTaken(3, "REGULAR"));
+        Assert.assertEquals(ROWS * COLUMNS - 1, showtime.getAvailableSeats());
+        Assert.assertEquals(1, cinemaUI.getCustomers().size());
+    }
+
+    @Test
+    public void testBackToMainMenu() throws InterruptedException {
+        // Theater options, theater list, movies and showtimes all lead back to the main menu
+        runKiosk("1 1 1 1 0 0 0 0 Exit\n");
+
+        String printed = output.toString();
+        Assert.assertEquals(2, printed.split("WELCOME TO ASAN CINEMA!!", -1).length - 1);
+        Assert.assertTrue(printed.contains("Exiting... Thanks for visiting ASAN Cinema!"));
+    }
+}
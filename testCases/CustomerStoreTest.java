@@ -0,0 +1,108 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.CustomerStoreTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.Customer;
+import src.CustomerStore;
+import src.EntityRegistry;
+import src.Movie;
+import src.Showtime;
+import src.Ticket;
+import src.Transaction;
+
+public class CustomerStoreTest {
+    private CustomerStore store;
+
+    @Before
+    public void setUp() {
+        EntityRegistry.resetLimits();
+        Customer.resetCustomerCount();
+        store = new CustomerStore();
+    }
+
+    @Test
+    public void testFindByPhoneAndEmail() {
+        Customer jane = store.add(new Customer("Jane Doe", "Jane@Example.com", "5551234567"));
+        store.add(new Customer("John Roe", "john@example.com", "5559876543"));
+
+        Assert.assertSame(jane, store.findByPhone("5551234567"));
+        Assert.assertSame(jane, store.findByPhone("(555) 123-4567")); // Only the digits count
+        Assert.assertSame(jane, store.findByPhoneKey(Customer.toPhoneKey("5551234567")));
+        Assert.assertSame(jane, store.findByEmail("  jane@example.COM "));
+        Assert.assertNull(store.findByPhone("5550000000"));
+        Assert.assertNull(store.findByPhone("0"));
+        Assert.assertNull(store.findByEmail(""));
+        Assert.assertEquals(2, store.size());
+    }
+
+    @Test
+    public void testSamePhoneIsMergedIntoOneRecord() {
+        Customer first = new Customer("Jane Doe", "jane@example.com", "5551234567");
+        Transaction earlier = new Transaction(new Movie(1, "Movie A", "Action"), new Showtime(1, "12:00 PM"),
+                new Ticket("VIP", "Adult", 1));
+        first.addTransaction(earlier);
+        store.add(first);
+
+        Customer again = new Customer("Jane Smith", "jane.smith@example.com", "555-123-4567");
+        Transaction later = new Transaction(new Movie(2, "Movie B", "Drama"), new Showtime(2, "08:00 PM"),
+                new Ticket("VIP", "Adult", 2));
+        again.addTransaction(later);
+        int customersBefore = EntityRegistry.getLiveCount(Customer.class);
+
+        Assert.assertSame(first, store.add(again));
+        Assert.assertEquals(1, store.size());
+        Assert.assertEquals("Jane Smith", first.getName()); // Latest details win
+        Assert.assertEquals(Arrays.asList(earlier, later), first.geTransactionsHistory());
+        Assert.assertSame(first, later.getCustomer());
+        Assert.assertSame(first, store.findByEmail("jane@example.com")); // Old email still finds the record
+        Assert.assertSame(first, store.findByEmail("jane.smith@example.com"));
+        Assert.assertEquals(customersBefore - 1, EntityRegistry.getLiveCount(Customer.class));
+    }
+
+    @Test
+    public void testSameEmailWithNewPhone() {
+        Customer jane = store.add(new Customer("Jane Doe", "jane@example.com", "5551234567"));
+
+        Assert.assertSame(jane, store.add(new Customer("Jane Doe", "JANE@example.com", "5557654321")));
+        Assert.assertEquals("5557654321", jane.getPhone());
+        Assert.assertSame(jane, store.findByPhone("5551234567"));
+        Assert.assertSame(jane, store.findByPhone("5557654321"));
+        Assert.assertSame(jane, store.add(jane)); // Adding the stored record again changes nothing
+        Assert.assertEquals(1, store.size());
+    }
+
+    @Test
+    public void testSnapshotCustomersAreDeduplicated() {
+        List<Customer> restored = new ArrayList<>();
+        restored.add(new Customer("Jane Doe", "jane@example.com", "5551234567"));
+        restored.add(new Customer("John Roe", "john@example.com", "5559876543"));
+        restored.add(new Customer("Jane Doe", "jane@example.com", "5551234567"));
+
+        CustomerStore fromSnapshot = new CustomerStore(restored);
+
+        Assert.assertEquals(2, fromSnapshot.size());
+        Assert.assertSame(restored.get(0), fromSnapshot.getCustomers().get(0));
+    }
+
+    @Test
+    public void testManyCustomers() {
+        int count = 100_000;
+        for (int i = 0; i < count; i++) {
+            store.add(new Customer("Customer " + i, "customer" + i + "@example.com",
+                    String.valueOf(5_550_000_000L + i)));
+        }
+        Assert.assertEquals(count, store.size());
+        for (int i = 0; i < count; i += 997) {
+            Assert.assertEquals("Customer " + i, store.findByPhone(String.valueOf(5_550_000_000L + i)).getName());
+        }
+    }
+}
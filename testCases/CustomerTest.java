@@ -3,6 +3,7 @@
 // java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.CustomerTest
 package testCases;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.Assert;
@@ -32,6 +33,7 @@ public class CustomerTest {
     @Before
     public void setUp() {
         Customer.resetCustomerCount();
+        EntityRegistry.useClassicLimit(Customer.class);
 
         // Setup objects
         customer = new Customer("John Doe", "johndoe@example.com", "1234567890");
@@ -49,6 +51,11 @@ public class CustomerTest {
         transaction2 = new Transaction(movie, showtime, ticket, customer, selectedItems);
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testConstructor_WithNameEmailPhone() {
         Customer c = new Customer("Alice", "alice@example.com", "0987654321");
@@ -172,4 +179,77 @@ public class CustomerTest {
             assertEquals("Maximum number of Customer instances (100) reached.", e.getMessage());
         }
     }
+
+    @Test
+    public void testToPhoneKey() {
+        Assert.assertEquals(15551234567L, Customer.toPhoneKey("555-123-4567"));
+        Assert.assertEquals(10123456789L, Customer.toPhoneKey("0123456789"));
+        Assert.assertNotEquals(Customer.toPhoneKey("0123456789"), Customer.toPhoneKey("123456789"));
+        Assert.assertEquals(0, Customer.toPhoneKey(null));
+        Assert.assertEquals(0, Customer.toPhoneKey("none"));
+    }
+
+    @Test
+    public void testHistoryPagesNewestFirst() {
+        List<Transaction> transactions = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Transaction transaction = new Transaction(movie, showtime, ticket);
+            transactions.add(transaction);
+            customer.addTransaction(transaction);
+        }
+
+        Assert.assertEquals(3, customer.getHistoryPageCount(5));
+        List<Transaction> newest = customer.getTransactionHistoryPage(0, 5);
+        Assert.assertEquals(5, newest.size());
+        Assert.assertSame(transactions.get(11), newest.get(0));
+        Assert.assertSame(transactions.get(7), newest.get(4));
+        List<Transaction> oldest = customer.getTransactionHistoryPage(2, 5);
+        Assert.assertEquals(2, oldest.size());
+        Assert.assertSame(transactions.get(0), oldest.get(1));
+        Assert.assertTrue(customer.getTransactionHistoryPage(3, 5).isEmpty());
+        Assert.assertThrows(IllegalArgumentException.class, () -> customer.getTransactionHistoryPage(-1, 5));
+    }
+
+    @Test
+    public void testReservedTransactionsDropCanceledTickets() {
+        Ticket kept = new Ticket("VIP", "Adult", 2);
+        Ticket canceled = new Ticket("VIP", "Adult", 3);
+        Transaction keptTransaction = new Transaction(movie, showtime, kept);
+        Transaction canceledTransaction = new Transaction(movie, showtime, canceled);
+        try {
+            kept.reserve();
+            canceled.reserve();
+            customer.addTransaction(keptTransaction);
+            customer.addTransaction(canceledTransaction);
+            Assert.assertEquals(2, customer.getReservedTransactions().size());
+
+            canceled.cancelReservation();
+            List<Transaction> reserved = customer.getReservedTransactions();
+            Assert.assertEquals(1, reserved.size());
+            Assert.assertSame(keptTransaction, reserved.get(0));
+            Assert.assertEquals(2, customer.getTransactionCount()); // The history itself keeps both
+        } finally {
+            TestCinemas.clearTickets();
+        }
+    }
+
+    @Test
+    public void testSearchShowsNewestPage() {
+        for (int i = 0; i < 7; i++) {
+            customer.addTransaction(transaction1);
+        }
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            customer.searchTransactionHistory();
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String output = outContent.toString();
+        Assert.assertTrue(output.contains("7 Transaction History: "));
+        Assert.assertTrue(output.contains("Page 1 of 2, newest first"));
+        Assert.assertEquals(Customer.HISTORY_PAGE_SIZE, output.split("Transaction completed on: ", -1).length - 1);
+    }
 }
@@ -0,0 +1,140 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.DemandPricingTest
+package testCases;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.AgePricing;
+import src.DemandCurve;
+import src.DemandPricingSimulation;
+import src.PricingEngine;
+import src.SeatLayout;
+import src.SeatType;
+import src.Showtime;
+
+public class DemandPricingTest {
+    private Showtime showtime;
+    private PricingEngine engine;
+
+    @Before
+    public void setUp() {
+        Showtime.resetShowtimeCount();
+        showtime = new Showtime(1, "08:00 PM"); // Standard layout, 10 seats of each type
+        engine = PricingEngine.getDefault();
+    }
+
+    @Test
+    public void testCurveTiers() {
+        DemandCurve curve = DemandCurve.standard();
+        Assert.assertEquals(4, curve.getTierCount());
+        Assert.assertEquals(0, curve.tierFor(4, 10));
+        Assert.assertEquals(1, curve.tierFor(5, 10));
+        Assert.assertEquals(2, curve.tierFor(8, 10));
+        Assert.assertEquals(3, curve.tierFor(10, 10));
+        Assert.assertEquals(25, curve.getSurchargePercentage(2));
+        Assert.assertEquals(0, DemandCurve.flat().tierFor(10, 10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCurveRejectsUnsortedThresholds() {
+        new DemandCurve(new int[] { 50, 40 }, new int[] { 10, 20 });
+    }
+
+    @Test
+    public void testPriceRisesAsSeatsSell() {
+        showtime.enableDemandPricing(DemandCurve.standard());
+        Assert.assertEquals(3000, engine.quote(SeatType.VIP, AgePricing.ADULT, showtime));
+
+        for (int seatNumber = 1; seatNumber <= 5; seatNumber++) {
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        Assert.assertEquals(3300, engine.quote(SeatType.VIP, AgePricing.ADULT, showtime));
+        Assert.assertEquals(2640, engine.quote(SeatType.VIP, AgePricing.CHILD, showtime));
+        Assert.assertEquals(1000, engine.quote(SeatType.REGULAR, AgePricing.ADULT, showtime)); // Other band
+
+        for (int seatNumber = 6; seatNumber <= 9; seatNumber++) {
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        Assert.assertEquals(3, showtime.getDemandPricing().getTier(SeatType.VIP));
+        Assert.assertEquals(4500, engine.quote(SeatType.VIP, AgePricing.ADULT, showtime));
+
+        // Prices come back down when seats are released
+        showtime.releaseSeat(9);
+        Assert.assertEquals(3750, engine.quote(SeatType.VIP, AgePricing.ADULT, showtime));
+    }
+
+    @Test
+    public void testCurvePerSeatType() {
+        DemandCurve[] curves = new DemandCurve[SeatType.values().length];
+        Arrays.fill(curves, DemandCurve.flat());
+        curves[SeatType.VIP.ordinal()] = DemandCurve.standard();
+        showtime.enableDemandPricing(curves);
+
+        for (int seatNumber = 1; seatNumber <= 5; seatNumber++) {
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        for (int seatNumber = 11; seatNumber <= 15; seatNumber++) {
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        Assert.assertSame(DemandCurve.standard(), showtime.getDemandPricing().getCurve(SeatType.VIP));
+        Assert.assertEquals(3300, engine.quote(SeatType.VIP, AgePricing.ADULT, showtime));
+        Assert.assertEquals(2000, engine.quote(SeatType.PREMIUM, AgePricing.ADULT, showtime)); // Flat curve
+    }
+
+    @Test
+    public void testConcurrentQuotesOnlySeeValidPrices() throws InterruptedException {
+        showtime.enableDemandPricing(DemandCurve.standard());
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] quoters = new Thread[8];
+        for (int t = 0; t < quoters.length; t++) {
+            quoters[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20_000; i++) {
+                    seen.add(engine.quote(SeatType.PREMIUM, AgePricing.ADULT, showtime));
+                }
+            });
+            quoters[t].start();
+        }
+        start.countDown();
+        for (int seatNumber = 11; seatNumber <= 20; seatNumber++) {
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        for (Thread quoter : quoters) {
+            quoter.join();
+        }
+
+        Set<Long> valid = Set.of(2000L, 2200L, 2500L, 3000L);
+        Assert.assertTrue("Unexpected prices " + seen, valid.containsAll(seen));
+        Assert.assertEquals(3000, engine.quote(SeatType.PREMIUM, AgePricing.ADULT, showtime));
+    }
+
+    @Test
+    public void testSimulationEarnsMoreWithDemandPricing() throws InterruptedException {
+        SeatType[] rowTypes = new SeatType[4];
+        Arrays.fill(rowTypes, SeatType.REGULAR);
+        rowTypes[0] = SeatType.VIP;
+        SeatLayout layout = SeatLayout.byRow(4, 10, rowTypes);
+        DemandPricingSimulation simulation = new DemandPricingSimulation(layout, 200, 4, 7);
+
+        DemandPricingSimulation.Result flat = simulation.run(DemandCurve.flat());
+        DemandPricingSimulation.Result demand = simulation.run(DemandCurve.standard());
+
+        Assert.assertEquals(40, flat.getTicketsSold()); // Every seat, the Premium requests find no rows
+        Assert.assertEquals(40, demand.getTicketsSold());
+        Assert.assertTrue(demand.getRevenueCents() > flat.getRevenueCents());
+        Assert.assertTrue(demand.getQuoteNanos(50) <= demand.getQuoteNanos(100));
+    }
+}
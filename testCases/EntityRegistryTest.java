@@ -0,0 +1,163 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.EntityRegistryTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.Cinema;
+import src.EntityRegistry;
+import src.FoodAndDrink;
+import src.Movie;
+import src.SeatLayout;
+import src.SeatType;
+import src.Showtime;
+import src.Theater;
+import src.Ticket;
+import src.Transaction;
+
+public class EntityRegistryTest {
+
+    @Before
+    public void setUp() {
+        Ticket.resetTicketCount();
+        Showtime.resetShowtimeCount();
+        Transaction.resetTransactionCount();
+    }
+
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
+    @Test
+    public void testNoFixedLimitOf100() {
+        List<Showtime> showtimes = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            showtimes.add(new Showtime(i + 1, "12:00 PM"));
+        }
+        Assert.assertEquals(1_000, EntityRegistry.getLiveCount(Showtime.class));
+    }
+
+    @Test
+    public void testShowtimeIsSizedByItsLayout() {
+        SeatType[] rowTypes = new SeatType[10];
+        Arrays.fill(rowTypes, SeatType.REGULAR);
+        SeatLayout small = SeatLayout.byRow(2, 8, Arrays.copyOf(rowTypes, 2));
+        SeatLayout large = SeatLayout.byRow(10, 8, rowTypes);
+
+        new Showtime(1, "12:00 PM", small);
+        long smallBytes = EntityRegistry.getUsedBytes(Showtime.class);
+        new Showtime(2, "12:00 PM", large);
+        long largeBytes = EntityRegistry.getUsedBytes(Showtime.class) - smallBytes;
+
+        // A row word plus a free-run counter per seat type for each of the 8 extra rows
+        int perRow = Long.BYTES + SeatType.values().length * Integer.BYTES;
+        Assert.assertEquals(8 * perRow, largeBytes - smallBytes);
+    }
+
+    @Test
+    public void testRemovedMovieIsReleased() {
+        Movie movie = new Movie(1, "Movie A", "Action");
+        movie.addShowtime(new Showtime(1, "10:00 AM"));
+        movie.addShowtime(new Showtime(2, "02:00 PM"));
+        Theater theater = new Theater(1, "123 Main St");
+        theater.addMovie(movie);
+        int movies = EntityRegistry.getLiveCount(Movie.class);
+
+        Assert.assertTrue(theater.removeMovie(movie));
+        Assert.assertEquals(movies - 1, EntityRegistry.getLiveCount(Movie.class));
+        Assert.assertEquals(0, EntityRegistry.getLiveCount(Showtime.class));
+        Assert.assertEquals(0, EntityRegistry.getUsedBytes(Showtime.class));
+    }
+
+    @Test
+    public void testReleasedCinemaFreesItsCatalog() {
+        int cinemas = EntityRegistry.getLiveCount(Cinema.class);
+        int theaters = EntityRegistry.getLiveCount(Theater.class);
+        int movies = EntityRegistry.getLiveCount(Movie.class);
+        int foods = EntityRegistry.getLiveCount(FoodAndDrink.class);
+        long usedBytes = EntityRegistry.getUsedBytes();
+
+        Movie movie = new Movie(1, "Movie A", "Action");
+        movie.addShowtime(new Showtime(1, "10:00 AM"));
+        List<Movie> shared = new ArrayList<>(List.of(movie));
+        List<FoodAndDrink> menu = new ArrayList<>(List.of(new FoodAndDrink(1, "Popcorn", 5.00)));
+        Cinema cinema = new Cinema(new ArrayList<>(List.of(
+                new Theater(1, "123 Main St", shared, menu),
+                new Theater(2, "456 Elm St", shared, menu))));
+
+        cinema.release();
+        cinema.release(); // Already released, nothing more to count down
+
+        Assert.assertEquals(cinemas, EntityRegistry.getLiveCount(Cinema.class));
+        Assert.assertEquals(theaters, EntityRegistry.getLiveCount(Theater.class));
+        Assert.assertEquals(movies, EntityRegistry.getLiveCount(Movie.class));
+        Assert.assertEquals(foods, EntityRegistry.getLiveCount(FoodAndDrink.class));
+        Assert.assertEquals(0, EntityRegistry.getLiveCount(Showtime.class));
+        Assert.assertEquals(usedBytes, EntityRegistry.getUsedBytes());
+    }
+
+    @Test
+    public void testHeapBudgetLimitsCreation() {
+        // Budget for what is already counted plus room for exactly 10 more tickets (96 bytes each)
+        EntityRegistry.setHeapBudget(EntityRegistry.getUsedBytes() + 10 * 96);
+
+        for (int i = 0; i < 10; i++) {
+            new Ticket("VIP", "Adult", i + 1);
+        }
+        try {
+            new Ticket("VIP", "Adult", 11);
+            Assert.fail("Expected IllegalStateException once the heap budget is used up");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("Maximum number of Ticket instances (10) reached.", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testRecycledTicketIsReused() {
+        Ticket ticket = Ticket.obtain("VIP", "Adult", 3);
+        int firstId = ticket.getTicketId();
+        Assert.assertEquals(1, EntityRegistry.getLiveCount(Ticket.class));
+
+        Ticket.recycle(ticket);
+        Assert.assertEquals(0, EntityRegistry.getLiveCount(Ticket.class));
+
+        Ticket reused = Ticket.obtain("Regular", "Child", 25);
+        Assert.assertSame(ticket, reused);
+        Assert.assertNotEquals(firstId, reused.getTicketId());
+        Assert.assertEquals(25, reused.getSeatNumber());
+        Assert.assertEquals(0.0, reused.getPrice(), 0.0);
+        Assert.assertEquals(1, EntityRegistry.getLiveCount(Ticket.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testReservedTicketCannotBeRecycled() {
+        Ticket ticket = Ticket.obtain("VIP", "Adult", 4);
+        ticket.reserve();
+        try {
+            Ticket.recycle(ticket);
+        } finally {
+            ticket.cancelReservation();
+        }
+    }
+
+    @Test
+    public void testRecycledTransactionIsCleared() {
+        Transaction transaction = Transaction.obtain();
+        transaction.setTransactionType("Cash");
+        Transaction.recycle(transaction);
+
+        Transaction reused = Transaction.obtain();
+        Assert.assertSame(transaction, reused);
+        Assert.assertNull(reused.getTransactionType());
+        Assert.assertTrue(reused.getItems().isEmpty());
+    }
+}
@@ -8,11 +8,13 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.util.*;
 
+import src.EntityRegistry;
 import src.FoodAndDrink;
 
 public class FoodAndDrinkTest {
@@ -22,12 +24,18 @@ public class FoodAndDrinkTest {
     @Before
     public void setUp() {
         FoodAndDrink.resetFoodAndDrinkCount();
+        EntityRegistry.useClassicLimit(FoodAndDrink.class);
 
         // Initialize instances of FoodAndDrink before each test case
         foodAndDrink1 = new FoodAndDrink("Popcorn", 5.50);
         foodAndDrink2 = new FoodAndDrink(1, "Soda", 2.75);
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testDefaultConstructor() {
         FoodAndDrink defaultFoodAndDrink = new FoodAndDrink();
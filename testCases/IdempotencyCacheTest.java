@@ -0,0 +1,155 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.IdempotencyCacheTest
+package testCases;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.IdempotencyCache;
+
+public class IdempotencyCacheTest {
+    private AtomicLong clock;
+    private IdempotencyCache<String> cache;
+    private AtomicInteger runs;
+
+    @Before
+    public void setUp() {
+        clock = new AtomicLong(1_000);
+        cache = new IdempotencyCache<>(3, 60_000, clock::get);
+        runs = new AtomicInteger();
+    }
+
+    private CompletableFuture<String> request(String key) {
+        return cache.execute(key, () -> CompletableFuture.completedFuture(key + "-" + runs.incrementAndGet()));
+    }
+
+    @Test
+    public void testRetryGetsFirstOutcome() {
+        Assert.assertEquals("a-1", request("a").join());
+        Assert.assertEquals("a-1", request("a").join());
+        Assert.assertEquals("b-2", request("b").join());
+        Assert.assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void testPendingRequestIsShared() {
+        CompletableFuture<String> first = new CompletableFuture<>();
+        CompletableFuture<String> attempt = cache.execute("a", () -> first);
+        CompletableFuture<String> retry = cache.execute("a", () -> {
+            throw new AssertionError("The retry must not run again");
+        });
+        Assert.assertFalse(retry.isDone());
+
+        first.complete("paid");
+        Assert.assertEquals("paid", attempt.join());
+        Assert.assertEquals("paid", retry.join());
+    }
+
+    @Test
+    public void testFailureIsNotRemembered() {
+        CompletableFuture<String> failed = cache.execute("a",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("Card declined.")));
+        CompletionException error = Assert.assertThrows(CompletionException.class, failed::join);
+        Assert.assertEquals("Card declined.", error.getCause().getMessage());
+        Assert.assertEquals(0, cache.size());
+
+        Assert.assertEquals("a-1", request("a").join());
+    }
+
+    @Test
+    public void testKeysExpireAndCacheIsBounded() {
+        request("a");
+        clock.addAndGet(30_000);
+        request("b");
+        clock.addAndGet(30_000); // "a" is now a minute old
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals("a-3", request("a").join());
+
+        request("c");
+        request("d"); // Full, the oldest key "b" is dropped
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals("b-6", request("b").join());
+        Assert.assertEquals("d-5", request("d").join());
+    }
+
+    @Test
+    public void testRunningRequestsAreNotEvicted() {
+        cache.execute("a", CompletableFuture::new); // Never finishes
+        request("b");
+        request("c");
+        request("d"); // Full, "b" is dropped instead of the running "a"
+        Assert.assertEquals("b-4", request("b").join());
+        Assert.assertFalse(cache.execute("a", () -> CompletableFuture.completedFuture("again")).isDone());
+
+        cache.clear();
+        for (String key : new String[] { "x", "y", "z" }) {
+            cache.execute(key, CompletableFuture::new);
+        }
+        CompletionException error = Assert.assertThrows(CompletionException.class, () -> request("w").join());
+        Assert.assertTrue(error.getCause() instanceof IllegalStateException);
+        clock.addAndGet(120_000); // Expired but still running, so still remembered
+        Assert.assertEquals(3, cache.size());
+    }
+
+    // Fingerprint of a request for a seat
+    private static final class Seat implements IdempotencyCache.Fingerprint {
+        final int number;
+
+        Seat(int number) {
+            this.number = number;
+        }
+
+        @Override
+        public boolean matches(IdempotencyCache.Fingerprint first) {
+            return ((Seat) first).number == number;
+        }
+    }
+
+    @Test
+    public void testReusedKeyForOtherRequestFails() {
+        Assert.assertEquals("seat 5", cache.execute("k", new Seat(5),
+                () -> CompletableFuture.completedFuture("seat 5")).join());
+        Assert.assertEquals("seat 5", cache.execute("k", new Seat(5),
+                () -> CompletableFuture.completedFuture("again")).join());
+
+        CompletionException error = Assert.assertThrows(CompletionException.class, () -> cache.execute("k",
+                new Seat(6), () -> CompletableFuture.completedFuture("seat 6")).join());
+        Assert.assertTrue(error.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void testRetryStormRunsOnce() throws InterruptedException {
+        IdempotencyCache<Integer> shared = new IdempotencyCache<>(10_000, 60_000);
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[16];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        shared.execute("request-" + i,
+                                () -> CompletableFuture.completedFuture(executions.incrementAndGet()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(1000, executions.get());
+        Assert.assertEquals(1000, shared.size());
+    }
+}
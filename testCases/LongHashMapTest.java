@@ -0,0 +1,75 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.LongHashMapTest
+package testCases;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.LongHashMap;
+
+public class LongHashMapTest {
+    private LongHashMap<String> map;
+
+    @Before
+    public void setUp() {
+        map = new LongHashMap<>();
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        Assert.assertNull(map.put(7, "seven"));
+        Assert.assertEquals("seven", map.put(7, "SEVEN"));
+        Assert.assertEquals("SEVEN", map.get(7));
+        Assert.assertEquals(1, map.size());
+
+        Assert.assertEquals("SEVEN", map.remove(7));
+        Assert.assertNull(map.get(7));
+        Assert.assertNull(map.remove(7));
+        Assert.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testZeroAndNegativeKeys() {
+        map.put(0, "zero");
+        map.put(-1, "minus one");
+        map.put(9_999_999_999L, "phone");
+
+        Assert.assertEquals("zero", map.get(0));
+        Assert.assertEquals("minus one", map.get(-1));
+        Assert.assertEquals("phone", map.get(9_999_999_999L));
+        Assert.assertEquals(3, map.size());
+        Assert.assertEquals(3, map.keys().length);
+
+        Assert.assertEquals("zero", map.remove(0));
+        Assert.assertFalse(map.containsKey(0));
+        Assert.assertEquals(2, map.values().size());
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        // Small key range forces long probe chains, growth and back-shifting removals
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "v" + i;
+                Assert.assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 5_000; key++) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.MoneyTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import src.FoodAndDrink;
+import src.Money;
+import src.SeatType;
+import src.Ticket;
+import src.Transaction;
+
+public class MoneyTest {
+
+    @Test
+    public void testConversions() {
+        Assert.assertEquals(1999, Money.ofDollars(19.99));
+        Assert.assertEquals(30, Money.ofDollars(0.1 + 0.2));
+        Assert.assertEquals(12.5, Money.toDollars(1250), 0.0);
+        Assert.assertEquals(3000, SeatType.VIP.getPriceCents());
+        Assert.assertEquals(30.0, SeatType.VIP.getPrice(), 0.0);
+    }
+
+    @Test
+    public void testFormat() {
+        Assert.assertEquals("$12.50", Money.format(1250));
+        Assert.assertEquals("$0.05", Money.format(5));
+        Assert.assertEquals("$1000.00", Money.format(100_000));
+        Assert.assertEquals("-$3.10", Money.format(-310));
+    }
+
+    @Test
+    public void testPercentOff() {
+        Assert.assertEquals(800, Money.percentOff(1000, 20));
+        Assert.assertEquals(1599, Money.percentOff(1999, 20)); // 399.8 cents off rounds to 400
+        Assert.assertEquals(0, Money.percentOff(1999, 100));
+    }
+
+    @Test
+    public void testTotalsAreExact() {
+        FoodAndDrink.resetFoodAndDrinkCount();
+        Ticket.resetTicketCount();
+        Transaction.resetTransactionCount();
+
+        Ticket ticket = new Ticket("Regular", "Adult", 21, 0.1);
+        List<FoodAndDrink> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new FoodAndDrink("Gum", 0.1));
+        }
+        Transaction transaction = new Transaction(null, null, ticket, null, items);
+
+        Assert.assertEquals(110, transaction.calculateTotalCents());
+        Assert.assertEquals(1.1, transaction.calculateTotalCost(), 0.0);
+    }
+}
@@ -3,9 +3,11 @@
 // java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.MovieTest
 package testCases;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import src.EntityRegistry;
 import src.Movie;
 import src.Showtime;
 import src.ShowtimeNotFoundException;
@@ -23,11 +25,17 @@ public class MovieTest {
     @Before
     public void setUp() {
         Movie.resetMovieCount();
+        EntityRegistry.useClassicLimit(Movie.class);
 
         movie = new Movie(1, "Inception", "Sci-Fi"); // Initialize a new Movie instance before each test
         System.out.println("Movie setup completed.");
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testAddShowtime() {
         Showtime showtime = new Showtime(1, "10:00 AM"); // Example showtime with available seats
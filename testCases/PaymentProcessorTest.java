@@ -0,0 +1,164 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.PaymentProcessorTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import src.PaymentException;
+import src.PaymentGateway;
+import src.PaymentProcessor;
+import src.SimulatedPaymentGateway;
+
+public class PaymentProcessorTest {
+
+    // Gateway that answers only when the test says so
+    private static class ManualGateway implements PaymentGateway {
+        final List<CompletableFuture<String>> pending = new ArrayList<>();
+        final List<String> voided = new ArrayList<>();
+
+        @Override
+        public synchronized CompletableFuture<String> authorize(String cardNumber, long amountCents) {
+            CompletableFuture<String> authorization = new CompletableFuture<>();
+            pending.add(authorization);
+            return authorization;
+        }
+
+        @Override
+        public synchronized CompletableFuture<Void> voidAuthorization(String authorizationCode) {
+            voided.add(authorizationCode);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static Throwable failure(CompletableFuture<String> result) {
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            return e.getCause();
+        }
+        throw new AssertionError("Expected the payment to fail");
+    }
+
+    @Test
+    public void testAuthorizeWithoutBlocking() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 4, 10_000);
+
+        CompletableFuture<String> result = processor.authorize("1234567890", 1500);
+        Assert.assertFalse(result.isDone()); // The caller is not held up by the gateway
+        Assert.assertEquals(1, processor.getInFlight());
+
+        gateway.pending.get(0).complete("AUTH-1");
+        Assert.assertEquals("AUTH-1", result.join());
+        Assert.assertEquals(0, processor.getInFlight());
+    }
+
+    @Test
+    public void testInFlightIsBounded() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 2, 10_000);
+        processor.authorize("1234567890", 100);
+        processor.authorize("1234567890", 100);
+
+        Throwable busy = failure(processor.authorize("1234567890", 100));
+        Assert.assertTrue(busy instanceof PaymentException);
+        Assert.assertEquals(2, gateway.pending.size()); // The third never reached the gateway
+
+        gateway.pending.get(0).complete("AUTH-1"); // Frees a place
+        CompletableFuture<String> next = processor.authorize("1234567890", 100);
+        Assert.assertEquals(3, gateway.pending.size());
+        gateway.pending.get(2).complete("AUTH-3");
+        Assert.assertEquals("AUTH-3", next.join());
+    }
+
+    @Test
+    public void testTimeoutVoidsLateApproval() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 4, 20);
+
+        Throwable timedOut = failure(processor.authorize("1234567890", 100));
+        Assert.assertEquals("Card authorization timed out.", timedOut.getMessage());
+        Assert.assertEquals(1, processor.getInFlight()); // The gateway is still working on it
+
+        gateway.pending.get(0).complete("AUTH-LATE"); // The gateway approves after all
+        Assert.assertEquals(List.of("AUTH-LATE"), gateway.voided);
+        Assert.assertEquals(0, processor.getInFlight());
+    }
+
+    @Test
+    public void testApprovalAtTheDeadlineIsDeliveredOrVoided() throws InterruptedException {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 500, 2);
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(processor.authorize("1234567890", 100));
+            if (i % 50 == 49) {
+                Thread.sleep(1);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            gateway.pending.get(i).complete("AUTH-" + i); // Some before the timeout, some after
+        }
+
+        // Every approval either reaches its caller or is voided, never both and never neither
+        for (int i = 0; i < 500; i++) {
+            CompletableFuture<String> result = results.get(i);
+            boolean delivered = !result.handle((code, error) -> error != null).join();
+            Assert.assertNotEquals("AUTH-" + i, delivered, gateway.voided.contains("AUTH-" + i));
+        }
+        Assert.assertEquals(0, processor.getInFlight());
+    }
+
+    @Test
+    public void testTimedOutCallsStillCountAgainstBound() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 1, 20);
+
+        failure(processor.authorize("1234567890", 100)); // Times out, the gateway keeps going
+        Throwable busy = failure(processor.authorize("1234567890", 100));
+        Assert.assertEquals("Too many payments in progress, please try again.", busy.getMessage());
+        Assert.assertEquals(1, gateway.pending.size());
+
+        gateway.pending.get(0).completeExceptionally(new PaymentException("Card declined."));
+        CompletableFuture<String> next = processor.authorize("1234567890", 100);
+        gateway.pending.get(1).complete("AUTH-2");
+        Assert.assertEquals("AUTH-2", next.join());
+    }
+
+    @Test
+    public void testDeclinedCard() {
+        ManualGateway gateway = new ManualGateway();
+        PaymentProcessor processor = new PaymentProcessor(gateway, 4, 10_000);
+        CompletableFuture<String> result = processor.authorize("1234567890", 100);
+        gateway.pending.get(0).completeExceptionally(new PaymentException("Card declined."));
+
+        Throwable declined = failure(result);
+        Assert.assertTrue(declined instanceof PaymentException);
+        Assert.assertEquals("Card declined.", declined.getMessage());
+        Assert.assertTrue(gateway.voided.isEmpty());
+    }
+
+    @Test
+    public void testSimulatedGateway() {
+        SimulatedPaymentGateway approving = new SimulatedPaymentGateway(5, 0);
+        long start = System.nanoTime();
+        Assert.assertTrue(approving.authorize("1234567890", 100).join().startsWith("AUTH-"));
+        Assert.assertTrue(System.nanoTime() - start >= 5_000_000);
+        approving.voidAuthorization("AUTH-1").join();
+        Assert.assertEquals(1, approving.getAuthorizedCount());
+        Assert.assertEquals(1, approving.getVoidedCount());
+
+        PaymentProcessor declining = new PaymentProcessor(new SimulatedPaymentGateway(0, 1, new Random(7)), 4,
+                10_000);
+        Assert.assertEquals("Card declined.", failure(declining.authorize("1234567890", 100)).getMessage());
+        Assert.assertThrows(IllegalArgumentException.class, () -> new SimulatedPaymentGateway(0, 1.5));
+    }
+}
@@ -0,0 +1,79 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.PricingEngineTest
+package testCases;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import src.AgePricing;
+import src.PricingEngine;
+import src.PricingRule;
+import src.SeatType;
+import src.Showtime;
+import src.ShowtimeBand;
+
+public class PricingEngineTest {
+
+    @Test
+    public void testDefaultPricesMatchAgeDiscounts() {
+        PricingEngine engine = PricingEngine.getDefault();
+        Assert.assertEquals(3000, engine.quote(SeatType.VIP, AgePricing.ADULT, ShowtimeBand.EVENING));
+        Assert.assertEquals(2400, engine.quote(SeatType.VIP, AgePricing.CHILD, ShowtimeBand.EVENING));
+        Assert.assertEquals(800, engine.quote(SeatType.REGULAR, AgePricing.SENIOR, ShowtimeBand.MATINEE));
+        Assert.assertEquals(2000, engine.quote(SeatType.PREMIUM, AgePricing.ADULT, ShowtimeBand.LATE_NIGHT));
+    }
+
+    @Test
+    public void testRulesRunInOrder() {
+        PricingEngine engine = new PricingEngine(List.of(
+                PricingRule.bandSurcharge(ShowtimeBand.LATE_NIGHT, 250),
+                PricingRule.bandDiscount(ShowtimeBand.MATINEE, 50),
+                PricingRule.ageDiscount()));
+
+        Assert.assertEquals(3250, engine.quote(SeatType.VIP, AgePricing.ADULT, ShowtimeBand.LATE_NIGHT));
+        Assert.assertEquals(2600, engine.quote(SeatType.VIP, AgePricing.CHILD, ShowtimeBand.LATE_NIGHT));
+        Assert.assertEquals(400, engine.quote(SeatType.REGULAR, AgePricing.SENIOR, ShowtimeBand.MATINEE));
+        Assert.assertEquals(2000, engine.quote(SeatType.PREMIUM, AgePricing.ADULT, ShowtimeBand.EVENING));
+
+        PricingEngine extended = engine.withRule(PricingRule.bandSurcharge(ShowtimeBand.EVENING, 100));
+        Assert.assertEquals(2100, extended.quote(SeatType.PREMIUM, AgePricing.ADULT, ShowtimeBand.EVENING));
+        Assert.assertEquals(2000, engine.quote(SeatType.PREMIUM, AgePricing.ADULT, ShowtimeBand.EVENING));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePriceIsRejected() {
+        new PricingEngine(List.of(PricingRule.bandSurcharge(ShowtimeBand.MATINEE, -5000)));
+    }
+
+    @Test
+    public void testShowtimeBands() {
+        Assert.assertEquals(ShowtimeBand.MATINEE, ShowtimeBand.of("10:00 AM"));
+        Assert.assertEquals(ShowtimeBand.MATINEE, ShowtimeBand.of("02:00 pm"));
+        Assert.assertEquals(ShowtimeBand.EVENING, ShowtimeBand.of("07:30 PM"));
+        Assert.assertEquals(ShowtimeBand.LATE_NIGHT, ShowtimeBand.of("11:15 PM"));
+        Assert.assertEquals(ShowtimeBand.LATE_NIGHT, ShowtimeBand.of("12:30 AM"));
+        Assert.assertEquals(ShowtimeBand.EVENING, ShowtimeBand.of("soon"));
+
+        Showtime.resetShowtimeCount();
+        Showtime showtime = new Showtime(1, "10:00 AM");
+        Assert.assertEquals(ShowtimeBand.MATINEE, showtime.getBand());
+        showtime.setTime("08:00 PM");
+        Assert.assertEquals(1000, PricingEngine.getDefault().quote(SeatType.REGULAR, AgePricing.ADULT, showtime));
+        Assert.assertEquals(ShowtimeBand.EVENING, showtime.getBand());
+    }
+
+    @Test
+    public void testAgePricingById() {
+        Assert.assertEquals(AgePricing.SENIOR, AgePricing.getById(3));
+        Assert.assertEquals("Child", AgePricing.getById(2).getDisplayName());
+        try {
+            AgePricing.getById(4);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid AgePricing ID: 4", e.getMessage());
+        }
+    }
+}
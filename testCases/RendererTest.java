@@ -0,0 +1,152 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.RendererTest
+package testCases;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.Customer;
+import src.EntityRegistry;
+import src.FileSink;
+import src.FoodAndDrink;
+import src.MemorySink;
+import src.Movie;
+import src.RenderSink;
+import src.Renderer;
+import src.Showtime;
+import src.Ticket;
+import src.Transaction;
+
+public class RendererTest {
+    private MemorySink sink;
+    private Renderer renderer;
+
+    @Before
+    public void setUp() {
+        EntityRegistry.resetLimits();
+        sink = new MemorySink();
+        renderer = new Renderer(sink);
+    }
+
+    @After
+    public void tearDown() {
+        TestCinemas.clearTickets();
+    }
+
+    @Test
+    public void testFormattingMatchesStringFormat() {
+        renderer.padLeft(7, 2).text('|').padLeft(42, 2).text('|').padLeft(123, 2).text('|')
+                .padRight("Soda", 10).text('|').padRight("Large Popcorn", 10).text('|')
+                .money(1250).text('|').money(5).text('|').money(-99);
+        Assert.assertEquals(0, sink.getText().length()); // Nothing written before flush
+
+        renderer.flush();
+        String expected = String.format("%2d|%2d|%2d|%-10s|%-10s|", 7, 42, 123, "Soda", "Large Popcorn")
+                + "$12.50|$0.05|-$0.99";
+        Assert.assertEquals(expected, sink.getText());
+        Assert.assertEquals(0, renderer.length());
+    }
+
+    @Test
+    public void testFlushWritesOncePerScreen() {
+        AtomicInteger writes = new AtomicInteger();
+        StringBuilder text = new StringBuilder();
+        Renderer counting = new Renderer(rendered -> {
+            writes.incrementAndGet();
+            text.append(rendered);
+        });
+        for (int i = 0; i < 100; i++) {
+            counting.text("Line ").number(i).line();
+        }
+        counting.flush();
+        counting.flush(); // Nothing left to write
+
+        Assert.assertEquals(1, writes.get());
+        Assert.assertTrue(text.toString().endsWith("Line 99" + System.lineSeparator()));
+    }
+
+    @Test
+    public void testReceiptMatchesPrintedReceipt() {
+        Movie movie = new Movie(1, "Movie A", "Action");
+        Showtime showtime = new Showtime(1, "12:00 PM");
+        Ticket ticket = new Ticket("VIP", "Adult", 1);
+        Customer customer = new Customer("John Doe", "john@example.com", "123-456-7890");
+        List<FoodAndDrink> items = new ArrayList<>();
+        items.add(new FoodAndDrink("Popcorn", 5.99));
+        items.add(new FoodAndDrink("Soda", 2.99));
+        Transaction transaction = new Transaction(movie, showtime, ticket, customer, items);
+
+        transaction.renderReceipt(renderer);
+        renderer.flush();
+
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            transaction.printReceipt(); // The console renderer follows the redirected System.out
+        } finally {
+            System.setOut(originalOut);
+        }
+
+        String receipt = sink.getText();
+        Assert.assertEquals(outContent.toString(), receipt);
+        Assert.assertTrue(receipt.contains("Movie: Movie A"));
+        Assert.assertTrue(receipt.contains(String.format("%-10s - %s%n", "Popcorn", "$5.99")));
+        Assert.assertTrue(receipt.contains("Total Cost: " + "$" + transaction.calculateTotalCents() / 100));
+    }
+
+    @Test
+    public void testFileSinkAppends() throws IOException {
+        Path file = Files.createTempFile("receipts", ".txt");
+        try {
+            try (FileSink fileSink = new FileSink(file)) {
+                Renderer fileRenderer = new Renderer(fileSink);
+                fileRenderer.line("first");
+                fileRenderer.flush();
+                fileRenderer.line("second");
+                fileRenderer.flush();
+            }
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Assert.assertEquals("first" + System.lineSeparator() + "second" + System.lineSeparator(), text);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFailedWriteDropsScreen() {
+        Renderer failing = new Renderer(rendered -> {
+            throw new IllegalStateException("Sink is closed.");
+        });
+        failing.line("lost");
+        Assert.assertThrows(IllegalStateException.class, failing::flush);
+        Assert.assertEquals(0, failing.length()); // The next screen does not repeat this one
+    }
+
+    @Test
+    public void testConsoleSinkFollowsSystemOut() {
+        RenderSink console = RenderSink.console();
+        ByteArrayOutputStream outContent = new ByteArrayOutputStream();
+        PrintStream originalOut = System.out;
+        System.setOut(new PrintStream(outContent));
+        try {
+            console.write("Hello");
+        } finally {
+            System.setOut(originalOut);
+        }
+        Assert.assertEquals("Hello", outContent.toString());
+    }
+}
@@ -0,0 +1,122 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.SeatHoldTest
+package testCases;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.SeatHold;
+import src.SeatHoldManager;
+import src.SeatType;
+import src.Showtime;
+import src.TimingWheel;
+
+public class SeatHoldTest {
+    private AtomicLong clock;
+    private SeatHoldManager holdManager;
+    private Showtime showtime;
+
+    @Before
+    public void setUp() {
+        Showtime.resetShowtimeCount();
+        clock = new AtomicLong(1_000_000);
+        holdManager = new SeatHoldManager(60_000, 1000, clock::get); // Hold seats for 1 minute
+        showtime = new Showtime(1, "18:00");
+    }
+
+    @Test
+    public void testHoldTakesSeat() {
+        SeatHold seatHold = showtime.holdSeat(5, SeatType.VIP, holdManager);
+        Assert.assertNotNull(seatHold);
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertNull(showtime.holdSeat(5, SeatType.VIP, holdManager)); // Already held
+        Assert.assertNull(showtime.holdSeat(25, SeatType.VIP, holdManager)); // Wrong seat type
+        Assert.assertEquals(1, holdManager.getActiveHolds());
+    }
+
+    @Test
+    public void testHoldExpires() {
+        SeatHold seatHold = showtime.holdSeat(5, SeatType.VIP, holdManager);
+
+        clock.addAndGet(59_000);
+        holdManager.expireHolds();
+        Assert.assertTrue(seatHold.isActive());
+
+        clock.addAndGet(1_000);
+        holdManager.expireHolds();
+        Assert.assertTrue(seatHold.isExpired());
+        Assert.assertFalse(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertFalse(seatHold.confirm()); // Too late to confirm
+        Assert.assertEquals(0, holdManager.getActiveHolds());
+    }
+
+    @Test
+    public void testConfirmedHoldNeverExpires() {
+        SeatHold seatHold = showtime.holdSeat(5, SeatType.VIP, holdManager);
+        Assert.assertTrue(seatHold.confirm());
+
+        clock.addAndGet(120_000);
+        holdManager.expireHolds();
+        Assert.assertTrue(seatHold.isConfirmed());
+        Assert.assertTrue(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertFalse(seatHold.release());
+    }
+
+    @Test
+    public void testReleaseReturnsSeat() {
+        SeatHold seatHold = showtime.holdSeat(5, SeatType.VIP, holdManager);
+        Assert.assertTrue(seatHold.release());
+        Assert.assertFalse(showtime.isSeatTaken(5, "VIP"));
+        Assert.assertEquals(0, holdManager.getActiveHolds());
+    }
+
+    @Test
+    public void testWheelRunsTasksInOrderAcrossLevels() {
+        TimingWheel wheel = new TimingWheel(10, 0);
+        List<Long> fired = new ArrayList<>();
+        long[] delays = { 5, 640, 650, 40_960, 5_000_000, 30 };
+
+        for (long delay : delays) {
+            wheel.schedule(() -> fired.add(delay), delay);
+        }
+        TimingWheel.Timeout cancelled = wheel.schedule(() -> fired.add(-1L), 100);
+        Assert.assertTrue(cancelled.cancel());
+
+        // Step through time and check each task runs in the tick it is due
+        for (long now = 0; now <= 5_000_000; now += 10) {
+            int before = fired.size();
+            wheel.advanceTo(now);
+            for (int i = before; i < fired.size(); i++) {
+                long due = (fired.get(i) + 9) / 10 * 10;
+                Assert.assertEquals(due, now);
+            }
+        }
+        Assert.assertEquals(delays.length, fired.size());
+        Assert.assertFalse(fired.contains(-1L));
+        Assert.assertEquals(0, wheel.getPendingCount());
+    }
+
+    @Test
+    public void testManyHoldsExpireTogether() {
+        Showtime[] showtimes = new Showtime[50];
+        for (int i = 0; i < showtimes.length; i++) {
+            showtimes[i] = new Showtime(i + 2, "20:00");
+            for (int seatNumber = 1; seatNumber <= 30; seatNumber++) {
+                holdManager.hold(showtimes[i], seatNumber);
+            }
+            Assert.assertTrue(showtimes[i].isSoldOut());
+        }
+
+        clock.addAndGet(60_000);
+        Assert.assertEquals(1500, holdManager.expireHolds());
+        for (Showtime held : showtimes) {
+            Assert.assertEquals(30, held.getAvailableSeats());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.SeatMapTest
+package testCases;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import src.SeatLayout;
+import src.SeatMap;
+import src.SeatType;
+
+public class SeatMapTest {
+    private static final int ROWS = 20;
+    private static final int COLUMNS = 30;
+    private static final int SEAT_COUNT = ROWS * COLUMNS;
+
+    private SeatLayout layout;
+    private SeatMap seatMap;
+
+    @Before
+    public void setUp() {
+        // 20 rows of 30 seats, the first 3 rows are VIP, aisles after seat 10 and 20 of each row
+        SeatType[] rowTypes = new SeatType[ROWS];
+        Arrays.fill(rowTypes, SeatType.REGULAR);
+        Arrays.fill(rowTypes, 0, 3, SeatType.VIP);
+        layout = SeatLayout.byRow(ROWS, COLUMNS, rowTypes, 9, 19);
+        seatMap = new SeatMap(layout);
+    }
+
+    @Test
+    public void testLayout() {
+        Assert.assertEquals(SEAT_COUNT, layout.getCapacity());
+        Assert.assertEquals(90, layout.getSeatCount(SeatType.VIP));
+        Assert.assertEquals(0, layout.getSeatCount(SeatType.PREMIUM));
+        Assert.assertEquals(1, layout.getFirstSeat(SeatType.VIP));
+        Assert.assertEquals(90, layout.getLastSeat(SeatType.VIP));
+        Assert.assertEquals(SeatType.REGULAR, layout.getSeatType(91));
+
+        Assert.assertEquals(1, layout.getRow(31));
+        Assert.assertEquals(0, layout.getColumn(31));
+        Assert.assertEquals(31, layout.getSeatNumber(1, 0));
+        Assert.assertTrue(layout.hasAisleAfter(9));
+        Assert.assertFalse(layout.hasAisleAfter(10));
+        Assert.assertFalse(layout.hasAisleAfter(COLUMNS - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLayoutRejectsWideRows() {
+        SeatLayout.byRow(1, SeatLayout.MAX_COLUMNS + 1, new SeatType[] { SeatType.REGULAR });
+    }
+
+    @Test
+    public void testReserveAndRelease() {
+        Assert.assertTrue(seatMap.reserve(30));
+        Assert.assertTrue(seatMap.reserve(31)); // First seat of the second row
+        Assert.assertFalse(seatMap.reserve(30));
+
+        Assert.assertEquals(SEAT_COUNT - 2, seatMap.getFreeSeats());
+        Assert.assertEquals(88, seatMap.getFreeSeats(SeatType.VIP));
+
+        Assert.assertTrue(seatMap.release(30));
+        Assert.assertFalse(seatMap.release(30));
+        Assert.assertArrayEquals(new int[] { 31 }, seatMap.getTakenSeatNumbers());
+    }
+
+    @Test
+    public void testFindBestBlockPrefersMiddle() {
+        // Regular rows are 3 to 19, so the middle row is 11; center of a row is between column 14 and 15
+        int[] seats = seatMap.findBestBlock(2, SeatType.REGULAR);
+        Assert.assertArrayEquals(new int[] { 345, 346 }, seats);
+
+        // A VIP group of 4 lands in the middle VIP row (row 1)
+        seats = seatMap.findBestBlock(4, SeatType.VIP);
+        Assert.assertEquals(1, layout.getRow(seats[0]));
+        Assert.assertEquals(4, seats.length);
+    }
+
+    @Test
+    public void testFindBestBlockDoesNotCrossAisle() {
+        // Leave only seats 9-12 free in VIP row 0: aisle between seat 10 and 11
+        for (int seatNumber = 1; seatNumber <= 90; seatNumber++) {
+            if (seatNumber < 9 || seatNumber > 12) {
+                seatMap.reserve(seatNumber);
+            }
+        }
+        Assert.assertEquals(2, seatMap.getLongestFreeRun(0, SeatType.VIP));
+        Assert.assertEquals(0, seatMap.findBestBlock(3, SeatType.VIP).length);
+        Assert.assertEquals(2, seatMap.findBestBlock(2, SeatType.VIP).length);
+    }
+
+    @Test
+    public void testReserveBlockIsAllOrNothing() {
+        seatMap.reserve(5);
+        Assert.assertFalse(seatMap.reserveBlock(0, 0b11110L)); // Seats 2-5, seat 5 already taken
+        Assert.assertEquals(SEAT_COUNT - 1, seatMap.getFreeSeats());
+
+        Assert.assertTrue(seatMap.reserveBlock(0, 0b01110L)); // Seats 2-4
+        Assert.assertEquals(SEAT_COUNT - 4, seatMap.getFreeSeats());
+        Assert.assertEquals(86, seatMap.getFreeSeats(SeatType.VIP));
+    }
+
+    @Test
+    public void testReleaseAllFreesOnlyTakenSeats() {
+        seatMap.reserveBlock(0, 0b111L); // Seats 1-3
+        seatMap.reserve(31);
+        seatMap.reserve(32);
+
+        // Seat 40 is free and seat 0 does not exist, both are skipped
+        Assert.assertEquals(3, seatMap.releaseAll(new int[] { 1, 3, 31, 31, 40, 0 }));
+        Assert.assertEquals(SEAT_COUNT - 2, seatMap.getFreeSeats());
+        Assert.assertTrue(seatMap.isTaken(2));
+        Assert.assertTrue(seatMap.isTaken(32));
+        Assert.assertFalse(seatMap.isTaken(31));
+        Assert.assertEquals(0, seatMap.releaseBlock(0, 0b101L));
+    }
+
+    @Test
+    public void testConcurrentReservationNeverOversells() throws InterruptedException {
+        int threadCount = 200;
+        AtomicIntegerArray winners = new AtomicIntegerArray(SEAT_COUNT + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[threadCount];
+
+        // Every thread races for every seat, starting at a different offset
+        for (int t = 0; t < threadCount; t++) {
+            int offset = t * 7;
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < SEAT_COUNT; i++) {
+                    int seatNumber = (offset + i) % SEAT_COUNT + 1;
+                    if (seatMap.reserve(seatNumber)) {
+                        winners.incrementAndGet(seatNumber);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int seatNumber = 1; seatNumber <= SEAT_COUNT; seatNumber++) {
+            Assert.assertEquals("Seat " + seatNumber + " sold more than once", 1, winners.get(seatNumber));
+        }
+        Assert.assertTrue(seatMap.isSoldOut());
+        Assert.assertEquals(0, seatMap.getFreeSeats(SeatType.VIP));
+        Assert.assertEquals(0, seatMap.getFreeSeats(SeatType.REGULAR));
+        Assert.assertEquals(SEAT_COUNT, seatMap.getTakenSeatNumbers().length);
+    }
+}
@@ -9,10 +9,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import src.EntityRegistry;
 import src.Cinema;
+import src.SeatLayout;
+import src.SeatType;
 import src.Showtime;
 
 public class ShowtimeTest {
@@ -21,10 +25,16 @@ public class ShowtimeTest {
     @Before
     public void setUp() {
         Showtime.resetShowtimeCount();
+        EntityRegistry.useClassicLimit(Showtime.class);
         // Initialize a Showtime instance before each test case
         showtime = new Showtime(1, "18:00");
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testShowtimeInitialization() {
         Assert.assertEquals(1, showtime.getShowtimeId());
@@ -99,6 +109,61 @@ public class ShowtimeTest {
         Assert.assertEquals(28, showtime.getAvailableSeats()); // Two seats should be taken
     }
 
+    @Test
+    public void testAvailableSeatsBySeatType() {
+        showtime.selectSeat(3, "VIP");
+        showtime.selectSeat(12, "Premium");
+        showtime.selectSeat(13, "Premium");
+
+        Assert.assertEquals(9, showtime.getAvailableSeats(SeatType.VIP));
+        Assert.assertEquals(8, showtime.getAvailableSeats(SeatType.PREMIUM));
+        Assert.assertEquals(10, showtime.getAvailableSeats(SeatType.REGULAR));
+
+        // Releasing a seat puts it back into its band
+        showtime.releaseSeat(12);
+        Assert.assertEquals(9, showtime.getAvailableSeats(SeatType.PREMIUM));
+        Assert.assertArrayEquals(new int[] { 3, 13 }, showtime.getSeatMap().getTakenSeatNumbers());
+    }
+
+    @Test
+    public void testSoldOut() {
+        for (int seatNumber = 1; seatNumber <= 30; seatNumber++) {
+            Assert.assertFalse(showtime.isSoldOut());
+            showtime.getSeatMap().reserve(seatNumber);
+        }
+        Assert.assertTrue(showtime.isSoldOut());
+        Assert.assertEquals(0, showtime.getAvailableSeats());
+    }
+
+    @Test
+    public void testSelectSeatWithCustomLayout() {
+        SeatLayout layout = SeatLayout.byRow(2, 4, new SeatType[] { SeatType.PREMIUM, SeatType.REGULAR });
+        Showtime smallShowtime = new Showtime(2, "20:00", layout);
+
+        Assert.assertEquals(8, smallShowtime.getAvailableSeats());
+        Assert.assertFalse(smallShowtime.selectSeat(9, "Regular")); // Outside the layout
+        Assert.assertFalse(smallShowtime.selectSeat(5, "Premium")); // Seat 5 starts the Regular row
+        Assert.assertTrue(smallShowtime.selectSeat(5, SeatType.REGULAR));
+        Assert.assertEquals(3, smallShowtime.getAvailableSeats(SeatType.REGULAR));
+        Assert.assertSame(layout, smallShowtime.getLayout());
+    }
+
+    @Test
+    public void testReserveBestAvailable() {
+        // Standard layout: Premium seats 11-20 with an aisle after seat 15
+        int[] group = showtime.reserveBestAvailable(3, SeatType.PREMIUM);
+        Assert.assertEquals(3, group.length);
+        for (int seatNumber : group) {
+            Assert.assertTrue(showtime.isSeatTaken(seatNumber, "Premium"));
+        }
+        Assert.assertEquals(7, showtime.getAvailableSeats(SeatType.PREMIUM));
+
+        // Only 2 seats left on each side of the aisle is not enough for 3
+        showtime.reserveBestAvailable(3, SeatType.PREMIUM);
+        Assert.assertEquals(0, showtime.findBestAvailable(3, SeatType.PREMIUM).length);
+        Assert.assertEquals(0, showtime.reserveBestAvailable(3, SeatType.PREMIUM).length);
+    }
+
     @Test
     public void testShowtimeCreationLimit() {
         List<Showtime> showtimes = new ArrayList<>();
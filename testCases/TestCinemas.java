@@ -0,0 +1,52 @@
+package testCases;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import src.Cinema;
+import src.FoodAndDrink;
+import src.Movie;
+import src.SeatLayout;
+import src.SeatType;
+import src.Showtime;
+import src.Theater;
+import src.Ticket;
+
+/**
+ * Builds the small cinemas the booking tests run against: one theater showing
+ * one movie, with only the seats and menu items a test asks for.
+ */
+final class TestCinemas {
+    private TestCinemas() {
+    }
+
+    // Showtime 1 at 08:00 PM whose first vipRows rows are VIP and the rest Regular
+    static Showtime showtime(int rows, int columns, int vipRows) {
+        SeatType[] rowTypes = new SeatType[rows];
+        Arrays.fill(rowTypes, SeatType.REGULAR);
+        Arrays.fill(rowTypes, 0, vipRows, SeatType.VIP);
+        return new Showtime(1, "08:00 PM", SeatLayout.byRow(rows, columns, rowTypes));
+    }
+
+    // Theater 1 showing movie 1 at the showtime
+    static Cinema cinema(Showtime showtime, FoodAndDrink... menu) {
+        Movie movie = new Movie(1, "Movie A", "Action");
+        movie.addShowtime(showtime);
+        return cinema(movie, showtime.getLayout(), menu);
+    }
+
+    // Theater 1 showing the movie on a screen with the given layout
+    static Cinema cinema(Movie movie, SeatLayout layout, FoodAndDrink... menu) {
+        List<Movie> movies = new ArrayList<>();
+        movies.add(movie);
+        List<Theater> theaters = new ArrayList<>();
+        theaters.add(new Theater(1, "123 Main St", movies, new ArrayList<>(Arrays.asList(menu)), layout));
+        return new Cinema(theaters);
+    }
+
+    // Free the ticket IDs a test reserved so later tests can use them again
+    static void clearTickets() {
+        Ticket.getRegistry().clear();
+    }
+}
@@ -4,6 +4,7 @@
 package testCases;
 
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -12,6 +13,7 @@ import static org.junit.Assert.assertNotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import src.EntityRegistry;
 import src.Movie;
 import src.Theater;
 import src.MovieNotFoundException;
@@ -27,6 +29,7 @@ public class TheaterTest {
     public void setUp() {
         // Reset instance count
         Theater.resetTheaterCount();
+        EntityRegistry.useClassicLimit(Theater.class);
 
         // Initialize some movies
         movie1 = new Movie(1, "Inception", "Sci-Fi");
@@ -41,6 +44,11 @@ public class TheaterTest {
         theater = new Theater(101, "123 Main St", movies);
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testTheaterInitialization() {
         Assert.assertEquals(101, theater.getTheaterId());
@@ -0,0 +1,73 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.TicketIdAllocatorTest
+package testCases;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import src.TicketIdAllocator;
+
+public class TicketIdAllocatorTest {
+
+    @Test
+    public void testSequentialIdsOnOneThread() {
+        TicketIdAllocator allocator = new TicketIdAllocator();
+        Assert.assertEquals(1, allocator.nextId());
+        Assert.assertEquals(2, allocator.nextId());
+        Assert.assertEquals(3, allocator.nextId());
+    }
+
+    @Test
+    public void testConcurrentThreadsNeverShareIds() throws InterruptedException {
+        TicketIdAllocator allocator = new TicketIdAllocator(0, 1, 50, null);
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[16];
+
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    Assert.assertTrue(ids.add(allocator.nextId()));
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(16 * 5_000, ids.size());
+    }
+
+    @Test
+    public void testNodesUseSeparateBlocks() {
+        TicketIdAllocator node0 = new TicketIdAllocator(0, 2, 10, null);
+        TicketIdAllocator node1 = new TicketIdAllocator(1, 2, 10, null);
+
+        Assert.assertEquals(1, node0.nextId());
+        Assert.assertEquals(11, node1.nextId());
+        for (int i = 0; i < 9; i++) {
+            node0.nextId();
+        }
+        Assert.assertEquals(21, node0.nextId()); // Skips block 11-20 owned by node 1
+    }
+
+    @Test
+    public void testRestartContinuesAfterLastBlock() throws IOException {
+        Path stateFile = Files.createTempDirectory("ticket-ids").resolve("node-0");
+        TicketIdAllocator beforeRestart = new TicketIdAllocator(0, 1, 100, stateFile);
+        int lastId = 0;
+        for (int i = 0; i < 150; i++) {
+            lastId = beforeRestart.nextId();
+        }
+        Assert.assertEquals(150, lastId);
+
+        TicketIdAllocator afterRestart = new TicketIdAllocator(0, 1, 100, stateFile);
+        Assert.assertEquals(201, afterRestart.nextId());
+    }
+}
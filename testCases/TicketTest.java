@@ -8,8 +8,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
 import org.junit.Assert;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import src.EntityRegistry;
 import src.Ticket;
 import src.ReservationException;
 
@@ -22,12 +24,18 @@ public class TicketTest {
     @Before
     public void setUp() {
         Ticket.resetTicketCount();
+        EntityRegistry.useClassicLimit(Ticket.class);
 
         // Initialize a ticket before each test case
         ticket = new Ticket("Economy", "Adult", 12, 100.0);
 
     }
 
+    @After
+    public void tearDown() {
+        EntityRegistry.resetLimits();
+    }
+
     @Test
     public void testTicketInitialization() {
         Assert.assertEquals("Economy", ticket.getSeatType());
@@ -92,6 +100,20 @@ public class TicketTest {
         Assert.assertFalse(Ticket.ticketIdExists(ticketId + 1)); // Non-existent ID
     }
 
+    @Test
+    public void testChangeIdOfReservedTicket() {
+        ticket.reserveTicket(ticket);
+        int oldId = ticket.getTicketId();
+
+        ticket.setTicketId(oldId + 1000);
+        Assert.assertNull(Ticket.findTicketById(oldId));
+        Assert.assertEquals(ticket, Ticket.findTicketById(oldId + 1000));
+        Assert.assertTrue(ticket.isReserved());
+
+        ticket.cancelReservation(ticket);
+        Assert.assertNull(Ticket.findTicketById(oldId + 1000));
+    }
+
     @Test
     public void testTicketCreationLimit() {
         List<Ticket> tickets = new ArrayList<>();
@@ -0,0 +1,213 @@
+// Use VS Code Terminal to run
+// javac -cp "lib/*;." src/*.java testCases/*.java
+// java -cp "lib/*;.;src;testCases" org.junit.runner.JUnitCore testCases.TransactionLedgerTest
+package testCases;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import src.AgePricing;
+import src.Customer;
+import src.Movie;
+import src.SeatType;
+import src.Showtime;
+import src.Ticket;
+import src.Transaction;
+import src.TransactionLedger;
+
+public class TransactionLedgerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private TransactionLedger ledger;
+
+    @Before
+    public void setUp() throws IOException {
+        file = folder.getRoot().toPath().resolve("ledger");
+        ledger = new TransactionLedger(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Transaction.setLedger(null);
+        ledger.close();
+    }
+
+    private static TransactionLedger.Entry sale(int ticketId) {
+        return new TransactionLedger.Entry(TransactionLedger.SALE, 1_000L + ticketId, ticketId, 2, 7, 3, 12,
+                SeatType.PREMIUM, AgePricing.CHILD, 2_050, Customer.toPhoneKey("0123456789"),
+                TransactionLedger.CARD_PAYMENT);
+    }
+
+    @Test
+    public void testAppendAllForcesOnce() {
+        List<TransactionLedger.Entry> refunds = new ArrayList<>();
+        for (int ticketId = 1; ticketId <= 500; ticketId++) {
+            refunds.add(sale(ticketId));
+        }
+        long forces = ledger.getForceCount();
+        long end = ledger.appendAll(refunds);
+
+        Assert.assertEquals(TransactionLedger.HEADER_SIZE + 500L * TransactionLedger.RECORD_SIZE, end);
+        Assert.assertEquals(forces + 1, ledger.getForceCount());
+        List<TransactionLedger.Entry> entries = ledger.readAll();
+        Assert.assertEquals(500, entries.size());
+        Assert.assertEquals(500, entries.get(499).getTicketId());
+    }
+
+    @Test
+    public void testAppendAndReadBack() {
+        long end = ledger.append(sale(1));
+        ledger.append(sale(2));
+        Assert.assertEquals(TransactionLedger.HEADER_SIZE + TransactionLedger.RECORD_SIZE, end);
+
+        List<TransactionLedger.Entry> entries = ledger.readAll();
+        Assert.assertEquals(2, entries.size());
+        TransactionLedger.Entry first = entries.get(0);
+        Assert.assertEquals(TransactionLedger.SALE, first.getType());
+        Assert.assertEquals(1, first.getTicketId());
+        Assert.assertEquals(2, first.getTheaterId());
+        Assert.assertEquals(7, first.getShowtimeId());
+        Assert.assertEquals(3, first.getMovieId());
+        Assert.assertEquals(12, first.getSeatNumber());
+        Assert.assertEquals(SeatType.PREMIUM, first.getSeatType());
+        Assert.assertEquals(AgePricing.CHILD, first.getAgePricing());
+        Assert.assertTrue(first.isCardPayment());
+        Assert.assertFalse(first.isSeatReleased());
+        Assert.assertEquals(2_050, first.getAmountCents());
+        Assert.assertEquals(10_123_456_789L, first.getPhoneKey());
+
+        Assert.assertEquals(1, ledger.readFrom(end).size());
+    }
+
+    @Test
+    public void testReopenKeepsEntriesAndDropsTornRecord() throws IOException {
+        ledger.append(sale(1));
+        ledger.append(sale(2));
+        ledger.close();
+
+        // Simulate a crash in the middle of writing a third record
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(raw.length());
+            raw.write(new byte[TransactionLedger.RECORD_SIZE - 5]);
+        }
+
+        ledger = new TransactionLedger(file);
+        Assert.assertEquals(2, ledger.readAll().size());
+        ledger.append(sale(3));
+        Assert.assertEquals(3, ledger.readAll().get(2).getTicketId());
+    }
+
+    @Test
+    public void testCorruptRecordEndsTheLedger() throws IOException {
+        ledger.append(sale(1));
+        ledger.append(sale(2));
+        ledger.close();
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(TransactionLedger.HEADER_SIZE + TransactionLedger.RECORD_SIZE + 3);
+            raw.write(0x7F); // Flip bytes in the second record
+        }
+
+        ledger = new TransactionLedger(file);
+        Assert.assertEquals(1, ledger.readAll().size());
+    }
+
+    @Test
+    public void testCorruptMiddleRecordIsNotTruncated() throws IOException {
+        ledger.append(sale(1));
+        ledger.append(sale(2));
+        ledger.append(sale(3));
+        ledger.close();
+        long size = Files.size(file);
+
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(TransactionLedger.HEADER_SIZE + TransactionLedger.RECORD_SIZE + 3);
+            raw.write(0x7F); // Flip bytes in the second record, the third is still valid
+        }
+
+        IOException error = Assert.assertThrows(IOException.class, () -> new TransactionLedger(file));
+        Assert.assertTrue(error.getMessage(), error.getMessage().contains("corrupt"));
+        Assert.assertEquals(size, Files.size(file)); // Nothing was cut off
+    }
+
+    @Test
+    public void testConcurrentAppendsShareForces() throws InterruptedException {
+        int threadCount = 16;
+        int perThread = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            int base = t * perThread;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 1; i <= perThread; i++) {
+                    ledger.append(sale(base + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        List<TransactionLedger.Entry> entries = ledger.readAll();
+        Assert.assertEquals(threadCount * perThread, entries.size());
+        boolean[] seen = new boolean[threadCount * perThread + 1];
+        for (TransactionLedger.Entry entry : entries) {
+            Assert.assertFalse("Ticket " + entry.getTicketId() + " written twice", seen[entry.getTicketId()]);
+            seen[entry.getTicketId()] = true;
+        }
+        Assert.assertTrue(ledger.getForceCount() <= threadCount * perThread);
+    }
+
+    @Test
+    public void testTransactionWritesSaleAndRefund() {
+        Customer.resetCustomerCount();
+        Movie.resetMovieCount();
+        Showtime.resetShowtimeCount();
+        Ticket.resetTicketCount();
+        Transaction.resetTransactionCount();
+        Transaction.setLedger(ledger);
+
+        Movie movie = new Movie(4, "Movie D", "Drama");
+        Showtime showtime = new Showtime(9, "10:00 AM");
+        Ticket ticket = new Ticket("VIP", "Adult", 2, 30.0);
+        Customer customer = new Customer("Jane", "jane@example.com", "5551234567");
+        Transaction transaction = new Transaction();
+        transaction.setTransactionType("Credit Card");
+        transaction.processTransaction(customer, movie, showtime, ticket, new ArrayList<>());
+        transaction.processRefund();
+
+        List<TransactionLedger.Entry> entries = ledger.readAll();
+        Assert.assertEquals(2, entries.size());
+        Assert.assertEquals(TransactionLedger.SALE, entries.get(0).getType());
+        Assert.assertEquals(3_000, entries.get(0).getAmountCents());
+        Assert.assertEquals(SeatType.VIP, entries.get(0).getSeatType());
+        Assert.assertEquals(Customer.toPhoneKey("5551234567"), entries.get(0).getPhoneKey());
+        Assert.assertEquals(AgePricing.ADULT, entries.get(0).getAgePricing());
+        Assert.assertTrue(entries.get(0).isCardPayment());
+        Assert.assertTrue(entries.get(1).isRefund());
+        Assert.assertFalse(entries.get(1).isSeatReleased()); // The kiosk keeps the seat taken
+        Assert.assertEquals(ticket.getTicketId(), entries.get(1).getTicketId());
+    }
+}
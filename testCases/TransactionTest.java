@@ -27,6 +27,7 @@ public class TransactionTest {
     public void setUp() {
         // Reset the transaction count before each test
         Transaction.resetTransactionCount(); // Ensure this method exists in your Transaction class
+        EntityRegistry.useClassicLimit(Transaction.class);
 
         // Create mock data for testing
         movie = new Movie(1, "Movie A", "Action");
@@ -44,7 +45,7 @@ public class TransactionTest {
 
     @After
     public void tearDown() {
-        // Optionally, perform cleanup if necessary
+        EntityRegistry.resetLimits();
     }
 
     @Test